@@ -4,6 +4,7 @@ import com.jork.script.Ectofuntus.config.EctoConfig;
 import com.jork.script.Ectofuntus.tasks.*;
 import com.jork.script.Ectofuntus.ui.ScriptOptions;
 import com.jork.utils.ExceptionUtils;
+import com.jork.utils.LogRateLimit;
 import com.jork.utils.ScriptLogger;
 import com.jork.utils.metrics.AbstractMetricsScript;
 import com.jork.utils.metrics.core.MetricType;
@@ -75,7 +76,7 @@ public class Ectofuntus extends AbstractMetricsScript {
     private volatile boolean xpFailsafeEnabled = true;
     private volatile int xpFailsafeTimeoutMinutes = 5;
     private volatile boolean xpFailsafePauseDuringLogout = true;
-    private long lastFailsafeWarningTime = 0;
+    private static final LogRateLimit FAILSAFE_WARNING_LOG = LogRateLimit.perInterval(30_000);
 
     // ───────────────────────────────────────────────────────────────────────────
     // Metrics Tracking
@@ -205,12 +206,8 @@ public class Ectofuntus extends AbstractMetricsScript {
             // Warn when approaching timeout
             long warningThreshold = timeoutMillis - 60000;
             if (timeSinceXP > warningThreshold && timeSinceXP < timeoutMillis) {
-                long currentTime = System.currentTimeMillis();
-                if (currentTime - lastFailsafeWarningTime > 30000) {
-                    long secondsLeft = (timeoutMillis - timeSinceXP) / 1000;
-                    ScriptLogger.warning(this, "XP Failsafe: " + secondsLeft + "s until auto-stop");
-                    lastFailsafeWarningTime = currentTime;
-                }
+                long secondsLeft = (timeoutMillis - timeSinceXP) / 1000;
+                ScriptLogger.warning(this, FAILSAFE_WARNING_LOG, "XP Failsafe: %ds until auto-stop", secondsLeft);
             }
         }
 
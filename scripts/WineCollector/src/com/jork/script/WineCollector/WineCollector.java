@@ -13,6 +13,8 @@ import com.jork.utils.metrics.AbstractMetricsScript;
 import com.jork.utils.metrics.core.MetricType;
 import com.jork.utils.ScriptLogger;
 import com.jork.utils.chat.ChatBoxListener;
+import com.jork.utils.chat.ChatEventBus;
+import com.jork.utils.chat.ChatEventType;
 import com.jork.script.WineCollector.tasks.*;
 import com.jork.script.WineCollector.config.WineConfig;
 import com.osmb.api.item.ItemGroupResult;
@@ -36,6 +38,7 @@ public class WineCollector extends AbstractMetricsScript {
 
     private TaskManager taskManager;
     private ChatBoxListener chatListener;
+    private ChatEventBus chatEvents;
     private int wineCount = 0;
     private boolean shouldBank = false;
     private volatile boolean chatHopTriggered = false;
@@ -110,7 +113,7 @@ public class WineCollector extends AbstractMetricsScript {
         taskManager.addTasks(navigateTask, bankTask, collectTask);
 
         // Initialize chatbox listener for hop triggers
-        // Register multiple patterns for OCR error tolerance
+        // Register fuzzy patterns for OCR error tolerance
         chatListener = new ChatBoxListener(this)
             .monitorTabs(ChatboxFilterTab.GAME, ChatboxFilterTab.ALL);
 
@@ -128,16 +131,19 @@ public class WineCollector extends AbstractMetricsScript {
 
         for (String trigger : WineConfig.CHATBOX_HOP_TRIGGERS) {
             final String pattern = trigger; // Capture for lambda
-            chatListener.on(pattern, msg -> {
+            chatListener.onFuzzy(pattern, WineConfig.CHATBOX_HOP_MAX_EDITS, msg -> {
                 ScriptLogger.warning(this, "Chat hop triggered ['" + pattern + "']: " + msg.getRaw());
                 chatHopTriggered = true;
             });
         }
 
-        chatListener.on("space to hold that item", msg -> {
-            ScriptLogger.warning(this, "Inventory full message detected via chat, switching to banking.");
-            shouldBank = true;
-        });
+        // Inventory-full messages are queued and applied in poll(), on the script thread
+        chatEvents = new ChatEventBus(chatListener)
+            .register(ChatEventType.INVENTORY_FULL)
+            .subscribe(ChatEventType.INVENTORY_FULL, event -> {
+                ScriptLogger.warning(this, "Inventory full message detected via chat, switching to banking.");
+                shouldBank = true;
+            });
 
         registerMetric("Wines Collected", () -> wineCount, MetricType.NUMBER);
         registerMetric("Wines/Hour", () -> wineCount, MetricType.RATE, "%,d/hr");
@@ -167,6 +173,7 @@ public class WineCollector extends AbstractMetricsScript {
             initialiseIfReady();
             return WineConfig.POLL_DELAY_SHORT;
         }
+        chatEvents.dispatch();
         return taskManager.executeNextTask();
     }
 
@@ -261,6 +268,9 @@ public class WineCollector extends AbstractMetricsScript {
             chatListener.clearHandlers();
             chatListener = null;
         }
+        if (chatEvents != null) {
+            chatEvents.clear();
+        }
         settingsConfirmed = false;
         initialised = false;
         taskManager = null;
@@ -79,15 +79,15 @@ public class WineConfig {
     public static final int POLL_DELAY_WORLD_HOP = 3000;
 
     // Chatbox hop trigger configuration
-    // Multiple patterns for robust OCR error tolerance
     // Full message: "You're a Group Ironman, so you can't take items that non-group members have dropped."
-    // Using multiple distinctive substrings increases reliability even with OCR errors
+    // Using multiple distinctive substrings increases reliability if the message wraps across lines;
+    // each is matched fuzzily, so OCR misreads don't need hand-written variants
     public static final String[] CHATBOX_HOP_TRIGGERS = {
         "group ironman",        // Most distinctive phrase
-        "can't take items",     // Secondary match
-        "non-group members",    // Tertiary match
-        "can't take item"       // Handles potential plural/singular OCR errors
+        "can't take items",     // Secondary match (also covers "can't take item")
+        "non-group members"     // Tertiary match
     };
+    public static final int CHATBOX_HOP_MAX_EDITS = 2; // Tolerated OCR character errors per trigger
 
     // Debug configuration
     // Set to true to enable verbose chatbox message logging
@@ -106,6 +106,11 @@ public class CollectTask implements Task {
             return false;
         }
 
+        // Pickup may be answered by a "too late" or "no space" message - read chat every frame
+        if (wineEntryFound[0] && script.getChatListener() != null) {
+            script.getChatListener().expectMessage();
+        }
+
         return wineEntryFound[0];
     }
 
@@ -4,8 +4,12 @@ import com.jork.script.jorkHunter.config.HuntingConfig;
 import com.jork.script.jorkHunter.tasks.DropTask;
 import com.jork.script.jorkHunter.tasks.TrapTask;
 import com.jork.script.jorkHunter.state.TrapStateManager;
+import com.jork.script.jorkHunter.interaction.InteractionTelemetry;
+import com.jork.script.jorkHunter.interaction.TrapPixelDetector;
 
 import com.jork.script.jorkHunter.trap.TrapType;
+import com.jork.script.jorkHunter.tools.SignatureCapture;
+import com.jork.script.jorkHunter.replay.FrameRecorder;
 import com.jork.script.jorkHunter.utils.tasks.TaskManager;
 import com.jork.script.jorkHunter.utils.placement.TrapPlacementStrategy;
 import com.jork.script.jorkHunter.utils.placement.NoCardinalStrategy;
@@ -27,7 +31,12 @@ import com.osmb.api.ui.component.ComponentContainerStatus;
 import com.jork.script.jorkHunter.javafx.ScriptOptions;
 import com.jork.utils.tilepicker.EnhancedTilePickerPanel;
 import com.jork.utils.ExceptionUtils;
+import com.jork.utils.LogRateLimit;
 import com.jork.utils.ScriptLogger;
+import com.jork.utils.chat.ChatBoxListener;
+import com.jork.utils.chat.ChatEvent;
+import com.jork.utils.chat.ChatEventBus;
+import com.jork.utils.chat.ChatEventType;
 import com.jork.utils.metrics.AbstractMetricsScript;
 import com.jork.utils.metrics.core.MetricType;
 import com.jork.utils.metrics.display.MetricsPanelConfig;
@@ -40,6 +49,8 @@ import com.osmb.api.shape.Rectangle;
 
 import com.osmb.api.utils.RandomUtils;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -52,6 +63,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 public class JorkHunter extends AbstractMetricsScript {
 
     private final TaskManager taskManager;
+    private final TrapPixelDetector pixelDetector; // Shared so LUT decisions are audited across all callers
     private HuntingConfig huntingConfig; // Configuration for this variant
     private TrapTask huntTask; // Reference to access TrapStateManager
     private int maxTraps = 1; // Default to 1 trap, will be updated based on Hunter level
@@ -72,6 +84,7 @@ public class JorkHunter extends AbstractMetricsScript {
     // and just clear existing ones before a break.
     private boolean isDrainingForBreak = false;
     private boolean zoomSet = false;
+    private boolean detectionCalibrated = false; // Reference tile area measured at the zoom we set
     
     // --- Expedite Collection Settings ----------------------------------------
     private boolean expediteCollectionEnabled = false;  // Whether expedite collection is enabled
@@ -82,11 +95,30 @@ public class JorkHunter extends AbstractMetricsScript {
     private volatile boolean xpFailsafeEnabled = false;  // Whether XP failsafe is enabled
     private volatile int xpFailsafeTimeoutMinutes = 10;  // Minutes without XP before stopping
     private volatile boolean xpFailsafePauseDuringLogout = true;  // Whether to pause during logout
-    private long lastFailsafeWarningTime = 0;  // Track when we last warned about failsafe
+    private static final LogRateLimit FAILSAFE_WARNING_LOG = LogRateLimit.perInterval(30_000);  // Warn every 30 seconds
     
     // --- Trap Prioritization Settings ----------------------------------------
     private volatile boolean distanceBasedPrioritization = true;  // Permanently enabled for efficiency
     
+    // --- Pixel Signature Capture (tooling) ------------------------------------
+    private volatile boolean signatureCaptureEnabled = false;  // Label frames for SignatureFitter while hunting
+    private SignatureCapture signatureCapture = null;
+    
+    // --- Frame Recording (replay tooling) -------------------------------------
+    public static final String RECORDINGS_DIR = ".osmb/jorkHunter/recordings"; // Relative to user.home
+    private volatile boolean frameRecordingEnabled = false;  // Set from the options window at start
+    private FrameRecorder frameRecorder = null;
+    
+    // --- Logging --------------------------------------------------------------
+    public static final String LOGS_DIR = ".osmb/jorkHunter/logs"; // Relative to user.home
+    private static final int LOG_BUFFER_CAPACITY = 4096;
+    private volatile boolean binaryLogEnabled = false;  // Binary structured log, from the options window
+    private boolean binaryLogStarted = false;
+    
+    // --- Chat Events ----------------------------------------------------------
+    private volatile ChatBoxListener chatListener = null;  // Updated in onNewFrame, events dispatched in poll
+    private ChatEventBus chatEvents = null;
+    
     // --- Custom Anchor State Management --------------------------------------
     private volatile boolean requiresCustomAnchor = false;
     private volatile boolean customAnchorSelected = false;
@@ -102,6 +134,7 @@ public class JorkHunter extends AbstractMetricsScript {
     public JorkHunter(Object scriptCore) {
         super(scriptCore);
         this.taskManager = new TaskManager(this);
+        this.pixelDetector = new TrapPixelDetector(this);
     }
 
     @Override
@@ -109,6 +142,10 @@ public class JorkHunter extends AbstractMetricsScript {
         // Load configuration for this variant
         huntingConfig = HuntingConfig.load(this);
         
+        // Log from a background writer so error bursts and drain mode don't stall the poll loop.
+        // The optional on-disk copy is binary (template + args) - see the "binaryLog" option.
+        ScriptLogger.startAsyncSink(LOG_BUFFER_CAPACITY, null);
+        
         // Log script startup with variant name
         ScriptLogger.startup(this, "1.0", "jork", huntingConfig.getVariantName());
 
@@ -129,6 +166,10 @@ public class JorkHunter extends AbstractMetricsScript {
                 defaultOptions.put("requiresCustomAnchor", true);
                 // Logging/expedite defaults to mirror UI
                 defaultOptions.put("debugLogging", false);
+                defaultOptions.put("debugComponents", "");
+                defaultOptions.put("signatureCapture", false);
+                defaultOptions.put("frameRecording", false);
+                defaultOptions.put("binaryLog", false);
                 defaultOptions.put("expediteCollection", false);
                 defaultOptions.put("expediteChance", 50);
                 // Failsafe defaults to mirror UI (enabled, 5 minutes)
@@ -168,6 +209,17 @@ public class JorkHunter extends AbstractMetricsScript {
             if (dbgObj instanceof Boolean) {
                 com.jork.utils.ScriptLogger.setDebugEnabled((Boolean) dbgObj);
             }
+            // Per-component debug (e.g. "ChatBoxListener, com.jork.utils.chat") without global debug noise
+            Object componentsObj = options.get("debugComponents");
+            if (componentsObj instanceof String) {
+                ScriptLogger.clearComponentLevels();
+                for (String component : ((String) componentsObj).split(",")) {
+                    ScriptLogger.setComponentLevel(component, ScriptLogger.Level.DEBUG);
+                }
+            }
+            this.signatureCaptureEnabled = Boolean.TRUE.equals(options.get("signatureCapture"));
+            this.frameRecordingEnabled = Boolean.TRUE.equals(options.get("frameRecording"));
+            this.binaryLogEnabled = Boolean.TRUE.equals(options.get("binaryLog"));
             // Distance-based prioritization is now permanently enabled
             // Keeping parsing code commented for potential future use:
             // Object distPriorObj = options.get("distanceBasedPrioritization");
@@ -247,6 +299,15 @@ public class JorkHunter extends AbstractMetricsScript {
         // Initialize metrics
         initializeMetrics();
 
+        // Chat messages confirm collapses and level-ups before pixels or the skill tab do
+        // Detail output is gated by the ChatBoxListener component level (global or "Debug only")
+        ChatBoxListener listener = new ChatBoxListener(this);
+        chatEvents = new ChatEventBus(listener)
+            .register(ChatEventType.TRAP_COLLAPSED, ChatEventType.LEVEL_UP)
+            .subscribe(ChatEventType.TRAP_COLLAPSED, event -> onTrapCollapseMessage())
+            .subscribe(ChatEventType.LEVEL_UP, this::onLevelUpMessage);
+        chatListener = listener;
+
         ScriptLogger.info(this, "Initialisation complete. Starting tasks…");
         initialised = true;
     }
@@ -507,6 +568,30 @@ public class JorkHunter extends AbstractMetricsScript {
         );
 
         // Add other hunter-specific tasks here in the future
+        
+        // Wrap the live detection input so each circle scan is written together with the screen it was read from
+        TrapStateManager trapManager = huntTask.getTrapStateManager();
+        if (frameRecorder != null) {
+            frameRecorder.setRecording(false); // Tasks are being rebuilt - close the old file
+        }
+        frameRecorder = new FrameRecorder(this, trapManager.getDetectionInput(), trapType,
+            new File(System.getProperty("user.home"), RECORDINGS_DIR));
+        trapManager.setDetectionInput(frameRecorder);
+        frameRecorder.setRecording(frameRecordingEnabled);
+        
+        if (signatureCaptureEnabled && signatureCapture == null) {
+            File captureDir = new File(System.getProperty("user.home"), ".osmb/jorkHunter/signatures");
+            signatureCapture = new SignatureCapture(this, trapType, captureDir);
+            ScriptLogger.info(this, "Signature capture enabled - frames will be saved to " + captureDir.getAbsolutePath());
+        }
+        
+        if (binaryLogEnabled && !binaryLogStarted) {
+            File logDir = new File(System.getProperty("user.home"), LOGS_DIR);
+            binaryLogStarted = ScriptLogger.startBinaryLog(logDir);
+            if (binaryLogStarted) {
+                ScriptLogger.info(this, "Binary log enabled - read " + logDir.getAbsolutePath() + " with BinaryLogReader");
+            }
+        }
     }
 
     @Override
@@ -534,6 +619,13 @@ public class JorkHunter extends AbstractMetricsScript {
             return 0; // Immediate retry
         }
         
+        // --- Scale trap detection to the zoom we just set (once) ---------------
+        if (!detectionCalibrated) {
+            WorldPosition playerPos = getWorldPosition();
+            detectionCalibrated = playerPos != null
+                && pixelDetector.calibrate(getSceneProjector().getTilePoly(playerPos));
+        }
+        
         // --- XP Failsafe Check ------------------------------------------------
         if (xpFailsafeEnabled && initialised) {
             long timeSinceXP = getTimeSinceLastXPGain();
@@ -552,12 +644,8 @@ public class JorkHunter extends AbstractMetricsScript {
             // Log warning when approaching timeout (every 30 seconds in the last minute)
             long warningThreshold = timeoutMillis - (60 * 1000); // 1 minute before timeout
             if (timeSinceXP > warningThreshold && timeSinceXP < timeoutMillis) {
-                long currentTime = System.currentTimeMillis();
-                if (currentTime - lastFailsafeWarningTime > 30000) { // Warn every 30 seconds
-                    ScriptLogger.warning(this, "XP Failsafe warning: " + 
-                        ((timeoutMillis - timeSinceXP) / 1000) + " seconds until auto-stop");
-                    lastFailsafeWarningTime = currentTime;
-                }
+                ScriptLogger.warning(this, FAILSAFE_WARNING_LOG, "XP Failsafe warning: %d seconds until auto-stop",
+                    (timeoutMillis - timeSinceXP) / 1000);
             }
         }
         
@@ -597,6 +685,11 @@ public class JorkHunter extends AbstractMetricsScript {
             return 1000; // Keep waiting until initialised
         }
 
+        // --- Chat Events (queued by the listener in onNewFrame) ---------------
+        if (chatEvents != null) {
+            chatEvents.dispatch();
+        }
+
         // --- Custom Anchor Selection (after position is established) ----------
         if (requiresCustomAnchor && !customAnchorSelected && !anchorSelectionInProgress) {
             return handleCustomAnchorSelection();
@@ -607,6 +700,12 @@ public class JorkHunter extends AbstractMetricsScript {
             return 500; // Wait for anchor selection
         }
 
+        // --- Pixel Signature Capture (optional tooling) -----------------------
+        if (signatureCapture != null && signatureCapture.isDue()) {
+            signatureCapture.capture();
+            return 200;
+        }
+
         // If settings are confirmed and the task manager is ready, execute tasks
         if (taskManager != null) {
             return taskManager.executeNextTask();
@@ -733,6 +832,21 @@ public class JorkHunter extends AbstractMetricsScript {
     private TrapStateManager getTrapStateManager() {
         return huntTask != null ? huntTask.getTrapStateManager() : null;
     }
+    
+    /**
+     * Gets the interaction telemetry from the HuntTask's interaction handler.
+     * @return InteractionTelemetry instance, or null if tasks not initialized
+     */
+    private InteractionTelemetry getInteractionTelemetry() {
+        return huntTask != null ? huntTask.getInteractionHandler().getTelemetry() : null;
+    }
+    
+    /**
+     * Gets the trap pixel detector shared by trap state tracking and interaction.
+     */
+    public TrapPixelDetector getPixelDetector() {
+        return pixelDetector;
+    }
 
     public boolean isDrainingForBreak() {
         return isDrainingForBreak;
@@ -992,6 +1106,46 @@ public class JorkHunter extends AbstractMetricsScript {
         return huntingConfig;
     }
     
+    @Override
+    protected void onMetricsStop() {
+        exportInteractionTelemetry();
+        if (frameRecorder != null) {
+            frameRecorder.setRecording(false);
+        }
+        if (chatEvents != null) {
+            chatEvents.close();
+        }
+        ScriptLogger.stopAsyncSink();
+        ScriptLogger.stopBinaryLog();
+    }
+    
+    @Override
+    public void onNewFrame() {
+        ChatBoxListener listener = chatListener;
+        if (listener != null) {
+            listener.update();
+        }
+    }
+    
+    /**
+     * Writes interaction telemetry to ~/.osmb/jorkHunter/ so tuning runs can be compared offline.
+     */
+    private void exportInteractionTelemetry() {
+        InteractionTelemetry telemetry = getInteractionTelemetry();
+        if (telemetry == null || telemetry.getInteractionCount() == 0) {
+            return;
+        }
+        
+        File file = new File(System.getProperty("user.home"),
+            ".osmb/jorkHunter/interaction-telemetry-" + System.currentTimeMillis() + ".csv");
+        try {
+            telemetry.exportCsv(file);
+            ScriptLogger.info(this, "Interaction telemetry exported to " + file.getAbsolutePath());
+        } catch (IOException e) {
+            ScriptLogger.warning(this, "Failed to export interaction telemetry: " + e.getMessage());
+        }
+    }
+    
     /**
      * Initializes the metrics tracking system
      */
@@ -1010,6 +1164,19 @@ public class JorkHunter extends AbstractMetricsScript {
         registerMetric("Success Rate", this::calculateSuccessRate, MetricType.PERCENTAGE);
         registerMetric("Total Checked", totalChecks::get, MetricType.NUMBER);
         
+        // Interaction telemetry (average phase latency and retry/misclick/fallback counts)
+        registerMetric("Tap/Menu/Conf", () -> {
+            InteractionTelemetry telemetry = getInteractionTelemetry();
+            return telemetry != null ? telemetry.getPhaseSummary() : "-";
+        }, MetricType.TEXT);
+        registerMetric("Retry/Miss/Fb", () -> {
+            InteractionTelemetry telemetry = getInteractionTelemetry();
+            return telemetry != null ? telemetry.getCounterSummary() : "-";
+        }, MetricType.TEXT);
+        
+        // LUT pre-filter decisions (skipped/cropped searches, audited misses)
+        registerMetric("LUT Skip/Crop/Miss", pixelDetector::getLutSummary, MetricType.TEXT);
+        
         // Add failsafe metric if enabled
         if (xpFailsafeEnabled) {
             registerMetric("Since XP", 
@@ -1053,6 +1220,29 @@ public class JorkHunter extends AbstractMetricsScript {
         totalChecks.incrementAndGet();
     }
     
+    /**
+     * Chat reported a collapsed trap - lets the state manager skip the grace period
+     */
+    private void onTrapCollapseMessage() {
+        if (huntTask != null && huntTask.getTrapStateManager() != null) {
+            huntTask.getTrapStateManager().onCollapseMessage();
+        }
+    }
+    
+    /**
+     * Chat reported a level-up - updates max traps without reading the skill tab
+     */
+    private void onLevelUpMessage(ChatEvent event) {
+        if (!"hunter".equalsIgnoreCase(event.getDetail()) || !event.hasValue() || selectedManualLevel > 0) {
+            return;
+        }
+        int traps = calculateTrapsForLevel(event.getValue());
+        if (traps > maxTraps) {
+            maxTraps = traps;
+            ScriptLogger.info(this, "Hunter level " + event.getValue() + " reached | Max Traps: " + maxTraps);
+        }
+    }
+    
     /**
      * Called when the game state changes (login/logout/world hop).
      * Clears trap tracking when we're no longer in game since traps are lost on logout.
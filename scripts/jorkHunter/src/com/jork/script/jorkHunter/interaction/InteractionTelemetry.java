@@ -0,0 +1,282 @@
+package com.jork.script.jorkHunter.interaction;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latency and retry telemetry for trap interactions.
+ * Keeps per-{@link InteractionResult.InteractionType} histograms for the tap, menu-resolution,
+ * confirmation and total phases, plus counters for retries, misclicks and fallbacks.
+ */
+public class InteractionTelemetry {
+
+    /**
+     * Phases of a single trap interaction.
+     */
+    public enum Phase {
+        TAP,      // Tap issued until the menu hook runs
+        MENU,     // Time spent choosing a menu entry
+        CONFIRM,  // Waiting for the game to confirm (inventory change, animation)
+        TOTAL     // interact() end to end
+    }
+
+    // Bucket upper bounds in ms; the last bucket is open-ended
+    private static final long[] BUCKET_BOUNDS = { 25, 50, 100, 250, 500, 1000, 2000, 4000, 8000 };
+
+    private final Map<InteractionResult.InteractionType, Map<Phase, LatencyHistogram>> histograms =
+        new EnumMap<>(InteractionResult.InteractionType.class);
+
+    private final AtomicLong interactions = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong misclicks = new AtomicLong();
+    private final AtomicLong fallbacks = new AtomicLong();
+
+    public InteractionTelemetry() {
+        for (InteractionResult.InteractionType type : InteractionResult.InteractionType.values()) {
+            Map<Phase, LatencyHistogram> byPhase = new EnumMap<>(Phase.class);
+            for (Phase phase : Phase.values()) {
+                byPhase.put(phase, new LatencyHistogram());
+            }
+            histograms.put(type, byPhase);
+        }
+    }
+
+    // ───────────────────────────────────────────────────────────────────────
+    // Recording
+    // ───────────────────────────────────────────────────────────────────────
+
+    /**
+     * Starts timing a new interaction.
+     */
+    public Sample begin() {
+        interactions.incrementAndGet();
+        return new Sample();
+    }
+
+    /**
+     * Records the tap, menu and total phases of a finished interaction under its result type.
+     */
+    public void finish(Sample sample, InteractionResult.InteractionType type) {
+        if (sample == null || type == null) {
+            return;
+        }
+        Map<Phase, LatencyHistogram> byPhase = histograms.get(type);
+        if (sample.tapMillis > 0) {
+            byPhase.get(Phase.TAP).record(sample.tapMillis);
+        }
+        if (sample.menuMillis > 0 || sample.tapMillis > 0) {
+            byPhase.get(Phase.MENU).record(sample.menuMillis);
+        }
+        byPhase.get(Phase.TOTAL).record(System.currentTimeMillis() - sample.startMillis);
+    }
+
+    /**
+     * Records how long the game took to confirm an interaction.
+     */
+    public void recordConfirmation(InteractionResult.InteractionType type, long millis) {
+        if (type != null) {
+            histograms.get(type).get(Phase.CONFIRM).record(millis);
+        }
+    }
+
+    public void recordRetry() {
+        retries.incrementAndGet();
+    }
+
+    public void recordMisclick() {
+        misclicks.incrementAndGet();
+    }
+
+    public void recordFallback() {
+        fallbacks.incrementAndGet();
+    }
+
+    // ───────────────────────────────────────────────────────────────────────
+    // Queries
+    // ───────────────────────────────────────────────────────────────────────
+
+    public long getInteractionCount() { return interactions.get(); }
+    public long getRetryCount() { return retries.get(); }
+    public long getMisclickCount() { return misclicks.get(); }
+    public long getFallbackCount() { return fallbacks.get(); }
+
+    /**
+     * Gets the histogram for a type and phase.
+     */
+    public LatencyHistogram getHistogram(InteractionResult.InteractionType type, Phase phase) {
+        return histograms.get(type).get(phase);
+    }
+
+    /**
+     * Average latency for a phase across all interaction types.
+     *
+     * @return Average in ms, or 0 if nothing was recorded
+     */
+    public long getAverage(Phase phase) {
+        long count = 0;
+        long sum = 0;
+        for (Map<Phase, LatencyHistogram> byPhase : histograms.values()) {
+            LatencyHistogram histogram = byPhase.get(phase);
+            count += histogram.getCount();
+            sum += histogram.getSum();
+        }
+        return count == 0 ? 0 : sum / count;
+    }
+
+    /**
+     * Compact phase summary for the metrics panel, e.g. "420/3/1800ms".
+     */
+    public String getPhaseSummary() {
+        return getAverage(Phase.TAP) + "/" + getAverage(Phase.MENU) + "/" + getAverage(Phase.CONFIRM) + "ms";
+    }
+
+    /**
+     * Compact counter summary for the metrics panel, e.g. "2/1/0".
+     */
+    public String getCounterSummary() {
+        return retries.get() + "/" + misclicks.get() + "/" + fallbacks.get();
+    }
+
+    // ───────────────────────────────────────────────────────────────────────
+    // Export
+    // ───────────────────────────────────────────────────────────────────────
+
+    /**
+     * Writes all histograms and counters to a CSV file.
+     *
+     * @param file Target file (parent directories are created)
+     * @throws IOException if the file cannot be written
+     */
+    public void exportCsv(File file) throws IOException {
+        File parent = file.getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Could not create directory " + parent.getAbsolutePath());
+        }
+
+        try (PrintWriter out = new PrintWriter(file, StandardCharsets.UTF_8)) {
+            out.println("# interactions=" + interactions.get() + " retries=" + retries.get()
+                + " misclicks=" + misclicks.get() + " fallbacks=" + fallbacks.get());
+
+            StringBuilder header = new StringBuilder("type,phase,count,avg_ms,max_ms,p50_ms,p90_ms");
+            for (long bound : BUCKET_BOUNDS) {
+                header.append(",le_").append(bound);
+            }
+            header.append(",gt_").append(BUCKET_BOUNDS[BUCKET_BOUNDS.length - 1]);
+            out.println(header);
+
+            for (Map.Entry<InteractionResult.InteractionType, Map<Phase, LatencyHistogram>> typeEntry : histograms.entrySet()) {
+                for (Map.Entry<Phase, LatencyHistogram> phaseEntry : typeEntry.getValue().entrySet()) {
+                    LatencyHistogram histogram = phaseEntry.getValue();
+                    if (histogram.getCount() == 0) continue;
+
+                    StringBuilder row = new StringBuilder()
+                        .append(typeEntry.getKey()).append(',')
+                        .append(phaseEntry.getKey()).append(',')
+                        .append(histogram.getCount()).append(',')
+                        .append(histogram.getAverage()).append(',')
+                        .append(histogram.getMax()).append(',')
+                        .append(histogram.getPercentile(0.5)).append(',')
+                        .append(histogram.getPercentile(0.9));
+                    for (long bucket : histogram.getBuckets()) {
+                        row.append(',').append(bucket);
+                    }
+                    out.println(row);
+                }
+            }
+        }
+    }
+
+    // ───────────────────────────────────────────────────────────────────────
+    // Types
+    // ───────────────────────────────────────────────────────────────────────
+
+    /**
+     * Timing state for one in-flight interaction. Menu hooks may run off the script thread.
+     */
+    public static final class Sample {
+        private final long startMillis = System.currentTimeMillis();
+        private volatile long tapStartMillis;
+        private volatile long menuStartMillis;
+        private volatile long tapMillis;
+        private volatile long menuMillis;
+
+        /** Call right before a tap is issued. */
+        public void markTap() {
+            tapStartMillis = System.currentTimeMillis();
+        }
+
+        /** Call at the top of the menu hook. */
+        public void markMenuOpened() {
+            menuStartMillis = System.currentTimeMillis();
+            if (tapStartMillis > 0) {
+                tapMillis += menuStartMillis - tapStartMillis;
+                tapStartMillis = 0;
+            }
+        }
+
+        /** Call when the menu hook returns. */
+        public void markMenuResolved() {
+            if (menuStartMillis > 0) {
+                menuMillis += System.currentTimeMillis() - menuStartMillis;
+                menuStartMillis = 0;
+            }
+        }
+    }
+
+    /**
+     * Fixed-bucket latency histogram.
+     */
+    public static final class LatencyHistogram {
+        private final long[] buckets = new long[BUCKET_BOUNDS.length + 1];
+        private long count;
+        private long sum;
+        private long max;
+
+        public synchronized void record(long millis) {
+            long value = Math.max(0, millis);
+            int index = 0;
+            while (index < BUCKET_BOUNDS.length && value > BUCKET_BOUNDS[index]) {
+                index++;
+            }
+            buckets[index]++;
+            count++;
+            sum += value;
+            max = Math.max(max, value);
+        }
+
+        public synchronized long getCount() { return count; }
+        public synchronized long getSum() { return sum; }
+        public synchronized long getMax() { return max; }
+
+        public synchronized long getAverage() {
+            return count == 0 ? 0 : sum / count;
+        }
+
+        /**
+         * Approximate percentile using bucket upper bounds (max for the open bucket).
+         */
+        public synchronized long getPercentile(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            long target = (long) Math.ceil(count * percentile);
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= target) {
+                    return i < BUCKET_BOUNDS.length ? Math.min(BUCKET_BOUNDS[i], max) : max;
+                }
+            }
+            return max;
+        }
+
+        public synchronized long[] getBuckets() {
+            return buckets.clone();
+        }
+    }
+}
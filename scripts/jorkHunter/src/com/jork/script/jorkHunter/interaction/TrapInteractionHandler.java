@@ -1,10 +1,13 @@
 package com.jork.script.jorkHunter.interaction;
 
 import com.jork.script.jorkHunter.JorkHunter;
+import com.jork.script.jorkHunter.state.DetectionInput;
 import com.jork.script.jorkHunter.state.TrapInfo;
 import com.jork.script.jorkHunter.state.TrapState;
 import com.jork.script.jorkHunter.state.TrapFlag;
+import com.jork.script.jorkHunter.trap.TrapActionMatcher;
 import com.jork.script.jorkHunter.trap.TrapType;
+import com.jork.utils.LogRateLimit;
 import com.jork.utils.ScriptLogger;
 import com.osmb.api.location.position.types.WorldPosition;
 import com.osmb.api.visual.PixelCluster;
@@ -16,7 +19,10 @@ import com.osmb.api.visual.PixelCluster.ClusterSearchResult;
 import com.osmb.api.utils.RandomUtils;
 import com.osmb.api.input.MenuEntry;
 
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.awt.Point;
 
@@ -28,6 +34,9 @@ import java.awt.Point;
 public class TrapInteractionHandler implements InteractionHandler {
     private final JorkHunter script;
     private final TrapVisibilityChecker visibilityChecker;
+    private final TrapPixelDetector pixelDetector;
+    private final DetectionInput detectionInput;
+    private final InteractionTelemetry telemetry = new InteractionTelemetry();
     
     // Fields for polygon drawing visualization (chinchompas only)
     private volatile Polygon currentInteractionPolygon = null;
@@ -39,6 +48,28 @@ public class TrapInteractionHandler implements InteractionHandler {
     private static final double CHINCHOMPA_Y_SCALE = 0.55;  // 55% height
     private static final PolygonAlignment CHINCHOMPA_ALIGNMENT = PolygonAlignment.CENTER_LEFT_EDGE; // Left edge at center
     
+    // Fixed menu action groups, compiled once (trap-type lists live on TrapType)
+    private static final TrapActionMatcher EXPEDITE_ACTIVE_ACTIONS = TrapActionMatcher.of("dismantle");
+    private static final TrapActionMatcher EXPEDITE_ACTIONS = TrapActionMatcher.of("take", "check", "dismantle");
+
+    // canInteract() runs for every candidate trap on every poll
+    private static final LogRateLimit OCCLUDED_LOG = LogRateLimit.perInterval(5_000);
+    private static final TrapActionMatcher TAKE_ACTION = TrapActionMatcher.of("take");
+    private static final TrapActionMatcher LAY_ACTION = TrapActionMatcher.of("lay");
+    private static final TrapActionMatcher CANCEL_ACTION = TrapActionMatcher.of("cancel");
+    private static final TrapActionMatcher VERIFY_ACTIONS = TrapActionMatcher.of("check", "dismantle", "lay");
+    private static final TrapActionMatcher CLASSIFY_ACTIONS = TrapActionMatcher.of("reset", "lay");
+    
+    // Interaction geometry cache - final tap shapes, dropped whenever the visibility cache generation changes.
+    // Only COLLAPSED changes the shape, so every other state shares one entry (lets ACTIVE pre-warm FINISHED).
+    private record GeometryKey(WorldPosition position, TrapType trapType, boolean collapsed) {
+        GeometryKey(WorldPosition position, TrapType trapType, TrapState state) {
+            this(position, trapType, trapType != TrapType.CHINCHOMPA && state == TrapState.COLLAPSED);
+        }
+    }
+    private final Map<GeometryKey, Polygon> geometryCache = new HashMap<>();
+    private int geometryGeneration = -1;
+    
     /**
      * Alignment options for positioning scaled polygons within original bounds
      */
@@ -55,13 +86,28 @@ public class TrapInteractionHandler implements InteractionHandler {
         CENTER_LEFT_EDGE  // Position left edge at center of original
     }
     
-    public TrapInteractionHandler(JorkHunter script) {
+    /**
+     * Creates a handler that shares an existing visibility checker (and its cache).
+     *
+     * @param detectionInput Source of frames and cluster searches for the pixel fallback
+     */
+    public TrapInteractionHandler(JorkHunter script, TrapVisibilityChecker visibilityChecker,
+                                  DetectionInput detectionInput) {
         this.script = script;
-        this.visibilityChecker = new TrapVisibilityChecker(script);
+        this.visibilityChecker = visibilityChecker;
+        this.pixelDetector = script.getPixelDetector();
+        this.detectionInput = detectionInput;
     }
     
     @Override
     public InteractionResult interact(TrapInfo trapInfo) {
+        InteractionTelemetry.Sample sample = telemetry.begin();
+        InteractionResult result = interactInternal(trapInfo, sample);
+        telemetry.finish(sample, result.type());
+        return result;
+    }
+    
+    private InteractionResult interactInternal(TrapInfo trapInfo, InteractionTelemetry.Sample sample) {
         WorldPosition position = trapInfo.position();
         TrapState state = trapInfo.state();
         TrapType trapType = trapInfo.trapType();
@@ -75,30 +121,31 @@ public class TrapInteractionHandler implements InteractionHandler {
         
         // PRIMARY METHOD: Try TileCube approach first
         // Tile cube will be calculated fresh inside performTileCubeInteraction
-        InteractionResult cubeResult = performTileCubeInteraction(trapInfo);
+        InteractionResult cubeResult = performTileCubeInteraction(trapInfo, sample);
         if (cubeResult.success()) {
             return cubeResult;
         }
         
         // FALLBACK 1: Try pixel cluster detection if primary method fails
         ScriptLogger.debug(script, "Primary interaction failed, trying pixel cluster detection");
+        telemetry.recordFallback();
         RSTile trapTile = script.getSceneManager().getTile(position);
         Polygon trapArea = (trapTile != null) ? trapTile.getTilePoly() : null;
         
         if (trapArea == null) {
-            ScriptLogger.debug(script, "Trap tile not on screen at " + position);
+            ScriptLogger.debug(script, "Trap tile not on screen at %s", position);
             return InteractionResult.movementRequired(position);
         }
         
-        Optional<PixelCluster> trapCluster = findTrapPixels(trapArea, trapType, state);
+        Optional<Rectangle> trapCluster = findTrapPixels(trapArea, trapType, state);
         
         if (trapCluster.isPresent()) {
             Rectangle tapArea = createTapArea(trapCluster.get(), trapType);
-            return performTapInteraction(tapArea, trapInfo);
+            return performTapInteraction(tapArea, trapInfo, sample);
         }
         
         // FALLBACK 2: Return the cube result if all methods failed
-        ScriptLogger.debug(script, "All interaction methods failed for trap at " + position);
+        ScriptLogger.debug(script, "All interaction methods failed for trap at %s", position);
         return cubeResult;
     }
     
@@ -106,20 +153,123 @@ public class TrapInteractionHandler implements InteractionHandler {
     public boolean canInteract(WorldPosition position) {
         // Check if trap is visible (not occluded by UI)
         if (!visibilityChecker.isTrapVisible(position)) {
-            ScriptLogger.debug(script, "Trap at " + position + " is occluded by UI");
+            ScriptLogger.debug(script, OCCLUDED_LOG, "Trap at %s is occluded by UI", position);
             return false;
         }
         
         // Check if trap is on screen
         RSTile trapTile = script.getSceneManager().getTile(position);
         if (trapTile == null || trapTile.getTilePoly() == null) {
-            ScriptLogger.debug(script, "Trap at " + position + " is not on screen");
+            ScriptLogger.debug(script, "Trap at %s is not on screen", position);
             return false;
         }
         
         return true;
     }
     
+    /**
+     * Gets the final tap shape for a trap, serving it from the geometry cache when the
+     * player and camera have not moved since it was built.
+     * 
+     * @param position The trap position
+     * @param trapType The trap type (selects tile cube vs scaled tile poly)
+     * @param state The trap state (collapsed traps use a flatter cube)
+     * @param forceFresh true to rebuild the shape even if a cached one exists
+     * @return The tap shape, or null if the trap is not on screen
+     */
+    private Polygon getInteractionPolygon(WorldPosition position, TrapType trapType, TrapState state, boolean forceFresh) {
+        int generation = visibilityChecker.getCache().getGeneration();
+        if (generation != geometryGeneration) {
+            geometryCache.clear();
+            geometryGeneration = generation;
+        }
+        
+        GeometryKey key = new GeometryKey(position, trapType, state);
+        if (!forceFresh) {
+            Polygon cached = geometryCache.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        
+        Polygon shape = buildInteractionPolygon(position, trapType, state);
+        if (shape != null) {
+            geometryCache.put(key, shape);
+        } else {
+            geometryCache.remove(key);
+        }
+        return shape;
+    }
+    
+    /**
+     * Pre-builds tap shapes for upcoming targets so the next interaction skips the projection work.
+     * Intended for idle polls where nothing else needs doing.
+     * 
+     * @param upcoming Traps that are likely to be interacted with next
+     */
+    public void prewarmInteractionGeometry(Collection<TrapInfo> upcoming) {
+        int warmed = 0;
+        for (TrapInfo trapInfo : upcoming) {
+            if (trapInfo == null || trapInfo.trapType() == null) continue;
+            GeometryKey key = new GeometryKey(trapInfo.position(), trapInfo.trapType(), trapInfo.state());
+            if (geometryGeneration == visibilityChecker.getCache().getGeneration() && geometryCache.containsKey(key)) {
+                continue;
+            }
+            if (getInteractionPolygon(trapInfo.position(), trapInfo.trapType(), trapInfo.state(), false) != null) {
+                warmed++;
+            }
+        }
+        if (warmed > 0) {
+            ScriptLogger.debug(script, "Pre-warmed interaction geometry for %d trap(s)", warmed);
+        }
+    }
+    
+    /**
+     * Builds the tap shape for a trap: asymmetric scaled tile poly for chinchompas,
+     * resized tile cube for everything else.
+     */
+    private Polygon buildInteractionPolygon(WorldPosition position, TrapType trapType, TrapState state) {
+        // For chinchompas, use tilePoly with asymmetric scaling
+        if (trapType == TrapType.CHINCHOMPA) {
+            RSTile trapTile = script.getSceneManager().getTile(position);
+            if (trapTile == null || trapTile.getTilePoly() == null) {
+                ScriptLogger.debug(script, "Trap tile not available at %s", position);
+                return null;
+            }
+            
+            Polygon scaled = getAsymmetricScaledPolygon(
+                trapTile.getTilePoly(),
+                CHINCHOMPA_X_SCALE,
+                CHINCHOMPA_Y_SCALE,
+                CHINCHOMPA_ALIGNMENT
+            );
+            
+            if (scaled == null) {
+                ScriptLogger.warning(script, "Failed to create asymmetric polygon, falling back to standard scaling");
+                scaled = trapTile.getTilePoly().getResized(0.3);
+            }
+            return scaled;
+        }
+        
+        // Standard tileCube approach for bird snares
+        Polygon trapCube = script.getSceneProjector().getTileCube(position, getTileCubeHeight(state));
+        return trapCube != null ? trapCube.getResized(getTileCubeResizeRatio(state)) : null;
+    }
+    
+    /**
+     * Tile cube height for non-chinchompa traps (collapsed bird snares sit lower).
+     */
+    private int getTileCubeHeight(TrapState state) {
+        return state == TrapState.COLLAPSED ? 40 : 100;
+    }
+    
+    /**
+     * Tile cube resize ratio for non-chinchompa traps (collapsed bird snares use a wider cube).
+     */
+    private double getTileCubeResizeRatio(TrapState state) {
+        return state == TrapState.COLLAPSED ? 0.6 : 0.4;
+    }
+    
     /**
      * Creates an asymmetrically scaled and positioned polygon from a base polygon
      * with custom offset percentages for precise positioning.
@@ -264,12 +414,12 @@ public class TrapInteractionHandler implements InteractionHandler {
     
     @Override
     public InteractionResult verifyTrapState(WorldPosition position) {
-        ScriptLogger.debug(script, "Performing blind tap verification at " + position);
+        ScriptLogger.debug(script, "Performing blind tap verification at %s", position);
         
         // Use TileCube approach for consistency
         Polygon trapCube = script.getSceneProjector().getTileCube(position, 100);
         if (trapCube == null) {
-            ScriptLogger.debug(script, "Trap cube not on screen for verification at " + position);
+            ScriptLogger.debug(script, "Trap cube not on screen for verification at %s", position);
             return InteractionResult.movementRequired(position);
         }
         
@@ -281,16 +431,10 @@ public class TrapInteractionHandler implements InteractionHandler {
         boolean tapped = script.submitHumanTask(() -> 
             script.getFinger().tapGameScreen(resizedCube, (menuEntries) -> {
                 for (MenuEntry entry : menuEntries) {
-                    String action = entry.getAction();
-                    if (action != null) {
-                        String actionLower = action.toLowerCase();
-                        if (actionLower.contains("check") || 
-                            actionLower.contains("dismantle") || 
-                            actionLower.contains("lay")) {
-                            trapFound[0] = true;
-                            ScriptLogger.debug(script, "Blind tap found action: " + action);
-                            return entry; // Select the trap action
-                        }
+                    if (VERIFY_ACTIONS.matches(entry.getAction())) {
+                        trapFound[0] = true;
+                        ScriptLogger.debug(script, "Blind tap found action: %s", entry.getAction());
+                        return entry; // Select the trap action
                     }
                 }
                 return null; // Cancel if no trap actions found
@@ -309,50 +453,16 @@ public class TrapInteractionHandler implements InteractionHandler {
     
     /**
      * Find trap pixels within the given area.
+     * Sets whose colours are absent from the tile are skipped by the LUT pre-filter.
      */
-    private Optional<PixelCluster> findTrapPixels(Polygon area, TrapType trapType, TrapState state) {
-        // Try appropriate pixel clusters based on state
-        SearchablePixel[][] clustersToTry = (state == TrapState.COLLAPSED) 
-            ? trapType.getCollapsedPixelClusters()
-            : trapType.getStandingPixelClusters();
-        
-        for (int i = 0; i < clustersToTry.length; i++) {
-            if (clustersToTry[i] == null || clustersToTry[i].length == 0) continue;
-            
-            ScriptLogger.debug(script, "Trying pixel cluster #" + (i + 1) + " for " + state + " trap");
-            
-            PixelCluster.ClusterQuery query = new PixelCluster.ClusterQuery(
-                (int) trapType.getClusterDistance(),
-                trapType.getMinClusterSize(),
-                clustersToTry[i]
-            );
-            
-            ClusterSearchResult result = script.getPixelAnalyzer().findClusters(area, query);
-            
-            if (result != null && result.getClusters() != null && !result.getClusters().isEmpty()) {
-                ScriptLogger.debug(script, "Found trap pixels using cluster #" + (i + 1));
-                return Optional.of(getLargestCluster(result.getClusters()));
-            }
-        }
-        
-        return Optional.empty();
-    }
-    
-    /**
-     * Get the largest cluster from a list of clusters.
-     * Since we don't have access to pixel count, just return the first one.
-     */
-    private PixelCluster getLargestCluster(List<PixelCluster> clusters) {
-        // In practice, there's usually only one cluster per trap anyway
-        return clusters.isEmpty() ? null : clusters.get(0);
+    private Optional<Rectangle> findTrapPixels(Polygon area, TrapType trapType, TrapState state) {
+        return pixelDetector.findCluster(detectionInput, area, trapType, state == TrapState.COLLAPSED, null);
     }
     
     /**
      * Create a tap area from pixel cluster bounds.
      */
-    private Rectangle createTapArea(PixelCluster cluster, TrapType trapType) {
-        Rectangle bounds = cluster.getBounds();
-        
+    private Rectangle createTapArea(Rectangle bounds, TrapType trapType) {
         // Ensure minimum dimensions
         int width = Math.max(bounds.width, 2);
         int height = Math.max(bounds.height, 2);
@@ -379,61 +489,21 @@ public class TrapInteractionHandler implements InteractionHandler {
      * // int height = (trapType == TrapType.CHINCHOMPA) ? 0 : 100;
      * // double resizeRatio = (trapType == TrapType.CHINCHOMPA) ? 0.30 : 0.4;
      */
-    private InteractionResult performTileCubeInteraction(TrapInfo trapInfo) {
+    private InteractionResult performTileCubeInteraction(TrapInfo trapInfo, InteractionTelemetry.Sample sample) {
         TrapState state = trapInfo.state();
         TrapType trapType = trapInfo.trapType();
         WorldPosition position = trapInfo.position();
         
-        // Calculate dimensions (chinchompas now use tilePoly method instead)
-        int height = 100;  // Default for non-chinchompa traps
-        double resizeRatio = 0.4;  // Default for non-chinchompa traps
-        
-        // Special handling for collapsed bird snares
-        if (state == TrapState.COLLAPSED) {
-            height = 40;
-            resizeRatio = 0.6;
-        }
-        
-        String[] acceptableActions = trapType.getActionsForTrapState(state);
         String[] selectedAction = new String[1]; // Track which action was selected
         boolean cancelSelected = false;
         
         // Try up to 2 times with fresh TileCube calculation
         for (int attempt = 1; attempt <= 2; attempt++) {
-            // Recalculate TileCube/TilePoly on each attempt for fresh positioning
-            Polygon trapCube;
-            
-            // For chinchompas, use tilePoly with asymmetric scaling
-            if (trapType == TrapType.CHINCHOMPA) {
-                // Get tilePoly for chinchompas
-                RSTile trapTile = script.getSceneManager().getTile(position);
-                if (trapTile == null || trapTile.getTilePoly() == null) {
-                    ScriptLogger.debug(script, "Trap tile not available at " + position);
-                    return InteractionResult.movementRequired(position);
-                }
-                
-                // Use asymmetric scaling for chinchompas
-                trapCube = getAsymmetricScaledPolygon(
-                    trapTile.getTilePoly(),
-                    CHINCHOMPA_X_SCALE,
-                    CHINCHOMPA_Y_SCALE,
-                    CHINCHOMPA_ALIGNMENT
-                );
-                
-                if (trapCube == null) {
-                    ScriptLogger.warning(script, "Failed to create asymmetric polygon, falling back to standard scaling");
-                    trapCube = trapTile.getTilePoly().getResized(0.3);
-                }
-            } else {
-                // Standard tileCube approach for bird snares
-                trapCube = script.getSceneProjector().getTileCube(position, height);
-                if (trapCube != null) {
-                    trapCube = trapCube.getResized(resizeRatio);
-                }
-            }
+            // Use cached geometry on the first attempt; a miss means it may be stale, so rebuild for the retry
+            Polygon trapCube = getInteractionPolygon(position, trapType, state, attempt > 1);
             
             if (trapCube == null) {
-                ScriptLogger.debug(script, "Trap interaction polygon not available at " + position);
+                ScriptLogger.debug(script, "Trap interaction polygon not available at %s", position);
                 return InteractionResult.movementRequired(position);
             }
             
@@ -450,144 +520,57 @@ public class TrapInteractionHandler implements InteractionHandler {
                 method = String.format("AsymmetricPoly (x=%.1f, y=%.1f, align=%s)", 
                     CHINCHOMPA_X_SCALE, CHINCHOMPA_Y_SCALE, CHINCHOMPA_ALIGNMENT);
             } else {
-                method = "TileCube (resize=" + resizeRatio + ")";
+                method = "TileCube (resize=" + getTileCubeResizeRatio(state) + ")";
             }
-            ScriptLogger.debug(script, "Attempt " + attempt + "/2: Using " + method + " for " + trapType + " trap");
+            ScriptLogger.debug(script, "Attempt %d/2: Using %s for %s trap", attempt, method, trapType);
             
             final int currentAttempt = attempt;
             cancelSelected = false; // Reset flag for this attempt
             
+            sample.markTap();
             boolean interacted = script.submitHumanTask(() ->
                 script.getFinger().tapGameScreen(tapCube, (menuEntries) -> {
-                    // Draw polygon for chinchompas while menu is open
-                    if (trapType == TrapType.CHINCHOMPA && currentInteractionPolygon != null) {
-                        script.getScreen().queueCanvasDrawable("trapPoly", canvas -> {
-                            canvas.drawPolygon(currentInteractionPolygon, POLYGON_COLOR, POLYGON_OPACITY);
-                        });
-                    }
-                    
-                    // HIGHEST PRIORITY: Check for EXPEDITE_COLLECTION flag
-                    if (trapInfo.flags() != null && trapInfo.flags().hasFlag(TrapFlag.EXPEDITE_COLLECTION)) {
-                        // For expedited collection, prioritize dismantling active traps
-                        if (state == TrapState.ACTIVE) {
-                            // Look for dismantle action on active traps
-                            for (MenuEntry entry : menuEntries) {
-                                String action = entry.getAction();
-                                if (action != null && action.toLowerCase().contains("dismantle")) {
-                                    ScriptLogger.debug(script, "EXPEDITE: Selected DISMANTLE for active trap");
-                                    selectedAction[0] = action;
-                                    return entry;
-                                }
-                            }
-                        }
-                        // For any other state during expedite, prefer take/check/dismantle
-                        for (MenuEntry entry : menuEntries) {
-                            String action = entry.getAction();
-                            if (action != null) {
-                                String actionLower = action.toLowerCase();
-                                if (actionLower.contains("take") || actionLower.contains("check") || 
-                                    actionLower.contains("dismantle")) {
-                                    ScriptLogger.debug(script, "EXPEDITE: Selected " + action + " for " + state + " trap");
-                                    selectedAction[0] = action;
-                                    return entry;
-                                }
-                            }
-                        }
-                    }
-                    
-                    // Special handling for COLLAPSED state
-                    if (state == TrapState.COLLAPSED) {
-                        // During drain mode, ALWAYS prefer "take" to pick up collapsed traps
-                        if (script.isDrainingForBreak()) {
-                            // Always take collapsed traps when draining
-                            for (MenuEntry entry : menuEntries) {
-                                String action = entry.getAction();
-                                if (action != null && action.toLowerCase().contains("take")) {
-                                    ScriptLogger.debug(script, "Selected TAKE for collapsed trap during drain mode");
-                                    selectedAction[0] = action;
-                                    return entry;
-                                }
-                            }
-                            // If no "take" option, fall through to try other actions
-                        } else {
-                            // Normal mode: 85% chance to prefer "lay", 15% chance to prefer "take"
-                            boolean preferLay = RandomUtils.uniformRandom(1, 100) <= 85;
-                            String preferredAction = preferLay ? "lay" : "take";
-                            
-                            // First try to find the preferred action
-                            for (MenuEntry entry : menuEntries) {
-                                String action = entry.getAction();
-                                if (action != null && action.toLowerCase().contains(preferredAction)) {
-                                    ScriptLogger.debug(script, "Selected " + preferredAction.toUpperCase() + 
-                                                     " for collapsed trap (anti-pattern variation)");
-                                    selectedAction[0] = action;
-                                    return entry;
-                                }
-                            }
-                        }
-                        
-                        // If preferred action not found, fall through to regular action selection
-                    }
-                    
-                    // First pass: prioritize reset actions for chinchompas with finished states
-                    // BUT SKIP reset during drain mode to allow trap removal
-                    if (!script.isDrainingForBreak() && trapType.supportsReset() && 
-                        (state == TrapState.FINISHED || state == TrapState.FINISHED_SUCCESS || 
-                         state == TrapState.FINISHED_FAILED)) {
-                        for (MenuEntry entry : menuEntries) {
-                            String action = entry.getAction();
-                            if (action != null) {
-                                for (String resetAction : trapType.getResetActions()) {
-                                    if (action.toLowerCase().contains(resetAction.toLowerCase())) {
-                                        ScriptLogger.debug(script, "Selected RESET action via TileCube: " + action);
-                                        selectedAction[0] = action;
-                                        return entry;
-                                    }
-                                }
-                            }
+                    sample.markMenuOpened();
+                    try {
+                        // Draw polygon for chinchompas while menu is open
+                        if (trapType == TrapType.CHINCHOMPA && currentInteractionPolygon != null) {
+                            script.getScreen().queueCanvasDrawable("trapPoly", canvas -> {
+                                canvas.drawPolygon(currentInteractionPolygon, POLYGON_COLOR, POLYGON_OPACITY);
+                            });
                         }
-                    }
                     
-                    // Second pass: fallback to regular actions
-                    for (MenuEntry entry : menuEntries) {
-                        String action = entry.getAction();
-                        if (action != null) {
-                            for (String acceptableAction : acceptableActions) {
-                                if (action.toLowerCase().contains(acceptableAction.toLowerCase())) {
-                                    ScriptLogger.debug(script, "Selected action via TileCube: " + action);
-                                    selectedAction[0] = action;
-                                    return entry;
-                                }
-                            }
+                        MenuEntry chosen = selectTrapMenuEntry(menuEntries, trapInfo, selectedAction, " via TileCube");
+                        if (chosen != null) {
+                            return chosen;
                         }
-                    }
                     
-                    // No matching actions found - return cancel to prevent API retry
-                    ScriptLogger.debug(script, "No matching actions found in TileCube tap (attempt " + currentAttempt + ")");
+                        // No matching actions found - return cancel to prevent API retry
+                        ScriptLogger.debug(script, "No matching actions found in TileCube tap (attempt %d)", currentAttempt);
                     
-                    // Look for cancel option to exit menu gracefully
-                    for (MenuEntry entry : menuEntries) {
-                        String action = entry.getAction();
-                        if (action != null && action.toLowerCase().equals("cancel")) {
+                        // Look for cancel option to exit menu gracefully
+                        MenuEntry cancelEntry = CANCEL_ACTION.bestEntry(menuEntries);
+                        if (cancelEntry != null) {
                             if (currentAttempt == 1) {
                                 ScriptLogger.debug(script, "Selecting cancel - will retry with fresh TileCube");
                             } else {
                                 ScriptLogger.debug(script, "Selecting cancel - no more retries");
                             }
                             selectedAction[0] = "cancel"; // Mark that we selected cancel
-                            return entry; // This prevents API's automatic retry
+                            return cancelEntry; // This prevents API's automatic retry
                         }
-                    }
                     
-                    // If no cancel found (shouldn't happen), return first entry to prevent API retry
-                    if (!menuEntries.isEmpty()) {
-                        ScriptLogger.warning(script, "No cancel option found, selecting first menu entry to prevent API retry");
-                        selectedAction[0] = menuEntries.get(0).getAction();
-                        return menuEntries.get(0);
-                    }
+                        // If no cancel found (shouldn't happen), return first entry to prevent API retry
+                        if (!menuEntries.isEmpty()) {
+                            ScriptLogger.warning(script, "No cancel option found, selecting first menu entry to prevent API retry");
+                            selectedAction[0] = menuEntries.get(0).getAction();
+                            return menuEntries.get(0);
+                        }
                     
-                    // Only return null if menu is completely empty (very rare)
-                    return null;
+                        // Only return null if menu is completely empty (very rare)
+                        return null;
+                    } finally {
+                        sample.markMenuResolved();
+                    }
                 }), RandomUtils.uniformRandom(2900, 3400));
             
             // Check if we selected cancel (meaning we missed the trap)
@@ -606,7 +589,11 @@ public class TrapInteractionHandler implements InteractionHandler {
             }
             
             // If this was the first attempt and we selected cancel, retry with fresh TileCube
+            if (cancelSelected) {
+                telemetry.recordMisclick();
+            }
             if (attempt == 1 && cancelSelected) {
+                telemetry.recordRetry();
                 ScriptLogger.info(script, "First tap missed trap at " + position + ", recalculating TileCube for retry...");
                 script.sleep(RandomUtils.weightedRandom(200, 400)); // Brief pause before retry
                 continue; // Continue to attempt 2
@@ -630,112 +617,21 @@ public class TrapInteractionHandler implements InteractionHandler {
     /**
      * Perform tap interaction with menu matching.
      */
-    private InteractionResult performTapInteraction(Rectangle tapArea, TrapInfo trapInfo) {
+    private InteractionResult performTapInteraction(Rectangle tapArea, TrapInfo trapInfo, InteractionTelemetry.Sample sample) {
         TrapState state = trapInfo.state();
-        TrapType trapType = trapInfo.trapType();
         WorldPosition position = trapInfo.position();
         
-        String[] acceptableActions = trapType.getActionsForTrapState(state);
         String[] selectedAction = new String[1]; // Track which action was selected
         
+        sample.markTap();
         boolean interacted = script.submitHumanTask(() ->
             script.getFinger().tapGameScreen(tapArea, (menuEntries) -> {
-                // HIGHEST PRIORITY: Check for EXPEDITE_COLLECTION flag
-                if (trapInfo.flags() != null && trapInfo.flags().hasFlag(TrapFlag.EXPEDITE_COLLECTION)) {
-                    // For expedited collection, prioritize dismantling active traps
-                    if (state == TrapState.ACTIVE) {
-                        // Look for dismantle action on active traps
-                        for (MenuEntry entry : menuEntries) {
-                            String action = entry.getAction();
-                            if (action != null && action.toLowerCase().contains("dismantle")) {
-                                ScriptLogger.debug(script, "EXPEDITE: Selected DISMANTLE for active trap");
-                                selectedAction[0] = action;
-                                return entry;
-                            }
-                        }
-                    }
-                    // For any other state during expedite, prefer take/check/dismantle
-                    for (MenuEntry entry : menuEntries) {
-                        String action = entry.getAction();
-                        if (action != null) {
-                            String actionLower = action.toLowerCase();
-                            if (actionLower.contains("take") || actionLower.contains("check") || 
-                                actionLower.contains("dismantle")) {
-                                ScriptLogger.debug(script, "EXPEDITE: Selected " + action + " for " + state + " trap");
-                                selectedAction[0] = action;
-                                return entry;
-                            }
-                        }
-                    }
-                }
-                
-                // Special handling for COLLAPSED state
-                if (state == TrapState.COLLAPSED) {
-                    // During drain mode, ALWAYS prefer "take" to pick up collapsed traps
-                    if (script.isDrainingForBreak()) {
-                        // Always take collapsed traps when draining
-                        for (MenuEntry entry : menuEntries) {
-                            String action = entry.getAction();
-                            if (action != null && action.toLowerCase().contains("take")) {
-                                ScriptLogger.debug(script, "Selected TAKE for collapsed trap during drain mode");
-                                selectedAction[0] = action;
-                                return entry;
-                            }
-                        }
-                        // If no "take" option, fall through to try other actions
-                    } else {
-                        // Normal mode: 85% chance to prefer "lay", 15% chance to prefer "take"
-                        boolean preferLay = RandomUtils.uniformRandom(1, 100) <= 85;
-                        String preferredAction = preferLay ? "lay" : "take";
-                        
-                        // First try to find the preferred action
-                        for (MenuEntry entry : menuEntries) {
-                            String action = entry.getAction();
-                            if (action != null && action.toLowerCase().contains(preferredAction)) {
-                                ScriptLogger.debug(script, "Selected " + preferredAction.toUpperCase() + 
-                                                 " for collapsed trap (anti-pattern variation)");
-                                selectedAction[0] = action;
-                                return entry;
-                            }
-                        }
-                    }
-                    
-                    // If preferred action not found, fall through to regular action selection
-                }
-                
-                // First pass: prioritize reset actions for chinchompas with finished states
-                // BUT SKIP reset during drain mode to allow trap removal
-                if (!script.isDrainingForBreak() && trapType.supportsReset() && 
-                    (state == TrapState.FINISHED || state == TrapState.FINISHED_SUCCESS || 
-                     state == TrapState.FINISHED_FAILED)) {
-                    for (MenuEntry entry : menuEntries) {
-                        String action = entry.getAction();
-                        if (action != null) {
-                            for (String resetAction : trapType.getResetActions()) {
-                                if (action.toLowerCase().contains(resetAction.toLowerCase())) {
-                                    ScriptLogger.debug(script, "Selected RESET action: " + action);
-                                    selectedAction[0] = action;
-                                    return entry;
-                                }
-                            }
-                        }
-                    }
-                }
-                
-                // Second pass: fallback to regular actions
-                for (MenuEntry entry : menuEntries) {
-                    String action = entry.getAction();
-                    if (action != null) {
-                        for (String acceptableAction : acceptableActions) {
-                            if (action.toLowerCase().contains(acceptableAction.toLowerCase())) {
-                                ScriptLogger.debug(script, "Selected action: " + action);
-                                selectedAction[0] = action;
-                                return entry;
-                            }
-                        }
-                    }
+                sample.markMenuOpened();
+                try {
+                    return selectTrapMenuEntry(menuEntries, trapInfo, selectedAction, "");
+                } finally {
+                    sample.markMenuResolved();
                 }
-                return null;
             }), RandomUtils.uniformRandom(2900, 3400));
         
         if (interacted) {
@@ -746,6 +642,94 @@ public class TrapInteractionHandler implements InteractionHandler {
         return InteractionResult.failure("Failed to interact with trap", position);
     }
     
+    /**
+     * Chooses the menu entry for a trap interaction using the precompiled action matchers.
+     * Priority: expedite collection, collapsed take/lay preference, reset, then the state's action list.
+     * 
+     * @param menuEntries The menu entries shown for the tap
+     * @param trapInfo The trap being interacted with
+     * @param selectedAction Receives the matched (canonical) action
+     * @param via Suffix for log messages describing the tap method
+     * @return The entry to select, or null if no trap action is present
+     */
+    private MenuEntry selectTrapMenuEntry(List<MenuEntry> menuEntries, TrapInfo trapInfo, String[] selectedAction, String via) {
+        TrapState state = trapInfo.state();
+        TrapType trapType = trapInfo.trapType();
+        MenuEntry entry;
+        
+        // HIGHEST PRIORITY: Check for EXPEDITE_COLLECTION flag
+        if (trapInfo.flags() != null && trapInfo.flags().hasFlag(TrapFlag.EXPEDITE_COLLECTION)) {
+            // For expedited collection, prioritize dismantling active traps
+            if (state == TrapState.ACTIVE) {
+                entry = pickEntry(EXPEDITE_ACTIVE_ACTIONS, menuEntries, selectedAction);
+                if (entry != null) {
+                    ScriptLogger.debug(script, "EXPEDITE: Selected DISMANTLE for active trap");
+                    return entry;
+                }
+            }
+            // For any other state during expedite, prefer take/check/dismantle
+            entry = pickEntry(EXPEDITE_ACTIONS, menuEntries, selectedAction);
+            if (entry != null) {
+                ScriptLogger.debug(script, "EXPEDITE: Selected %s for %s trap", entry.getAction(), state);
+                return entry;
+            }
+        }
+        
+        // Special handling for COLLAPSED state
+        if (state == TrapState.COLLAPSED) {
+            if (script.isDrainingForBreak()) {
+                // During drain mode, ALWAYS prefer "take" to pick up collapsed traps
+                entry = pickEntry(TAKE_ACTION, menuEntries, selectedAction);
+                if (entry != null) {
+                    ScriptLogger.debug(script, "Selected TAKE for collapsed trap during drain mode");
+                    return entry;
+                }
+                // If no "take" option, fall through to try other actions
+            } else {
+                // Normal mode: 85% chance to prefer "lay", 15% chance to prefer "take"
+                boolean preferLay = RandomUtils.uniformRandom(1, 100) <= 85;
+                TrapActionMatcher preferred = preferLay ? LAY_ACTION : TAKE_ACTION;
+                entry = pickEntry(preferred, menuEntries, selectedAction);
+                if (entry != null) {
+                    ScriptLogger.debug(script, "Selected " + preferred.getAction(0).toUpperCase() + 
+                                     " for collapsed trap (anti-pattern variation)");
+                    return entry;
+                }
+            }
+            // If preferred action not found, fall through to regular action selection
+        }
+        
+        // First pass: prioritize reset actions for chinchompas with finished states
+        // BUT SKIP reset during drain mode to allow trap removal
+        if (!script.isDrainingForBreak() && trapType.supportsReset() && 
+            (state == TrapState.FINISHED || state == TrapState.FINISHED_SUCCESS || 
+             state == TrapState.FINISHED_FAILED)) {
+            entry = pickEntry(trapType.getResetActionMatcher(), menuEntries, selectedAction);
+            if (entry != null) {
+                ScriptLogger.debug(script, "Selected RESET action%s: %s", via, entry.getAction());
+                return entry;
+            }
+        }
+        
+        // Second pass: fallback to regular actions (highest-priority match wins)
+        entry = pickEntry(trapType.getActionMatcher(state), menuEntries, selectedAction);
+        if (entry != null) {
+            ScriptLogger.debug(script, "Selected action%s: %s", via, entry.getAction());
+        }
+        return entry;
+    }
+    
+    /**
+     * Picks the best entry for a matcher and records the matched action.
+     */
+    private MenuEntry pickEntry(TrapActionMatcher matcher, List<MenuEntry> menuEntries, String[] selectedAction) {
+        MenuEntry entry = matcher.bestEntry(menuEntries);
+        if (entry != null) {
+            selectedAction[0] = matcher.match(entry.getAction());
+        }
+        return entry;
+    }
+    
     /**
      * Clears the current interaction polygon and removes it from the canvas.
      */
@@ -758,13 +742,15 @@ public class TrapInteractionHandler implements InteractionHandler {
      * Determine interaction type based on trap state and selected action.
      */
     private InteractionResult.InteractionType determineInteractionType(TrapState state, String selectedAction) {
+        String actionKind = CLASSIFY_ACTIONS.match(selectedAction);
+        
         // Check if reset action was selected
-        if (selectedAction != null && selectedAction.toLowerCase().contains("reset")) {
+        if ("reset".equals(actionKind)) {
             return InteractionResult.InteractionType.TRAP_RESET_INITIATED;
         }
         
         // Check if lay action was selected on a collapsed trap
-        if (selectedAction != null && selectedAction.toLowerCase().contains("lay") && state == TrapState.COLLAPSED) {
+        if ("lay".equals(actionKind) && state == TrapState.COLLAPSED) {
             return InteractionResult.InteractionType.TRAP_LAID; // Laying a collapsed trap in place
         }
         
@@ -800,4 +786,8 @@ public class TrapInteractionHandler implements InteractionHandler {
     public TrapVisibilityChecker getVisibilityChecker() {
         return visibilityChecker;
     }
+    
+    public InteractionTelemetry getTelemetry() {
+        return telemetry;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,388 @@
+package com.jork.script.jorkHunter.interaction;
+
+import com.jork.script.jorkHunter.JorkHunter;
+import com.jork.script.jorkHunter.state.DetectionInput;
+import com.jork.script.jorkHunter.trap.TrapPixelMatcher;
+import com.jork.script.jorkHunter.trap.TrapType;
+import com.jork.utils.ScriptLogger;
+import com.osmb.api.shape.Polygon;
+import com.osmb.api.shape.Rectangle;
+import com.osmb.api.visual.SearchablePixel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Finds trap model pixels on a tile, using the TrapType's LUT matcher as a single-pass pre-filter.
+ * One labelling pass over the tile decides, for every pixel set, whether {@code findClusters} runs
+ * at all and over which part of the tile: sets without enough LUT candidates are skipped, and the
+ * rest are searched only within their candidates' bounds.
+ *
+ * <p>The LUT approximates the OSMB HSL comparator, so its decisions are audited: every
+ * {@value #AUDIT_INTERVAL}th search the LUT skipped or cropped to nothing is repeated over the whole
+ * tile. A cluster found that way is a LUT miss, and the first miss on full-resolution labels turns the
+ * pre-filter off for the rest of the session (sets are then searched over the whole tile, as before
+ * the LUT existed).
+ * The counters are shown in the metrics panel.
+ *
+ * <p>Cluster size and distance are scaled from the projected tile area, since the TrapType
+ * constants only hold for tiles next to the player at the zoom JorkHunter sets. The reference
+ * area is measured from the player's own tile once the zoom is set (see {@link #calibrate}).
+ *
+ * <p>Tiles are labelled at half resolution whenever a minimum-size cluster still leaves samples
+ * on the subsampled grid, so distant traps get the cheap pass too. The full-resolution
+ * {@code findClusters} confirmation then only covers the pre-pass candidate bounds. If an audit
+ * finds a cluster the half-resolution labels missed, the pre-pass is switched off before the LUT is.
+ *
+ * <p>Frames and cluster searches come from the caller's {@link DetectionInput}, so a replay runs the
+ * same decisions on recorded frames.
+ */
+public class TrapPixelDetector {
+
+    // Projected tile area (px²) used until calibrate() measures the player's tile. Unmeasured estimate
+    // of a tile next to the player at the zoom JorkHunter sets - only matters for the first polls.
+    private static final double DEFAULT_REFERENCE_TILE_AREA = 900.0;
+    private static final double MIN_SCALE = 0.2;
+    private static final double MAX_SCALE = 2.0;
+    private static final int MIN_CLUSTER_FLOOR = 2;
+    private static final int MIN_CLUSTER_DISTANCE = 1;
+
+    // Half-resolution pre-pass
+    private static final int HALF_RES_STEP = 2;
+    private static final int HALF_RES_MIN_CLUSTER = 4; // Smaller clusters can fall between samples - label at full resolution
+    private static final double HALF_RES_SLACK = 0.5;  // Subsampled counts are noisy - accept half the expected count
+
+    // LUT decisions
+    private static final int AUDIT_INTERVAL = 16;        // Every n-th empty LUT-decided search is repeated on the whole tile
+    private static final double MIN_CROP_GAIN = 0.8;     // Search the whole tile if the crop keeps more than this fraction
+
+    /**
+     * Cluster parameters for one tile.
+     *
+     * @param minClusterSize  Minimum pixels per cluster
+     * @param clusterDistance Maximum pixel gap within a cluster
+     * @param scale           Tile area relative to the reference zoom
+     */
+    public record ClusterParams(int minClusterSize, int clusterDistance, double scale) {}
+
+    private final JorkHunter script;
+    private volatile double referenceTileArea = DEFAULT_REFERENCE_TILE_AREA;
+    private volatile boolean halfResolutionPrePass = true; // Cleared by the first audited miss on subsampled labels
+    private volatile boolean lutEnabled = true;            // Cleared by the first audited miss on full-resolution labels
+
+    private final AtomicLong lutSkips = new AtomicLong();   // Searches skipped for lack of candidates
+    private final AtomicLong lutCrops = new AtomicLong();   // Searches cropped to candidate bounds
+    private final AtomicLong lutEmpty = new AtomicLong();   // Skipped or cropped searches without a cluster
+    private final AtomicLong lutAudits = new AtomicLong();  // Of those, repeated over the whole tile
+    private final AtomicLong lutMisses = new AtomicLong();  // Audits that found a cluster
+
+    public TrapPixelDetector(JorkHunter script) {
+        this.script = script;
+    }
+
+    /**
+     * Measures the reference tile area from the player's tile. TrapType cluster constants were
+     * tuned on traps next to the player, so that tile at the current zoom is where they hold as-is.
+     * Call once the zoom has been set.
+     *
+     * @param playerTile The projected polygon of the player's tile
+     * @return true if the polygon had a usable area
+     */
+    public boolean calibrate(Polygon playerTile) {
+        double area = playerTile != null ? polygonArea(playerTile) : 0;
+        if (area <= 0) {
+            return false;
+        }
+        referenceTileArea = area;
+        ScriptLogger.debug(script, "Detection reference tile area calibrated to %.0f px²", area);
+        return true;
+    }
+
+    /**
+     * Checks if tiles are still labelled at half resolution (no audit has found a subsampling miss).
+     */
+    public boolean isHalfResolutionPrePass() {
+        return halfResolutionPrePass;
+    }
+
+    /**
+     * Checks if LUT decisions are still in effect (no audit has found a miss).
+     */
+    public boolean isLutEnabled() {
+        return lutEnabled;
+    }
+
+    /**
+     * Gets the number of audits that found a cluster the LUT skipped or cropped away.
+     * Any non-zero value means the LUT is narrower than the OSMB comparator for some colours.
+     */
+    public long getLutMisses() {
+        return lutMisses.get();
+    }
+
+    /**
+     * Gets LUT decision counters for the metrics panel: skipped/cropped/missed searches and audits.
+     */
+    public String getLutSummary() {
+        String mode = !lutEnabled ? "off " : halfResolutionPrePass ? "" : "full-res ";
+        return mode + lutSkips.get() + "/" + lutCrops.get() + "/" + lutMisses.get() +
+               " (" + lutAudits.get() + " chk)";
+    }
+
+    /**
+     * Scales the TrapType cluster constants to the tile's projected size.
+     * Pixel counts scale with area, pixel distances with its square root.
+     *
+     * @param area     The projected tile polygon
+     * @param trapType The trap type whose constants to scale
+     */
+    public ClusterParams getClusterParams(Polygon area, TrapType trapType) {
+        double tileArea = polygonArea(area);
+        double scale = tileArea > 0
+            ? Math.max(MIN_SCALE, Math.min(MAX_SCALE, tileArea / referenceTileArea))
+            : 1.0;
+        int minClusterSize = Math.max(MIN_CLUSTER_FLOOR, (int) Math.round(trapType.getMinClusterSize() * scale));
+        int clusterDistance = Math.max(MIN_CLUSTER_DISTANCE,
+            (int) Math.round(trapType.getClusterDistance() * Math.sqrt(scale)));
+        return new ClusterParams(minClusterSize, clusterDistance, scale);
+    }
+
+    /**
+     * Finds the first standing or collapsed cluster on a tile.
+     *
+     * @param input     Source of the frame and cluster searches
+     * @param area      The tile polygon to search
+     * @param trapType  The trap type whose pixel sets to use
+     * @param collapsed true for collapsed sets, false for standing sets
+     * @param frame     Frame for the labelling pass (null to fetch the current one)
+     * @return Bounds of the first confirmed cluster, or empty if none
+     */
+    public Optional<Rectangle> findCluster(DetectionInput input, Polygon area, TrapType trapType, boolean collapsed,
+                                           DetectionInput.Frame frame) {
+        if (area == null) {
+            return Optional.empty();
+        }
+        ClusterParams params = getClusterParams(area, trapType);
+        return confirm(input, area, trapType, collapsed, label(input, area, trapType, frame, params), params);
+    }
+
+    /**
+     * Checks if a tile shows any standing or collapsed trap model.
+     * Both groups are labelled in the same pass.
+     *
+     * @param input    Source of the frame and cluster searches
+     * @param area     The tile polygon to search
+     * @param trapType The trap type whose pixel sets to use
+     * @param frame    Frame shared across tiles (null to fetch the current one)
+     */
+    public boolean hasAnyTrap(DetectionInput input, Polygon area, TrapType trapType, DetectionInput.Frame frame) {
+        if (area == null) {
+            return false;
+        }
+        ClusterParams params = getClusterParams(area, trapType);
+        TrapPixelMatcher.Labels labels = label(input, area, trapType, frame, params);
+        return confirm(input, area, trapType, false, labels, params).isPresent()
+            || confirm(input, area, trapType, true, labels, params).isPresent();
+    }
+
+    private TrapPixelMatcher.Labels label(DetectionInput input, Polygon area, TrapType trapType,
+                                          DetectionInput.Frame frame, ClusterParams params) {
+        DetectionInput.Frame source = frame != null ? frame : input.getFrame();
+        int step = halfResolutionPrePass && params.minClusterSize() >= HALF_RES_MIN_CLUSTER ? HALF_RES_STEP : 1;
+        if (source == null) {
+            return trapType.getPixelMatcher().label(null, 0, 0, area.getBounds(), step); // No frame - no candidates
+        }
+        return trapType.getPixelMatcher().label(source.pixels(), source.width(), source.height(), area.getBounds(), step);
+    }
+
+    /**
+     * Runs the cluster search for each set, sets with the most LUT candidates first.
+     */
+    private Optional<Rectangle> confirm(DetectionInput input, Polygon area, TrapType trapType, boolean collapsed,
+                                        TrapPixelMatcher.Labels labels, ClusterParams params) {
+        SearchablePixel[][] sets = collapsed
+            ? trapType.getCollapsedPixelClusters()
+            : trapType.getStandingPixelClusters();
+
+        for (int i : searchOrder(labels, collapsed, sets.length)) {
+            if (sets[i] == null || sets[i].length == 0) continue;
+
+            Optional<Rectangle> cluster = i < TrapPixelMatcher.MAX_SETS_PER_GROUP
+                ? searchLabelled(input, area, trapType, i, collapsed, labels, params)
+                : search(input, area, trapType, collapsed, i, params); // Sets beyond the matcher's capacity have no labels
+            if (cluster.isPresent()) {
+                ScriptLogger.debug(script, "Found %s trap pixels using cluster #%d (min %d, distance %d)",
+                    collapsed ? "collapsed" : "standing", i + 1, params.minClusterSize(), params.clusterDistance());
+                return cluster;
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    /**
+     * Searches one set where the LUT says it can be: nowhere if it has too few candidates, otherwise
+     * within the candidates' bounds. Empty results are audited against a whole-tile search.
+     */
+    private Optional<Rectangle> searchLabelled(DetectionInput input, Polygon area, TrapType trapType, int index,
+                                               boolean collapsed, TrapPixelMatcher.Labels labels, ClusterParams params) {
+        if (!lutEnabled) {
+            return search(input, area, trapType, collapsed, index, params);
+        }
+
+        Optional<Rectangle> cluster = Optional.empty();
+        if (hasEnoughCandidates(labels, collapsed, index, params)) {
+            lutCrops.incrementAndGet();
+            Rectangle candidates = collapsed ? labels.getCollapsedBounds(index) : labels.getStandingBounds(index);
+            cluster = search(input, cropToCandidates(area, candidates, labels.getSampleStep(), params), trapType,
+                collapsed, index, params);
+        } else {
+            lutSkips.incrementAndGet();
+        }
+        if (cluster.isPresent() || lutEmpty.incrementAndGet() % AUDIT_INTERVAL != 0) {
+            return cluster;
+        }
+
+        lutAudits.incrementAndGet();
+        cluster = search(input, area, trapType, collapsed, index, params);
+        if (cluster.isPresent()) {
+            lutMisses.incrementAndGet();
+            String missed = (collapsed ? "collapsed" : "standing") + " cluster (set #" + (index + 1) + ")";
+            if (labels.getSampleStep() > 1) {
+                halfResolutionPrePass = false;
+                ScriptLogger.warning(script, "Half-resolution pre-pass missed a " + missed +
+                    " - labelling at full resolution for the rest of the session");
+            } else {
+                lutEnabled = false;
+                ScriptLogger.warning(script, "LUT pre-filter missed a " + missed +
+                    " - searching whole tiles for the rest of the session");
+            }
+        }
+        return cluster;
+    }
+
+    /**
+     * Orders set indices by LUT candidate count, most first. Sets the matcher does not cover go last.
+     */
+    private static int[] searchOrder(TrapPixelMatcher.Labels labels, boolean collapsed, int setCount) {
+        int[] order = new int[setCount];
+        int[] counts = new int[setCount];
+        for (int i = 0; i < setCount; i++) {
+            int count = i >= TrapPixelMatcher.MAX_SETS_PER_GROUP ? -1
+                : collapsed ? labels.getCollapsedCount(i) : labels.getStandingCount(i);
+            // Insertion sort - there are only a handful of sets
+            int j = i;
+            while (j > 0 && counts[j - 1] < count) {
+                order[j] = order[j - 1];
+                counts[j] = counts[j - 1];
+                j--;
+            }
+            order[j] = i;
+            counts[j] = count;
+        }
+        return order;
+    }
+
+    private static boolean hasEnoughCandidates(TrapPixelMatcher.Labels labels, boolean collapsed, int set,
+                                               ClusterParams params) {
+        int step = labels.getSampleStep();
+        int candidates = collapsed ? labels.getCollapsedCount(set) : labels.getStandingCount(set);
+        double estimated = (double) candidates * step * step;
+        double required = step > 1 ? params.minClusterSize() * HALF_RES_SLACK : params.minClusterSize();
+        return estimated >= required;
+    }
+
+    private static Optional<Rectangle> search(DetectionInput input, Polygon area, TrapType trapType, boolean collapsed,
+                                              int set, ClusterParams params) {
+        return Optional.ofNullable(input.findTrapCluster(area, trapType, collapsed, set,
+            params.clusterDistance(), params.minClusterSize()));
+    }
+
+    /**
+     * Clips the tile polygon to a set's candidate bounds, padded so a cluster reaching past the
+     * sampled candidates is not cut off. Returns the whole tile when the crop would barely shrink it.
+     */
+    private static Polygon cropToCandidates(Polygon area, Rectangle candidates, int step, ClusterParams params) {
+        Rectangle tile = area.getBounds();
+        if (candidates == null || tile == null) {
+            return area;
+        }
+        int pad = params.clusterDistance() + step;
+        int minX = Math.max(tile.x, candidates.x - pad);
+        int minY = Math.max(tile.y, candidates.y - pad);
+        int maxX = Math.min(tile.x + tile.width, candidates.x + candidates.width + pad);
+        int maxY = Math.min(tile.y + tile.height, candidates.y + candidates.height + pad);
+        if ((double) (maxX - minX) * (maxY - minY) >= (double) tile.width * tile.height * MIN_CROP_GAIN) {
+            return area;
+        }
+
+        // Sutherland-Hodgman against the four edges of the crop
+        int[] xs = area.getXPoints();
+        int[] ys = area.getYPoints();
+        if (xs == null || ys == null) {
+            return area;
+        }
+        List<double[]> points = new ArrayList<>(xs.length);
+        for (int i = 0; i < xs.length; i++) {
+            points.add(new double[] { xs[i], ys[i] });
+        }
+        points = clipEdge(points, 0, minX, true);
+        points = clipEdge(points, 0, maxX, false);
+        points = clipEdge(points, 1, minY, true);
+        points = clipEdge(points, 1, maxY, false);
+        if (points.size() < 3) {
+            return area;
+        }
+
+        Polygon cropped = new Polygon();
+        for (double[] point : points) {
+            cropped.addVertex((int) Math.round(point[0]), (int) Math.round(point[1]));
+        }
+        return cropped;
+    }
+
+    /**
+     * Clips a polygon against one axis-aligned edge.
+     *
+     * @param axis      0 for x, 1 for y
+     * @param keepAbove true to keep the side at or above the bound
+     */
+    private static List<double[]> clipEdge(List<double[]> input, int axis, double bound, boolean keepAbove) {
+        List<double[]> output = new ArrayList<>(input.size() + 2);
+        for (int i = 0; i < input.size(); i++) {
+            double[] current = input.get(i);
+            double[] previous = input.get((i + input.size() - 1) % input.size());
+            boolean currentInside = keepAbove ? current[axis] >= bound : current[axis] <= bound;
+            boolean previousInside = keepAbove ? previous[axis] >= bound : previous[axis] <= bound;
+            if (currentInside != previousInside) {
+                double t = (bound - previous[axis]) / (current[axis] - previous[axis]);
+                output.add(new double[] {
+                    previous[0] + t * (current[0] - previous[0]),
+                    previous[1] + t * (current[1] - previous[1])
+                });
+            }
+            if (currentInside) {
+                output.add(current);
+            }
+        }
+        return output;
+    }
+
+    /**
+     * Shoelace area of a polygon in px².
+     */
+    private static double polygonArea(Polygon polygon) {
+        int[] xs = polygon.getXPoints();
+        int[] ys = polygon.getYPoints();
+        if (xs == null || ys == null || xs.length < 3) {
+            return 0;
+        }
+        long twiceArea = 0;
+        for (int i = 0, j = xs.length - 1; i < xs.length; j = i++) {
+            twiceArea += (long) xs[j] * ys[i] - (long) xs[i] * ys[j];
+        }
+        return Math.abs(twiceArea) / 2.0;
+    }
+}
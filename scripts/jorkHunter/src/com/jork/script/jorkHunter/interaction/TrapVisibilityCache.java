@@ -0,0 +1,364 @@
+package com.jork.script.jorkHunter.interaction;
+
+import com.jork.script.jorkHunter.JorkHunter;
+import com.jork.utils.LogRateLimit;
+import com.jork.utils.ScriptLogger;
+import com.osmb.api.location.position.types.WorldPosition;
+import com.osmb.api.scene.RSTile;
+import com.osmb.api.shape.Polygon;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Caches on-screen visibility results for trap tiles.
+ * Tile projections stay valid while the player tile and camera signature are unchanged,
+ * so repeated queries within and across polls skip the scene lookup and projection.
+ *
+ * <p>The camera signature is derived from the projected polygon of the player's tile.
+ * Any zoom, yaw or pitch change moves those vertices, which invalidates the cache.
+ * The signature is only re-read when the screen frame (UUID) changes.
+ *
+ * <p>UI occlusion (inventory, chatbox, minimenu) can change without the camera moving,
+ * so the WidgetManager occlusion factor is only reused within the same screen frame.
+ */
+public class TrapVisibilityCache {
+
+    /**
+     * Cached visibility data for a single tile.
+     *
+     * @param inScene          true if the tile exists in the loaded scene
+     * @param onGameScreen     true if the tile is within the game screen bounds
+     * @param visibilityFactor fraction of the tile polygon not covered by UI (0.0 to 1.0)
+     */
+    public record TileVisibility(boolean inScene, boolean onGameScreen, double visibilityFactor) {
+        static final TileVisibility NOT_IN_SCENE = new TileVisibility(false, false, 0.0);
+    }
+
+    /**
+     * Camera-dependent part of a tile's visibility (null polygon = not in scene).
+     */
+    private record Projection(Polygon tilePoly, boolean onGameScreen) {
+        static final Projection NOT_IN_SCENE = new Projection(null, false);
+    }
+
+    // Occlusion is re-measured every frame
+    private static final LogRateLimit OCCLUDED_LOG = LogRateLimit.perInterval(5_000);
+
+    private final JorkHunter script;
+    private final double visibilityThreshold;
+    private final Map<WorldPosition, Projection> entries = new HashMap<>();
+    private final Map<WorldPosition, TileVisibility> frameResults = new HashMap<>(); // Cleared every frame
+
+    private UUID lastScreenUUID = null;
+    private WorldPosition playerTile = null;
+    private long cameraSignature = 0L;
+    private boolean signatureValid = false;
+    private int generation = 0;
+
+    // Simple counters for debugging cache effectiveness
+    private long hits = 0;
+    private long misses = 0;
+
+    public TrapVisibilityCache(JorkHunter script, double visibilityThreshold) {
+        this.script = script;
+        this.visibilityThreshold = visibilityThreshold;
+    }
+
+    /**
+     * Gets the cached visibility data for a tile, computing it on a cache miss.
+     *
+     * @param position The tile to check
+     * @return Visibility data (never null)
+     */
+    public TileVisibility get(WorldPosition position) {
+        if (position == null) {
+            return TileVisibility.NOT_IN_SCENE;
+        }
+
+        validate();
+
+        TileVisibility result = frameResults.get(position);
+        if (result != null) {
+            return result;
+        }
+
+        result = measure(position, projection(position));
+        frameResults.put(position, result);
+        return result;
+    }
+
+    /**
+     * Checks if a tile is in the scene and on the game screen from its projection alone.
+     * Unlike {@link #get}, this never measures UI occlusion, so the answer stays valid
+     * until the camera or player moves.
+     */
+    public boolean isProjectedOnScreen(WorldPosition position) {
+        if (position == null) {
+            return false;
+        }
+
+        validate();
+
+        Projection projection = projection(position);
+        return projection.tilePoly() != null && projection.onGameScreen();
+    }
+
+    /**
+     * Checks if a tile is visible above the occlusion threshold.
+     */
+    public boolean isVisible(WorldPosition position) {
+        TileVisibility visibility = get(position);
+        return visibility.inScene() && visibility.visibilityFactor() >= visibilityThreshold;
+    }
+
+    /**
+     * Checks if a tile is in the scene and on the game screen (ignores UI occlusion).
+     */
+    public boolean isOnScreen(WorldPosition position) {
+        return isProjectedOnScreen(position);
+    }
+
+    /**
+     * Gets the visibility factor for a tile.
+     *
+     * @return Visibility factor (0.0 if the tile is not in scene)
+     */
+    public double getVisibilityFactor(WorldPosition position) {
+        return get(position).visibilityFactor();
+    }
+
+    // ───────────────────────────────────────────────────────────────────────
+    // Bulk queries
+    // ───────────────────────────────────────────────────────────────────────
+
+    /**
+     * Returns the positions that are visible above the occlusion threshold.
+     */
+    public List<WorldPosition> getVisible(Collection<WorldPosition> positions) {
+        List<WorldPosition> visible = new ArrayList<>();
+        for (WorldPosition pos : positions) {
+            if (isVisible(pos)) {
+                visible.add(pos);
+            }
+        }
+        return visible;
+    }
+
+    /**
+     * Returns the positions that are in scene but occluded by UI.
+     */
+    public List<WorldPosition> getOccluded(Collection<WorldPosition> positions) {
+        List<WorldPosition> occluded = new ArrayList<>();
+        for (WorldPosition pos : positions) {
+            TileVisibility visibility = get(pos);
+            if (visibility.inScene() && visibility.visibilityFactor() < visibilityThreshold) {
+                occluded.add(pos);
+            }
+        }
+        return occluded;
+    }
+
+    /**
+     * Returns the positions that are not in scene or outside the game screen.
+     */
+    public List<WorldPosition> getOffScreen(Collection<WorldPosition> positions) {
+        List<WorldPosition> offScreen = new ArrayList<>();
+        for (WorldPosition pos : positions) {
+            if (!isOnScreen(pos)) {
+                offScreen.add(pos);
+            }
+        }
+        return offScreen;
+    }
+
+    /**
+     * Checks if at least one of the positions is on screen.
+     */
+    public boolean anyOnScreen(Collection<WorldPosition> positions) {
+        for (WorldPosition pos : positions) {
+            if (isOnScreen(pos)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks if every position is visible above the occlusion threshold.
+     */
+    public boolean allVisible(Collection<WorldPosition> positions) {
+        for (WorldPosition pos : positions) {
+            if (!isVisible(pos)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // ───────────────────────────────────────────────────────────────────────
+    // Invalidation
+    // ───────────────────────────────────────────────────────────────────────
+
+    /**
+     * Drops all cached entries. The next query recomputes the signature.
+     */
+    public void invalidate() {
+        entries.clear();
+        frameResults.clear();
+        lastScreenUUID = null;
+        signatureValid = false;
+        generation++;
+    }
+
+    /**
+     * Gets the current camera signature (refreshing it if the screen changed).
+     * Other caches can compare this value to detect camera or player movement.
+     */
+    public long getCameraSignature() {
+        validate();
+        return cameraSignature;
+    }
+
+    /**
+     * Gets a counter that increments every time cached entries are discarded.
+     * Dependent caches can store this value and rebuild when it changes.
+     */
+    public int getGeneration() {
+        validate();
+        return generation;
+    }
+
+    public long getHitCount() {
+        return hits;
+    }
+
+    public long getMissCount() {
+        return misses;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Re-reads the camera signature when a new screen frame is available and
+     * clears the cache if the player tile or camera changed.
+     */
+    private void validate() {
+        UUID screenUUID = script.getScreen().getUUID();
+        if (screenUUID != null && screenUUID.equals(lastScreenUUID)) {
+            return; // Same frame - nothing can have changed
+        }
+        lastScreenUUID = screenUUID;
+        frameResults.clear(); // UI may have opened or closed since the last frame
+
+        WorldPosition currentPlayerTile = script.getWorldPosition();
+        Long signature = computeCameraSignature(currentPlayerTile);
+
+        boolean stable = signature != null;
+        boolean changed = !stable
+            || !signatureValid
+            || signature != cameraSignature
+            || !Objects.equals(currentPlayerTile, playerTile);
+
+        if (changed) {
+            if (!entries.isEmpty()) {
+                ScriptLogger.debug(script, "Visibility cache invalidated (%d entries)", entries.size());
+            }
+            entries.clear();
+            generation++;
+        }
+
+        playerTile = currentPlayerTile;
+        cameraSignature = stable ? signature : 0L;
+        signatureValid = stable;
+    }
+
+    /**
+     * Hashes the projected vertices of the player's tile.
+     *
+     * @return The signature, or null if the player tile cannot be projected
+     */
+    private Long computeCameraSignature(WorldPosition playerPos) {
+        if (playerPos == null) {
+            return null;
+        }
+        Polygon playerPoly = script.getSceneProjector().getTilePoly(playerPos);
+        if (playerPoly == null) {
+            return null;
+        }
+        int[] xPoints = playerPoly.getXPoints();
+        int[] yPoints = playerPoly.getYPoints();
+        if (xPoints == null || yPoints == null) {
+            return null;
+        }
+
+        long hash = 1125899906842597L;
+        for (int i = 0; i < xPoints.length; i++) {
+            hash = 31 * hash + xPoints[i];
+            hash = 31 * hash + yPoints[i];
+        }
+        return hash;
+    }
+
+    /**
+     * Gets the cached projection of a tile, projecting it on a cache miss.
+     */
+    private Projection projection(WorldPosition position) {
+        Projection projection = entries.get(position);
+        if (projection != null) {
+            hits++;
+            return projection;
+        }
+
+        misses++;
+        projection = project(position);
+        // Only cache projections that were taken against a stable camera signature
+        if (signatureValid) {
+            entries.put(position, projection);
+        }
+        return projection;
+    }
+
+    /**
+     * Resolves and projects a tile (valid until the camera or player moves).
+     */
+    private Projection project(WorldPosition position) {
+        RSTile tile = script.getSceneManager().getTile(position);
+        if (tile == null) {
+            return Projection.NOT_IN_SCENE;
+        }
+
+        Polygon tilePoly = tile.getTilePoly();
+        if (tilePoly == null) {
+            return Projection.NOT_IN_SCENE;
+        }
+        return new Projection(tilePoly, tile.isOnGameScreen());
+    }
+
+    /**
+     * Measures UI occlusion of a projected tile against the current frame's widgets.
+     */
+    private TileVisibility measure(WorldPosition position, Projection projection) {
+        if (projection.tilePoly() == null) {
+            return TileVisibility.NOT_IN_SCENE;
+        }
+
+        boolean onGameScreen = projection.onGameScreen();
+        double factor = script.getWidgetManager()
+            .insideGameScreenFactor(projection.tilePoly(), Collections.emptyList());
+
+        if (factor < visibilityThreshold) {
+            ScriptLogger.debug(script, OCCLUDED_LOG, "Trap at %s is occluded (visibility: %.2f)", position, factor);
+        }
+
+        return new TileVisibility(true, onGameScreen, factor);
+    }
+}
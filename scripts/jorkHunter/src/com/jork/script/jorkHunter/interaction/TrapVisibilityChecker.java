@@ -4,12 +4,12 @@ import com.jork.script.jorkHunter.JorkHunter;
 import com.jork.utils.ScriptLogger;
 import com.osmb.api.location.position.types.WorldPosition;
 import com.osmb.api.location.area.impl.RectangleArea;
-import com.osmb.api.scene.RSTile;
-import com.osmb.api.shape.Polygon;
 import com.osmb.api.utils.Utils;
 
-import java.util.Collections;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Utility class for checking trap visibility and finding optimal viewing positions.
@@ -19,13 +19,18 @@ public class TrapVisibilityChecker {
     
     private static final double VISIBILITY_THRESHOLD = 0.7; // 70% visible threshold
     private final JorkHunter script;
+    private final TrapVisibilityCache cache;
+    private final ViewingPositionMap viewingPositions;
     
     public TrapVisibilityChecker(JorkHunter script) {
         this.script = script;
+        this.cache = new TrapVisibilityCache(script, VISIBILITY_THRESHOLD);
+        this.viewingPositions = new ViewingPositionMap(script, cache, VISIBILITY_THRESHOLD);
     }
     
     /**
      * Checks if a trap at the given position is visible (not occluded by UI elements).
+     * Results are served from the visibility cache while the player and camera are still.
      * 
      * @param trapPos The world position of the trap to check
      * @return true if the trap is visible (above threshold), false if occluded
@@ -35,32 +40,68 @@ public class TrapVisibilityChecker {
             return false;
         }
         
-        // Get the tile for the trap position
-        RSTile trapTile = script.getSceneManager().getTile(trapPos);
-        if (trapTile == null) {
-            ScriptLogger.debug(script, "Trap tile is null for position: " + trapPos);
+        TrapVisibilityCache.TileVisibility visibility = cache.get(trapPos);
+        if (!visibility.inScene()) {
             return false; // Off-screen or invalid
         }
         
-        // Get the tile polygon for visibility checking
-        Polygon trapArea = trapTile.getTilePoly();
-        if (trapArea == null) {
-            ScriptLogger.debug(script, "Trap tile polygon is null for position: " + trapPos);
-            return false;
+        return visibility.visibilityFactor() >= VISIBILITY_THRESHOLD;
+    }
+    
+    /**
+     * Checks if a trap tile is in the scene and on the game screen (ignores UI occlusion).
+     * 
+     * @param trapPos The world position of the trap to check
+     * @return true if the tile is on the game screen
+     */
+    public boolean isTrapOnScreen(WorldPosition trapPos) {
+        return cache.isOnScreen(trapPos);
+    }
+    
+    /**
+     * Gets the shared visibility cache for bulk queries.
+     * 
+     * @return The visibility cache
+     */
+    public TrapVisibilityCache getCache() {
+        return cache;
+    }
+    
+    /**
+     * Finds the best position within hunting zones to view an occluded trap, preferring
+     * standing tiles that keep every pattern tile visible and fix the most occluded traps.
+     * Falls back to the deterministic radius search if the precomputed map has no candidate.
+     * 
+     * @param trapPos The position of the occluded trap
+     * @param occludedTraps All traps currently needing repositioning
+     * @param patternTiles All tracked trap tiles
+     * @param huntingZones List of valid hunting zones to search within
+     * @return A suitable viewing position, or null if none found
+     */
+    public WorldPosition findBestViewingPosition(WorldPosition trapPos, Collection<WorldPosition> occludedTraps,
+                                                 Collection<WorldPosition> patternTiles, List<RectangleArea> huntingZones) {
+        if (trapPos == null || huntingZones == null || huntingZones.isEmpty()) {
+            return null;
         }
         
-        // Check visibility factor using WidgetManager
-        double visibilityFactor = script.getWidgetManager()
-            .insideGameScreenFactor(trapArea, Collections.emptyList());
-        
-        boolean isVisible = visibilityFactor >= VISIBILITY_THRESHOLD;
+        Set<WorldPosition> pattern = new HashSet<>(patternTiles);
+        pattern.add(trapPos);
         
-        if (!isVisible) {
-            ScriptLogger.debug(script, "Trap at " + trapPos + " is occluded (visibility: " + 
-                String.format("%.2f", visibilityFactor) + ")");
+        WorldPosition mapped = viewingPositions.findBest(trapPos, occludedTraps, pattern, huntingZones);
+        if (mapped != null) {
+            return mapped;
         }
         
-        return isVisible;
+        return findBestViewingPosition(trapPos, huntingZones);
+    }
+    
+    /**
+     * Gets the precomputed viewing-position map.
+     * 
+     * @return The viewing-position map
+     */
+    public ViewingPositionMap getViewingPositionMap() {
+        return viewingPositions;
     }
     
     /**
@@ -86,7 +127,7 @@ public class TrapVisibilityChecker {
         
         for (WorldPosition candidate : oneRadius) {
             if (isValidViewingPosition(candidate, huntingZones)) {
-                ScriptLogger.debug(script, "Found 1-tile viewing position: " + candidate + " (distance: 1 from trap)");
+                ScriptLogger.debug(script, "Found 1-tile viewing position: %s (distance: 1 from trap)", candidate);
                 return candidate;
             }
         }
@@ -113,8 +154,7 @@ public class TrapVisibilityChecker {
         for (WorldPosition candidate : twoRadius) {
             if (isValidViewingPosition(candidate, huntingZones)) {
                 double distance = candidate.distanceTo(trapPos);
-                ScriptLogger.debug(script, "Found 2-tile viewing position: " + candidate + 
-                    " (distance: " + distance + " from trap)");
+                ScriptLogger.debug(script, "Found 2-tile viewing position: %s (distance: %s from trap)", candidate, distance);
                 return candidate;
             }
         }
@@ -158,4 +198,4 @@ public class TrapVisibilityChecker {
     public double getVisibilityThreshold() {
         return VISIBILITY_THRESHOLD;
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
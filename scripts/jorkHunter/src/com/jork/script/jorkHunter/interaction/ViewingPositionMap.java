@@ -0,0 +1,237 @@
+package com.jork.script.jorkHunter.interaction;
+
+import com.jork.script.jorkHunter.JorkHunter;
+import com.jork.utils.ScriptLogger;
+import com.osmb.api.location.area.impl.RectangleArea;
+import com.osmb.api.location.position.types.WorldPosition;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Precomputed lookup from each trap tile to a ranked list of standing tiles that keep it on screen.
+ * Built once per pattern/zone set and rebuilt lazily when the camera signature changes.
+ *
+ * <p>The camera follows the player, so a tile T seen from standing tile S projects roughly where
+ * tile {@code P + (T - S)} projects from the current player tile P. Projections from a hypothetical
+ * standing tile are therefore read from the shared {@link TrapVisibilityCache} by translation, and
+ * the ranking only depends on the camera, not on which tile the player stands on.
+ *
+ * <p>UI occlusion (inventory, chatbox, minimenu) changes without the camera moving, so it is not
+ * part of the ranking. {@link #findBest} re-checks it on the current frame for the top candidates only.
+ */
+public class ViewingPositionMap {
+
+    private static final int SEARCH_RADIUS = 2;        // Matches the 1-2 tile radius of the manual search
+    private static final int RECHECKED_CANDIDATES = 5; // Unoccluded candidates compared per lookup
+
+    /**
+     * A standing tile and the pattern tiles that project on screen from it.
+     *
+     * @param position     The standing tile
+     * @param visibleTraps Pattern tiles on the game screen from this tile (before UI occlusion)
+     * @param allVisible   true if every pattern tile is on the game screen from this tile
+     */
+    public record ViewingCandidate(WorldPosition position, Set<WorldPosition> visibleTraps, boolean allVisible) {
+        public boolean covers(WorldPosition trapPos) {
+            return visibleTraps.contains(trapPos);
+        }
+    }
+
+    private final JorkHunter script;
+    private final TrapVisibilityCache cache;
+    private final double visibilityThreshold;
+
+    private final Map<WorldPosition, List<ViewingCandidate>> rankedByTrap = new HashMap<>();
+    private Set<WorldPosition> builtPattern = Collections.emptySet();
+    private List<RectangleArea> builtZones = Collections.emptyList();
+    private long builtSignature = 0L;
+    private boolean built = false;
+
+    public ViewingPositionMap(JorkHunter script, TrapVisibilityCache cache, double visibilityThreshold) {
+        this.script = script;
+        this.cache = cache;
+        this.visibilityThreshold = visibilityThreshold;
+    }
+
+    /**
+     * Gets the ranked standing tiles for a trap, best first. UI occlusion is not taken into account.
+     * Rebuilds the map if the pattern, zones or camera signature changed since the last build.
+     *
+     * @param trapPos      The trap tile to view
+     * @param patternTiles All trap tiles that should stay visible
+     * @param huntingZones Zones the player is allowed to stand in
+     * @return Ranked candidates (empty if none keep the trap on screen)
+     */
+    public List<ViewingCandidate> getRanked(WorldPosition trapPos, Collection<WorldPosition> patternTiles,
+                                            List<RectangleArea> huntingZones) {
+        ensureBuilt(patternTiles, huntingZones);
+        return rankedByTrap.getOrDefault(trapPos, Collections.emptyList());
+    }
+
+    /**
+     * Picks the standing tile for a trap that also fixes the most other occluded traps.
+     * Walks the ranked candidates and measures UI occlusion on the current frame until
+     * {@value #RECHECKED_CANDIDATES} of them keep the trap visible.
+     *
+     * @param trapPos       The trap that must become visible
+     * @param occludedTraps Other traps that currently need repositioning
+     * @param patternTiles  All trap tiles that should stay visible
+     * @param huntingZones  Zones the player is allowed to stand in
+     * @return The best standing tile, or null if no candidate keeps the trap visible
+     */
+    public WorldPosition findBest(WorldPosition trapPos, Collection<WorldPosition> occludedTraps,
+                                  Collection<WorldPosition> patternTiles, List<RectangleArea> huntingZones) {
+        List<ViewingCandidate> ranked = getRanked(trapPos, patternTiles, huntingZones);
+        WorldPosition playerTile = script.getWorldPosition();
+        if (ranked.isEmpty() || playerTile == null) {
+            return null;
+        }
+
+        ViewingCandidate best = null;
+        int bestFixed = -1;
+        int bestVisible = 0;
+        int rechecked = 0;
+        for (ViewingCandidate candidate : ranked) {
+            Set<WorldPosition> visible = visibleNow(candidate, playerTile);
+            if (!visible.contains(trapPos)) {
+                continue; // UI covers the trap from this tile on the current frame
+            }
+
+            int fixed = 0;
+            for (WorldPosition occluded : occludedTraps) {
+                if (visible.contains(occluded)) {
+                    fixed++;
+                }
+            }
+            // Ranked order breaks remaining ties (full coverage, then coverage, then distance)
+            if (fixed > bestFixed || (fixed == bestFixed && visible.size() > bestVisible)) {
+                best = candidate;
+                bestFixed = fixed;
+                bestVisible = visible.size();
+            }
+            if (++rechecked >= RECHECKED_CANDIDATES) {
+                break;
+            }
+        }
+
+        if (best == null) {
+            return null;
+        }
+        ScriptLogger.debug(script, "Viewing position %s for trap %s fixes %d occluded trap(s), sees %d/%d",
+            best.position(), trapPos, bestFixed, bestVisible, builtPattern.size());
+        return best.position();
+    }
+
+    /**
+     * Forces a rebuild on the next lookup.
+     */
+    public void invalidate() {
+        built = false;
+    }
+
+    private void ensureBuilt(Collection<WorldPosition> patternTiles, List<RectangleArea> huntingZones) {
+        long signature = cache.getCameraSignature(); // 0 while the camera cannot be measured
+        Set<WorldPosition> pattern = new LinkedHashSet<>(patternTiles);
+
+        if (built && signature != 0L && signature == builtSignature
+                && pattern.equals(builtPattern)
+                && huntingZones.equals(builtZones)) {
+            return;
+        }
+
+        rebuild(pattern, huntingZones);
+        builtPattern = pattern;
+        builtZones = new ArrayList<>(huntingZones);
+        builtSignature = signature;
+        built = true;
+    }
+
+    private void rebuild(Set<WorldPosition> pattern, List<RectangleArea> huntingZones) {
+        rankedByTrap.clear();
+
+        WorldPosition playerTile = script.getWorldPosition();
+        if (playerTile == null || pattern.isEmpty()) {
+            return;
+        }
+
+        // Collect standing tiles within the search radius of any pattern tile
+        Set<WorldPosition> standingTiles = new LinkedHashSet<>();
+        for (WorldPosition trapPos : pattern) {
+            for (int dx = -SEARCH_RADIUS; dx <= SEARCH_RADIUS; dx++) {
+                for (int dy = -SEARCH_RADIUS; dy <= SEARCH_RADIUS; dy++) {
+                    WorldPosition candidate = new WorldPosition(trapPos.getX() + dx, trapPos.getY() + dy, trapPos.getPlane());
+                    if (pattern.contains(candidate)) {
+                        continue; // Can't stand on a trap
+                    }
+                    if (huntingZones.stream().anyMatch(zone -> zone.contains(candidate))) {
+                        standingTiles.add(candidate);
+                    }
+                }
+            }
+        }
+
+        List<ViewingCandidate> candidates = new ArrayList<>();
+        for (WorldPosition standing : standingTiles) {
+            Set<WorldPosition> visible = new HashSet<>();
+            for (WorldPosition trapPos : pattern) {
+                if (cache.isProjectedOnScreen(translate(standing, trapPos, playerTile))) {
+                    visible.add(trapPos);
+                }
+            }
+            if (!visible.isEmpty()) {
+                candidates.add(new ViewingCandidate(standing, visible, visible.size() == pattern.size()));
+            }
+        }
+
+        for (WorldPosition trapPos : pattern) {
+            List<ViewingCandidate> ranked = new ArrayList<>();
+            for (ViewingCandidate candidate : candidates) {
+                if (candidate.covers(trapPos)) {
+                    ranked.add(candidate);
+                }
+            }
+            ranked.sort(Comparator
+                .comparing((ViewingCandidate c) -> !c.allVisible())
+                .thenComparingInt(c -> -c.visibleTraps().size())
+                .thenComparingDouble(c -> c.position().distanceTo(trapPos))
+                .thenComparingDouble(c -> c.position().distanceTo(playerTile)));
+            rankedByTrap.put(trapPos, ranked);
+        }
+
+        ScriptLogger.debug(script, "Built viewing-position map: %d standing tiles for %d trap tiles",
+            candidates.size(), pattern.size());
+    }
+
+    /**
+     * Gets the candidate's pattern tiles that are also above the occlusion threshold on the current frame.
+     */
+    private Set<WorldPosition> visibleNow(ViewingCandidate candidate, WorldPosition playerTile) {
+        Set<WorldPosition> visible = new HashSet<>();
+        for (WorldPosition trapPos : candidate.visibleTraps()) {
+            TrapVisibilityCache.TileVisibility visibility = cache.get(translate(candidate.position(), trapPos, playerTile));
+            if (visibility.inScene() && visibility.visibilityFactor() >= visibilityThreshold) {
+                visible.add(trapPos);
+            }
+        }
+        return visible;
+    }
+
+    /**
+     * Gets the tile that projects, from the player's tile, where the trap tile would project from the standing tile.
+     */
+    private static WorldPosition translate(WorldPosition standing, WorldPosition trapPos, WorldPosition playerTile) {
+        return new WorldPosition(
+            playerTile.getX() + (trapPos.getX() - standing.getX()),
+            playerTile.getY() + (trapPos.getY() - standing.getY()),
+            playerTile.getPlane());
+    }
+}
@@ -46,6 +46,10 @@ public class ScriptOptions extends VBox {
     private final CheckBox expediteCollectionCheck;
     private final TextField expediteChanceInput;
     private final CheckBox debugLoggingCheck;
+    private final TextField debugComponentsInput;
+    private final CheckBox signatureCaptureCheck;
+    private final CheckBox frameRecordingCheck;
+    private final CheckBox binaryLogCheck;
     // Removed distance-based prioritization checkbox - now permanently enabled
     private final CheckBox xpFailsafeCheck;
     private final TextField xpFailsafeTimeoutInput;
@@ -244,6 +248,41 @@ public class ScriptOptions extends VBox {
         debugLoggingCheck.setStyle(getCheckBoxStyle());
         debugLoggingCheck.setSelected(false);
         
+        // Debug logging for selected classes/packages only
+        Label debugComponentsLabel = new Label("Debug only:");
+        debugComponentsLabel.setStyle("-fx-text-fill: " + TEXT_PRIMARY + "; -fx-font-size: 10px;");
+        
+        debugComponentsInput = new TextField();
+        debugComponentsInput.setPromptText("e.g. ChatBoxListener, TrapStateManager");
+        debugComponentsInput.setPrefWidth(230);
+        debugComponentsInput.setStyle(getTextFieldStyle());
+        
+        // Not needed while everything is debugged
+        debugLoggingCheck.selectedProperty().addListener((obs, oldVal, newVal) -> {
+            debugComponentsInput.setDisable(newVal);
+        });
+        
+        HBox debugComponentsBox = new HBox(5, debugComponentsLabel, debugComponentsInput);
+        debugComponentsBox.setAlignment(Pos.CENTER_LEFT);
+        debugComponentsBox.setPadding(new Insets(0, 0, 0, 20));
+        
+        VBox debugBox = new VBox(5, debugLoggingCheck, debugComponentsBox);
+        
+        // Pixel signature capture (tooling for new trap pixel definitions)
+        signatureCaptureCheck = new CheckBox("Capture pixel signatures (label tiles every 90s)");
+        signatureCaptureCheck.setStyle(getCheckBoxStyle());
+        signatureCaptureCheck.setSelected(false);
+        
+        // Frame recording (replay tooling)
+        frameRecordingCheck = new CheckBox("Record detection frames for replay");
+        frameRecordingCheck.setStyle(getCheckBoxStyle());
+        frameRecordingCheck.setSelected(false);
+        
+        // Binary structured log (read offline with BinaryLogReader)
+        binaryLogCheck = new CheckBox("Write binary structured log");
+        binaryLogCheck.setStyle(getCheckBoxStyle());
+        binaryLogCheck.setSelected(false);
+        
         // Distance-based prioritization is now permanently enabled
         // (removed checkbox - always uses nearest trap for efficiency)
         
@@ -297,7 +336,7 @@ public class ScriptOptions extends VBox {
                                         xpFailsafePauseDuringLogoutCheck, pauseInfo);
         failsafeSection.setPadding(new Insets(8, 0, 0, 0));
 
-        VBox advancedSection = new VBox(8, advancedSectionLabel, levelRow, expediteBox, debugLoggingCheck, failsafeSection);
+        VBox advancedSection = new VBox(8, advancedSectionLabel, levelRow, expediteBox, debugBox, signatureCaptureCheck, frameRecordingCheck, binaryLogCheck, failsafeSection);
         advancedSection.setPadding(new Insets(0, 0, 10, 0));
 
         // ── Action Button Section ─────────────────────────────────
@@ -322,6 +361,10 @@ public class ScriptOptions extends VBox {
             strategyOptions.put("expediteChance", getExpediteCollectionChance());
             // Add debug logging setting
             strategyOptions.put("debugLogging", isDebugLoggingEnabled());
+            strategyOptions.put("debugComponents", getDebugComponents());
+            strategyOptions.put("signatureCapture", isSignatureCaptureEnabled());
+            strategyOptions.put("frameRecording", isFrameRecordingEnabled());
+            strategyOptions.put("binaryLog", isBinaryLogEnabled());
             // Distance-based prioritization is now permanently enabled
             // strategyOptions.put("distanceBasedPrioritization", true);
             
@@ -581,6 +624,35 @@ public class ScriptOptions extends VBox {
         return debugLoggingCheck.isSelected();
     }
     
+    /**
+     * Gets the classes or packages to debug while global debug logging is off.
+     * @return Comma-separated component names, empty for none
+     */
+    public String getDebugComponents() {
+        return debugComponentsInput.getText().trim();
+    }
+    
+    /**
+     * Gets whether pixel signature capture is enabled.
+     */
+    public boolean isSignatureCaptureEnabled() {
+        return signatureCaptureCheck.isSelected();
+    }
+    
+    /**
+     * Gets whether detection frame recording is enabled.
+     */
+    public boolean isFrameRecordingEnabled() {
+        return frameRecordingCheck.isSelected();
+    }
+    
+    /**
+     * Gets whether the binary structured log is written.
+     */
+    public boolean isBinaryLogEnabled() {
+        return binaryLogCheck.isSelected();
+    }
+    
     // Area dropdown removed - using TilePicker for location selection
     
     /**
@@ -0,0 +1,29 @@
+package com.jork.script.jorkHunter.replay;
+
+import com.jork.script.jorkHunter.state.DetectionInput;
+import com.osmb.api.location.position.types.WorldPosition;
+import com.osmb.api.shape.Polygon;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One recorded scan: the detection input the TrapStateManager saw plus the screen frame behind it.
+ *
+ * @param timestamp      Capture time in ms
+ * @param scan           Which TrapStateManager call made the scan
+ * @param playerPosition Player position, or null if unknown
+ * @param circles        Respawn circles with resolved positions
+ * @param tiles          Tile polygons looked up during the scan (null values for tiles off screen)
+ * @param frameWidth     Frame width (0 if no frame)
+ * @param frameHeight    Frame height (0 if no frame)
+ * @param pixels         Packed RGB frame pixels, or null if no frame was captured
+ */
+public record FrameRecord(long timestamp, DetectionInput.Scan scan, WorldPosition playerPosition,
+                          List<DetectionInput.ObservedCircle> circles, Map<WorldPosition, Polygon> tiles,
+                          int frameWidth, int frameHeight, int[] pixels) {
+
+    public boolean hasFrame() {
+        return pixels != null;
+    }
+}
@@ -0,0 +1,348 @@
+package com.jork.script.jorkHunter.replay;
+
+import com.jork.script.jorkHunter.JorkHunter;
+import com.jork.script.jorkHunter.state.DetectionInput;
+import com.jork.script.jorkHunter.trap.TrapType;
+import com.jork.utils.ScriptLogger;
+import com.osmb.api.location.position.types.WorldPosition;
+import com.osmb.api.shape.Polygon;
+import com.osmb.api.shape.Rectangle;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+
+/**
+ * Records every TrapStateManager scan to a local file while switched on.
+ * Wraps the live {@link DetectionInput}: each circle scan is passed through unchanged and written
+ * together with the player position, timestamp, the screen frame it was read from and the tile
+ * polygons the scan looked up.
+ *
+ * <p>A scan is held in memory until the next one starts (or recording stops), so tile lookups made
+ * after the circle scan end up in the same record. While recording, {@link #getFrame} serves the
+ * frame captured at the start of the scan, so live labelling sees exactly the pixels a replay will.
+ *
+ * <p>Frames are stored as an XOR delta against the previous frame (a keyframe every
+ * {@value #KEYFRAME_INTERVAL} frames) and compressed with a fast Deflater level, so static scenes
+ * cost only a few hundred bytes per frame.
+ */
+public class FrameRecorder implements DetectionInput {
+
+    static final int MAGIC = 0x4A485243; // "JHRC"
+    static final int VERSION = 2;
+    static final int FRAME_NONE = 0;
+    static final int FRAME_KEY = 1;
+    static final int FRAME_DELTA = 2;
+    public static final String FILE_EXTENSION = ".jhrec";
+
+    private static final int KEYFRAME_INTERVAL = 120;
+
+    /**
+     * A scan that has not been written yet.
+     */
+    private static final class PendingScan {
+        final long timestamp;
+        final Scan scan;
+        final WorldPosition player;
+        final List<ObservedCircle> circles;
+        final Frame frame;
+        final Map<WorldPosition, Polygon> tiles = new LinkedHashMap<>();
+
+        PendingScan(long timestamp, Scan scan, WorldPosition player, List<ObservedCircle> circles, Frame frame) {
+            this.timestamp = timestamp;
+            this.scan = scan;
+            this.player = player;
+            this.circles = circles;
+            this.frame = frame;
+        }
+    }
+
+    private final JorkHunter script;
+    private final DetectionInput delegate;
+    private final TrapType trapType;
+    private final File outputDir;
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+
+    private DataOutputStream out;
+    private File currentFile;
+    private PendingScan pending;
+    private int[] previousFrame;
+    private int previousWidth;
+    private int previousHeight;
+    private int framesSinceKey;
+    private int framesWritten;
+    private long bytesWritten;
+    private byte[] rawBuffer = new byte[0];
+    private byte[] compressedBuffer = new byte[0];
+
+    public FrameRecorder(JorkHunter script, DetectionInput delegate, TrapType trapType, File outputDir) {
+        this.script = script;
+        this.delegate = delegate;
+        this.trapType = trapType;
+        this.outputDir = outputDir;
+    }
+
+    // ───────────────────────────────────────────────────────────────────────
+    // Runtime switch
+    // ───────────────────────────────────────────────────────────────────────
+
+    /**
+     * Starts or stops recording. Each start opens a new file.
+     */
+    public synchronized void setRecording(boolean recording) {
+        if (recording == isRecording()) {
+            return;
+        }
+        if (recording) {
+            open();
+        } else {
+            close();
+        }
+    }
+
+    public synchronized boolean isRecording() {
+        return out != null;
+    }
+
+    public synchronized int getFramesWritten() {
+        return framesWritten;
+    }
+
+    private void open() {
+        currentFile = new File(outputDir, "recording-" + System.currentTimeMillis() + FILE_EXTENSION);
+        try {
+            if (!outputDir.exists() && !outputDir.mkdirs()) {
+                throw new IOException("Could not create directory " + outputDir.getAbsolutePath());
+            }
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(currentFile), 1 << 16));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(trapType.name());
+            previousFrame = null;
+            pending = null;
+            framesWritten = 0;
+            bytesWritten = 0;
+            ScriptLogger.info(script, "Frame recording started: " + currentFile.getAbsolutePath());
+        } catch (IOException e) {
+            ScriptLogger.warning(script, "Failed to start frame recording: " + e.getMessage());
+            out = null;
+        }
+    }
+
+    private void close() {
+        flush();
+        if (out == null) {
+            return; // The final write failed and already closed the file
+        }
+        try {
+            out.close();
+            ScriptLogger.info(script, "Frame recording stopped: " + framesWritten + " frame(s), " +
+                             (bytesWritten / 1024) + " KB in " + currentFile.getName());
+        } catch (IOException e) {
+            ScriptLogger.warning(script, "Failed to close frame recording: " + e.getMessage());
+        } finally {
+            out = null;
+            pending = null;
+            previousFrame = null;
+        }
+    }
+
+    // ───────────────────────────────────────────────────────────────────────
+    // DetectionInput
+    // ───────────────────────────────────────────────────────────────────────
+
+    @Override
+    public List<ObservedCircle> findRespawnCircles(Scan scan) {
+        List<ObservedCircle> circles = delegate.findRespawnCircles(scan);
+        synchronized (this) {
+            if (out != null) {
+                flush();
+                pending = new PendingScan(delegate.currentTimeMillis(), scan, delegate.getPlayerPosition(),
+                    circles, copy(delegate.getFrame()));
+            }
+        }
+        return circles;
+    }
+
+    @Override
+    public WorldPosition getPlayerPosition() {
+        return delegate.getPlayerPosition();
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return delegate.currentTimeMillis();
+    }
+
+    @Override
+    public int uniformRandom(int min, int max) {
+        return delegate.uniformRandom(min, max);
+    }
+
+    @Override
+    public int weightedRandom(int min, int max) {
+        return delegate.weightedRandom(min, max);
+    }
+
+    @Override
+    public Polygon getTilePolygon(WorldPosition position) {
+        Polygon polygon = delegate.getTilePolygon(position);
+        synchronized (this) {
+            if (pending != null) {
+                pending.tiles.put(position, polygon);
+            }
+        }
+        return polygon;
+    }
+
+    @Override
+    public Frame getFrame() {
+        synchronized (this) {
+            if (pending != null && pending.frame != null) {
+                return pending.frame;
+            }
+        }
+        return delegate.getFrame();
+    }
+
+    @Override
+    public Rectangle findTrapCluster(Polygon area, TrapType trapType, boolean collapsed, int set,
+                                     int clusterDistance, int minClusterSize) {
+        return delegate.findTrapCluster(area, trapType, collapsed, set, clusterDistance, minClusterSize);
+    }
+
+    // ───────────────────────────────────────────────────────────────────────
+    // Writing
+    // ───────────────────────────────────────────────────────────────────────
+
+    private static Frame copy(Frame frame) {
+        if (frame == null || frame.pixels() == null) {
+            return null;
+        }
+        return new Frame(frame.pixels().clone(), frame.width(), frame.height()); // The client reuses its buffer
+    }
+
+    private void flush() {
+        PendingScan scan = pending;
+        pending = null;
+        if (scan == null || out == null) {
+            return;
+        }
+
+        try {
+            long start = out.size();
+            out.writeLong(scan.timestamp);
+            out.writeByte(scan.scan.ordinal());
+
+            out.writeBoolean(scan.player != null);
+            if (scan.player != null) {
+                writePosition(scan.player);
+            }
+
+            out.writeInt(scan.circles.size());
+            for (ObservedCircle circle : scan.circles) {
+                out.writeUTF(circle.type().name());
+                out.writeInt(circle.bounds().x);
+                out.writeInt(circle.bounds().y);
+                out.writeInt(circle.bounds().width);
+                out.writeInt(circle.bounds().height);
+                out.writeInt(circle.positions().size());
+                for (WorldPosition position : circle.positions()) {
+                    writePosition(position);
+                }
+            }
+
+            out.writeInt(scan.tiles.size());
+            for (Map.Entry<WorldPosition, Polygon> tile : scan.tiles.entrySet()) {
+                writePosition(tile.getKey());
+                writePolygon(tile.getValue());
+            }
+
+            writeFrame(scan.frame);
+            framesWritten++;
+            bytesWritten += out.size() - start;
+        } catch (IOException e) {
+            ScriptLogger.warning(script, "Frame recording failed, stopping: " + e.getMessage());
+            close();
+        }
+    }
+
+    private void writePosition(WorldPosition position) throws IOException {
+        out.writeInt(position.getX());
+        out.writeInt(position.getY());
+        out.writeInt(position.getPlane());
+    }
+
+    private void writePolygon(Polygon polygon) throws IOException {
+        int[] xs = polygon != null ? polygon.getXPoints() : null;
+        int[] ys = polygon != null ? polygon.getYPoints() : null;
+        if (xs == null || ys == null) {
+            out.writeInt(0); // Off screen
+            return;
+        }
+        int count = Math.min(xs.length, ys.length);
+        out.writeInt(count);
+        for (int i = 0; i < count; i++) {
+            out.writeInt(xs[i]);
+            out.writeInt(ys[i]);
+        }
+    }
+
+    private void writeFrame(Frame frame) throws IOException {
+        if (frame == null) {
+            out.writeByte(FRAME_NONE);
+            return;
+        }
+
+        int width = frame.width();
+        int height = frame.height();
+        int[] pixels = frame.pixels();
+        boolean key = previousFrame == null || width != previousWidth || height != previousHeight
+            || framesSinceKey >= KEYFRAME_INTERVAL;
+
+        // Serialize (delta) pixels big-endian into the reusable buffer
+        int rawLength = pixels.length * 4;
+        if (rawBuffer.length < rawLength) {
+            rawBuffer = new byte[rawLength];
+        }
+        for (int i = 0, b = 0; i < pixels.length; i++, b += 4) {
+            int value = key ? pixels[i] : pixels[i] ^ previousFrame[i];
+            rawBuffer[b] = (byte) (value >>> 24);
+            rawBuffer[b + 1] = (byte) (value >>> 16);
+            rawBuffer[b + 2] = (byte) (value >>> 8);
+            rawBuffer[b + 3] = (byte) value;
+        }
+
+        deflater.reset();
+        deflater.setInput(rawBuffer, 0, rawLength);
+        deflater.finish();
+        if (compressedBuffer.length < rawLength / 2) {
+            compressedBuffer = new byte[rawLength / 2];
+        }
+        int compressedLength = 0;
+        while (!deflater.finished()) {
+            if (compressedLength == compressedBuffer.length) {
+                compressedBuffer = Arrays.copyOf(compressedBuffer, compressedBuffer.length * 2);
+            }
+            compressedLength += deflater.deflate(compressedBuffer, compressedLength, compressedBuffer.length - compressedLength);
+        }
+
+        out.writeByte(key ? FRAME_KEY : FRAME_DELTA);
+        out.writeInt(width);
+        out.writeInt(height);
+        out.writeInt(compressedLength);
+        out.write(compressedBuffer, 0, compressedLength);
+
+        previousFrame = pixels; // Already a private copy
+        previousWidth = width;
+        previousHeight = height;
+        framesSinceKey = key ? 1 : framesSinceKey + 1;
+    }
+}
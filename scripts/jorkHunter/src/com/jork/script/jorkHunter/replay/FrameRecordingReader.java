@@ -0,0 +1,161 @@
+package com.jork.script.jorkHunter.replay;
+
+import com.jork.script.jorkHunter.state.DetectionInput;
+import com.osmb.api.location.position.types.WorldPosition;
+import com.osmb.api.shape.Polygon;
+import com.osmb.api.shape.Rectangle;
+import com.osmb.api.visual.PixelAnalyzer;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Sequential reader for recordings written by {@link FrameRecorder}.
+ * Delta frames are rebuilt against the previous frame, so records must be read in order.
+ */
+public class FrameRecordingReader implements Closeable {
+
+    private final DataInputStream in;
+    private final String trapTypeName;
+    private final Inflater inflater = new Inflater();
+    private int[] previousFrame;
+    private byte[] rawBuffer = new byte[0];
+    private byte[] compressedBuffer = new byte[0];
+
+    public FrameRecordingReader(File file) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16));
+        if (in.readInt() != FrameRecorder.MAGIC) {
+            in.close();
+            throw new IOException(file.getName() + " is not a jorkHunter recording");
+        }
+        int version = in.readInt();
+        if (version != FrameRecorder.VERSION) {
+            in.close();
+            throw new IOException("Unsupported recording version " + version + " in " + file.getName());
+        }
+        this.trapTypeName = in.readUTF();
+    }
+
+    /**
+     * Gets the TrapType name the recording was made with.
+     */
+    public String getTrapTypeName() {
+        return trapTypeName;
+    }
+
+    /**
+     * Reads the next record.
+     *
+     * @return The record, or null at the end of the recording
+     */
+    public FrameRecord next() throws IOException {
+        long timestamp;
+        try {
+            timestamp = in.readLong();
+        } catch (EOFException e) {
+            return null;
+        }
+
+        DetectionInput.Scan scan = DetectionInput.Scan.values()[in.readByte()];
+        WorldPosition player = in.readBoolean() ? readPosition() : null;
+
+        int circleCount = in.readInt();
+        List<DetectionInput.ObservedCircle> circles = new ArrayList<>(circleCount);
+        for (int i = 0; i < circleCount; i++) {
+            PixelAnalyzer.RespawnCircle.Type type = PixelAnalyzer.RespawnCircle.Type.valueOf(in.readUTF());
+            Rectangle bounds = new Rectangle(in.readInt(), in.readInt(), in.readInt(), in.readInt());
+            int positionCount = in.readInt();
+            List<WorldPosition> positions = new ArrayList<>(positionCount);
+            for (int p = 0; p < positionCount; p++) {
+                positions.add(readPosition());
+            }
+            circles.add(new DetectionInput.ObservedCircle(type, bounds, positions));
+        }
+
+        int tileCount = in.readInt();
+        Map<WorldPosition, Polygon> tiles = new HashMap<>(tileCount * 2);
+        for (int i = 0; i < tileCount; i++) {
+            WorldPosition position = readPosition();
+            tiles.put(position, readPolygon());
+        }
+
+        int frameKind = in.readByte();
+        if (frameKind == FrameRecorder.FRAME_NONE) {
+            return new FrameRecord(timestamp, scan, player, circles, tiles, 0, 0, null);
+        }
+
+        int width = in.readInt();
+        int height = in.readInt();
+        int[] pixels = readPixels(width * height, frameKind == FrameRecorder.FRAME_DELTA);
+        return new FrameRecord(timestamp, scan, player, circles, tiles, width, height, pixels);
+    }
+
+    private int[] readPixels(int pixelCount, boolean delta) throws IOException {
+        int compressedLength = in.readInt();
+        if (compressedBuffer.length < compressedLength) {
+            compressedBuffer = new byte[compressedLength];
+        }
+        in.readFully(compressedBuffer, 0, compressedLength);
+
+        int rawLength = pixelCount * 4;
+        if (rawBuffer.length < rawLength) {
+            rawBuffer = new byte[rawLength];
+        }
+        inflater.reset();
+        inflater.setInput(compressedBuffer, 0, compressedLength);
+        try {
+            int read = 0;
+            while (read < rawLength && !inflater.finished()) {
+                read += inflater.inflate(rawBuffer, read, rawLength - read);
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt frame data", e);
+        }
+
+        if (delta && (previousFrame == null || previousFrame.length != pixelCount)) {
+            throw new IOException("Delta frame without a matching keyframe");
+        }
+
+        int[] pixels = new int[pixelCount];
+        for (int i = 0, b = 0; i < pixelCount; i++, b += 4) {
+            int value = ((rawBuffer[b] & 0xFF) << 24) | ((rawBuffer[b + 1] & 0xFF) << 16)
+                | ((rawBuffer[b + 2] & 0xFF) << 8) | (rawBuffer[b + 3] & 0xFF);
+            pixels[i] = delta ? value ^ previousFrame[i] : value;
+        }
+        previousFrame = pixels;
+        return pixels;
+    }
+
+    private WorldPosition readPosition() throws IOException {
+        return new WorldPosition(in.readInt(), in.readInt(), in.readInt());
+    }
+
+    private Polygon readPolygon() throws IOException {
+        int count = in.readInt();
+        if (count == 0) {
+            return null; // Off screen when recorded
+        }
+        Polygon polygon = new Polygon();
+        for (int i = 0; i < count; i++) {
+            polygon.addVertex(in.readInt(), in.readInt());
+        }
+        return polygon;
+    }
+
+    @Override
+    public void close() throws IOException {
+        inflater.end();
+        in.close();
+    }
+}
@@ -0,0 +1,131 @@
+package com.jork.script.jorkHunter.replay;
+
+import com.jork.script.jorkHunter.trap.PixelSignature;
+import com.jork.script.jorkHunter.trap.TrapPixelMatcher;
+import com.osmb.api.shape.Polygon;
+import com.osmb.api.shape.Rectangle;
+
+/**
+ * Offline stand-in for {@code PixelAnalyzer.findClusters} on a recorded frame.
+ *
+ * <p>This is an approximation, not a port: pixels inside the area match a set when
+ * {@link TrapPixelMatcher#withinTolerance} accepts them against any of its signatures (the same
+ * estimated HSL scale the LUT uses), and matches closer than the cluster distance (Euclidean) are
+ * flood-filled into one cluster. Replay decisions can therefore differ from live ones on colours
+ * near a tolerance edge.
+ */
+final class ReplayClusterSearch {
+
+    private ReplayClusterSearch() {
+    }
+
+    /**
+     * Finds the first cluster in row-major order.
+     *
+     * @param frame           Recorded frame (must have pixels)
+     * @param area            Region to search
+     * @param signatures      The set's pixel signatures
+     * @param clusterDistance Maximum pixel gap within a cluster
+     * @param minClusterSize  Minimum pixels per cluster
+     * @return Bounds of the first cluster, or null if none
+     */
+    static Rectangle findFirst(FrameRecord frame, Polygon area, PixelSignature[] signatures,
+                               int clusterDistance, int minClusterSize) {
+        int[] xs = area.getXPoints();
+        int[] ys = area.getYPoints();
+        Rectangle bounds = area.getBounds();
+        if (xs == null || ys == null || xs.length < 3 || bounds == null) {
+            return null;
+        }
+
+        int minX = Math.max(0, bounds.x);
+        int minY = Math.max(0, bounds.y);
+        int maxX = Math.min(frame.frameWidth(), bounds.x + bounds.width + 1);
+        int maxY = Math.min(frame.frameHeight(), bounds.y + bounds.height + 1);
+        if (minX >= maxX || minY >= maxY) {
+            return null;
+        }
+        int width = maxX - minX;
+        int height = maxY - minY;
+
+        double[][] signatureHsl = new double[signatures.length][3];
+        for (int i = 0; i < signatures.length; i++) {
+            int rgb = signatures[i].rgb();
+            TrapPixelMatcher.rgbToHsl((rgb >> 16) & 0xFF, (rgb >> 8) & 0xFF, rgb & 0xFF, signatureHsl[i]);
+        }
+
+        // Mark matching pixels inside the polygon
+        boolean[] matched = new boolean[width * height];
+        double[] hsl = new double[3];
+        int[] pixels = frame.pixels();
+        for (int y = minY; y < maxY; y++) {
+            for (int x = minX; x < maxX; x++) {
+                if (!contains(xs, ys, x + 0.5, y + 0.5)) continue;
+                int rgb = pixels[y * frame.frameWidth() + x];
+                TrapPixelMatcher.rgbToHsl((rgb >> 16) & 0xFF, (rgb >> 8) & 0xFF, rgb & 0xFF, hsl);
+                for (int i = 0; i < signatures.length; i++) {
+                    if (TrapPixelMatcher.withinTolerance(hsl, signatureHsl[i], signatures[i].tolerance())) {
+                        matched[(y - minY) * width + (x - minX)] = true;
+                        break;
+                    }
+                }
+            }
+        }
+
+        // Flood fill over gaps up to the cluster distance
+        int reach = Math.max(1, clusterDistance);
+        int reachSquared = reach * reach;
+        boolean[] visited = new boolean[matched.length];
+        int[] queue = new int[matched.length];
+        for (int start = 0; start < matched.length; start++) {
+            if (!matched[start] || visited[start]) continue;
+
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = start;
+            visited[start] = true;
+            int clusterMinX = Integer.MAX_VALUE, clusterMinY = Integer.MAX_VALUE;
+            int clusterMaxX = Integer.MIN_VALUE, clusterMaxY = Integer.MIN_VALUE;
+            while (head < tail) {
+                int point = queue[head++];
+                int px = point % width;
+                int py = point / width;
+                clusterMinX = Math.min(clusterMinX, px);
+                clusterMinY = Math.min(clusterMinY, py);
+                clusterMaxX = Math.max(clusterMaxX, px);
+                clusterMaxY = Math.max(clusterMaxY, py);
+
+                for (int dy = Math.max(-reach, -py); dy <= Math.min(reach, height - 1 - py); dy++) {
+                    for (int dx = Math.max(-reach, -px); dx <= Math.min(reach, width - 1 - px); dx++) {
+                        if (dx * dx + dy * dy > reachSquared) continue;
+                        int neighbour = (py + dy) * width + px + dx;
+                        if (matched[neighbour] && !visited[neighbour]) {
+                            visited[neighbour] = true;
+                            queue[tail++] = neighbour;
+                        }
+                    }
+                }
+            }
+
+            if (tail >= minClusterSize) {
+                return new Rectangle(minX + clusterMinX, minY + clusterMinY,
+                    clusterMaxX - clusterMinX + 1, clusterMaxY - clusterMinY + 1);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Even-odd point-in-polygon test.
+     */
+    private static boolean contains(int[] xs, int[] ys, double x, double y) {
+        boolean inside = false;
+        for (int i = 0, j = xs.length - 1; i < xs.length; j = i++) {
+            if ((ys[i] > y) != (ys[j] > y)
+                    && x < (double) (xs[j] - xs[i]) * (y - ys[i]) / (ys[j] - ys[i]) + xs[i]) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+}
@@ -0,0 +1,101 @@
+package com.jork.script.jorkHunter.replay;
+
+import com.jork.script.jorkHunter.state.DetectionInput;
+import com.jork.script.jorkHunter.trap.PixelSignature;
+import com.jork.script.jorkHunter.trap.TrapType;
+import com.osmb.api.location.position.types.WorldPosition;
+import com.osmb.api.shape.Polygon;
+import com.osmb.api.shape.Rectangle;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Serves one recorded frame at a time to the TrapStateManager.
+ * Time is frozen at the frame's timestamp, so grace periods expire exactly as they did live.
+ * Tile polygons are the ones recorded during the scan, and cluster searches run on the recorded
+ * frame through {@link ReplayClusterSearch}.
+ *
+ * <p>Random draws come from a seeded generator, so two runs over the same recording draw the same
+ * grace periods and tie-breaks. The values differ from the live run's, which were not recorded.
+ */
+public class ReplayDetectionInput implements DetectionInput {
+
+    private final Random random;
+    private FrameRecord current;
+
+    /**
+     * @param seed Seed for grace periods, critical thresholds and tie-breaks
+     */
+    public ReplayDetectionInput(long seed) {
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Sets the record the next scans will see.
+     */
+    public void setRecord(FrameRecord record) {
+        this.current = record;
+    }
+
+    public FrameRecord getRecord() {
+        return current;
+    }
+
+    @Override
+    public List<ObservedCircle> findRespawnCircles(Scan scan) {
+        return current != null ? current.circles() : Collections.emptyList();
+    }
+
+    @Override
+    public WorldPosition getPlayerPosition() {
+        return current != null ? current.playerPosition() : null;
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return current != null ? current.timestamp() : 0L;
+    }
+
+    @Override
+    public int uniformRandom(int min, int max) {
+        return min + random.nextInt(max - min + 1);
+    }
+
+    /**
+     * Stand-in for RandomUtils.weightedRandom: the larger of two uniform draws, which skews towards max.
+     */
+    @Override
+    public int weightedRandom(int min, int max) {
+        return Math.max(uniformRandom(min, max), uniformRandom(min, max));
+    }
+
+    /**
+     * Gets the polygon recorded for the tile, or null if it was off screen or not looked up live.
+     */
+    @Override
+    public Polygon getTilePolygon(WorldPosition position) {
+        return current != null ? current.tiles().get(position) : null;
+    }
+
+    @Override
+    public Frame getFrame() {
+        return current != null && current.hasFrame()
+            ? new Frame(current.pixels(), current.frameWidth(), current.frameHeight())
+            : null;
+    }
+
+    @Override
+    public Rectangle findTrapCluster(Polygon area, TrapType trapType, boolean collapsed, int set,
+                                     int clusterDistance, int minClusterSize) {
+        if (current == null || !current.hasFrame() || area == null) {
+            return null;
+        }
+        PixelSignature[][] sets = collapsed ? trapType.getCollapsedSignatures() : trapType.getStandingSignatures();
+        if (set >= sets.length || sets[set] == null || sets[set].length == 0) {
+            return null;
+        }
+        return ReplayClusterSearch.findFirst(current, area, sets[set], clusterDistance, minClusterSize);
+    }
+}
@@ -0,0 +1,140 @@
+package com.jork.script.jorkHunter.replay;
+
+import com.jork.script.jorkHunter.JorkHunter;
+import com.jork.script.jorkHunter.state.DetectionInput;
+import com.jork.script.jorkHunter.state.TrapStateManager;
+import com.jork.script.jorkHunter.state.TrapSummary;
+import com.jork.script.jorkHunter.trap.TrapType;
+import com.jork.utils.ScriptLogger;
+import com.osmb.api.shape.Rectangle;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Feeds a recording through a fresh TrapStateManager and logs what it decides on every frame.
+ * Scans read only recorded input (circles, player position, time, tile polygons and the frame) and
+ * draw from a fixed seed, so two runs over the same recording produce the same trace. Nothing is
+ * sent to the game.
+ *
+ * <p>Each record repeats the call that made it live: a state update, or a phantom-trap check (drain
+ * mode) that reads the recorded tile polygons and searches the recorded frame for trap pixels.
+ *
+ * <p>The trace CSV has one row per frame: the scan kind, tracked trap counts, the trap TrapTask would
+ * handle next with its priority flag, and timings for the scan and a full-frame LUT labelling pass.
+ */
+public class ReplayDriver {
+
+    /**
+     * Totals for one replayed recording.
+     */
+    public record Summary(int frames, int decisionChanges, long scanNanos, long labelNanos) {
+        public long averageScanMicros() { return frames == 0 ? 0 : scanNanos / frames / 1000; }
+        public long averageLabelMicros() { return frames == 0 ? 0 : labelNanos / frames / 1000; }
+    }
+
+    private static final long RANDOM_SEED = 0x4A48L; // Fixed so traces of different builds can be diffed
+
+    private final JorkHunter script;
+
+    public ReplayDriver(JorkHunter script) {
+        this.script = script;
+    }
+
+    /**
+     * Replays every recording in a directory, writing a trace next to each one.
+     */
+    public void replayAll(File dir) {
+        File[] recordings = dir.listFiles((d, name) -> name.endsWith(FrameRecorder.FILE_EXTENSION));
+        if (recordings == null || recordings.length == 0) {
+            ScriptLogger.warning(script, "No recordings found in " + dir.getAbsolutePath());
+            return;
+        }
+        Arrays.sort(recordings);
+
+        for (File recording : recordings) {
+            String name = recording.getName();
+            File trace = new File(dir, name.substring(0, name.length() - FrameRecorder.FILE_EXTENSION.length()) + "-trace.csv");
+            try {
+                Summary summary = replay(recording, trace);
+                ScriptLogger.info(script, "Replayed " + name + ": " + summary.frames() + " frames, " +
+                                 summary.decisionChanges() + " decision changes, scan avg " +
+                                 summary.averageScanMicros() + "us, label avg " + summary.averageLabelMicros() + "us");
+            } catch (IOException | IllegalArgumentException e) {
+                ScriptLogger.warning(script, "Failed to replay " + name + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Replays one recording.
+     *
+     * @param recording Recording written by {@link FrameRecorder}
+     * @param traceFile CSV trace output
+     * @return Totals for the run
+     * @throws IOException if the recording cannot be read or the trace cannot be written
+     */
+    public Summary replay(File recording, File traceFile) throws IOException {
+        try (FrameRecordingReader reader = new FrameRecordingReader(recording);
+             PrintWriter trace = new PrintWriter(traceFile, StandardCharsets.UTF_8)) {
+
+            TrapType trapType = TrapType.valueOf(reader.getTrapTypeName());
+            TrapStateManager trapManager = new TrapStateManager(script, trapType);
+            ReplayDetectionInput input = new ReplayDetectionInput(RANDOM_SEED);
+            trapManager.setDetectionInput(input);
+            trapManager.setReportOutcomes(false);
+
+            trace.println("frame,timestamp,scan,circles,tracked,active,finished,grace_periods,next_trap,next_flag,scan_us,label_us");
+
+            int frames = 0;
+            int decisionChanges = 0;
+            long scanNanos = 0;
+            long labelNanos = 0;
+            String previousDecision = null;
+
+            FrameRecord frame;
+            while ((frame = reader.next()) != null) {
+                input.setRecord(frame);
+
+                long scanStart = System.nanoTime();
+                if (frame.scan() == DetectionInput.Scan.PHANTOM_CHECK) {
+                    trapManager.verifyPhantomTraps();
+                } else {
+                    trapManager.scanAndUpdateTrapStates();
+                }
+                Optional<TrapSummary> next = trapManager.getHighestPriorityTrap();
+                long scanTime = System.nanoTime() - scanStart;
+
+                long labelTime = 0;
+                if (frame.hasFrame()) {
+                    long labelStart = System.nanoTime();
+                    trapType.getPixelMatcher().label(frame.pixels(), frame.frameWidth(), frame.frameHeight(),
+                        new Rectangle(0, 0, frame.frameWidth(), frame.frameHeight()));
+                    labelTime = System.nanoTime() - labelStart;
+                }
+
+                String decision = next.map(s -> s.position().getX() + ":" + s.position().getY() + ":" +
+                                                 s.position().getPlane() + "," + s.priorityFlag())
+                                      .orElse(",");
+                if (previousDecision != null && !decision.equals(previousDecision)) {
+                    decisionChanges++;
+                }
+                previousDecision = decision;
+
+                trace.println(frames + "," + frame.timestamp() + "," + frame.scan() + "," + frame.circles().size() + "," +
+                              trapManager.getTotalCount() + "," + trapManager.getActiveCount() + "," +
+                              trapManager.getFinishedCount() + "," + trapManager.getPendingGracePeriodsCount() + "," +
+                              decision + "," + (scanTime / 1000) + "," + (labelTime / 1000));
+
+                frames++;
+                scanNanos += scanTime;
+                labelNanos += labelTime;
+            }
+            return new Summary(frames, decisionChanges, scanNanos, labelNanos);
+        }
+    }
+}
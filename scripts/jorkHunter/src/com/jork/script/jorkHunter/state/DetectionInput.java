@@ -0,0 +1,107 @@
+package com.jork.script.jorkHunter.state;
+
+import com.jork.script.jorkHunter.trap.TrapType;
+import com.osmb.api.location.position.types.WorldPosition;
+import com.osmb.api.shape.Polygon;
+import com.osmb.api.shape.Rectangle;
+import com.osmb.api.visual.PixelAnalyzer;
+
+import java.util.List;
+
+/**
+ * Inputs the TrapStateManager reads from the game on every scan, including its random draws.
+ * The live implementation queries the client; recording and replay implementations wrap or
+ * substitute it so scans can be reproduced on identical input.
+ */
+public interface DetectionInput {
+
+    /**
+     * Why a circle scan was made, so a replay can repeat the same call.
+     */
+    enum Scan {
+        STATE_UPDATE,  // scanAndUpdateTrapStates
+        PHANTOM_CHECK  // verifyPhantomTraps
+    }
+
+    /**
+     * A detected respawn circle resolved to world positions.
+     *
+     * @param type      Circle colour
+     * @param bounds    Screen bounds of the circle
+     * @param positions World positions the circle maps to (usually one)
+     */
+    record ObservedCircle(PixelAnalyzer.RespawnCircle.Type type, Rectangle bounds, List<WorldPosition> positions) {}
+
+    /**
+     * A screen frame as packed RGB pixels.
+     *
+     * @param pixels Packed RGB pixels, row-major
+     * @param width  Frame width
+     * @param height Frame height
+     */
+    record Frame(int[] pixels, int width, int height) {}
+
+    /**
+     * Finds all visible respawn circles. Starts a new scan: tile, frame and cluster lookups that
+     * follow belong to it.
+     *
+     * @param scan The caller's purpose
+     * @return Circles with resolved positions, never null
+     */
+    List<ObservedCircle> findRespawnCircles(Scan scan);
+
+    /**
+     * Gets the player's world position, or null if unknown.
+     */
+    WorldPosition getPlayerPosition();
+
+    /**
+     * Gets the time used for grace periods and trap ages.
+     */
+    long currentTimeMillis();
+
+    /**
+     * Draws a uniformly distributed integer for thresholds and tie-breaks.
+     *
+     * @param min Lowest value (inclusive)
+     * @param max Highest value (inclusive)
+     */
+    int uniformRandom(int min, int max);
+
+    /**
+     * Draws an integer weighted towards the upper end of the range.
+     *
+     * @param min Lowest value (inclusive)
+     * @param max Highest value (inclusive)
+     */
+    int weightedRandom(int min, int max);
+
+    /**
+     * Gets the projected polygon of a tile.
+     *
+     * @param position The tile
+     * @return The tile polygon, or null if the tile is not on screen
+     */
+    Polygon getTilePolygon(WorldPosition position);
+
+    /**
+     * Gets the screen frame trap pixels are labelled on.
+     *
+     * @return The frame, or null if none is available
+     */
+    Frame getFrame();
+
+    /**
+     * Searches a screen region for clusters of one trap pixel set.
+     *
+     * @param area            Region to search
+     * @param trapType        Trap type owning the set
+     * @param collapsed       true for a collapsed set, false for a standing set
+     * @param set             Index of the set within its group
+     * @param clusterDistance Maximum pixel gap within a cluster
+     * @param minClusterSize  Minimum pixels per cluster
+     * @return Bounds of the first cluster found, or null if none
+     */
+    Rectangle findTrapCluster(Polygon area, TrapType trapType, boolean collapsed, int set,
+                              int clusterDistance, int minClusterSize);
+}
@@ -0,0 +1,96 @@
+package com.jork.script.jorkHunter.state;
+
+import com.jork.script.jorkHunter.JorkHunter;
+import com.jork.script.jorkHunter.trap.TrapType;
+import com.osmb.api.location.position.types.WorldPosition;
+import com.osmb.api.scene.RSTile;
+import com.osmb.api.shape.Polygon;
+import com.osmb.api.shape.Rectangle;
+import com.osmb.api.utils.RandomUtils;
+import com.osmb.api.visual.PixelAnalyzer;
+import com.osmb.api.visual.PixelCluster;
+import com.osmb.api.visual.PixelCluster.ClusterSearchResult;
+import com.osmb.api.visual.SearchablePixel;
+import com.osmb.api.visual.image.Image;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * Reads detection input from the running client.
+ */
+class LiveDetectionInput implements DetectionInput {
+
+    private final JorkHunter script;
+    private final ToIntFunction<PixelAnalyzer.RespawnCircle.Type> zOffsets;
+
+    LiveDetectionInput(JorkHunter script, ToIntFunction<PixelAnalyzer.RespawnCircle.Type> zOffsets) {
+        this.script = script;
+        this.zOffsets = zOffsets;
+    }
+
+    @Override
+    public List<ObservedCircle> findRespawnCircles(Scan scan) {
+        List<PixelAnalyzer.RespawnCircle> circles = script.getPixelAnalyzer().findRespawnCircleTypes();
+        if (circles == null || circles.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<ObservedCircle> observed = new ArrayList<>(circles.size());
+        for (PixelAnalyzer.RespawnCircle circle : circles) {
+            List<WorldPosition> positions = script.getUtils().getWorldPositionForRespawnCircles(
+                List.of(circle.getBounds()), zOffsets.applyAsInt(circle.getType()));
+            observed.add(new ObservedCircle(circle.getType(), circle.getBounds(),
+                positions != null ? positions : Collections.emptyList()));
+        }
+        return observed;
+    }
+
+    @Override
+    public WorldPosition getPlayerPosition() {
+        return script.getWorldPosition();
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    @Override
+    public int uniformRandom(int min, int max) {
+        return RandomUtils.uniformRandom(min, max);
+    }
+
+    @Override
+    public int weightedRandom(int min, int max) {
+        return RandomUtils.weightedRandom(min, max);
+    }
+
+    @Override
+    public Polygon getTilePolygon(WorldPosition position) {
+        RSTile tile = script.getSceneManager().getTile(position);
+        return tile != null ? tile.getTilePoly() : null;
+    }
+
+    @Override
+    public Frame getFrame() {
+        Image image = script.getScreen().getImage();
+        return image != null ? new Frame(image.getPixels(), image.getWidth(), image.getHeight()) : null;
+    }
+
+    @Override
+    public Rectangle findTrapCluster(Polygon area, TrapType trapType, boolean collapsed, int set,
+                                     int clusterDistance, int minClusterSize) {
+        SearchablePixel[] pixels = collapsed
+            ? trapType.getCollapsedPixelClusters()[set]
+            : trapType.getStandingPixelClusters()[set];
+        PixelCluster.ClusterQuery query = new PixelCluster.ClusterQuery(clusterDistance, minClusterSize, pixels);
+        ClusterSearchResult result = script.getPixelAnalyzer().findClusters(area, query);
+        if (result != null && result.getClusters() != null && !result.getClusters().isEmpty()) {
+            return result.getClusters().get(0).getBounds();
+        }
+        return null;
+    }
+}
@@ -6,6 +6,9 @@ import com.osmb.api.location.position.types.WorldPosition;
 /**
  * Immutable record representing the state and metadata of a single trap.
  * Now includes flag-based priority system for action management.
+ *
+ * <p>Timestamps come from the caller's clock (TrapStateManager's DetectionInput), so a replayed
+ * recording stamps and ages traps in recorded time rather than wall-clock time.
  */
 public record TrapInfo(
     WorldPosition position,
@@ -20,8 +23,7 @@ public record TrapInfo(
     /**
      * Creates a new TrapInfo for a trap that is currently being laid
      */
-    public static TrapInfo laying(WorldPosition position, TrapType trapType) {
-        long now = System.currentTimeMillis();
+    public static TrapInfo laying(WorldPosition position, TrapType trapType, long now) {
         TrapFlags flags = new TrapFlags(TrapFlag.LAYING_IN_PROGRESS);
         return new TrapInfo(position, TrapState.LAYING, trapType, flags, now, now, now);
     }
@@ -29,8 +31,7 @@ public record TrapInfo(
     /**
      * Creates a new TrapInfo with an updated state while preserving creation time and flags
      */
-    public TrapInfo withState(TrapState newState) {
-        long now = System.currentTimeMillis();
+    public TrapInfo withState(TrapState newState, long now) {
         // Update stateChangedAt when state actually changes
         long newStateChangedAt = (newState != state) ? now : stateChangedAt;
         return new TrapInfo(position, newState, trapType, flags.copy(), now, createdAt, newStateChangedAt);
@@ -39,33 +40,33 @@ public record TrapInfo(
     /**
      * Creates a new TrapInfo with an added flag
      */
-    public TrapInfo withFlag(TrapFlag flag) {
+    public TrapInfo withFlag(TrapFlag flag, long now) {
         TrapFlags newFlags = flags.copy();
         newFlags.addFlag(flag);
-        return new TrapInfo(position, state, trapType, newFlags, System.currentTimeMillis(), createdAt, stateChangedAt);
+        return new TrapInfo(position, state, trapType, newFlags, now, createdAt, stateChangedAt);
     }
     
     /**
      * Creates a new TrapInfo without a specific flag
      */
-    public TrapInfo withoutFlag(TrapFlag flag) {
+    public TrapInfo withoutFlag(TrapFlag flag, long now) {
         TrapFlags newFlags = flags.copy();
         newFlags.removeFlag(flag);
-        return new TrapInfo(position, state, trapType, newFlags, System.currentTimeMillis(), createdAt, stateChangedAt);
+        return new TrapInfo(position, state, trapType, newFlags, now, createdAt, stateChangedAt);
     }
     
     /**
      * Creates a new TrapInfo with completely replaced flags
      */
-    public TrapInfo withFlags(TrapFlags newFlags) {
-        return new TrapInfo(position, state, trapType, newFlags.copy(), System.currentTimeMillis(), createdAt, stateChangedAt);
+    public TrapInfo withFlags(TrapFlags newFlags, long now) {
+        return new TrapInfo(position, state, trapType, newFlags.copy(), now, createdAt, stateChangedAt);
     }
     
     /**
      * Creates a new TrapInfo with cleared flags
      */
-    public TrapInfo withClearedFlags() {
-        return new TrapInfo(position, state, trapType, new TrapFlags(), System.currentTimeMillis(), createdAt, stateChangedAt);
+    public TrapInfo withClearedFlags(long now) {
+        return new TrapInfo(position, state, trapType, new TrapFlags(), now, createdAt, stateChangedAt);
     }
     
     /**
@@ -86,7 +87,14 @@ public record TrapInfo(
      * Returns the time this trap has been in its current state in milliseconds
      */
     public long getTimeInCurrentState() {
-        return System.currentTimeMillis() - stateChangedAt;
+        return getTimeInCurrentState(System.currentTimeMillis());
+    }
+    
+    /**
+     * Returns the time this trap has been in its current state, measured against the given clock
+     */
+    public long getTimeInCurrentState(long now) {
+        return now - stateChangedAt;
     }
     
     /**
@@ -125,7 +133,14 @@ public record TrapInfo(
      * Get formatted string showing time in current state
      */
     public String getFormattedStateTime() {
-        long ms = getTimeInCurrentState();
+        return getFormattedStateTime(System.currentTimeMillis());
+    }
+    
+    /**
+     * Get formatted string showing time in current state, measured against the given clock
+     */
+    public String getFormattedStateTime(long now) {
+        long ms = getTimeInCurrentState(now);
         long seconds = ms / 1000;
         if (seconds < 60) {
             return seconds + "s";
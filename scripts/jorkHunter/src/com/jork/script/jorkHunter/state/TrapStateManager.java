@@ -4,17 +4,14 @@ import com.jork.script.jorkHunter.JorkHunter;
 import com.jork.script.jorkHunter.trap.TrapType;
 import com.jork.script.jorkHunter.trap.TrapStateHandlingMode;
 import com.jork.script.jorkHunter.interaction.TrapVisibilityChecker;
+import com.jork.script.jorkHunter.interaction.TrapPixelDetector;
 import com.jork.script.jorkHunter.interaction.InteractionResult;
+import com.jork.utils.ComponentLogger;
 import com.jork.utils.ExceptionUtils;
 import com.jork.utils.ScriptLogger;
 import com.osmb.api.location.position.types.WorldPosition;
 import com.osmb.api.visual.PixelAnalyzer;
-import com.osmb.api.visual.PixelCluster;
-import com.osmb.api.visual.SearchablePixel;
 import com.osmb.api.shape.Polygon;
-import com.osmb.api.scene.RSTile;
-import com.osmb.api.visual.PixelCluster.ClusterSearchResult;
-import com.osmb.api.utils.RandomUtils;
 import com.osmb.api.input.MenuHook;
 import com.osmb.api.input.MenuEntry;
 import com.osmb.api.item.ItemID;
@@ -29,10 +26,14 @@ import java.util.stream.Collectors;
  * Eliminates race conditions through atomic operations and concurrent collections.
  */
 public class TrapStateManager {
+    private static final ComponentLogger LOGGER = ScriptLogger.forClass(TrapStateManager.class);
     
     private final JorkHunter script;
     private final TrapType trapType;
     private final TrapVisibilityChecker visibilityChecker;
+    private final TrapPixelDetector pixelDetector;
+    private DetectionInput detectionInput; // Live by default, swapped for recording/replay
+    private boolean reportOutcomes = true;
     private final ConcurrentHashMap<WorldPosition, TrapInfo> traps = new ConcurrentHashMap<>();
     private final boolean distanceBasedPrioritization;
     private final AtomicBoolean isLayingTrap = new AtomicBoolean(false);
@@ -58,6 +59,8 @@ public class TrapStateManager {
         this.script = script;
         this.trapType = trapType;
         this.visibilityChecker = new TrapVisibilityChecker(script);
+        this.pixelDetector = script.getPixelDetector();
+        this.detectionInput = new LiveDetectionInput(script, this::getZOffsetForCircleType);
         this.distanceBasedPrioritization = script.isDistanceBasedPrioritization();
     }
     
@@ -67,48 +70,41 @@ public class TrapStateManager {
      */
     public void scanAndUpdateTrapStates() {
         try {
-            ScriptLogger.debug(script, "=== TRAP STATE SCAN STARTING ===");
+            LOGGER.debug(script, "=== TRAP STATE SCAN STARTING ===");
             
             // Note: We ALLOW scanning during trap laying to detect the respawn circle
             // The HuntTask will block actions until animation completes
             if (isLayingTrap.get() && currentlyLayingPosition != null) {
-                ScriptLogger.debug(script, "Scanning during trap laying animation at " + currentlyLayingPosition);
+                LOGGER.debug(script, "Scanning during trap laying animation at %s", currentlyLayingPosition);
             }
             
             // Log what traps we think we have
-            ScriptLogger.debug(script, "Currently tracking " + traps.size() + " traps:");
-            for (Map.Entry<WorldPosition, TrapInfo> entry : traps.entrySet()) {
-                ScriptLogger.debug(script, "  - Trap at " + entry.getKey() + " in state " + entry.getValue().state());
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug(script, "Currently tracking %d traps:", traps.size());
+                for (Map.Entry<WorldPosition, TrapInfo> entry : traps.entrySet()) {
+                    LOGGER.debug(script, "  - Trap at %s in state %s", entry.getKey(), entry.getValue().state());
+                }
             }
             
-            // Get current respawn circles
-            List<PixelAnalyzer.RespawnCircle> respawnCircles = script.getPixelAnalyzer().findRespawnCircleTypes();
-            if (respawnCircles == null) {
-                respawnCircles = Collections.emptyList();
-            }
+            // Get current respawn circles (already resolved to world positions)
+            List<DetectionInput.ObservedCircle> respawnCircles = detectionInput.findRespawnCircles(DetectionInput.Scan.STATE_UPDATE);
             
             // Build current state map
             Map<WorldPosition, PixelAnalyzer.RespawnCircle.Type> currentRespawnStates = new HashMap<>();
             
-            ScriptLogger.debug(script, "Found " + respawnCircles.size() + " respawn circles in visual scan");
+            LOGGER.debug(script, "Found %d respawn circles in visual scan", respawnCircles.size());
             
-            for (PixelAnalyzer.RespawnCircle circle : respawnCircles) {
-                PixelAnalyzer.RespawnCircle.Type circleType = circle.getType();
-                int zOffset = getZOffsetForCircleType(circleType);
-                
-                List<WorldPosition> positions = script.getUtils().getWorldPositionForRespawnCircles(
-                    List.of(circle.getBounds()), zOffset);
-                
-                for (WorldPosition pos : positions) {
-                    currentRespawnStates.put(pos, circleType);
-                    ScriptLogger.debug(script, "Respawn circle detected: " + pos + " = " + circleType);
+            for (DetectionInput.ObservedCircle circle : respawnCircles) {
+                for (WorldPosition pos : circle.positions()) {
+                    currentRespawnStates.put(pos, circle.type());
+                    LOGGER.debug(script, "Respawn circle detected: %s = %s", pos, circle.type());
                 }
             }
             
             // Log what we're tracking vs what we found
-            ScriptLogger.debug(script, "Previous states tracked: " + previousRespawnStates.size() + " positions");
-            ScriptLogger.debug(script, "Current states found: " + currentRespawnStates.size() + " positions");
-            ScriptLogger.debug(script, "Traps being tracked: " + traps.size());
+            LOGGER.debug(script, "Previous states tracked: %d positions", previousRespawnStates.size());
+            LOGGER.debug(script, "Current states found: %d positions", currentRespawnStates.size());
+            LOGGER.debug(script, "Traps being tracked: %d", traps.size());
             
             // CRITICAL: Check grace periods FIRST before discovering new traps
             // This prevents phantom traps from being counted alongside real new discoveries
@@ -148,12 +144,12 @@ public class TrapStateManager {
                 previousRespawnStates.remove(entry.getKey());
             }
             
-            ScriptLogger.debug(script, "Trap scan complete. Active: " + getActiveCount() + 
+            LOGGER.debug(script, () -> "Trap scan complete. Active: " + getActiveCount() + 
                              ", Finished: " + getFinishedCount() + ", Total: " + getTotalCount());
             
         } catch (Exception e) {
             ExceptionUtils.rethrowIfTaskInterrupted(e);
-            ScriptLogger.error(script, "Error during trap state scan: " + e.getMessage());
+            LOGGER.error(script, "Error during trap state scan: " + e.getMessage());
         }
     }
     
@@ -181,13 +177,13 @@ public class TrapStateManager {
                     }
                 }
                 default -> {
-                    ScriptLogger.debug(script, "Unknown respawn circle type: " + typeString);
+                    LOGGER.debug(script, "Unknown respawn circle type: %s", typeString);
                     yield TrapState.UNKNOWN;
                 }
             };
         } catch (Exception e) {
             ExceptionUtils.rethrowIfTaskInterrupted(e);
-            ScriptLogger.warning(script, "Error mapping respawn circle type: " + e.getMessage());
+            LOGGER.warning(script, "Error mapping respawn circle type: " + e.getMessage());
             return TrapState.UNKNOWN;
         }
     }
@@ -214,19 +210,19 @@ public class TrapStateManager {
         Set<WorldPosition> allPositions = new HashSet<>(traps.keySet());
         allPositions.addAll(currentStates.keySet());
         
-        ScriptLogger.debug(script, "Checking state transitions for " + allPositions.size() + " positions");
+        LOGGER.debug(script, "Checking state transitions for %d positions", allPositions.size());
         
         for (WorldPosition pos : allPositions) {
             PixelAnalyzer.RespawnCircle.Type previousType = previousRespawnStates.get(pos);
             PixelAnalyzer.RespawnCircle.Type currentType = currentStates.get(pos);
             
             if (previousType != null || currentType != null) {
-                ScriptLogger.debug(script, "Position " + pos + ": " + previousType + " → " + currentType);
+                LOGGER.debug(script, "Position %s: %s → %s", pos, previousType, currentType);
             }
             
             // Handle transitions
             if (previousType != currentType) {
-                ScriptLogger.info(script, "STATE TRANSITION DETECTED at " + pos + ": " + previousType + " → " + currentType);
+                LOGGER.info(script, "STATE TRANSITION DETECTED at " + pos + ": " + previousType + " → " + currentType);
                 handleStateTransition(pos, previousType, currentType);
             }
             
@@ -251,23 +247,23 @@ public class TrapStateManager {
             
             // If the trap reappeared, cancel the grace period
             if (currentStates.containsKey(pos)) {
-                ScriptLogger.debug(script, "Trap at " + pos + " reappeared - cancelling collapse detection");
+                LOGGER.debug(script, "Trap at %s reappeared - cancelling collapse detection", pos);
                 iterator.remove();
                 trapGracePeriods.remove(pos); // Clean up the grace period
                 continue;
             }
             
             // Check if grace period has elapsed using the per-trap random duration
-            long missingTime = System.currentTimeMillis() - startTime;
+            long missingTime = now() - startTime;
             long gracePeriod = trapGracePeriods.getOrDefault(pos, 10000L); // Default 10s if missing
             if (missingTime >= gracePeriod) {
-                ScriptLogger.info(script, "Grace period expired for trap at " + pos + " after " + missingTime + "ms (threshold: " + gracePeriod + "ms)");
+                LOGGER.info(script, "Grace period expired for trap at " + pos + " after " + missingTime + "ms (threshold: " + gracePeriod + "ms)");
                 
                 // Mark for verification since respawn circle is missing
                 // The InteractionHandler will perform pixel detection and blind tap if needed
                 markTrapAsCollapsed(pos);
                 setFlag(pos, TrapFlag.PENDING_VERIFICATION);
-                ScriptLogger.info(script, "Marked trap at " + pos + " as COLLAPSED with PENDING_VERIFICATION flag");
+                LOGGER.info(script, "Marked trap at " + pos + " as COLLAPSED with PENDING_VERIFICATION flag");
                 
                 // CRITICAL: Remove from previousRespawnStates to prevent handleStateTransitions 
                 // from seeing stale YELLOW state and starting a new grace period
@@ -285,7 +281,7 @@ public class TrapStateManager {
     private void handleStateTransition(WorldPosition pos, PixelAnalyzer.RespawnCircle.Type previous, PixelAnalyzer.RespawnCircle.Type current) {
         // YELLOW → GREEN/RED: Trap is ready to interact
         if (isYellow(previous) && (isGreen(current) || isRed(current))) {
-            ScriptLogger.info(script, "Trap at " + pos + " ready for interaction (" + previous + " → " + current + ")");
+            LOGGER.info(script, "Trap at " + pos + " ready for interaction (" + previous + " → " + current + ")");
             // Set flag to indicate trap is ready for removal
             setFlag(pos, TrapFlag.READY_FOR_REMOVAL);
             // Clear any pending collapse detection since trap is now actionable
@@ -294,14 +290,14 @@ public class TrapStateManager {
             
             // Track metrics for successful vs failed catches
             if (isGreen(current)) {
-                script.onTrapSuccess();
+                if (reportOutcomes) script.onTrapSuccess();
                 // Generate a random critical threshold for this successful trap (25-35 seconds, weighted towards 35)
-                long criticalThreshold = RandomUtils.weightedRandom(25000, 35000); // 25-35 seconds in milliseconds
+                long criticalThreshold = detectionInput.weightedRandom(25000, 35000); // 25-35 seconds in milliseconds
                 trapCriticalThresholds.put(pos, criticalThreshold);
-                ScriptLogger.debug(script, "Trap at " + pos + " will become critical after " + 
-                                 (criticalThreshold / 1000) + " seconds");
+                LOGGER.debug(script, "Trap at %s will become critical after %d seconds",
+                                 pos, criticalThreshold / 1000);
             } else if (isRed(current)) {
-                script.onTrapFailed();
+                if (reportOutcomes) script.onTrapFailed();
             }
         }
         // Any visible state → null: Respawn circle disappeared (likely collapsed or animation)
@@ -316,29 +312,29 @@ public class TrapStateManager {
             boolean alreadyCollapsed = existingTrap != null && existingTrap.state() == TrapState.COLLAPSED;
             
             if (!missingTrapsTimestamp.containsKey(pos) && !alreadyCollapsed) {
-                missingTrapsTimestamp.put(pos, System.currentTimeMillis());
+                missingTrapsTimestamp.put(pos, now());
                 // Generate grace period based on trap type and previous state
                 // For bird snares: 2-4s for collapses (avoids false positives while being responsive)
                 // For animations: 6-10s to handle state transition animations
                 long gracePeriod;
                 if (trapType == TrapType.BIRD_SNARE && isYellow(previous)) {
                     // Active trap disappearing - use 2-4s to avoid false positives
-                    gracePeriod = RandomUtils.uniformRandom(2151, 4216);
+                    gracePeriod = detectionInput.uniformRandom(2151, 4216);
                 } else {
                     // Finished traps or animation transitions might take longer
-                    gracePeriod = RandomUtils.uniformRandom(2251, 4117);
+                    gracePeriod = detectionInput.uniformRandom(2251, 4117);
                 }
                 trapGracePeriods.put(pos, gracePeriod);
                 String stateDesc = previous.toString().toUpperCase();
-                ScriptLogger.info(script, "GRACE PERIOD STARTED: Trap at " + pos + " disappeared from " + stateDesc + " state, starting " + gracePeriod + "ms grace period");
+                LOGGER.info(script, "GRACE PERIOD STARTED: Trap at " + pos + " disappeared from " + stateDesc + " state, starting " + gracePeriod + "ms grace period");
             } else if (alreadyCollapsed) {
-                ScriptLogger.debug(script, "Trap at " + pos + " already marked as COLLAPSED - skipping grace period");
+                LOGGER.debug(script, "Trap at %s already marked as COLLAPSED - skipping grace period", pos);
             } else {
-                ScriptLogger.debug(script, "Grace period already active for trap at " + pos);
+                LOGGER.debug(script, "Grace period already active for trap at %s", pos);
                 
                 // DEFENSIVE SCAN ONLY if grace period has been active for a while (not immediate transitions)
                 long graceStartTime = missingTrapsTimestamp.get(pos);
-                long graceDuration = System.currentTimeMillis() - graceStartTime;
+                long graceDuration = now() - graceStartTime;
                 
                 // Only mark for verification if grace period has been active for at least 2 seconds
                 if (graceDuration > 2000) {
@@ -347,7 +343,7 @@ public class TrapStateManager {
                         ? TrapState.FINISHED 
                         : TrapState.FINISHED_SUCCESS; // Default to success in ternary mode when we can't determine
                     
-                    ScriptLogger.info(script, "Marking trap at " + pos + " as " + finishedState + " with verification flag after " + graceDuration + "ms grace period");
+                    LOGGER.info(script, "Marking trap at " + pos + " as " + finishedState + " with verification flag after " + graceDuration + "ms grace period");
                     updateOrCreateTrap(pos, finishedState);
                     setFlag(pos, TrapFlag.PENDING_VERIFICATION);
                     // Clear the grace period since trap is now marked
@@ -358,14 +354,14 @@ public class TrapStateManager {
         }
         // Trap reappeared - cancel collapse detection  
         else if (previous == null && current != null && missingTrapsTimestamp.containsKey(pos)) {
-            ScriptLogger.debug(script, "Trap at " + pos + " reappeared as " + current + " - cancelling collapse detection");
+            LOGGER.debug(script, "Trap at %s reappeared as %s - cancelling collapse detection", pos, current);
             missingTrapsTimestamp.remove(pos);
             trapGracePeriods.remove(pos);
         }
         // New trap discovered
         else if (previous == null && current != null) {
             TrapState state = mapRespawnCircleTypeToTrapState(current);
-            ScriptLogger.info(script, "Discovered new trap at " + pos + " in state " + state);
+            LOGGER.info(script, "Discovered new trap at " + pos + " in state " + state);
         }
     }
     
@@ -396,18 +392,18 @@ public class TrapStateManager {
                     case UNKNOWN -> flags.addFlag(TrapFlag.PENDING_VERIFICATION);
                     default -> { /* ACTIVE - no special flags */ }
                 }
-                long now = System.currentTimeMillis();
+                long now = now();
                 return new TrapInfo(pos, newState, trapType, flags, now, now, now);
             } else if (currentInfo.state() != newState) {
-                ScriptLogger.info(script, "Trap at " + pos + " changed from " + currentInfo.state() + 
-                    " (after " + currentInfo.getFormattedStateTime() + ") to " + newState);
+                LOGGER.info(script, "Trap at " + pos + " changed from " + currentInfo.state() + 
+                    " (after " + currentInfo.getFormattedStateTime(now()) + ") to " + newState);
                 // Create updated trap with new flags
-                TrapInfo updated = currentInfo.withState(newState).withClearedFlags();
+                TrapInfo updated = currentInfo.withState(newState, now()).withClearedFlags(now());
                 switch (newState) {
-                    case FINISHED, FINISHED_SUCCESS, FINISHED_FAILED -> updated = updated.withFlag(TrapFlag.READY_FOR_REMOVAL);
-                    case COLLAPSED -> updated = updated.withFlag(TrapFlag.NEEDS_INTERACTION);
-                    case LAYING -> updated = updated.withFlag(TrapFlag.LAYING_IN_PROGRESS);
-                    case UNKNOWN -> updated = updated.withFlag(TrapFlag.PENDING_VERIFICATION);
+                    case FINISHED, FINISHED_SUCCESS, FINISHED_FAILED -> updated = updated.withFlag(TrapFlag.READY_FOR_REMOVAL, now());
+                    case COLLAPSED -> updated = updated.withFlag(TrapFlag.NEEDS_INTERACTION, now());
+                    case LAYING -> updated = updated.withFlag(TrapFlag.LAYING_IN_PROGRESS, now());
+                    case UNKNOWN -> updated = updated.withFlag(TrapFlag.PENDING_VERIFICATION, now());
                     default -> { /* ACTIVE - no special flags */ }
                 }
                 return updated;
@@ -421,7 +417,7 @@ public class TrapStateManager {
      * Checks collapsed traps and successful traps for urgency based on time thresholds
      */
     private void checkCollapsedTrapUrgency() {
-        long currentTime = System.currentTimeMillis();
+        long currentTime = now();
         
         for (Map.Entry<WorldPosition, TrapInfo> entry : traps.entrySet()) {
             WorldPosition pos = entry.getKey();
@@ -433,14 +429,14 @@ public class TrapStateManager {
                 
                 // If collapsed for more than 90 seconds, mark as urgent (despawn at ~180 seconds)
                 if (collapsedDuration > 90000 && !trapInfo.flags().hasFlag(TrapFlag.URGENT_COLLAPSED)) {
-                    ScriptLogger.warning(script, "Collapsed trap at " + pos + " has been on ground for " + 
+                    LOGGER.warning(script, "Collapsed trap at " + pos + " has been on ground for " + 
                         (collapsedDuration / 1000) + " seconds - marking as URGENT");
                     setFlag(pos, TrapFlag.URGENT_COLLAPSED);
                 }
                 
                 // Log critical warning if approaching despawn time
                 if (collapsedDuration > 150000) {
-                    ScriptLogger.error(script, "CRITICAL: Collapsed trap at " + pos + " will despawn soon! (" + 
+                    LOGGER.error(script, "CRITICAL: Collapsed trap at " + pos + " will despawn soon! (" + 
                         (collapsedDuration / 1000) + " seconds on ground)");
                 }
             }
@@ -454,7 +450,7 @@ public class TrapStateManager {
                 
                 // If successful for more than the randomized threshold, mark as critical (risk of collapsing)
                 if (successDuration > criticalThreshold && !trapInfo.flags().hasFlag(TrapFlag.CRITICAL_SUCCESS)) {
-                    ScriptLogger.warning(script, "Successful trap at " + pos + " has been waiting for " + 
+                    LOGGER.warning(script, "Successful trap at " + pos + " has been waiting for " + 
                         (successDuration / 1000) + " seconds (threshold: " + (criticalThreshold / 1000) + 
                         "s) - marking as CRITICAL (collapse risk)");
                     setFlag(pos, TrapFlag.CRITICAL_SUCCESS);
@@ -462,7 +458,7 @@ public class TrapStateManager {
                 
                 // Log warning if approaching collapse time (usually ~60 seconds for successful traps)
                 if (successDuration > 55000) {
-                    ScriptLogger.error(script, "CRITICAL: Successful trap at " + pos + " about to collapse! (" + 
+                    LOGGER.error(script, "CRITICAL: Successful trap at " + pos + " about to collapse! (" + 
                         (successDuration / 1000) + " seconds since catch)");
                 }
             }
@@ -475,11 +471,11 @@ public class TrapStateManager {
     private void markTrapAsCollapsed(WorldPosition pos) {
         traps.compute(pos, (position, currentInfo) -> {
             if (currentInfo != null) {
-                return currentInfo.withState(TrapState.COLLAPSED)
-                    .withClearedFlags()
-                    .withFlag(TrapFlag.NEEDS_INTERACTION);
+                return currentInfo.withState(TrapState.COLLAPSED, now())
+                    .withClearedFlags(now())
+                    .withFlag(TrapFlag.NEEDS_INTERACTION, now());
             }
-            long now = System.currentTimeMillis();
+            long now = now();
             return new TrapInfo(pos, TrapState.COLLAPSED, trapType, 
                 new TrapFlags(TrapFlag.NEEDS_INTERACTION), 
                 now, now, now);
@@ -491,14 +487,14 @@ public class TrapStateManager {
      */
     public boolean startLayingTrap(WorldPosition position) {
         if (!isLayingTrap.compareAndSet(false, true)) {
-            ScriptLogger.warning(script, "Cannot start laying trap - already laying a trap");
+            LOGGER.warning(script, "Cannot start laying trap - already laying a trap");
             return false;
         }
         
         currentlyLayingPosition = position; // Track which position is being laid
-        TrapInfo layingInfo = TrapInfo.laying(position, trapType);
+        TrapInfo layingInfo = TrapInfo.laying(position, trapType, now());
         traps.put(position, layingInfo);
-        ScriptLogger.info(script, "Started laying trap at " + position + " - blocking state scans until animation completes");
+        LOGGER.info(script, "Started laying trap at " + position + " - blocking state scans until animation completes");
         return true;
     }
     
@@ -509,14 +505,14 @@ public class TrapStateManager {
         if (success) {
             traps.compute(position, (pos, info) -> {
                 if (info != null && info.state() == TrapState.LAYING) {
-                    ScriptLogger.info(script, "Successfully completed laying trap at " + pos);
-                    return info.withState(TrapState.ACTIVE);
+                    LOGGER.info(script, "Successfully completed laying trap at " + pos);
+                    return info.withState(TrapState.ACTIVE, now());
                 }
                 return info;
             });
             // Note: isLayingTrap flag should be cleared by HuntTask after confirmation
         } else {
-            ScriptLogger.warning(script, "Failed to lay trap at " + position + " - removing from tracking");
+            LOGGER.warning(script, "Failed to lay trap at " + position + " - removing from tracking");
             traps.remove(position);
             clearLayingFlag(); // Clear flag on failure
         }
@@ -527,14 +523,14 @@ public class TrapStateManager {
      */
     public void clearLayingFlag() {
         if (isLayingTrap.compareAndSet(true, false)) {
-            ScriptLogger.debug(script, "Cleared trap laying flag - ready for next action");
+            LOGGER.debug(script, "Cleared trap laying flag - ready for next action");
             currentlyLayingPosition = null;
         }
     }
     
     public void clearResetFlag() {
         if (isResettingTrap.compareAndSet(true, false)) {
-            ScriptLogger.debug(script, "Cleared trap reset flag - ready for next action");
+            LOGGER.debug(script, "Cleared trap reset flag - ready for next action");
             currentlyResettingPosition = null;
         }
     }
@@ -552,9 +548,9 @@ public class TrapStateManager {
             TrapInfo existing = traps.get(position);
             if (existing != null) {
                 // Preserve existing trap info but change state to RESETTING
-                TrapInfo resettingTrap = existing.withState(TrapState.RESETTING);
+                TrapInfo resettingTrap = existing.withState(TrapState.RESETTING, now());
                 traps.put(position, resettingTrap);
-                ScriptLogger.info(script, "Started resetting trap at " + position);
+                LOGGER.info(script, "Started resetting trap at " + position);
             }
             return true;
         }
@@ -574,21 +570,21 @@ public class TrapStateManager {
             // After successful reset, trap transitions to ACTIVE state
             TrapInfo existing = traps.get(position);
             if (existing != null) {
-                TrapInfo activeTrap = existing.withState(TrapState.ACTIVE).withClearedFlags();
+                TrapInfo activeTrap = existing.withState(TrapState.ACTIVE, now()).withClearedFlags(now());
                 traps.put(position, activeTrap);
-                ScriptLogger.info(script, "Reset trap complete at " + position + " - trap is now ACTIVE");
+                LOGGER.info(script, "Reset trap complete at " + position + " - trap is now ACTIVE");
             } else {
                 // Create new trap info if not found (shouldn't happen normally)
-                long now = System.currentTimeMillis();
+                long now = now();
                 TrapInfo activeTrap = new TrapInfo(position, TrapState.ACTIVE, trapType, 
                     new TrapFlags(), now, now, now);
                 traps.put(position, activeTrap);
-                ScriptLogger.info(script, "Reset trap complete at " + position + " - trap is now ACTIVE (new)");
+                LOGGER.info(script, "Reset trap complete at " + position + " - trap is now ACTIVE (new)");
             }
         } else {
             // Failed reset - remove trap from tracking to force re-scan
             traps.remove(position);
-            ScriptLogger.warning(script, "Reset trap failed at " + position + " - removed from tracking");
+            LOGGER.warning(script, "Reset trap failed at " + position + " - removed from tracking");
         }
     }
     
@@ -603,7 +599,7 @@ public class TrapStateManager {
             trapGracePeriods.remove(position);
             trapCriticalThresholds.remove(position);
             trapsNeedingRepositioning.remove(position);
-            ScriptLogger.info(script, "Removed trap at " + position + " from tracking");
+            LOGGER.info(script, "Removed trap at " + position + " from tracking");
             return true;
         }
         return false;
@@ -614,8 +610,15 @@ public class TrapStateManager {
      * Prioritizes collapsed traps first (time-sensitive), then occluded traps.
      */
     public List<TrapInfo> getActionableTraps() {
-        return traps.values().stream()
+        List<TrapInfo> actionable = traps.values().stream()
                    .filter(TrapInfo::isActionable)
+                   .collect(Collectors.toList());
+        
+        // Resolve visibility once per trap instead of once per comparison
+        Set<WorldPosition> visiblePositions = new HashSet<>(visibilityChecker.getCache().getVisible(
+            actionable.stream().map(TrapInfo::position).collect(Collectors.toList())));
+        
+        return actionable.stream()
                    .sorted((trap1, trap2) -> {
                        // FIRST PRIORITY: COLLAPSED state (absolute highest - time-sensitive)
                        boolean trap1Collapsed = trap1.state() == TrapState.COLLAPSED;
@@ -628,8 +631,8 @@ public class TrapStateManager {
                        }
                        
                        // SECOND PRIORITY: Visibility (occluded vs visible for finished traps)
-                       boolean trap1Visible = visibilityChecker.isTrapVisible(trap1.position());
-                       boolean trap2Visible = visibilityChecker.isTrapVisible(trap2.position());
+                       boolean trap1Visible = visiblePositions.contains(trap1.position());
+                       boolean trap2Visible = visiblePositions.contains(trap2.position());
                        
                        if (!trap1Visible && trap2Visible) {
                            return -1; // trap1 (occluded) comes first
@@ -696,12 +699,7 @@ public class TrapStateManager {
      * Used to determine if we need to walk back to hunting area during drain mode.
      */
     public boolean hasVisibleTraps() {
-        for (WorldPosition pos : traps.keySet()) {
-            if (isTrapOnScreen(pos)) {
-                return true;
-            }
-        }
-        return false;
+        return visibilityChecker.getCache().anyOnScreen(traps.keySet());
     }
     
     /**
@@ -710,13 +708,15 @@ public class TrapStateManager {
      * @return List of off-screen trap positions
      */
     public List<WorldPosition> getOffScreenTrapPositions() {
-        List<WorldPosition> offScreenTraps = new ArrayList<>();
-        for (WorldPosition pos : traps.keySet()) {
-            if (!isTrapOnScreen(pos)) {
-                offScreenTraps.add(pos);
-            }
-        }
-        return offScreenTraps;
+        return visibilityChecker.getCache().getOffScreen(traps.keySet());
+    }
+    
+    /**
+     * Gets a list of all tracked trap positions that are in scene but occluded by UI.
+     * @return List of occluded trap positions
+     */
+    public List<WorldPosition> getOccludedTrapPositions() {
+        return visibilityChecker.getCache().getOccluded(traps.keySet());
     }
     
     /**
@@ -730,7 +730,7 @@ public class TrapStateManager {
         trapGracePeriods.clear();
         trapCriticalThresholds.clear();
         trapsNeedingRepositioning.clear();
-        ScriptLogger.info(script, "Cleared all trap tracking data");
+        LOGGER.info(script, "Cleared all trap tracking data");
     }
     
     /**
@@ -746,11 +746,11 @@ public class TrapStateManager {
             setFlag(trap.position(), TrapFlag.EXPEDITE_COLLECTION);
             markedCount++;
             
-            ScriptLogger.debug(script, "Marked trap at " + trap.position() + 
-                " (state: " + trap.state() + ") for expedited collection");
+            LOGGER.debug(script, "Marked trap at %s (state: %s) for expedited collection",
+                trap.position(), trap.state());
         }
         
-        ScriptLogger.info(script, "Marked " + markedCount + " traps for expedited collection before break/hop");
+        LOGGER.info(script, "Marked " + markedCount + " traps for expedited collection before break/hop");
     }
     
     /**
@@ -769,6 +769,31 @@ public class TrapStateManager {
         return traps.get(position);
     }
     
+    /**
+     * Called when the chatbox reports that one of our traps collapsed.
+     * If exactly one trap is in its grace period, the message identifies it, so it is marked
+     * COLLAPSED right away instead of waiting for the grace period to expire.
+     * With several candidates the grace periods run as normal.
+     *
+     * @return true if a trap was marked as collapsed
+     */
+    public boolean onCollapseMessage() {
+        if (missingTrapsTimestamp.size() != 1) {
+            LOGGER.debug(script, "Collapse message with %d trap(s) in grace period - leaving detection to grace periods",
+                missingTrapsTimestamp.size());
+            return false;
+        }
+        
+        WorldPosition pos = missingTrapsTimestamp.keySet().iterator().next();
+        long missingTime = now() - missingTrapsTimestamp.get(pos);
+        markTrapAsCollapsed(pos);
+        previousRespawnStates.remove(pos);
+        missingTrapsTimestamp.remove(pos);
+        trapGracePeriods.remove(pos);
+        LOGGER.info(script, "Collapse message confirmed trap at " + pos + " as COLLAPSED after " + missingTime + "ms");
+        return true;
+    }
+    
     /**
      * Checks if there are any pending grace periods that could result in trap pickups
      */
@@ -792,23 +817,28 @@ public class TrapStateManager {
     }
     
     /**
-     * Checks if a trap position is truly off-screen (tile not in scene).
-     * This is used only for suspension logic - does NOT consider UI occlusion.
-     * @param pos The trap position to check
-     * @return true if the trap tile is in scene, false if truly off-screen
+     * Gets the input scans are read from.
      */
-    private boolean isTrapOnScreen(WorldPosition pos) {
-        if (pos == null) {
-            return false;
-        }
-        
-        RSTile trapTile = script.getSceneManager().getTile(pos);
-        if (trapTile == null) {
-            return false; // Tile not in scene (truly off-screen)
-        }
-        
-        // Basic screen bounds check - this is for off-screen detection only
-        return trapTile.isOnGameScreen();
+    public DetectionInput getDetectionInput() {
+        return detectionInput;
+    }
+    
+    /**
+     * Replaces the scan input, e.g. with a recorder wrapping the live input or a replay.
+     */
+    public void setDetectionInput(DetectionInput detectionInput) {
+        this.detectionInput = Objects.requireNonNull(detectionInput, "Detection input cannot be null");
+    }
+    
+    /**
+     * Controls whether catches are reported to the script's metrics (disabled during replay).
+     */
+    public void setReportOutcomes(boolean reportOutcomes) {
+        this.reportOutcomes = reportOutcomes;
+    }
+    
+    private long now() {
+        return detectionInput.currentTimeMillis();
     }
     
     
@@ -820,7 +850,7 @@ public class TrapStateManager {
     public void markTrapForRepositioning(WorldPosition pos) {
         if (!trapsNeedingRepositioning.contains(pos)) {
             trapsNeedingRepositioning.add(pos);
-            ScriptLogger.debug(script, "Marked trap at " + pos + " for repositioning due to visibility issues");
+            LOGGER.debug(script, "Marked trap at %s for repositioning due to visibility issues", pos);
         }
     }
     
@@ -832,6 +862,14 @@ public class TrapStateManager {
         return !trapsNeedingRepositioning.isEmpty();
     }
     
+    /**
+     * Gets a copy of all traps that need repositioning.
+     * @return Set of trap positions needing repositioning
+     */
+    public Set<WorldPosition> getTrapsNeedingRepositioning() {
+        return new HashSet<>(trapsNeedingRepositioning);
+    }
+    
     /**
      * Gets the first trap that needs repositioning.
      * @return WorldPosition of trap needing repositioning, or null if none
@@ -846,7 +884,7 @@ public class TrapStateManager {
      */
     public void clearRepositioningFlag(WorldPosition pos) {
         trapsNeedingRepositioning.remove(pos);
-        ScriptLogger.debug(script, "Cleared repositioning flag for trap at " + pos);
+        LOGGER.debug(script, "Cleared repositioning flag for trap at %s", pos);
     }
     
     /**
@@ -854,7 +892,7 @@ public class TrapStateManager {
      */
     public void clearAllRepositioningFlags() {
         if (!trapsNeedingRepositioning.isEmpty()) {
-            ScriptLogger.debug(script, "Clearing " + trapsNeedingRepositioning.size() + " repositioning flags");
+            LOGGER.debug(script, "Clearing %d repositioning flags", trapsNeedingRepositioning.size());
             trapsNeedingRepositioning.clear();
         }
     }
@@ -873,22 +911,15 @@ public class TrapStateManager {
         }
         
         // First get all visible respawn circles
-        List<PixelAnalyzer.RespawnCircle> visibleCircles = script.getPixelAnalyzer().findRespawnCircleTypes();
         Set<WorldPosition> circlePositions = new HashSet<>();
-        
-        if (visibleCircles != null && !visibleCircles.isEmpty()) {
-            for (PixelAnalyzer.RespawnCircle circle : visibleCircles) {
-                List<WorldPosition> circlePositionsList = script.getUtils().getWorldPositionForRespawnCircles(
-                    List.of(circle.getBounds()), 
-                    getZOffsetForCircleType(circle.getType())
-                );
-                if (circlePositionsList != null && !circlePositionsList.isEmpty()) {
-                    circlePositions.add(circlePositionsList.get(0));
-                }
+        for (DetectionInput.ObservedCircle circle : detectionInput.findRespawnCircles(DetectionInput.Scan.PHANTOM_CHECK)) {
+            if (!circle.positions().isEmpty()) {
+                circlePositions.add(circle.positions().get(0));
             }
         }
         
         Set<WorldPosition> phantomPositions = new HashSet<>();
+        DetectionInput.Frame frame = detectionInput.getFrame(); // One frame shared by every tile check
         
         for (Map.Entry<WorldPosition, TrapInfo> entry : traps.entrySet()) {
             WorldPosition pos = entry.getKey();
@@ -900,60 +931,18 @@ public class TrapStateManager {
             }
             
             // Check if trap tile is on screen
-            RSTile tile = script.getSceneManager().getTile(pos);
-            if (tile == null) {
-                // Trap is off-screen, can't verify - skip it
-                continue;
-            }
-            
-            Polygon trapArea = tile.getTilePoly();
+            Polygon trapArea = detectionInput.getTilePolygon(pos);
             if (trapArea == null) {
-                // Tile polygon not available - skip
+                // Trap is off-screen, can't verify - skip it
                 continue;
             }
             
-            // No respawn circle found, check for trap model pixels
-            boolean hasVisibleTrap = false;
-            
-            // Check for standing trap pixels first (using multiple clusters if available)
-            SearchablePixel[][] standingClusters = trapType.getStandingPixelClusters();
-            for (SearchablePixel[] cluster : standingClusters) {
-                if (cluster == null || cluster.length == 0) continue;
-                
-                PixelCluster.ClusterQuery standingQuery = new PixelCluster.ClusterQuery(
-                    (int) trapType.getClusterDistance(),
-                    trapType.getMinClusterSize(),
-                    cluster
-                );
-                ClusterSearchResult standingResult = script.getPixelAnalyzer().findClusters(trapArea, standingQuery);
-                if (standingResult != null && standingResult.getClusters() != null && !standingResult.getClusters().isEmpty()) {
-                    hasVisibleTrap = true;
-                    break;
-                }
-            }
-            
-            // If no standing trap found, check for collapsed trap pixels
-            if (!hasVisibleTrap) {
-                SearchablePixel[][] collapsedClusters = trapType.getCollapsedPixelClusters();
-                for (SearchablePixel[] cluster : collapsedClusters) {
-                    if (cluster == null || cluster.length == 0) continue;
-                    
-                    PixelCluster.ClusterQuery collapsedQuery = new PixelCluster.ClusterQuery(
-                        (int) trapType.getClusterDistance(),
-                        trapType.getMinClusterSize(),
-                        cluster
-                    );
-                    ClusterSearchResult collapsedResult = script.getPixelAnalyzer().findClusters(trapArea, collapsedQuery);
-                    if (collapsedResult != null && collapsedResult.getClusters() != null && !collapsedResult.getClusters().isEmpty()) {
-                        hasVisibleTrap = true;
-                        break;
-                    }
-                }
-            }
+            // No respawn circle found, check for trap model pixels (standing or collapsed, one labelling pass)
+            boolean hasVisibleTrap = pixelDetector.hasAnyTrap(detectionInput, trapArea, trapType, frame);
             
             // If no respawn circle AND no trap model pixels, this is a phantom trap
             if (!hasVisibleTrap) {
-                ScriptLogger.info(script, "Detected phantom trap at " + pos + " (state: " + info.state() + 
+                LOGGER.info(script, "Detected phantom trap at " + pos + " (state: " + info.state() + 
                                 ") - no respawn circle or trap pixels found");
                 phantomPositions.add(pos);
             }
@@ -962,11 +951,11 @@ public class TrapStateManager {
         // Remove all phantom traps
         for (WorldPosition phantomPos : phantomPositions) {
             removeTrap(phantomPos);
-            ScriptLogger.info(script, "Removed phantom trap at " + phantomPos + " from tracking");
+            LOGGER.info(script, "Removed phantom trap at " + phantomPos + " from tracking");
         }
         
         if (!phantomPositions.isEmpty()) {
-            ScriptLogger.info(script, "Cleaned up " + phantomPositions.size() + " phantom trap(s) during drain mode");
+            LOGGER.info(script, "Cleaned up " + phantomPositions.size() + " phantom trap(s) during drain mode");
         }
     }
     
@@ -1032,7 +1021,7 @@ public class TrapStateManager {
      * @return Optional containing the best finished trap to handle
      */
     private Optional<TrapSummary> getNearestFinishedTrap() {
-        WorldPosition playerPos = script.getWorldPosition();
+        WorldPosition playerPos = detectionInput.getPlayerPosition();
         if (playerPos == null) {
             // Fall back to age-based selection if player position unavailable
             return traps.values().stream()
@@ -1087,20 +1076,19 @@ public class TrapStateManager {
             }
             
             // Final tie-breaker: Random selection for identical cases
-            return RandomUtils.uniformRandom(0, 1) == 0 ? -1 : 1;
+            return detectionInput.uniformRandom(0, 1) == 0 ? -1 : 1;
         });
         
         // Return the best trap (first in sorted list)
         TrapSummary selected = finishedTraps.get(0);
         
         // Log the selection decision for debugging
-        if (finishedTraps.size() > 1) {
+        if (finishedTraps.size() > 1 && LOGGER.isDebugEnabled()) {
             double selectedDistance = playerPos.distanceTo(selected.fullInfo().position());
             String selectedType = selected.fullInfo().state() == TrapState.FINISHED_SUCCESS ? "GREEN" : "RED";
             String priorityMode = distanceBasedPrioritization ? "distance-based" : "green-first";
-            ScriptLogger.debug(script, "Selected " + selectedType + " trap at " + selected.position() + 
-                             " (distance: " + String.format("%.1f", selectedDistance) + ") from " + 
-                             finishedTraps.size() + " finished traps using " + priorityMode + " prioritization");
+            LOGGER.debug(script, "Selected %s trap at %s (distance: %.1f) from %d finished traps using %s prioritization",
+                             selectedType, selected.position(), selectedDistance, finishedTraps.size(), priorityMode);
         }
         
         return Optional.of(selected);
@@ -1115,9 +1103,9 @@ public class TrapStateManager {
     public boolean setFlag(WorldPosition position, TrapFlag flag) {
         TrapInfo current = traps.get(position);
         if (current != null) {
-            TrapInfo updated = current.withFlag(flag);
+            TrapInfo updated = current.withFlag(flag, now());
             traps.put(position, updated);
-            ScriptLogger.debug(script, "Set flag " + flag + " on trap at " + position);
+            LOGGER.debug(script, "Set flag %s on trap at %s", flag, position);
             return true;
         }
         return false;
@@ -1132,9 +1120,9 @@ public class TrapStateManager {
     public boolean clearFlag(WorldPosition position, TrapFlag flag) {
         TrapInfo current = traps.get(position);
         if (current != null) {
-            TrapInfo updated = current.withoutFlag(flag);
+            TrapInfo updated = current.withoutFlag(flag, now());
             traps.put(position, updated);
-            ScriptLogger.debug(script, "Cleared flag " + flag + " from trap at " + position);
+            LOGGER.debug(script, "Cleared flag %s from trap at %s", flag, position);
             return true;
         }
         return false;
@@ -1159,18 +1147,18 @@ public class TrapStateManager {
             case TRAP_CHECKED -> {
                 // Trap was checked and picked up
                 removeTrap(position);
-                ScriptLogger.info(script, "Trap checked and removed at " + position);
+                LOGGER.info(script, "Trap checked and removed at " + position);
             }
             case TRAP_RESET -> {
                 // Collapsed trap was reset
                 clearFlag(position, TrapFlag.NEEDS_INTERACTION);
                 setFlag(position, TrapFlag.PENDING_VERIFICATION);
-                ScriptLogger.info(script, "Trap reset at " + position);
+                LOGGER.info(script, "Trap reset at " + position);
             }
             case TRAP_REMOVED -> {
                 // Trap was removed
                 removeTrap(position);
-                ScriptLogger.info(script, "Trap removed at " + position);
+                LOGGER.info(script, "Trap removed at " + position);
             }
             case MOVEMENT_REQUIRED -> {
                 // Mark trap as needing repositioning
@@ -1182,7 +1170,7 @@ public class TrapStateManager {
             }
             case FAILED -> {
                 // Interaction failed - may need to verify or remove
-                ScriptLogger.warning(script, "Interaction failed at " + position);
+                LOGGER.warning(script, "Interaction failed at " + position);
             }
         }
     }
@@ -1210,8 +1198,8 @@ public class TrapStateManager {
      * Used when repositioning or resetting state.
      */
     public void clearAllFlags() {
-        traps.replaceAll((pos, info) -> info.withClearedFlags());
-        ScriptLogger.debug(script, "Cleared all flags from all traps");
+        traps.replaceAll((pos, info) -> info.withClearedFlags(now()));
+        LOGGER.debug(script, "Cleared all flags from all traps");
     }
     
     /**
@@ -1224,23 +1212,23 @@ public class TrapStateManager {
         
         // Clear existing action flags
         TrapInfo updated = current
-            .withoutFlag(TrapFlag.NEEDS_INTERACTION)
-            .withoutFlag(TrapFlag.READY_FOR_REMOVAL)
-            .withoutFlag(TrapFlag.LAYING_IN_PROGRESS);
+            .withoutFlag(TrapFlag.NEEDS_INTERACTION, now())
+            .withoutFlag(TrapFlag.READY_FOR_REMOVAL, now())
+            .withoutFlag(TrapFlag.LAYING_IN_PROGRESS, now());
         
         // Set new flags based on state
         switch (newState) {
             case FINISHED, FINISHED_SUCCESS, FINISHED_FAILED -> {
-                updated = updated.withFlag(TrapFlag.READY_FOR_REMOVAL);
+                updated = updated.withFlag(TrapFlag.READY_FOR_REMOVAL, now());
             }
             case COLLAPSED -> {
-                updated = updated.withFlag(TrapFlag.NEEDS_INTERACTION);
+                updated = updated.withFlag(TrapFlag.NEEDS_INTERACTION, now());
             }
             case LAYING -> {
-                updated = updated.withFlag(TrapFlag.LAYING_IN_PROGRESS);
+                updated = updated.withFlag(TrapFlag.LAYING_IN_PROGRESS, now());
             }
             case UNKNOWN -> {
-                updated = updated.withFlag(TrapFlag.PENDING_VERIFICATION);
+                updated = updated.withFlag(TrapFlag.PENDING_VERIFICATION, now());
             }
             default -> {
                 // ACTIVE state - no special flags needed
@@ -7,6 +7,7 @@ import com.jork.script.jorkHunter.tasks.base.AbstractHuntingTask;
 import com.jork.script.jorkHunter.utils.placement.TrapPlacementStrategy;
 import com.jork.script.jorkHunter.utils.placement.NoCardinalStrategy;
 import com.jork.script.jorkHunter.interaction.TrapVisibilityChecker;
+import com.jork.script.jorkHunter.interaction.TrapVisibilityCache;
 import com.jork.script.jorkHunter.interaction.InteractionResult;
 import com.jork.script.jorkHunter.state.TrapInfo;
 import com.jork.script.jorkHunter.state.TrapState;
@@ -24,7 +25,6 @@ import com.osmb.api.item.ItemID;
 import com.osmb.api.item.ItemSearchResult;
 import com.osmb.api.utils.RandomUtils;
 import com.osmb.api.shape.Rectangle;
-import com.osmb.api.scene.RSTile;
 import com.osmb.api.location.area.impl.RectangleArea;
 import com.osmb.api.visual.PixelCluster.ClusterSearchResult;
 import com.osmb.api.visual.PixelCluster;
@@ -116,7 +116,7 @@ public class TrapTask extends AbstractHuntingTask {
             final WorldPosition finalTrapPos = trapPos;
             final boolean finalIsResetting = isResetting;
             
-            ScriptLogger.debug(script, "Waiting for respawn circle to appear at " + finalTrapPos);
+            ScriptLogger.debug(script, "Waiting for respawn circle to appear at %s", finalTrapPos);
             
             // Wait for respawn circle with 5 second timeout
             boolean circleAppeared = script.submitHumanTask(() -> 
@@ -126,15 +126,20 @@ public class TrapTask extends AbstractHuntingTask {
                 // Trap laying/resetting complete - respawn circle detected!
                 long timeTaken = trapLayingStartTime > 0 ? 
                     System.currentTimeMillis() - trapLayingStartTime : 0;
+                if (timeTaken > 0) {
+                    interactionHandler.getTelemetry().recordConfirmation(finalIsResetting
+                        ? InteractionResult.InteractionType.TRAP_RESET_INITIATED
+                        : InteractionResult.InteractionType.TRAP_LAID, timeTaken);
+                }
                 
                 if (finalIsResetting) {
-                    ScriptLogger.debug(script, "Trap reset complete - yellow circle detected at " + finalTrapPos + 
-                                     " (time: " + timeTaken + "ms)");
+                    ScriptLogger.debug(script, "Trap reset complete - yellow circle detected at %s (time: %dms)",
+                                     finalTrapPos, timeTaken);
                     trapManager.completeResetTrap(finalTrapPos, true);
                     trapManager.clearResetFlag();
                 } else {
-                    ScriptLogger.debug(script, "Trap laying complete - yellow circle detected at " + finalTrapPos + 
-                                     " (time: " + timeTaken + "ms)");
+                    ScriptLogger.debug(script, "Trap laying complete - yellow circle detected at %s (time: %dms)",
+                                     finalTrapPos, timeTaken);
                     trapManager.completeTrapLaying(finalTrapPos, true);
                     trapManager.clearLayingFlag();
                 }
@@ -218,7 +223,7 @@ public class TrapTask extends AbstractHuntingTask {
                         committedTrapPosition = null;
                     } else if (distance > 1.0) {
                         // Still moving to position, don't interrupt
-                        ScriptLogger.debug(script, "Still moving to committed trap position at " + committedTrapPosition + " (distance: " + distance + ")");
+                        ScriptLogger.debug(script, "Still moving to committed trap position at %s (distance: %s)", committedTrapPosition, distance);
                         return RandomUtils.weightedRandom(200, 400);
                     } else {
                         // We're at the position, continue with trap laying but maintain commitment
@@ -369,7 +374,7 @@ public class TrapTask extends AbstractHuntingTask {
                 // If we still have traps after phantom verification, log their positions for debugging
                 if (newTotalTraps > 0) {
                     List<WorldPosition> remainingPositions = trapManager.getLaidTrapPositions();
-                    ScriptLogger.debug(script, "Remaining trap positions during drain: " + remainingPositions);
+                    ScriptLogger.debug(script, "Remaining trap positions during drain: %s", remainingPositions);
                 }
             }
             
@@ -393,8 +398,10 @@ public class TrapTask extends AbstractHuntingTask {
         }
 
         // 6. All traps are set and waiting. Increase poll rate as we are just monitoring.
+        // Use the idle poll to pre-build tap shapes for the traps we'll interact with next
+        interactionHandler.prewarmInteractionGeometry(trapManager.getActiveTraps());
         int currentTrapCount = trapManager.getTotalCount();
-        ScriptLogger.debug(script, "All " + currentTrapCount + "/" + maxTraps + " traps are set. Waiting...");
+        ScriptLogger.debug(script, "All %d/%d traps are set. Waiting...", currentTrapCount, maxTraps);
         return 2400; // Slower poll rate while waiting (doubled from 1200ms)
     }
     
@@ -423,12 +430,15 @@ public class TrapTask extends AbstractHuntingTask {
         switch (result.type()) {
             case TRAP_CHECKED, TRAP_RESET, TRAP_REMOVED -> {
                 // Wait for inventory change to confirm successful interaction with human-like timing
+                long confirmStart = System.currentTimeMillis();
                 boolean inventoryChanged = script.submitHumanTask(() -> {
                     int currentCount = getTrapCountInInventory();
                     return currentCount != initialTrapCount;
                 }, script.random(2500, 3500));
                 
                 if (inventoryChanged) {
+                    interactionHandler.getTelemetry().recordConfirmation(result.type(),
+                        System.currentTimeMillis() - confirmStart);
                     int finalCount = getTrapCountInInventory();
                     ScriptLogger.actionSuccess(script, "Trap interaction confirmed - inventory changed from " + 
                         initialTrapCount + " to " + finalCount);
@@ -566,7 +576,8 @@ public class TrapTask extends AbstractHuntingTask {
         ScriptLogger.navigation(script, "Trap at " + trapPos + " is occluded. Finding better viewing position.");
         
         TrapVisibilityChecker visibilityChecker = interactionHandler.getVisibilityChecker();
-        WorldPosition viewingPos = visibilityChecker.findBestViewingPosition(trapPos, huntingZones);
+        WorldPosition viewingPos = visibilityChecker.findBestViewingPosition(trapPos,
+            trapManager.getTrapsNeedingRepositioning(), trapManager.getLaidTrapPositions(), huntingZones);
         
         if (viewingPos != null) {
             WorldPosition currentPos = script.getWorldPosition();
@@ -762,7 +773,7 @@ public class TrapTask extends AbstractHuntingTask {
                 return;
             }
         } else {
-            ScriptLogger.debug(script, "Current position " + initialPos + " is valid according to " + placementStrategy.getStrategyName() + " strategy.");
+            ScriptLogger.debug(script, () -> "Current position " + initialPos + " is valid according to " + placementStrategy.getStrategyName() + " strategy.");
         }
         
         // ── Final safety check: ensure we're not on an already occupied tile ──────────
@@ -775,7 +786,7 @@ public class TrapTask extends AbstractHuntingTask {
         
         // Defensive movement safety check - ensure we're not still moving
         if (script.getLastPositionChangeMillis() < RandomUtils.uniformRandom(350, 700)) {
-            ScriptLogger.debug(script, "Still moving (last change: " + script.getLastPositionChangeMillis() + "ms ago). Waiting before laying trap.");
+            ScriptLogger.debug(script, () -> "Still moving (last change: " + script.getLastPositionChangeMillis() + "ms ago). Waiting before laying trap.");
             return;
         }
         
@@ -855,7 +866,7 @@ public class TrapTask extends AbstractHuntingTask {
         
         // Check if we found a yellow circle (indicates trap is active)
         if (circle != null && circle.getType() == PixelAnalyzer.RespawnCircle.Type.YELLOW) {
-            ScriptLogger.debug(script, "Yellow respawn circle detected at " + position);
+            ScriptLogger.debug(script, "Yellow respawn circle detected at %s", position);
             return true;
         }
         
@@ -883,10 +894,11 @@ public class TrapTask extends AbstractHuntingTask {
         int offScreenCount = 0;
         int occludedCount = 0;
         
+        TrapVisibilityCache visibilityCache = trapManager.getVisibilityChecker().getCache();
         for (WorldPosition trapPos : allTrapPositions) {
-            RSTile trapTile = script.getSceneManager().getTile(trapPos);
+            TrapVisibilityCache.TileVisibility visibility = visibilityCache.get(trapPos);
             
-            if (trapTile == null) {
+            if (!visibility.inScene()) {
                 // Tile is completely off-screen (not in the scene at all)
                 trapManager.markTrapForRepositioning(trapPos);
                 offScreenCount++;
@@ -894,7 +906,7 @@ public class TrapTask extends AbstractHuntingTask {
             } else {
                 // Check if tile is visible on screen without UI occlusion
                 // First check general visibility
-                if (!trapTile.isOnGameScreen()) {
+                if (!visibility.onGameScreen()) {
                     // Tile is occluded by UI or otherwise not visible
                     trapManager.markTrapForRepositioning(trapPos);
                     occludedCount++;
@@ -45,7 +45,8 @@ public abstract class AbstractHuntingTask implements Task {
         this.huntingZones = huntingZones;
         this.placementStrategy = placementStrategy;
         this.trapManager = new TrapStateManager(script, trapType);
-        this.interactionHandler = new TrapInteractionHandler(script);
+        this.interactionHandler = new TrapInteractionHandler(script, trapManager.getVisibilityChecker(),
+            trapManager.getDetectionInput());
         this.navigation = new Navigation(script);
         
         // Configure walker with exact positioning for trap placement
@@ -0,0 +1,156 @@
+package com.jork.script.jorkHunter.tools;
+
+import com.jork.script.jorkHunter.JorkHunter;
+import com.jork.script.jorkHunter.trap.TrapType;
+import com.jork.utils.ScriptLogger;
+import com.jork.utils.tilepicker.EnhancedTilePickerPanel;
+import com.osmb.api.location.position.types.WorldPosition;
+import com.osmb.api.scene.RSTile;
+import com.osmb.api.shape.Polygon;
+import com.osmb.api.visual.image.Image;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-client half of the pixel-signature tooling.
+ * Saves a screen frame together with tile polygons labelled through the categorized tile picker,
+ * which {@link SignatureFitter} later turns into a TrapType pixel definition.
+ *
+ * <p>Each capture writes {@code <timestamp>.png} and {@code <timestamp>.labels}. A labels file has a
+ * {@code #} header followed by one line per tile: {@code <category> x1,y1 x2,y2 ...}.
+ */
+public class SignatureCapture {
+
+    public static final String CATEGORY_STANDING = "standing";
+    public static final String CATEGORY_COLLAPSED = "collapsed";
+    public static final String CATEGORY_BACKGROUND = "background";
+    public static final String LABELS_EXTENSION = ".labels";
+    public static final String IMAGE_EXTENSION = ".png";
+
+    private static final long CAPTURE_INTERVAL_MS = 90_000; // Leave time for traps to change state between captures
+
+    private final JorkHunter script;
+    private final TrapType trapType;
+    private final File outputDir;
+    private long nextCaptureTime;
+    private int framesCaptured = 0;
+    private boolean active = true;
+
+    public SignatureCapture(JorkHunter script, TrapType trapType, File outputDir) {
+        this.script = script;
+        this.trapType = trapType;
+        this.outputDir = outputDir;
+        this.nextCaptureTime = System.currentTimeMillis() + CAPTURE_INTERVAL_MS;
+    }
+
+    /**
+     * Checks if capture mode is still on and the next capture is due.
+     */
+    public boolean isDue() {
+        return active && System.currentTimeMillis() >= nextCaptureTime;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public int getFramesCaptured() {
+        return framesCaptured;
+    }
+
+    /**
+     * Grabs the current frame, opens the tile picker for labelling and saves both.
+     * Confirming the picker without labelling any tile ends capture mode.
+     *
+     * @return true if a labelled frame was written
+     */
+    public boolean capture() {
+        nextCaptureTime = System.currentTimeMillis() + CAPTURE_INTERVAL_MS;
+
+        // Grab the frame before the picker opens so it matches the picker's screenshot
+        Image frame = script.getScreen().getImage();
+        if (frame == null) {
+            ScriptLogger.warning(script, "Signature capture skipped - no screen image");
+            return false;
+        }
+
+        Map<String, List<WorldPosition>> labelled = EnhancedTilePickerPanel.builder(script)
+            .withCategory(CATEGORY_STANDING, "Standing trap", Color.GREEN)
+            .withCategory(CATEGORY_COLLAPSED, "Collapsed trap", Color.ORANGE)
+            .withCategory(CATEGORY_BACKGROUND, "Background (no trap)", Color.GRAY)
+            .withTitle("Signature Capture - label tiles, confirm empty to stop")
+            .show();
+
+        int labelCount = labelled == null ? 0 : labelled.values().stream().mapToInt(List::size).sum();
+        if (labelCount == 0) {
+            active = false;
+            ScriptLogger.info(script, "Signature capture finished - " + framesCaptured + " frame(s) in " +
+                             outputDir.getAbsolutePath());
+            return false;
+        }
+
+        String baseName = String.valueOf(System.currentTimeMillis());
+        try {
+            writeFrame(frame, new File(outputDir, baseName + IMAGE_EXTENSION));
+            int written = writeLabels(labelled, new File(outputDir, baseName + LABELS_EXTENSION), baseName);
+            framesCaptured++;
+            ScriptLogger.info(script, "Captured signature frame " + baseName + " with " + written + " labelled tile(s)");
+            return true;
+        } catch (IOException e) {
+            ScriptLogger.exception(script, "writing signature capture", e);
+            return false;
+        }
+    }
+
+    private void writeFrame(Image frame, File file) throws IOException {
+        if (!outputDir.exists() && !outputDir.mkdirs()) {
+            throw new IOException("Could not create directory " + outputDir.getAbsolutePath());
+        }
+        BufferedImage image = new BufferedImage(frame.getWidth(), frame.getHeight(), BufferedImage.TYPE_INT_RGB);
+        image.setRGB(0, 0, frame.getWidth(), frame.getHeight(), frame.getPixels(), 0, frame.getWidth());
+        ImageIO.write(image, "png", file);
+    }
+
+    /**
+     * Projects each labelled tile and writes its polygon. Tiles that are off screen are skipped.
+     *
+     * @return Number of tiles written
+     */
+    private int writeLabels(Map<String, List<WorldPosition>> labelled, File file, String baseName) throws IOException {
+        int written = 0;
+        try (PrintWriter out = new PrintWriter(file, StandardCharsets.UTF_8)) {
+            WorldPosition player = script.getWorldPosition();
+            out.println("# frame=" + baseName + IMAGE_EXTENSION + " trap=" + trapType.name() +
+                        " player=" + (player != null ? player.getX() + "," + player.getY() + "," + player.getPlane() : "unknown"));
+
+            for (Map.Entry<String, List<WorldPosition>> entry : labelled.entrySet()) {
+                for (WorldPosition position : entry.getValue()) {
+                    RSTile tile = script.getSceneManager().getTile(position);
+                    Polygon poly = tile != null ? tile.getTilePoly() : null;
+                    if (poly == null) {
+                        ScriptLogger.debug(script, "Signature capture: tile " + position + " not on screen, skipped");
+                        continue;
+                    }
+
+                    StringBuilder line = new StringBuilder(entry.getKey());
+                    int[] xs = poly.getXPoints();
+                    int[] ys = poly.getYPoints();
+                    for (int i = 0; i < xs.length; i++) {
+                        line.append(' ').append(xs[i]).append(',').append(ys[i]);
+                    }
+                    out.println(line);
+                    written++;
+                }
+            }
+        }
+        return written;
+    }
+}
@@ -0,0 +1,506 @@
+package com.jork.script.jorkHunter.tools;
+
+import com.jork.script.jorkHunter.trap.PixelSignature;
+import com.jork.script.jorkHunter.trap.TrapPixelMatcher;
+import com.jork.script.jorkHunter.trap.TrapType;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Offline half of the pixel-signature tooling.
+ * Reads frames written by {@link SignatureCapture}, fits small pixel sets and tolerances that separate
+ * labelled trap tiles from everything else, reports miss and false-positive rates, and prints a
+ * ready-to-paste TrapType definition.
+ *
+ * <p>Run with the script jar and API.jar on the classpath:
+ * <pre>
+ * java -cp jorkHunter.jar:API.jar com.jork.script.jorkHunter.tools.SignatureFitter &lt;captureDir&gt;
+ *      [--base CHINCHOMPA] [--name NEW_TRAP] [--min-cluster 5] [--max-sets 3] [--max-per-set 4]
+ * </pre>
+ *
+ * <p>A tile counts as detected when a set matches at least {@code min-cluster} pixels on it. This
+ * ignores cluster distance, so treat the rates as estimates and confirm in the client.
+ */
+public final class SignatureFitter {
+
+    private static final int BUCKET_SHIFT = 3;                    // 5 bits per channel
+    private static final int BUCKET_BITS = 8 - BUCKET_SHIFT;
+    private static final int BUCKET_COUNT = 1 << (BUCKET_BITS * 3);
+    private static final int[] TOLERANCES = { 2, 4, 6, 8, 10, 12, 15 };
+    private static final int CANDIDATE_COLOURS = 150;
+    private static final double FALSE_POSITIVE_WEIGHT = 3.0;      // One false tile costs three detected tiles
+    private static final double TARGET_COVERAGE = 0.98;
+    private static final int[] REPORT_CLUSTER_SIZES = { 3, 5, 8, 10, 15, 20, 30 };
+
+    private final List<TileSample> samples = new ArrayList<>();
+    private final double[][] bucketHsl = new double[BUCKET_COUNT][3];
+    private int minCluster = 5;
+    private int maxSets = 3;
+    private int maxPerSet = 4;
+
+    /**
+     * One labelled tile as a sparse colour-bucket histogram.
+     */
+    private record TileSample(String category, String source, int[] buckets, int[] counts) {
+        int count(BitSet matching) {
+            int total = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                if (matching.get(buckets[i])) total += counts[i];
+            }
+            return total;
+        }
+    }
+
+    /**
+     * A colour and tolerance together with every histogram bucket it matches.
+     */
+    private record Candidate(int rgb, int tolerance, BitSet matching) {}
+
+    /**
+     * Detection outcome of a group of sets against a labelled sample set.
+     */
+    private record Evaluation(int positives, int missed, int negatives, int falsePositives) {
+        double missRate() { return positives == 0 ? 0 : (double) missed / positives; }
+        double falsePositiveRate() { return negatives == 0 ? 0 : (double) falsePositives / negatives; }
+    }
+
+    private SignatureFitter() {
+        double[] hsl = new double[3];
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+            int[] rgb = bucketCentre(bucket);
+            TrapPixelMatcher.rgbToHsl(rgb[0], rgb[1], rgb[2], hsl);
+            bucketHsl[bucket] = hsl.clone();
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("Usage: SignatureFitter <captureDir> [--base TRAP_TYPE] [--name NAME] " +
+                               "[--min-cluster N] [--max-sets N] [--max-per-set N]");
+            return;
+        }
+
+        SignatureFitter fitter = new SignatureFitter();
+        TrapType base = null;
+        String name = null;
+        for (int i = 1; i < args.length - 1; i += 2) {
+            switch (args[i]) {
+                case "--base" -> base = TrapType.valueOf(args[i + 1].toUpperCase(Locale.ROOT));
+                case "--name" -> name = args[i + 1].toUpperCase(Locale.ROOT);
+                case "--min-cluster" -> fitter.minCluster = Integer.parseInt(args[i + 1]);
+                case "--max-sets" -> fitter.maxSets = Integer.parseInt(args[i + 1]);
+                case "--max-per-set" -> fitter.maxPerSet = Integer.parseInt(args[i + 1]);
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        fitter.load(new File(args[0]));
+        if (name == null) {
+            name = base != null ? base.name() : "NEW_TRAP";
+        }
+
+        List<List<Candidate>> standing = fitter.fitAndReport(SignatureCapture.CATEGORY_STANDING,
+            base != null ? base.getStandingSignatures() : null);
+        List<List<Candidate>> collapsed = fitter.fitAndReport(SignatureCapture.CATEGORY_COLLAPSED,
+            base != null ? base.getCollapsedSignatures() : null);
+
+        System.out.println();
+        System.out.println("// ==== Generated TrapType definition ====");
+        System.out.println(fitter.formatDefinition(name, base, standing, collapsed));
+    }
+
+    // ───────────────────────────────────────────────────────────────────────
+    // Loading
+    // ───────────────────────────────────────────────────────────────────────
+
+    private void load(File dir) throws IOException {
+        File[] labelFiles = dir.listFiles((d, n) -> n.endsWith(SignatureCapture.LABELS_EXTENSION));
+        if (labelFiles == null || labelFiles.length == 0) {
+            throw new IOException("No " + SignatureCapture.LABELS_EXTENSION + " files in " + dir.getAbsolutePath());
+        }
+        Arrays.sort(labelFiles);
+
+        for (File labelFile : labelFiles) {
+            String baseName = labelFile.getName().substring(0,
+                labelFile.getName().length() - SignatureCapture.LABELS_EXTENSION.length());
+            File imageFile = new File(dir, baseName + SignatureCapture.IMAGE_EXTENSION);
+            BufferedImage image = ImageIO.read(imageFile);
+            if (image == null) {
+                System.out.println("Skipping " + labelFile.getName() + " - missing or unreadable " + imageFile.getName());
+                continue;
+            }
+
+            for (String line : Files.readAllLines(labelFile.toPath(), StandardCharsets.UTF_8)) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+
+                String[] parts = line.split("\\s+");
+                int[] xs = new int[parts.length - 1];
+                int[] ys = new int[parts.length - 1];
+                for (int i = 1; i < parts.length; i++) {
+                    String[] xy = parts[i].split(",");
+                    xs[i - 1] = Integer.parseInt(xy[0]);
+                    ys[i - 1] = Integer.parseInt(xy[1]);
+                }
+                samples.add(histogram(parts[0], baseName, image, xs, ys));
+            }
+        }
+
+        System.out.println("Loaded " + samples.size() + " labelled tiles from " + labelFiles.length + " frame(s): " +
+                           countCategory(SignatureCapture.CATEGORY_STANDING) + " standing, " +
+                           countCategory(SignatureCapture.CATEGORY_COLLAPSED) + " collapsed, " +
+                           countCategory(SignatureCapture.CATEGORY_BACKGROUND) + " background");
+    }
+
+    private TileSample histogram(String category, String source, BufferedImage image, int[] xs, int[] ys) {
+        int minX = Math.max(0, Arrays.stream(xs).min().orElse(0));
+        int maxX = Math.min(image.getWidth() - 1, Arrays.stream(xs).max().orElse(-1));
+        int minY = Math.max(0, Arrays.stream(ys).min().orElse(0));
+        int maxY = Math.min(image.getHeight() - 1, Arrays.stream(ys).max().orElse(-1));
+
+        int[] dense = new int[BUCKET_COUNT];
+        int distinct = 0;
+        for (int y = minY; y <= maxY; y++) {
+            for (int x = minX; x <= maxX; x++) {
+                if (!contains(xs, ys, x + 0.5, y + 0.5)) continue;
+                int bucket = bucketOf(image.getRGB(x, y));
+                if (dense[bucket]++ == 0) distinct++;
+            }
+        }
+
+        int[] buckets = new int[distinct];
+        int[] counts = new int[distinct];
+        int index = 0;
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+            if (dense[bucket] > 0) {
+                buckets[index] = bucket;
+                counts[index++] = dense[bucket];
+            }
+        }
+        return new TileSample(category, source, buckets, counts);
+    }
+
+    /**
+     * Even-odd point-in-polygon test.
+     */
+    private static boolean contains(int[] xs, int[] ys, double px, double py) {
+        boolean inside = false;
+        for (int i = 0, j = xs.length - 1; i < xs.length; j = i++) {
+            if ((ys[i] > py) != (ys[j] > py)
+                && px < (double) (xs[j] - xs[i]) * (py - ys[i]) / (ys[j] - ys[i]) + xs[i]) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+
+    // ───────────────────────────────────────────────────────────────────────
+    // Fitting
+    // ───────────────────────────────────────────────────────────────────────
+
+    private List<List<Candidate>> fitAndReport(String category, PixelSignature[][] current) {
+        List<TileSample> positives = new ArrayList<>();
+        List<TileSample> negatives = new ArrayList<>();
+        for (TileSample sample : samples) {
+            (sample.category().equals(category) ? positives : negatives).add(sample);
+        }
+
+        System.out.println();
+        System.out.println("// ==== " + category + " (" + positives.size() + " positive, " +
+                           negatives.size() + " negative tiles) ====");
+        if (positives.isEmpty()) {
+            System.out.println("No " + category + " tiles labelled - nothing to fit");
+            return List.of();
+        }
+
+        if (current != null) {
+            List<List<Candidate>> currentSets = new ArrayList<>();
+            for (PixelSignature[] set : current) {
+                List<Candidate> converted = new ArrayList<>();
+                for (PixelSignature signature : set) {
+                    converted.add(candidate(signature.rgb(), signature.tolerance()));
+                }
+                currentSets.add(converted);
+            }
+            System.out.println("Current definition: " + describe(evaluate(currentSets, positives, negatives, minCluster)));
+        }
+
+        List<List<Candidate>> sets = fit(positives, negatives);
+        for (int i = 0; i < sets.size(); i++) {
+            Evaluation single = evaluate(List.of(sets.get(i)), positives, negatives, minCluster);
+            System.out.println("Set #" + (i + 1) + " (" + sets.get(i).size() + " colours): " + describe(single));
+        }
+        System.out.println("Fitted definition:  " + describe(evaluate(sets, positives, negatives, minCluster)));
+
+        System.out.println("Min cluster size sweep:");
+        for (int size : REPORT_CLUSTER_SIZES) {
+            System.out.println("  " + size + ": " + describe(evaluate(sets, positives, negatives, size)));
+        }
+        return sets;
+    }
+
+    /**
+     * Greedy set cover: each new set targets the positives the earlier sets missed, adding the colour
+     * that most improves detected-minus-weighted-false tiles until nothing helps, then dropping
+     * colours the set does not need.
+     */
+    private List<List<Candidate>> fit(List<TileSample> positives, List<TileSample> negatives) {
+        List<Candidate> candidates = candidates(positives, negatives);
+        boolean[] covered = new boolean[positives.size()];
+        List<List<Candidate>> sets = new ArrayList<>();
+
+        while (sets.size() < maxSets) {
+            List<TileSample> uncovered = new ArrayList<>();
+            for (int i = 0; i < positives.size(); i++) {
+                if (!covered[i]) uncovered.add(positives.get(i));
+            }
+            if (uncovered.size() <= positives.size() * (1.0 - TARGET_COVERAGE)) {
+                break;
+            }
+
+            List<Candidate> set = new ArrayList<>();
+            BitSet union = new BitSet(BUCKET_COUNT);
+            double score = 0;
+            while (set.size() < maxPerSet) {
+                Candidate best = null;
+                double bestScore = score;
+                for (Candidate candidate : candidates) {
+                    BitSet trial = (BitSet) union.clone();
+                    trial.or(candidate.matching());
+                    double trialScore = score(trial, uncovered, negatives);
+                    if (trialScore > bestScore) {
+                        best = candidate;
+                        bestScore = trialScore;
+                    }
+                }
+                if (best == null) break;
+                set.add(best);
+                union.or(best.matching());
+                score = bestScore;
+            }
+            if (set.isEmpty()) break;
+
+            prune(set, uncovered, negatives, score);
+            sets.add(set);
+
+            BitSet matching = unionOf(set);
+            for (int i = 0; i < positives.size(); i++) {
+                if (positives.get(i).count(matching) >= minCluster) covered[i] = true;
+            }
+        }
+        return sets;
+    }
+
+    /**
+     * Removes colours whose absence does not lower the set's score.
+     */
+    private void prune(List<Candidate> set, List<TileSample> positives, List<TileSample> negatives, double score) {
+        for (int i = set.size() - 1; i >= 0 && set.size() > 1; i--) {
+            List<Candidate> without = new ArrayList<>(set);
+            without.remove(i);
+            if (score(unionOf(without), positives, negatives) >= score) {
+                set.remove(i);
+            }
+        }
+    }
+
+    private double score(BitSet matching, List<TileSample> positives, List<TileSample> negatives) {
+        int detected = 0;
+        for (TileSample sample : positives) {
+            if (sample.count(matching) >= minCluster) detected++;
+        }
+        int falsePositives = 0;
+        for (TileSample sample : negatives) {
+            if (sample.count(matching) >= minCluster) falsePositives++;
+        }
+        return detected - FALSE_POSITIVE_WEIGHT * falsePositives;
+    }
+
+    /**
+     * Picks colours that appear on many positive tiles and few negative ones, at every tolerance step.
+     */
+    private List<Candidate> candidates(List<TileSample> positives, List<TileSample> negatives) {
+        int[] positiveTiles = new int[BUCKET_COUNT];
+        int[] negativeTiles = new int[BUCKET_COUNT];
+        for (TileSample sample : positives) {
+            for (int bucket : sample.buckets()) positiveTiles[bucket]++;
+        }
+        for (TileSample sample : negatives) {
+            for (int bucket : sample.buckets()) negativeTiles[bucket]++;
+        }
+
+        double positiveTotal = positives.size();
+        double negativeTotal = Math.max(1, negatives.size());
+        Integer[] ranked = new Integer[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) ranked[i] = i;
+        Arrays.sort(ranked, Comparator.comparingDouble(
+            (Integer b) -> positiveTiles[b] / positiveTotal - negativeTiles[b] / negativeTotal).reversed());
+
+        List<Candidate> result = new ArrayList<>();
+        for (int i = 0; i < CANDIDATE_COLOURS && positiveTiles[ranked[i]] > 0; i++) {
+            int[] rgb = bucketCentre(ranked[i]);
+            int packed = 0xFF000000 | (rgb[0] << 16) | (rgb[1] << 8) | rgb[2];
+            for (int tolerance : TOLERANCES) {
+                result.add(candidate(packed, tolerance));
+            }
+        }
+        return result;
+    }
+
+    private Candidate candidate(int rgb, int tolerance) {
+        double[] hsl = new double[3];
+        TrapPixelMatcher.rgbToHsl((rgb >> 16) & 0xFF, (rgb >> 8) & 0xFF, rgb & 0xFF, hsl);
+        BitSet matching = new BitSet(BUCKET_COUNT);
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+            if (TrapPixelMatcher.withinTolerance(bucketHsl[bucket], hsl, tolerance)) {
+                matching.set(bucket);
+            }
+        }
+        return new Candidate(rgb, tolerance, matching);
+    }
+
+    private Evaluation evaluate(List<List<Candidate>> sets, List<TileSample> positives,
+                                List<TileSample> negatives, int clusterSize) {
+        List<BitSet> unions = new ArrayList<>();
+        for (List<Candidate> set : sets) unions.add(unionOf(set));
+
+        int missed = 0;
+        for (TileSample sample : positives) {
+            if (!detected(sample, unions, clusterSize)) missed++;
+        }
+        int falsePositives = 0;
+        for (TileSample sample : negatives) {
+            if (detected(sample, unions, clusterSize)) falsePositives++;
+        }
+        return new Evaluation(positives.size(), missed, negatives.size(), falsePositives);
+    }
+
+    private static boolean detected(TileSample sample, List<BitSet> unions, int clusterSize) {
+        for (BitSet union : unions) {
+            if (sample.count(union) >= clusterSize) return true;
+        }
+        return false;
+    }
+
+    // ───────────────────────────────────────────────────────────────────────
+    // Output
+    // ───────────────────────────────────────────────────────────────────────
+
+    private String formatDefinition(String name, TrapType base, List<List<Candidate>> standing,
+                                    List<List<Candidate>> collapsed) {
+        StringBuilder out = new StringBuilder();
+        out.append("    ").append(name).append("(\n");
+        if (base != null) {
+            out.append("        ").append(base.getItemId()).append(", // ItemID for ").append(base.getItemName()).append('\n');
+            out.append("        \"").append(base.getItemName()).append("\",\n");
+        } else {
+            out.append("        -1, // TODO: ItemID\n");
+            out.append("        \"\", // TODO: item name\n");
+        }
+
+        out.append("        // Standing trap pixel clusters (fitted by SignatureFitter)\n");
+        appendSets(out, standing);
+        out.append(",\n");
+        out.append("        // Collapsed trap pixel clusters (fitted by SignatureFitter)\n");
+        appendSets(out, collapsed);
+        out.append(",\n");
+
+        if (base == null) {
+            out.append("        // TODO: remaining arguments as in the other TrapType constants (min cluster size ")
+               .append(minCluster).append(")\n");
+            out.append("    ),");
+            return out.toString();
+        }
+
+        out.append("        ").append(base.getActiveZOffset()).append(",    // Yellow circle Z-offset\n");
+        out.append("        ").append(base.getFinishedZOffset()).append(",  // Finished circle Z-offset (Green/Red)\n");
+        out.append("        ").append(base.getCollapseGracePeriod()).append(",  // Collapse grace period in ms\n");
+        out.append("        ").append(minCluster).append(",     // Min cluster size\n");
+        out.append("        ").append(base.getClusterDistance()).append(",   // Cluster distance\n");
+        out.append("        ").append(formatStrings(base.getInventoryActions())).append(",  // Inventory action\n");
+        out.append("        ").append(formatStrings(base.getSuccessActions())).append(", // Success trap actions\n");
+        out.append("        ").append(formatStrings(base.getFailedActions())).append(", // Failed trap actions\n");
+        out.append("        ").append(formatStrings(base.getCollapsedActions())).append(", // Collapsed trap actions\n");
+        out.append("        ").append(formatStrings(base.getResetActions())).append(", // Reset actions\n");
+        out.append("        new int[] { ");
+        int[] dropItems = base.getDropItems();
+        for (int i = 0; i < dropItems.length; i++) {
+            out.append(i > 0 ? ", " : "").append(dropItems[i]);
+        }
+        out.append(" }, // Drop items\n");
+        out.append("        ").append(base.getTapAreaYScale()).append(", // Tap area Y-scale factor\n");
+        out.append("        TrapStateHandlingMode.").append(base.getStateHandlingMode().name()).append('\n');
+        out.append("    ),");
+        return out.toString();
+    }
+
+    private static void appendSets(StringBuilder out, List<List<Candidate>> sets) {
+        out.append("        new PixelSignature[][] {\n");
+        for (int i = 0; i < sets.size(); i++) {
+            out.append("            // Cluster #").append(i + 1).append('\n');
+            out.append("            {\n");
+            for (Candidate candidate : sets.get(i)) {
+                out.append("                new PixelSignature(").append(candidate.rgb()).append(", ")
+                   .append(candidate.tolerance()).append("),\n");
+            }
+            out.append("            },\n");
+        }
+        out.append("        }");
+    }
+
+    private static String formatStrings(String[] values) {
+        StringBuilder out = new StringBuilder("new String[] {");
+        for (int i = 0; i < values.length; i++) {
+            out.append(i > 0 ? ", \"" : " \"").append(values[i]).append('"');
+        }
+        return out.append(values.length > 0 ? " }" : "}").toString();
+    }
+
+    private static String describe(Evaluation evaluation) {
+        return String.format(Locale.ROOT, "miss %.1f%% (%d/%d), false positive %.1f%% (%d/%d)",
+            evaluation.missRate() * 100, evaluation.missed(), evaluation.positives(),
+            evaluation.falsePositiveRate() * 100, evaluation.falsePositives(), evaluation.negatives());
+    }
+
+    // ───────────────────────────────────────────────────────────────────────
+    // Helpers
+    // ───────────────────────────────────────────────────────────────────────
+
+    private int countCategory(String category) {
+        return (int) samples.stream().filter(s -> s.category().equals(category)).count();
+    }
+
+    private static BitSet unionOf(List<Candidate> set) {
+        BitSet union = new BitSet(BUCKET_COUNT);
+        for (Candidate candidate : set) union.or(candidate.matching());
+        return union;
+    }
+
+    private static int bucketOf(int rgb) {
+        int r = (rgb >> 16) & 0xFF;
+        int g = (rgb >> 8) & 0xFF;
+        int b = rgb & 0xFF;
+        return ((r >> BUCKET_SHIFT) << (BUCKET_BITS * 2)) | ((g >> BUCKET_SHIFT) << BUCKET_BITS) | (b >> BUCKET_SHIFT);
+    }
+
+    private static int[] bucketCentre(int bucket) {
+        int mask = (1 << BUCKET_BITS) - 1;
+        int half = 1 << (BUCKET_SHIFT - 1);
+        return new int[] {
+            ((bucket >> (BUCKET_BITS * 2)) << BUCKET_SHIFT) + half,
+            (((bucket >> BUCKET_BITS) & mask) << BUCKET_SHIFT) + half,
+            ((bucket & mask) << BUCKET_SHIFT) + half
+        };
+    }
+}
@@ -0,0 +1,37 @@
+package com.jork.script.jorkHunter.trap;
+
+import com.osmb.api.visual.SearchablePixel;
+import com.osmb.api.visual.color.ColorModel;
+import com.osmb.api.visual.color.tolerance.impl.SingleThresholdComparator;
+
+/**
+ * A single trap pixel colour with its HSL tolerance.
+ * Kept as plain data so both the OSMB cluster search and the local LUT matcher can use it.
+ *
+ * @param rgb       Packed RGB colour (as captured, alpha ignored)
+ * @param tolerance SingleThresholdComparator threshold (HSL)
+ */
+public record PixelSignature(int rgb, int tolerance) {
+
+    /**
+     * Converts to the OSMB searchable pixel used by {@code PixelAnalyzer.findClusters}.
+     */
+    public SearchablePixel toSearchablePixel() {
+        return new SearchablePixel(rgb, new SingleThresholdComparator(tolerance), ColorModel.HSL);
+    }
+
+    /**
+     * Converts a cluster set of signatures into OSMB searchable pixels.
+     */
+    public static SearchablePixel[][] toSearchablePixels(PixelSignature[][] sets) {
+        SearchablePixel[][] result = new SearchablePixel[sets.length][];
+        for (int i = 0; i < sets.length; i++) {
+            PixelSignature[] set = sets[i];
+            result[i] = new SearchablePixel[set == null ? 0 : set.length];
+            for (int j = 0; j < result[i].length; j++) {
+                result[i][j] = set[j].toSearchablePixel();
+            }
+        }
+        return result;
+    }
+}
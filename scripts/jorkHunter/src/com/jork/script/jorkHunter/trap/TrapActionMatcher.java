@@ -0,0 +1,137 @@
+package com.jork.script.jorkHunter.trap;
+
+import com.osmb.api.input.MenuEntry;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Precompiled lookup from menu action text to a priority-ordered action list.
+ * Single-word actions are resolved by hashing each word of the menu text, so a menu entry
+ * is lower-cased once and never scanned against every action string.
+ */
+public final class TrapActionMatcher {
+
+    public static final int NO_MATCH = -1;
+
+    private final String[] actions;
+    private final Map<String, Integer> wordIndex = new HashMap<>();
+    private final List<Integer> phraseIndices = new ArrayList<>(); // Multi-word actions need a substring check
+
+    private TrapActionMatcher(String[] actions) {
+        List<String> unique = new ArrayList<>();
+        for (String action : actions) {
+            if (action == null || action.isBlank()) continue;
+            String lower = action.toLowerCase(Locale.ROOT).trim();
+            if (!unique.contains(lower)) {
+                unique.add(lower);
+            }
+        }
+        this.actions = unique.toArray(new String[0]);
+
+        for (int i = 0; i < this.actions.length; i++) {
+            if (this.actions[i].indexOf(' ') >= 0) {
+                phraseIndices.add(i);
+            } else {
+                wordIndex.putIfAbsent(this.actions[i], i);
+            }
+        }
+    }
+
+    /**
+     * Compiles an action list. Earlier actions have higher priority; duplicates are dropped.
+     */
+    public static TrapActionMatcher of(String... actions) {
+        return new TrapActionMatcher(actions);
+    }
+
+    /**
+     * Gets the priority index of the best action contained in a menu action text.
+     *
+     * @param menuAction The menu entry action text (any case)
+     * @return The lowest matching action index, or {@link #NO_MATCH}
+     */
+    public int indexOf(String menuAction) {
+        if (menuAction == null || menuAction.isEmpty()) {
+            return NO_MATCH;
+        }
+
+        String lower = menuAction.toLowerCase(Locale.ROOT);
+        int best = NO_MATCH;
+
+        // Walk the words of the menu text and hash each one
+        int length = lower.length();
+        int start = 0;
+        while (start < length) {
+            while (start < length && lower.charAt(start) == ' ') start++;
+            int end = start;
+            while (end < length && lower.charAt(end) != ' ') end++;
+            if (end > start) {
+                Integer index = wordIndex.get(lower.substring(start, end));
+                if (index != null && (best == NO_MATCH || index < best)) {
+                    best = index;
+                }
+            }
+            start = end;
+        }
+
+        for (int index : phraseIndices) {
+            if ((best == NO_MATCH || index < best) && lower.contains(actions[index])) {
+                best = index;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Checks if the menu action text matches any action in this list.
+     */
+    public boolean matches(String menuAction) {
+        return indexOf(menuAction) != NO_MATCH;
+    }
+
+    /**
+     * Gets the canonical (lower-case) action matched by a menu action text.
+     *
+     * @return The matched action, or null if none match
+     */
+    public String match(String menuAction) {
+        int index = indexOf(menuAction);
+        return index == NO_MATCH ? null : actions[index];
+    }
+
+    /**
+     * Picks the menu entry whose action has the highest priority. Ties keep menu order.
+     *
+     * @param menuEntries The menu entries to search
+     * @return The best entry, or null if no entry matches
+     */
+    public MenuEntry bestEntry(List<MenuEntry> menuEntries) {
+        MenuEntry bestEntry = null;
+        int bestIndex = NO_MATCH;
+        for (MenuEntry entry : menuEntries) {
+            int index = indexOf(entry.getAction());
+            if (index != NO_MATCH && (bestIndex == NO_MATCH || index < bestIndex)) {
+                bestEntry = entry;
+                bestIndex = index;
+                if (index == 0) break; // Can't do better than the top action
+            }
+        }
+        return bestEntry;
+    }
+
+    public String getAction(int index) {
+        return actions[index];
+    }
+
+    public int size() {
+        return actions.length;
+    }
+
+    public boolean isEmpty() {
+        return actions.length == 0;
+    }
+}
@@ -0,0 +1,329 @@
+package com.jork.script.jorkHunter.trap;
+
+import com.osmb.api.shape.Rectangle;
+import com.osmb.api.visual.image.Image;
+
+import java.util.Arrays;
+
+/**
+ * Lookup-table colour matcher covering every standing and collapsed pixel set of a TrapType.
+ * A quantized RGB cube maps each colour to a bitmask of the sets it may belong to, so a single
+ * linear scan over a region labels all sets at once.
+ *
+ * <p>The table is an approximation: tolerances are widened to cover quantization and the
+ * unknown scale of the OSMB HSL comparator, but it is not guaranteed to be a superset of it.
+ * TrapPixelDetector uses the counts and bounds to skip or crop {@code findClusters} searches,
+ * and audits those decisions against whole-tile searches.
+ */
+public final class TrapPixelMatcher {
+
+    public static final int MAX_SETS_PER_GROUP = 16; // standing sets use bits 0-15, collapsed 16-31
+
+    private static final int QUANT_SHIFT = 2;                 // 6 bits per channel
+    private static final int QUANT_BITS = 8 - QUANT_SHIFT;
+    private static final int QUANT_HALF = 1 << (QUANT_SHIFT - 1);
+
+    // Pre-filter slack (HSL units: hue in degrees, saturation/lightness in percent).
+    // ESTIMATES: the scale SingleThresholdComparator applies to a tolerance in HSL is not documented
+    // and has not been measured. These assume one tolerance unit is 1% of the hue circle and one
+    // percentage point of saturation/lightness; the slack below covers some error in that guess.
+    // TrapPixelDetector's audit counts the searches this gets wrong (LUT misses in the metrics panel).
+    private static final double HUE_PER_TOLERANCE = 3.6;
+    private static final double SL_PER_TOLERANCE = 1.0;
+    private static final double HUE_SLACK = 8.0;
+    private static final double SL_SLACK = 4.0;
+    private static final double ACHROMATIC_SATURATION = 10.0; // Below this, hue is meaningless
+
+    private final int standingSetCount;
+    private final int collapsedSetCount;
+    private final int[] lut = new int[1 << (QUANT_BITS * 3)];
+
+    TrapPixelMatcher(PixelSignature[][] standingSets, PixelSignature[][] collapsedSets) {
+        this.standingSetCount = Math.min(standingSets.length, MAX_SETS_PER_GROUP);
+        this.collapsedSetCount = Math.min(collapsedSets.length, MAX_SETS_PER_GROUP);
+
+        double[] cellHsl = new double[3];
+        double[] sigHsl = new double[3];
+
+        // Precompute HSL for every signature
+        double[][][] standingHsl = toHsl(standingSets, standingSetCount, sigHsl);
+        double[][][] collapsedHsl = toHsl(collapsedSets, collapsedSetCount, sigHsl);
+        int[][] standingTol = tolerances(standingSets, standingSetCount);
+        int[][] collapsedTol = tolerances(collapsedSets, collapsedSetCount);
+
+        for (int index = 0; index < lut.length; index++) {
+            int r = ((index >> (QUANT_BITS * 2)) << QUANT_SHIFT) + QUANT_HALF;
+            int g = (((index >> QUANT_BITS) & ((1 << QUANT_BITS) - 1)) << QUANT_SHIFT) + QUANT_HALF;
+            int b = ((index & ((1 << QUANT_BITS) - 1)) << QUANT_SHIFT) + QUANT_HALF;
+            rgbToHsl(r, g, b, cellHsl);
+
+            int mask = 0;
+            for (int set = 0; set < standingSetCount; set++) {
+                if (matchesAny(cellHsl, standingHsl[set], standingTol[set])) {
+                    mask |= 1 << set;
+                }
+            }
+            for (int set = 0; set < collapsedSetCount; set++) {
+                if (matchesAny(cellHsl, collapsedHsl[set], collapsedTol[set])) {
+                    mask |= 1 << (MAX_SETS_PER_GROUP + set);
+                }
+            }
+            lut[index] = mask;
+        }
+    }
+
+    /**
+     * Labels all standing and collapsed sets in one pass over a screen region.
+     *
+     * @param image The screen image
+     * @param roi   Region of interest (clipped to the image)
+     * @return Per-set candidate counts and bounds
+     */
+    public Labels label(Image image, Rectangle roi) {
+        return label(image, roi, 1);
+    }
+
+    /**
+     * Labels a screen region, sampling every {@code step}-th pixel on both axes.
+     * A step of 2 reads a quarter of the pixels; counts in the result are raw sample counts.
+     *
+     * @param image The screen image
+     * @param roi   Region of interest (clipped to the image)
+     * @param step  Sampling step (1 for full resolution)
+     */
+    public Labels label(Image image, Rectangle roi, int step) {
+        if (image == null) {
+            return new Labels(step);
+        }
+        return label(image.getPixels(), image.getWidth(), image.getHeight(), roi, step);
+    }
+
+    /**
+     * Labels a region of a raw pixel buffer, e.g. a recorded frame.
+     *
+     * @param pixels Packed RGB pixels, row-major
+     * @param width  Frame width
+     * @param height Frame height
+     * @param roi    Region of interest (clipped to the frame)
+     */
+    public Labels label(int[] pixels, int width, int height, Rectangle roi) {
+        return label(pixels, width, height, roi, 1);
+    }
+
+    /**
+     * Labels a region of a raw pixel buffer, sampling every {@code step}-th pixel on both axes.
+     *
+     * @param pixels Packed RGB pixels, row-major (null labels nothing)
+     * @param width  Frame width
+     * @param height Frame height
+     * @param roi    Region of interest (clipped to the frame)
+     * @param step   Sampling step (1 for full resolution)
+     */
+    public Labels label(int[] pixels, int width, int height, Rectangle roi, int step) {
+        step = Math.max(1, step);
+        Labels labels = new Labels(step);
+        if (pixels == null || roi == null) {
+            return labels;
+        }
+
+        int minX = Math.max(0, roi.x);
+        int minY = Math.max(0, roi.y);
+        int maxX = Math.min(width, roi.x + roi.width);
+        int maxY = Math.min(height, roi.y + roi.height);
+
+        for (int y = minY; y < maxY; y += step) {
+            int row = y * width;
+            for (int x = minX; x < maxX; x += step) {
+                int mask = lut[quantize(pixels[row + x])];
+                if (mask != 0) {
+                    labels.add(mask, x, y);
+                }
+            }
+        }
+        return labels;
+    }
+
+    public int getStandingSetCount() {
+        return standingSetCount;
+    }
+
+    public int getCollapsedSetCount() {
+        return collapsedSetCount;
+    }
+
+    private static int quantize(int rgb) {
+        int r = (rgb >> 16) & 0xFF;
+        int g = (rgb >> 8) & 0xFF;
+        int b = rgb & 0xFF;
+        return ((r >> QUANT_SHIFT) << (QUANT_BITS * 2)) | ((g >> QUANT_SHIFT) << QUANT_BITS) | (b >> QUANT_SHIFT);
+    }
+
+    private static boolean matchesAny(double[] cell, double[][] signatures, int[] tolerances) {
+        for (int i = 0; i < signatures.length; i++) {
+            if (withinTolerance(cell, signatures[i], tolerances[i], HUE_SLACK, SL_SLACK)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Estimates whether a colour falls inside a signature's tolerance, without the pre-filter slack.
+     * Offline tooling uses this to score candidate signatures with the same colour model as the LUT.
+     *
+     * @param colourHsl    Colour from {@link #rgbToHsl}
+     * @param signatureHsl Signature colour from {@link #rgbToHsl}
+     * @param tolerance    Signature tolerance
+     */
+    public static boolean withinTolerance(double[] colourHsl, double[] signatureHsl, int tolerance) {
+        return withinTolerance(colourHsl, signatureHsl, tolerance, 0, 0);
+    }
+
+    private static boolean withinTolerance(double[] cell, double[] sig, int tolerance,
+                                           double hueSlack, double slSlack) {
+        double slTolerance = tolerance * SL_PER_TOLERANCE + slSlack;
+        if (Math.abs(cell[2] - sig[2]) > slTolerance) return false;
+        if (Math.abs(cell[1] - sig[1]) > slTolerance) return false;
+
+        // Hue only matters when both colours carry saturation
+        if (cell[1] >= ACHROMATIC_SATURATION && sig[1] >= ACHROMATIC_SATURATION) {
+            double hueDiff = Math.abs(cell[0] - sig[0]);
+            hueDiff = Math.min(hueDiff, 360.0 - hueDiff);
+            return hueDiff <= tolerance * HUE_PER_TOLERANCE + hueSlack;
+        }
+        return true;
+    }
+
+    private static double[][][] toHsl(PixelSignature[][] sets, int count, double[] scratch) {
+        double[][][] result = new double[count][][];
+        for (int set = 0; set < count; set++) {
+            PixelSignature[] signatures = sets[set] == null ? new PixelSignature[0] : sets[set];
+            result[set] = new double[signatures.length][];
+            for (int i = 0; i < signatures.length; i++) {
+                int rgb = signatures[i].rgb();
+                rgbToHsl((rgb >> 16) & 0xFF, (rgb >> 8) & 0xFF, rgb & 0xFF, scratch);
+                result[set][i] = scratch.clone();
+            }
+        }
+        return result;
+    }
+
+    private static int[][] tolerances(PixelSignature[][] sets, int count) {
+        int[][] result = new int[count][];
+        for (int set = 0; set < count; set++) {
+            PixelSignature[] signatures = sets[set] == null ? new PixelSignature[0] : sets[set];
+            result[set] = new int[signatures.length];
+            for (int i = 0; i < signatures.length; i++) {
+                result[set][i] = signatures[i].tolerance();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Converts RGB (0-255) to HSL with hue in degrees and saturation/lightness in percent.
+     */
+    public static void rgbToHsl(int r, int g, int b, double[] out) {
+        double rf = r / 255.0;
+        double gf = g / 255.0;
+        double bf = b / 255.0;
+        double max = Math.max(rf, Math.max(gf, bf));
+        double min = Math.min(rf, Math.min(gf, bf));
+        double lightness = (max + min) / 2.0;
+        double hue = 0;
+        double saturation = 0;
+
+        double delta = max - min;
+        if (delta > 0) {
+            saturation = lightness > 0.5 ? delta / (2.0 - max - min) : delta / (max + min);
+            if (max == rf) {
+                hue = ((gf - bf) / delta) % 6.0;
+            } else if (max == gf) {
+                hue = (bf - rf) / delta + 2.0;
+            } else {
+                hue = (rf - gf) / delta + 4.0;
+            }
+            hue *= 60.0;
+            if (hue < 0) hue += 360.0;
+        }
+
+        out[0] = hue;
+        out[1] = saturation * 100.0;
+        out[2] = lightness * 100.0;
+    }
+
+    /**
+     * Result of a labelling pass: candidate pixel counts and bounds per set.
+     */
+    public static final class Labels {
+        private final int[] counts;
+        private final int[] minX;
+        private final int[] minY;
+        private final int[] maxX;
+        private final int[] maxY;
+        private final int sampleStep;
+
+        Labels(int sampleStep) {
+            this.sampleStep = Math.max(1, sampleStep);
+            int size = MAX_SETS_PER_GROUP * 2;
+            counts = new int[size];
+            minX = new int[size];
+            minY = new int[size];
+            maxX = new int[size];
+            maxY = new int[size];
+            Arrays.fill(minX, Integer.MAX_VALUE);
+            Arrays.fill(minY, Integer.MAX_VALUE);
+            Arrays.fill(maxX, Integer.MIN_VALUE);
+            Arrays.fill(maxY, Integer.MIN_VALUE);
+        }
+
+        void add(int mask, int x, int y) {
+            int remaining = mask;
+            while (remaining != 0) {
+                int bit = Integer.numberOfTrailingZeros(remaining);
+                remaining &= remaining - 1;
+                counts[bit]++;
+                if (x < minX[bit]) minX[bit] = x;
+                if (y < minY[bit]) minY[bit] = y;
+                if (x > maxX[bit]) maxX[bit] = x;
+                if (y > maxY[bit]) maxY[bit] = y;
+            }
+        }
+
+        public int getStandingCount(int set) {
+            return counts[set];
+        }
+
+        public int getCollapsedCount(int set) {
+            return counts[MAX_SETS_PER_GROUP + set];
+        }
+
+        /**
+         * Sampling step used for this pass. Multiply counts by step squared to estimate full-resolution counts.
+         */
+        public int getSampleStep() {
+            return sampleStep;
+        }
+
+        /**
+         * Bounds of standing candidates for a set, or null if none were found.
+         */
+        public Rectangle getStandingBounds(int set) {
+            return bounds(set);
+        }
+
+        /**
+         * Bounds of collapsed candidates for a set, or null if none were found.
+         */
+        public Rectangle getCollapsedBounds(int set) {
+            return bounds(MAX_SETS_PER_GROUP + set);
+        }
+
+        private Rectangle bounds(int bit) {
+            if (counts[bit] == 0) {
+                return null;
+            }
+            return new Rectangle(minX[bit], minY[bit], maxX[bit] - minX[bit] + 1, maxY[bit] - minY[bit] + 1);
+        }
+    }
+}
@@ -3,8 +3,9 @@ package com.jork.script.jorkHunter.trap;
 import com.jork.script.jorkHunter.state.TrapState;
 import com.osmb.api.item.ItemID;
 import com.osmb.api.visual.SearchablePixel;
-import com.osmb.api.visual.color.ColorModel;
-import com.osmb.api.visual.color.tolerance.impl.SingleThresholdComparator;
+
+import java.util.EnumMap;
+import java.util.Map;
 
 /**
  * Enum defining all trap types with their specific configurations.
@@ -15,16 +16,16 @@ public enum TrapType {
         ItemID.BIRD_SNARE,
         "bird snare",
         // Standing trap pixel clusters (multiple sets for robustness)
-        new SearchablePixel[][] {
+        new PixelSignature[][] {
             // Primary cluster (original - top/middle of trap)
             {
-                new SearchablePixel(-12699078, new SingleThresholdComparator(2), ColorModel.HSL),
-                new SearchablePixel(-4477010, new SingleThresholdComparator(2), ColorModel.HSL),
-                new SearchablePixel(-5990506, new SingleThresholdComparator(2), ColorModel.HSL),
-                new SearchablePixel(-12308192, new SingleThresholdComparator(2), ColorModel.HSL),
-                new SearchablePixel(-2511756, new SingleThresholdComparator(2), ColorModel.HSL),
-                new SearchablePixel(-5735094, new SingleThresholdComparator(2), ColorModel.HSL),
-                new SearchablePixel(-11321305, new SingleThresholdComparator(2), ColorModel.HSL),
+                new PixelSignature(-12699078, 2),
+                new PixelSignature(-4477010, 2),
+                new PixelSignature(-5990506, 2),
+                new PixelSignature(-12308192, 2),
+                new PixelSignature(-2511756, 2),
+                new PixelSignature(-5735094, 2),
+                new PixelSignature(-11321305, 2),
             },
             // Secondary cluster (to be added - different part of trap)
             // TODO: Add secondary pixel cluster here
@@ -33,13 +34,13 @@ public enum TrapType {
             // TODO: Add tertiary pixel cluster here
         },
         // Collapsed trap pixel clusters (multiple sets for robustness)
-        new SearchablePixel[][] {
+        new PixelSignature[][] {
             // Primary cluster (original)
             {
-                new SearchablePixel(-5201246, new SingleThresholdComparator(2), ColorModel.HSL),
-                new SearchablePixel(-12569314, new SingleThresholdComparator(2), ColorModel.HSL),
-                new SearchablePixel(-7705268, new SingleThresholdComparator(2), ColorModel.HSL),
-                new SearchablePixel(-9153995, new SingleThresholdComparator(2), ColorModel.HSL),
+                new PixelSignature(-5201246, 2),
+                new PixelSignature(-12569314, 2),
+                new PixelSignature(-7705268, 2),
+                new PixelSignature(-9153995, 2),
             },
             // Secondary cluster (to be added)
             // TODO: Add secondary collapsed cluster here
@@ -64,19 +65,19 @@ public enum TrapType {
         ItemID.BOX_TRAP,
         "box trap",
         // Standing trap pixel clusters (to be determined through testing)
-        new SearchablePixel[][] {
+        new PixelSignature[][] {
             // Primary cluster - placeholder, needs real pixel data
             {
                 // TODO: Capture actual box trap standing pixels
-                new SearchablePixel(-1, new SingleThresholdComparator(2), ColorModel.HSL),
+                new PixelSignature(-1, 2),
             }
         },
         // Collapsed/shaking trap pixel clusters
-        new SearchablePixel[][] {
+        new PixelSignature[][] {
             // Primary cluster - placeholder, needs real pixel data
             {
                 // TODO: Capture actual box trap collapsed/shaking pixels
-                new SearchablePixel(-1, new SingleThresholdComparator(2), ColorModel.HSL),
+                new PixelSignature(-1, 2),
             }
         },
         70,    // Yellow circle Z-offset (may need adjustment)
@@ -98,8 +99,11 @@ public enum TrapType {
     
     private final int itemId;
     private final String itemName;
+    private final PixelSignature[][] standingSignatures;
+    private final PixelSignature[][] collapsedSignatures;
     private final SearchablePixel[][] standingPixelClusters;
     private final SearchablePixel[][] collapsedPixelClusters;
+    private volatile TrapPixelMatcher pixelMatcher; // Built on first use (LUT is ~1 MB)
     private final int activeZOffset;
     private final int finishedZOffset;
     private final long collapseGracePeriod;
@@ -113,17 +117,22 @@ public enum TrapType {
     private final int[] dropItems;
     private final double tapAreaYScale;
     private final TrapStateHandlingMode stateHandlingMode;
+    // Action lists compiled once per state for menu matching
+    private final Map<TrapState, TrapActionMatcher> stateActionMatchers = new EnumMap<>(TrapState.class);
+    private final TrapActionMatcher resetActionMatcher;
     
-    TrapType(int itemId, String itemName, SearchablePixel[][] standingPixelClusters, 
-             SearchablePixel[][] collapsedPixelClusters, int activeZOffset, int finishedZOffset,
+    TrapType(int itemId, String itemName, PixelSignature[][] standingSignatures, 
+             PixelSignature[][] collapsedSignatures, int activeZOffset, int finishedZOffset,
              long collapseGracePeriod, int minClusterSize, double clusterDistance,
              String[] inventoryActions, String[] successActions, String[] failedActions, 
              String[] collapsedActions, String[] resetActions, int[] dropItems, double tapAreaYScale,
              TrapStateHandlingMode stateHandlingMode) {
         this.itemId = itemId;
         this.itemName = itemName;
-        this.standingPixelClusters = standingPixelClusters;
-        this.collapsedPixelClusters = collapsedPixelClusters;
+        this.standingSignatures = standingSignatures;
+        this.collapsedSignatures = collapsedSignatures;
+        this.standingPixelClusters = PixelSignature.toSearchablePixels(standingSignatures);
+        this.collapsedPixelClusters = PixelSignature.toSearchablePixels(collapsedSignatures);
         this.activeZOffset = activeZOffset;
         this.finishedZOffset = finishedZOffset;
         this.collapseGracePeriod = collapseGracePeriod;
@@ -137,6 +146,11 @@ public enum TrapType {
         this.dropItems = dropItems;
         this.tapAreaYScale = tapAreaYScale;
         this.stateHandlingMode = stateHandlingMode;
+        
+        this.resetActionMatcher = TrapActionMatcher.of(resetActions);
+        for (TrapState state : TrapState.values()) {
+            stateActionMatchers.put(state, TrapActionMatcher.of(getActionsForTrapState(state)));
+        }
     }
     
     // Getters
@@ -160,6 +174,29 @@ public enum TrapType {
         return collapsedPixelClusters != null && collapsedPixelClusters.length > 0
             ? collapsedPixelClusters[0] : new SearchablePixel[0];
     }
+    
+    // Raw colour/tolerance data behind the searchable pixel clusters
+    public PixelSignature[][] getStandingSignatures() { return standingSignatures; }
+    public PixelSignature[][] getCollapsedSignatures() { return collapsedSignatures; }
+    
+    /**
+     * Gets the lookup-table matcher covering every standing and collapsed pixel set.
+     * Built lazily on first use and shared afterwards.
+     */
+    public TrapPixelMatcher getPixelMatcher() {
+        TrapPixelMatcher matcher = pixelMatcher;
+        if (matcher == null) {
+            synchronized (this) {
+                matcher = pixelMatcher;
+                if (matcher == null) {
+                    matcher = new TrapPixelMatcher(standingSignatures, collapsedSignatures);
+                    pixelMatcher = matcher;
+                }
+            }
+        }
+        return matcher;
+    }
+    
     public int getActiveZOffset() { return activeZOffset; }
     public int getFinishedZOffset() { return finishedZOffset; }
     public long getCollapseGracePeriod() { return collapseGracePeriod; }
@@ -219,6 +256,22 @@ public enum TrapType {
         };
     }
     
+    /**
+     * Gets the precompiled matcher for the actions acceptable in a trap state.
+     * @param state The current state of the trap
+     * @return Matcher whose index order follows {@link #getActionsForTrapState(TrapState)}
+     */
+    public TrapActionMatcher getActionMatcher(TrapState state) {
+        return stateActionMatchers.get(state);
+    }
+    
+    /**
+     * Gets the precompiled matcher for reset actions (empty if reset is unsupported).
+     */
+    public TrapActionMatcher getResetActionMatcher() {
+        return resetActionMatcher;
+    }
+    
     private String[] combineActions(String[]... arrays) {
         int totalLength = 0;
         for (String[] array : arrays) {
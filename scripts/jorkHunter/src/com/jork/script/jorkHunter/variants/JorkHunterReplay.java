@@ -0,0 +1,45 @@
+package com.jork.script.jorkHunter.variants;
+
+import com.jork.script.jorkHunter.JorkHunter;
+import com.jork.script.jorkHunter.replay.ReplayDriver;
+import com.jork.utils.ScriptLogger;
+import com.osmb.api.script.ScriptDefinition;
+import com.osmb.api.script.SkillCategory;
+
+import java.io.File;
+
+/**
+ * Replay variant of JorkHunter (Development version).
+ * Replays every recording in ~/.osmb/jorkHunter/recordings through the trap state logic and stops.
+ * Never interacts with the game.
+ */
+@ScriptDefinition(
+    name = "jorkHunter (Replay)",
+    author = "jork",
+    version = 1.0,
+    description = "Development tool - replays recorded detection frames through the trap state logic.",
+    skillCategory = SkillCategory.HUNTER
+)
+public class JorkHunterReplay extends JorkHunter {
+
+    private boolean replayed = false;
+
+    public JorkHunterReplay(Object scriptCore) {
+        super(scriptCore);
+    }
+
+    @Override
+    protected void onMetricsStart() {
+        ScriptLogger.info(this, "Replay mode - no settings window, no game interaction");
+    }
+
+    @Override
+    public int poll() {
+        if (!replayed) {
+            replayed = true;
+            new ReplayDriver(this).replayAll(new File(System.getProperty("user.home"), RECORDINGS_DIR));
+        }
+        stop();
+        return 1000;
+    }
+}
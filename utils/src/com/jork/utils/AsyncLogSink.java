@@ -0,0 +1,365 @@
+package com.jork.utils;
+
+import com.osmb.api.script.Script;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded, pre-allocated log ring buffer drained by one background thread.
+ *
+ * <p>Any thread (script, paint, FX) may publish; publishing claims a slot with one CAS and never
+ * blocks. A slot holds the message template and its arguments, not the rendered line: formatting
+ * (including the arguments' toString()) happens on the writer thread, so arguments should not be
+ * mutated after they are logged. When the ring is full the message is dropped and counted, and the
+ * writer reports the number of dropped messages once it catches up. The writer forwards messages to
+ * {@code script.log(...)} in batches, optionally appends them to a size-rotated local file, and feeds
+ * the binary log when one is running, so binary records never cost the publishing thread either.
+ *
+ * <p>Installed through {@link ScriptLogger#startAsyncSink(int, File)}:
+ * <pre>{@code
+ * protected void onMetricsStart() {
+ *     ScriptLogger.startAsyncSink(4096, null); // null = no log file
+ * }
+ *
+ * protected void onMetricsStop() {
+ *     ScriptLogger.stopAsyncSink(); // Flushes what is still queued
+ * }
+ * }</pre>
+ */
+public final class AsyncLogSink {
+    private static final int MAX_BATCH = 256;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+    private static final long MAX_FILE_BYTES = 5L * 1024 * 1024;
+    private static final int MAX_ROTATED_FILES = 4;
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")
+        .withZone(ZoneId.systemDefault());
+
+    private final int capacity;
+    private final int mask;
+
+    // Slot storage - written by the producer that claimed the slot, read by the writer after publish
+    private final Script[] scripts;
+    private final String[] tags;
+    private final String[] components;
+    private final ScriptLogger.Level[] levels;
+    private final String[] labels;
+    private final String[] templates;
+    private final Object[][] args;
+    private final long[] timestamps;
+    private final AtomicLongArray published; // Sequence stored in a slot once its fields are written
+
+    private final AtomicLong claimed = new AtomicLong();  // Next sequence to hand to a producer
+    private final AtomicLong consumed = new AtomicLong(); // Next sequence the writer will read
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private long reportedDrops;                           // Writer thread only
+
+    private final RotatingFile file;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    /**
+     * @param capacity  Ring size, rounded up to a power of two
+     * @param directory Directory for the rotating log file, or null for script.log only
+     */
+    AsyncLogSink(int capacity, File directory) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be > 0");
+        }
+        this.capacity = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.mask = this.capacity - 1;
+        this.scripts = new Script[this.capacity];
+        this.tags = new String[this.capacity];
+        this.components = new String[this.capacity];
+        this.levels = new ScriptLogger.Level[this.capacity];
+        this.labels = new String[this.capacity];
+        this.templates = new String[this.capacity];
+        this.args = new Object[this.capacity][];
+        this.timestamps = new long[this.capacity];
+        this.published = new AtomicLongArray(this.capacity);
+        for (int i = 0; i < this.capacity; i++) {
+            published.set(i, -1);
+        }
+        this.file = directory != null ? new RotatingFile(directory) : null;
+
+        this.writer = new Thread(this::drainLoop, "script-log-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Queues a log call for formatting on the writer thread. Never blocks.
+     *
+     * @param component Component for the binary log
+     * @param level    Log level
+     * @param label    Level label, e.g. "DEBUG"
+     * @param template The message, or a format string when args is non-null
+     * @param args     Format arguments, or null for a plain message
+     * @return true if queued, false if the ring was full and the line was dropped
+     */
+    boolean offer(Script script, String tag, String component, ScriptLogger.Level level, String label,
+                  String template, Object[] args) {
+        long sequence;
+        do {
+            sequence = claimed.get();
+            if (sequence - consumed.get() >= capacity) {
+                dropped.incrementAndGet();
+                return false;
+            }
+        } while (!claimed.compareAndSet(sequence, sequence + 1));
+
+        int slot = (int) (sequence & mask);
+        scripts[slot] = script;
+        tags[slot] = tag;
+        components[slot] = component;
+        levels[slot] = level;
+        labels[slot] = label;
+        templates[slot] = template;
+        this.args[slot] = args;
+        timestamps[slot] = System.currentTimeMillis();
+        published.set(slot, sequence); // Volatile write publishes the fields above
+        if (sequence == consumed.get()) {
+            LockSupport.unpark(writer); // Ring was empty - the writer is probably parked
+        }
+        return true;
+    }
+
+    /**
+     * Stops the writer after it has flushed everything already queued.
+     *
+     * @param timeoutMillis Maximum time to wait for the flush
+     */
+    void shutdown(long timeoutMillis) {
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void drainLoop() {
+        while (true) {
+            ScriptLogger.flushRateLimitsIfDue(); // Queues summary lines for rate-limited call sites that went quiet
+            int batch = drainBatch();
+            if (batch == 0) {
+                if (file != null) {
+                    file.flush(); // Caught up - push buffered lines to disk before idling
+                }
+                if (!running && consumed.get() == claimed.get()) {
+                    break;
+                }
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+        if (file != null) {
+            file.close();
+        }
+    }
+
+    /**
+     * Forwards up to {@link #MAX_BATCH} published lines, oldest first.
+     *
+     * @return Number of lines forwarded
+     */
+    private int drainBatch() {
+        long next = consumed.get();
+        int count = 0;
+        Script lastScript = null;
+
+        while (count < MAX_BATCH) {
+            int slot = (int) (next & mask);
+            if (published.get(slot) != next) {
+                break; // Not claimed yet, or claimed but still being written
+            }
+            Script script = scripts[slot];
+            String tag = tags[slot];
+            String component = components[slot];
+            ScriptLogger.Level level = levels[slot];
+            String label = labels[slot];
+            String template = templates[slot];
+            Object[] slotArgs = args[slot];
+            long timestamp = timestamps[slot];
+            scripts[slot] = null;
+            tags[slot] = null;
+            components[slot] = null;
+            levels[slot] = null;
+            labels[slot] = null;
+            templates[slot] = null;
+            args[slot] = null;
+            next++;
+            consumed.set(next); // Frees the slot for producers
+
+            String message = "[" + label + "] " + ScriptLogger.safeFormat(template, slotArgs);
+
+            forward(script, tag, message);
+            if (file != null) {
+                file.append(timestamp, tag, message);
+            }
+            BinaryLogWriter binary = ScriptLogger.getBinaryLogWriter();
+            if (binary != null) {
+                binary.write(timestamp, level, component, template, slotArgs);
+            }
+            lastScript = script;
+            count++;
+        }
+
+        if (count > 0) {
+            written.addAndGet(count);
+            reportDrops(lastScript);
+        }
+        return count;
+    }
+
+    private void reportDrops(Script script) {
+        long drops = dropped.get();
+        if (drops != reportedDrops) {
+            String line = "[WARNING] Log buffer full - dropped " + (drops - reportedDrops) + " message(s)";
+            reportedDrops = drops;
+            forward(script, script.getClass().getSimpleName(), line);
+            if (file != null) {
+                file.append(System.currentTimeMillis(), "AsyncLogSink", line);
+            }
+        }
+    }
+
+    private static void forward(Script script, String tag, String message) {
+        try {
+            script.log(tag, message);
+        } catch (RuntimeException e) {
+            // The host console is gone (script stopping) - keep draining so producers never stall
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /** Lines forwarded by the writer. */
+    public long getWrittenCount() {
+        return written.get();
+    }
+
+    /** Lines dropped because the ring was full. */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /** Lines waiting to be written. */
+    public int getQueuedCount() {
+        return (int) Math.max(0, claimed.get() - consumed.get());
+    }
+
+    @Override
+    public String toString() {
+        return "AsyncLogSink[capacity=" + capacity + ", queued=" + getQueuedCount() +
+            ", written=" + getWrittenCount() + ", dropped=" + getDroppedCount() + "]";
+    }
+
+    /**
+     * Size-rotated log file: {@code script.log}, then {@code script.1.log} ... {@code script.N.log}.
+     * Only used from the writer thread. An I/O failure disables file output but not script.log.
+     */
+    private static final class RotatingFile {
+        private final File directory;
+        private final StringBuilder line = new StringBuilder(256);
+        private BufferedWriter out;
+        private long bytes;
+        private boolean failed;
+        private long cachedSecond = Long.MIN_VALUE;
+        private String cachedSecondText;
+
+        RotatingFile(File directory) {
+            this.directory = directory;
+        }
+
+        void append(long timestamp, String tag, String message) {
+            if (failed) {
+                return;
+            }
+            try {
+                if (out == null) {
+                    open();
+                } else if (bytes >= MAX_FILE_BYTES) {
+                    out.close();
+                    rotate();
+                    open();
+                }
+                long second = Math.floorDiv(timestamp, 1000L);
+                if (second != cachedSecond) {
+                    cachedSecond = second; // Format the date once per second, append millis by hand
+                    cachedSecondText = FILE_TIME.format(Instant.ofEpochSecond(second));
+                }
+                int millis = (int) Math.floorMod(timestamp, 1000L);
+                line.setLength(0);
+                line.append(cachedSecondText).append('.')
+                    .append((char) ('0' + millis / 100)).append((char) ('0' + millis / 10 % 10)).append((char) ('0' + millis % 10))
+                    .append(' ').append(tag).append(' ').append(message).append(System.lineSeparator());
+                out.append(line);
+                bytes += line.length();
+            } catch (IOException e) {
+                fail(e);
+            }
+        }
+
+        void flush() {
+            if (out != null && !failed) {
+                try {
+                    out.flush();
+                } catch (IOException e) {
+                    fail(e);
+                }
+            }
+        }
+
+        void close() {
+            if (out != null) {
+                try {
+                    out.close();
+                } catch (IOException e) {
+                    // Nothing left to write to
+                }
+                out = null;
+            }
+        }
+
+        private void open() throws IOException {
+            if (!directory.isDirectory() && !directory.mkdirs()) {
+                throw new IOException("Could not create " + directory);
+            }
+            File current = new File(directory, "script.log");
+            bytes = current.length();
+            out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(current, true), StandardCharsets.UTF_8));
+        }
+
+        private void rotate() {
+            new File(directory, "script." + MAX_ROTATED_FILES + ".log").delete();
+            for (int i = MAX_ROTATED_FILES - 1; i >= 1; i--) {
+                File from = new File(directory, "script." + i + ".log");
+                if (from.exists()) {
+                    from.renameTo(new File(directory, "script." + (i + 1) + ".log"));
+                }
+            }
+            new File(directory, "script.log").renameTo(new File(directory, "script.1.log"));
+        }
+
+        private void fail(IOException e) {
+            failed = true;
+            close();
+            System.err.println("AsyncLogSink: log file disabled - " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.jork.utils;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Sequential reader for binary logs written by {@link ScriptLogger#startBinaryLog(File)},
+ * plus a small command-line tool that renders and filters them.
+ *
+ * <p>Run with the utils jar on the classpath:
+ * <pre>
+ * java -cp utils.jar com.jork.utils.BinaryLogReader &lt;file or directory&gt;...
+ *      [--level WARNING] [--component TrapStateManager] [--grep "occluded"]
+ *      [--since 2026-10-18T09:00] [--until 2026-10-18T17:30]
+ * </pre>
+ * Directories are read oldest file first. {@code --component} and {@code --grep} are case-insensitive substrings.
+ */
+public final class BinaryLogReader implements Closeable {
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS")
+        .withZone(ZoneId.systemDefault());
+
+    /**
+     * One decoded log call.
+     *
+     * @param template The format string, or null if the message was stored as a literal
+     * @param args     The format arguments (or the single literal message)
+     */
+    public record Entry(long timestamp, ScriptLogger.Level level, String component, String template, Object[] args) {
+        /**
+         * Renders the message the way ScriptLogger would have.
+         */
+        public String message() {
+            if (template == null) {
+                return args.length > 0 ? String.valueOf(args[0]) : "";
+            }
+            try {
+                return String.format(template, args);
+            } catch (RuntimeException e) {
+                return template + " " + Arrays.toString(args);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return TIME.format(Instant.ofEpochMilli(timestamp)) + " [" + level + "] " + component + " " + message();
+        }
+    }
+
+    private final DataInputStream in;
+    private final long createdMillis;
+    private final Map<Integer, String> components = new HashMap<>();
+    private final Map<Integer, String> templates = new HashMap<>();
+
+    public BinaryLogReader(File file) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16));
+        if (in.readInt() != BinaryLogWriter.MAGIC) {
+            in.close();
+            throw new IOException(file.getName() + " is not a binary script log");
+        }
+        int version = in.readInt();
+        if (version != BinaryLogWriter.VERSION) {
+            in.close();
+            throw new IOException("Unsupported binary log version " + version + " in " + file.getName());
+        }
+        this.createdMillis = in.readLong();
+    }
+
+    public long getCreatedMillis() {
+        return createdMillis;
+    }
+
+    /**
+     * Reads the next log call, applying any component or template definitions on the way.
+     *
+     * @return The entry, or null at the end of the log
+     */
+    public Entry next() throws IOException {
+        while (true) {
+            int length;
+            try {
+                length = in.readInt();
+            } catch (EOFException e) {
+                return null;
+            }
+            if (length <= 0) {
+                return null; // Unwritten (zero) space of the mapped file
+            }
+
+            byte kind = in.readByte();
+            switch (kind) {
+                case BinaryLogWriter.KIND_COMPONENT -> components.put(in.readInt(), readString());
+                case BinaryLogWriter.KIND_TEMPLATE -> templates.put(in.readInt(), readString());
+                case BinaryLogWriter.KIND_EVENT -> {
+                    return readEvent();
+                }
+                default -> in.skipNBytes(length - 1); // Unknown record kind from a newer writer
+            }
+        }
+    }
+
+    private Entry readEvent() throws IOException {
+        long timestamp = in.readLong();
+        ScriptLogger.Level level = levelForPriority(in.readByte());
+        int componentId = in.readInt();
+        int templateId = in.readInt();
+        int argCount = in.readUnsignedByte();
+        Object[] args = new Object[argCount];
+        for (int i = 0; i < argCount; i++) {
+            args[i] = readArg();
+        }
+        String component = components.getOrDefault(componentId, "#" + componentId);
+        String template = templateId == BinaryLogWriter.LITERAL_TEMPLATE ? null
+            : templates.getOrDefault(templateId, "<template #" + templateId + ">");
+        return new Entry(timestamp, level, component, template, args);
+    }
+
+    private Object readArg() throws IOException {
+        byte type = in.readByte();
+        return switch (type) {
+            case BinaryLogWriter.ARG_NULL -> null;
+            case BinaryLogWriter.ARG_INT -> in.readInt();
+            case BinaryLogWriter.ARG_LONG -> in.readLong();
+            case BinaryLogWriter.ARG_DOUBLE -> in.readDouble();
+            case BinaryLogWriter.ARG_BOOLEAN -> in.readByte() != 0;
+            case BinaryLogWriter.ARG_CHAR -> in.readChar();
+            case BinaryLogWriter.ARG_STRING -> readString();
+            default -> throw new IOException("Unknown argument type " + (char) type);
+        };
+    }
+
+    private String readString() throws IOException {
+        byte[] bytes = new byte[in.readUnsignedShort()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static ScriptLogger.Level levelForPriority(int priority) {
+        for (ScriptLogger.Level level : ScriptLogger.Level.values()) {
+            if (level.priority == priority) {
+                return level;
+            }
+        }
+        return ScriptLogger.Level.INFO;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("Usage: BinaryLogReader <file|dir>... [--level LEVEL] [--component NAME] " +
+                               "[--grep TEXT] [--since yyyy-MM-ddTHH:mm] [--until yyyy-MM-ddTHH:mm]");
+            return;
+        }
+
+        List<File> files = new ArrayList<>();
+        ScriptLogger.Level minLevel = ScriptLogger.Level.DEBUG;
+        String component = null;
+        String grep = null;
+        long since = Long.MIN_VALUE;
+        long until = Long.MAX_VALUE;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--level" -> minLevel = ScriptLogger.Level.valueOf(args[++i].toUpperCase(Locale.ROOT));
+                case "--component" -> component = args[++i].toLowerCase(Locale.ROOT);
+                case "--grep" -> grep = args[++i].toLowerCase(Locale.ROOT);
+                case "--since" -> since = parseTime(args[++i]);
+                case "--until" -> until = parseTime(args[++i]);
+                default -> {
+                    if (args[i].startsWith("--")) {
+                        throw new IllegalArgumentException("Unknown option " + args[i]);
+                    }
+                    addFiles(new File(args[i]), files);
+                }
+            }
+        }
+
+        long shown = 0;
+        long total = 0;
+        for (File file : files) {
+            try (BinaryLogReader reader = new BinaryLogReader(file)) {
+                Entry entry;
+                while ((entry = reader.next()) != null) {
+                    total++;
+                    if (entry.level().priority < minLevel.priority
+                            || entry.timestamp() < since || entry.timestamp() > until
+                            || (component != null && !entry.component().toLowerCase(Locale.ROOT).contains(component))) {
+                        continue;
+                    }
+                    String line = entry.toString();
+                    if (grep != null && !line.toLowerCase(Locale.ROOT).contains(grep)) {
+                        continue;
+                    }
+                    System.out.println(line);
+                    shown++;
+                }
+            } catch (IOException e) {
+                System.err.println("Skipping " + file.getName() + ": " + e.getMessage());
+            }
+        }
+        System.err.println(shown + " of " + total + " record(s) in " + files.size() + " file(s)");
+    }
+
+    private static void addFiles(File path, List<File> files) {
+        if (path.isDirectory()) {
+            File[] logs = path.listFiles((dir, name) -> name.endsWith(BinaryLogWriter.FILE_EXTENSION));
+            if (logs != null) {
+                Arrays.sort(logs, BinaryLogWriter.CREATION_ORDER); // Same order the writer rotates in
+                files.addAll(Arrays.asList(logs));
+            }
+        } else {
+            files.add(path);
+        }
+    }
+
+    private static long parseTime(String text) {
+        return LocalDateTime.parse(text).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
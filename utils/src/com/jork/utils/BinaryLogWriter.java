@@ -0,0 +1,349 @@
+package com.jork.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Writes {@link ScriptLogger} output as compact binary records to memory-mapped, size-rotated files.
+ *
+ * <p>A record is a timestamp, level, component id, message template id and the primitive
+ * arguments of the call, so {@code debug(script, "Trap at %s in state %s", pos, state)} is stored
+ * as a few ids and two short strings instead of a rendered line. Templates and component names are
+ * interned per file and written once as definition records, so every file can be read on its own.
+ * Plain (non-parameterised) messages are stored as a literal string.
+ *
+ * <p>File layout (big-endian):
+ * <pre>
+ * header:  int MAGIC, int VERSION, long createdMillis
+ * record:  int length, byte kind, body[length - 1]      (length 0 = end of data)
+ *   KIND_COMPONENT: int id, string name
+ *   KIND_TEMPLATE:  int id, string template
+ *   KIND_EVENT:     long timestamp, byte level, int componentId, int templateId (-1 = literal),
+ *                   byte argCount, argCount x (byte type, value)
+ * string:  unsigned short byteLength, UTF-8 bytes
+ * </pre>
+ *
+ * <p>Read them with {@link BinaryLogReader}. Not for direct use - see {@link ScriptLogger#startBinaryLog(File)}.
+ */
+final class BinaryLogWriter {
+    static final int MAGIC = 0x4A534C47; // "JSLG"
+    static final int VERSION = 1;
+    static final String FILE_PREFIX = "scriptlog-";
+    static final String FILE_EXTENSION = ".jlog";
+
+    static final byte KIND_COMPONENT = 1;
+    static final byte KIND_TEMPLATE = 2;
+    static final byte KIND_EVENT = 3;
+
+    static final byte ARG_NULL = 'N';
+    static final byte ARG_INT = 'I';
+    static final byte ARG_LONG = 'J';
+    static final byte ARG_DOUBLE = 'D';
+    static final byte ARG_BOOLEAN = 'Z';
+    static final byte ARG_CHAR = 'C';
+    static final byte ARG_STRING = 'S';
+
+    static final int LITERAL_TEMPLATE = -1;
+    static final int MAX_STRING_CHARS = 8192;  // 3 bytes per char worst case still fits an unsigned short
+    private static final int HEADER_BYTES = 16;
+    private static final int MAX_ARGS = 32;
+    private static final int MAX_TEMPLATES = 4096; // Per file - beyond this, templates are written as literals
+
+    /**
+     * Orders log files oldest first by the creation time in their name ({@code scriptlog-<millis>[-<n>].jlog}),
+     * then by the collision suffix. Modification times are not used - writes through the mapping
+     * don't reliably update them.
+     */
+    static final Comparator<File> CREATION_ORDER = Comparator
+        .comparingLong((File file) -> nameField(file.getName(), 0))
+        .thenComparingLong(file -> nameField(file.getName(), 1))
+        .thenComparing(File::getName);
+
+    private final File directory;
+    private final long fileBytes;
+    private final int maxFiles;
+
+    private RandomAccessFile raf;
+    private MappedByteBuffer mapped;
+    private ByteBuffer scratch = ByteBuffer.allocate(1024);
+    private final Map<String, Integer> componentIds = new HashMap<>();
+    private final Map<String, Integer> templateIds = new HashMap<>();
+    private long recordsWritten;
+    private boolean failed;
+    private boolean closed;
+
+    /**
+     * @param directory Directory for the log files
+     * @param fileBytes Size of each file before rotating
+     * @param maxFiles  Number of files kept (oldest deleted first)
+     */
+    BinaryLogWriter(File directory, long fileBytes, int maxFiles) throws IOException {
+        if (fileBytes < 1024 * 1024 || fileBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("fileBytes must be between 1 MB and 2 GB");
+        }
+        this.directory = directory;
+        this.fileBytes = fileBytes;
+        this.maxFiles = Math.max(1, maxFiles);
+        openNewFile();
+    }
+
+    /**
+     * Appends one log call. Arguments that are not primitives or strings are stored via toString().
+     *
+     * @param timestamp Time of the log call
+     * @param level     Log level
+     * @param component Component name (e.g. the script class)
+     * @param template  Format string, or the whole message when args is null
+     * @param args      Format arguments, or null for a plain message
+     */
+    synchronized void write(long timestamp, ScriptLogger.Level level, String component, String template, Object[] args) {
+        if (failed || closed) {
+            return;
+        }
+        // Second attempt runs on a fresh file, where the ids are re-defined
+        for (int attempt = 0; attempt < 2; attempt++) {
+            if (tryWrite(timestamp, level, component, template, args)) {
+                recordsWritten++;
+                return;
+            }
+            rotate();
+            if (failed) {
+                return;
+            }
+        }
+    }
+
+    synchronized long getRecordsWritten() {
+        return recordsWritten;
+    }
+
+    /**
+     * Forces written records to disk and releases the file.
+     */
+    synchronized void close() {
+        closed = true; // The async writer may still hold a reference - later writes are ignored
+        if (mapped != null) {
+            mapped.force();
+            mapped = null;
+        }
+        closeFile();
+    }
+
+    private boolean tryWrite(long timestamp, ScriptLogger.Level level, String component, String template, Object[] args) {
+        Integer componentId = componentIds.get(component);
+        if (componentId == null) {
+            componentId = componentIds.size();
+            if (!appendDefinition(KIND_COMPONENT, componentId, component)) {
+                return false;
+            }
+            componentIds.put(component, componentId);
+        }
+
+        int templateId = LITERAL_TEMPLATE;
+        if (args != null) {
+            Integer id = templateIds.get(template);
+            if (id == null && templateIds.size() < MAX_TEMPLATES) {
+                id = templateIds.size();
+                if (!appendDefinition(KIND_TEMPLATE, id, template)) {
+                    return false;
+                }
+                templateIds.put(template, id);
+            }
+            if (id != null) {
+                templateId = id;
+            }
+        }
+
+        ByteBuffer body = beginRecord(KIND_EVENT);
+        body.putLong(timestamp);
+        body.put((byte) level.priority);
+        body.putInt(componentId);
+        body.putInt(templateId);
+        if (templateId == LITERAL_TEMPLATE) {
+            String literal = ScriptLogger.safeFormat(template, args);
+            body = ensureScratch(3 + MAX_STRING_CHARS * 3);
+            body.put((byte) 1);
+            body.put(ARG_STRING);
+            putString(body, literal);
+        } else {
+            int count = Math.min(args.length, MAX_ARGS);
+            body.put((byte) count);
+            for (int i = 0; i < count; i++) {
+                putArg(args[i]);
+            }
+        }
+        return appendRecord();
+    }
+
+    private boolean appendDefinition(byte kind, int id, String text) {
+        ByteBuffer body = beginRecord(kind);
+        body.putInt(id);
+        ensureScratch(2 + MAX_STRING_CHARS * 3);
+        putString(scratch, text);
+        return appendRecord();
+    }
+
+    /**
+     * Starts a record in the scratch buffer, leaving room for the length prefix.
+     */
+    private ByteBuffer beginRecord(byte kind) {
+        scratch.clear();
+        scratch.putInt(0);
+        scratch.put(kind);
+        return scratch;
+    }
+
+    /**
+     * Copies the scratch record into the mapped file.
+     *
+     * @return false if the file has no room left (the record is not written)
+     */
+    private boolean appendRecord() {
+        int length = scratch.position() - 4;
+        scratch.putInt(0, length);
+        scratch.flip();
+        if (mapped.remaining() < scratch.remaining() + 4) { // Keep a zero length as the end marker
+            return false;
+        }
+        mapped.put(scratch);
+        return true;
+    }
+
+    private void putArg(Object arg) {
+        ensureScratch(3 + MAX_STRING_CHARS * 3);
+        if (arg == null) {
+            scratch.put(ARG_NULL);
+        } else if (arg instanceof Integer || arg instanceof Short || arg instanceof Byte) {
+            scratch.put(ARG_INT).putInt(((Number) arg).intValue());
+        } else if (arg instanceof Long) {
+            scratch.put(ARG_LONG).putLong((Long) arg);
+        } else if (arg instanceof Double || arg instanceof Float) {
+            scratch.put(ARG_DOUBLE).putDouble(((Number) arg).doubleValue());
+        } else if (arg instanceof Boolean) {
+            scratch.put(ARG_BOOLEAN).put((byte) ((Boolean) arg ? 1 : 0));
+        } else if (arg instanceof Character) {
+            scratch.put(ARG_CHAR).putChar((Character) arg);
+        } else {
+            scratch.put(ARG_STRING);
+            putString(scratch, String.valueOf(arg));
+        }
+    }
+
+    private static void putString(ByteBuffer buffer, String text) {
+        if (text.length() > MAX_STRING_CHARS) {
+            text = text.substring(0, MAX_STRING_CHARS);
+        }
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    /**
+     * Grows the scratch buffer so at least {@code needed} more bytes fit.
+     */
+    private ByteBuffer ensureScratch(int needed) {
+        if (scratch.remaining() < needed) {
+            ByteBuffer grown = ByteBuffer.allocate(Math.max(scratch.capacity() * 2, scratch.position() + needed));
+            scratch.flip();
+            grown.put(scratch);
+            scratch = grown;
+        }
+        return scratch;
+    }
+
+    private void rotate() {
+        if (mapped != null) {
+            mapped.force();
+            mapped = null;
+        }
+        closeFile();
+        componentIds.clear();
+        templateIds.clear();
+        try {
+            openNewFile();
+        } catch (IOException e) {
+            failed = true;
+            System.err.println("BinaryLogWriter: binary log disabled - " + e.getMessage());
+        }
+    }
+
+    private void openNewFile() throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Could not create directory " + directory.getAbsolutePath());
+        }
+        deleteOldFiles();
+
+        File file = new File(directory, FILE_PREFIX + System.currentTimeMillis() + FILE_EXTENSION);
+        for (int n = 1; file.exists(); n++) {
+            file = new File(directory, FILE_PREFIX + System.currentTimeMillis() + "-" + n + FILE_EXTENSION);
+        }
+        raf = new RandomAccessFile(file, "rw");
+        raf.setLength(fileBytes); // Sparse on most file systems - unused space costs nothing
+        mapped = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, fileBytes);
+        mapped.putInt(MAGIC);
+        mapped.putInt(VERSION);
+        mapped.putLong(System.currentTimeMillis());
+        if (mapped.position() != HEADER_BYTES) {
+            throw new IOException("Unexpected header size");
+        }
+    }
+
+    /**
+     * Deletes the oldest files so that, with the one about to be created, at most maxFiles remain.
+     */
+    private void deleteOldFiles() {
+        File[] files = directory.listFiles((dir, name) -> name.startsWith(FILE_PREFIX) && name.endsWith(FILE_EXTENSION));
+        if (files == null || files.length < maxFiles) {
+            return;
+        }
+        Arrays.sort(files, CREATION_ORDER);
+        for (int i = 0; i <= files.length - maxFiles; i++) {
+            if (!files[i].delete() && files[i].exists()) {
+                // Windows refuses while a mapping of the file is still alive (it is only released on GC).
+                // The file stays the oldest, so the next rotation tries again.
+                System.err.println("BinaryLogWriter: could not delete old log " + files[i].getName() +
+                    " - retrying on next rotation");
+            }
+        }
+    }
+
+    /**
+     * Parses one numeric field of a log file name: 0 = creation time, 1 = collision suffix (0 if none).
+     *
+     * @return The field, or -1 if the name does not follow the writer's pattern
+     */
+    private static long nameField(String name, int field) {
+        if (!name.startsWith(FILE_PREFIX) || !name.endsWith(FILE_EXTENSION)) {
+            return -1;
+        }
+        String[] parts = name.substring(FILE_PREFIX.length(), name.length() - FILE_EXTENSION.length()).split("-", 2);
+        if (field >= parts.length) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(parts[field]);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private void closeFile() {
+        if (raf != null) {
+            try {
+                raf.close();
+            } catch (IOException e) {
+                // Mapped pages are already forced
+            }
+            raf = null;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.jork.utils;
+
+import com.osmb.api.script.Script;
+
+import java.util.function.Supplier;
+
+/**
+ * Logger handle for one class or package, with its own level.
+ *
+ * <p>Get one per class and keep it in a static field:
+ * <pre>{@code
+ * private static final ComponentLogger LOGGER = ScriptLogger.forClass(TrapStateManager.class);
+ *
+ * LOGGER.debug(script, "Trap at %s in state %s", pos, state);
+ * }</pre>
+ *
+ * <p>The effective level is resolved when the handle is created and again whenever
+ * {@link ScriptLogger#setComponentLevel(String, ScriptLogger.Level)} or the global level changes,
+ * so checking it is a single volatile read. Components without their own level follow
+ * {@link ScriptLogger#setMinLevel(ScriptLogger.Level)}.
+ */
+public final class ComponentLogger {
+    private final String name;
+    private final String simpleName;
+    private volatile ScriptLogger.Level level;
+
+    ComponentLogger(String name, ScriptLogger.Level level) {
+        this.name = name;
+        this.simpleName = name.substring(name.lastIndexOf('.') + 1);
+        this.level = level;
+    }
+
+    /**
+     * Called by ScriptLogger when levels change.
+     */
+    void setEffectiveLevel(ScriptLogger.Level level) {
+        this.level = level;
+    }
+
+    /**
+     * Gets the fully qualified component name (class or package).
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the level currently in effect for this component.
+     */
+    public ScriptLogger.Level getLevel() {
+        return level;
+    }
+
+    public boolean isEnabled(ScriptLogger.Level level) {
+        return level.priority >= this.level.priority;
+    }
+
+    /**
+     * Fast check for guarding blocks that only exist to produce debug output (e.g. loops).
+     * @return true if debug messages are logged for this component
+     */
+    public boolean isDebugEnabled() {
+        return level == ScriptLogger.Level.DEBUG;
+    }
+
+    public void info(Script script, String message) {
+        if (isEnabled(ScriptLogger.Level.INFO)) {
+            ScriptLogger.emit(script, simpleName, ScriptLogger.Level.INFO, "INFO", message, null);
+        }
+    }
+
+    public void warning(Script script, String message) {
+        if (isEnabled(ScriptLogger.Level.WARNING)) {
+            ScriptLogger.emit(script, simpleName, ScriptLogger.Level.WARNING, "WARNING", message, null);
+        }
+    }
+
+    /**
+     * Log a warning at most as often as the call site's rate limit allows.
+     */
+    public void warning(Script script, LogRateLimit limit, String message) {
+        if (isEnabled(ScriptLogger.Level.WARNING)) {
+            ScriptLogger.emitLimited(script, simpleName, ScriptLogger.Level.WARNING, "WARNING", limit, message, null);
+        }
+    }
+
+    /**
+     * Log a formatted warning at most as often as the call site's rate limit allows.
+     */
+    public void warning(Script script, LogRateLimit limit, String format, Object... args) {
+        if (isEnabled(ScriptLogger.Level.WARNING)) {
+            ScriptLogger.emitLimited(script, simpleName, ScriptLogger.Level.WARNING, "WARNING", limit, format, args);
+        }
+    }
+
+    public void error(Script script, String message) {
+        if (isEnabled(ScriptLogger.Level.ERROR)) {
+            ScriptLogger.emit(script, simpleName, ScriptLogger.Level.ERROR, "ERROR", message, null);
+        }
+    }
+
+    public void debug(Script script, String message) {
+        if (isDebugEnabled()) {
+            ScriptLogger.emit(script, simpleName, ScriptLogger.Level.DEBUG, "DEBUG", message, null);
+        }
+    }
+
+    /**
+     * Log a debug message built only if debug is enabled for this component.
+     */
+    public void debug(Script script, Supplier<String> messageSupplier) {
+        if (isDebugEnabled()) {
+            ScriptLogger.emit(script, simpleName, ScriptLogger.Level.DEBUG, "DEBUG", messageSupplier.get(), null);
+        }
+    }
+
+    /**
+     * Log a debug message formatted only if debug is enabled for this component.
+     */
+    public void debug(Script script, String format, Object... args) {
+        if (isDebugEnabled()) {
+            ScriptLogger.emit(script, simpleName, ScriptLogger.Level.DEBUG, "DEBUG", format, args);
+        }
+    }
+
+    /**
+     * Log a formatted debug message at most as often as the call site's rate limit allows.
+     */
+    public void debug(Script script, LogRateLimit limit, String format, Object... args) {
+        if (isDebugEnabled()) {
+            ScriptLogger.emitLimited(script, simpleName, ScriptLogger.Level.DEBUG, "DEBUG", limit, format, args);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ComponentLogger[" + name + "=" + level + "]";
+    }
+}
@@ -0,0 +1,154 @@
+package com.jork.utils;
+
+import com.osmb.api.script.Script;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket for one log call site. Keep it in a static final field next to the call,
+ * so the field itself is the call-site id:
+ * <pre>{@code
+ * private static final LogRateLimit OCCLUDED_LOG = LogRateLimit.perInterval(5_000);
+ *
+ * ScriptLogger.debug(script, OCCLUDED_LOG, "Trap at %s is occluded", position);
+ * }</pre>
+ *
+ * <p>A suppressed call costs one uncontended lock and a clock read - the message is never
+ * formatted. The next permitted message carries the number of suppressed repeats, so a call
+ * site firing every frame logs one line per interval that says how often it really fired.
+ * Repeats that are never followed by a permitted message (the call site went quiet) are reported
+ * by ScriptLogger as a summary line once the limit would allow a message again, and when the
+ * async sink stops (see {@link ScriptLogger#flushRateLimits()}).
+ */
+public final class LogRateLimit {
+    private final int burst;
+    private final long costNanos;     // Credit spent per permitted message
+    private final long capacityNanos; // Credit cap (burst messages)
+
+    private long creditNanos;
+    private long lastRefill;
+    private long pendingRepeats;     // Suppressed since the last permitted message
+    private long suppressedCount;
+
+    // Last suppressed call, for the summary line if the call site goes quiet
+    private Script pendingScript;
+    private String pendingComponent;
+    private ScriptLogger.Level pendingLevel;
+    private String pendingLabel;
+    private String pendingTemplate;
+
+    /**
+     * Repeats taken from a limit whose call site went quiet, with the call they belong to.
+     */
+    record Repeats(Script script, String component, ScriptLogger.Level level, String label,
+                   String template, long count) {}
+
+    /**
+     * @param burst        Messages allowed back to back before limiting starts
+     * @param periodMillis Time to earn back the whole burst
+     */
+    public LogRateLimit(int burst, long periodMillis) {
+        if (burst <= 0) {
+            throw new IllegalArgumentException("burst must be > 0");
+        }
+        if (periodMillis <= 0) {
+            throw new IllegalArgumentException("periodMillis must be > 0");
+        }
+        this.burst = burst;
+        this.capacityNanos = TimeUnit.MILLISECONDS.toNanos(periodMillis);
+        this.costNanos = Math.max(1, capacityNanos / burst);
+        this.creditNanos = capacityNanos;
+        this.lastRefill = System.nanoTime();
+    }
+
+    /**
+     * At most one message per interval.
+     *
+     * @param intervalMillis Minimum time between messages
+     */
+    public static LogRateLimit perInterval(long intervalMillis) {
+        return new LogRateLimit(1, intervalMillis);
+    }
+
+    /**
+     * Takes a token if one is available. A suppressed call is remembered (by reference, nothing
+     * is formatted) so its repeats can still be reported if no permitted call follows.
+     *
+     * @return -n if the message must be suppressed (it is the n-th pending repeat), otherwise
+     *         the number of repeats suppressed since the last permitted message
+     */
+    synchronized long tryAcquire(Script script, String component, ScriptLogger.Level level, String label,
+                                 String template) {
+        refill();
+        if (creditNanos < costNanos) {
+            pendingRepeats++;
+            suppressedCount++;
+            pendingScript = script;
+            pendingComponent = component;
+            pendingLevel = level;
+            pendingLabel = label;
+            pendingTemplate = template;
+            return -pendingRepeats;
+        }
+        creditNanos -= costNanos;
+        return takePending();
+    }
+
+    /**
+     * Takes the pending repeats of a call site that has gone quiet.
+     *
+     * @param force true to take them even though the call site could still report them itself
+     * @return The repeats, or null if there are none or the next permitted call will carry them
+     */
+    synchronized Repeats takeRepeats(boolean force) {
+        refill();
+        if (pendingRepeats == 0 || (!force && creditNanos < costNanos)) {
+            return null;
+        }
+        if (creditNanos >= costNanos) {
+            creditNanos -= costNanos; // The summary line counts as the permitted message
+        }
+        Repeats repeats = new Repeats(pendingScript, pendingComponent, pendingLevel, pendingLabel,
+            pendingTemplate, pendingRepeats);
+        takePending();
+        return repeats;
+    }
+
+    synchronized boolean hasPendingRepeats() {
+        return pendingRepeats > 0;
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        creditNanos = Math.min(capacityNanos, creditNanos + (now - lastRefill));
+        lastRefill = now;
+    }
+
+    private long takePending() {
+        long repeats = pendingRepeats;
+        pendingRepeats = 0;
+        pendingScript = null; // Don't keep a stopped script reachable from a static limit
+        pendingComponent = null;
+        pendingLevel = null;
+        pendingLabel = null;
+        pendingTemplate = null;
+        return repeats;
+    }
+
+    public int getBurst() {
+        return burst;
+    }
+
+    /**
+     * Gets the total number of messages suppressed by this limit.
+     */
+    public synchronized long getSuppressedCount() {
+        return suppressedCount;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "LogRateLimit[burst=" + burst + ", period=" + TimeUnit.NANOSECONDS.toMillis(capacityNanos) +
+            "ms, suppressed=" + suppressedCount + "]";
+    }
+}
@@ -2,6 +2,14 @@ package com.jork.utils;
 
 import com.osmb.api.script.Script;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
 /**
  * Utility class providing standardized logging functionality for all scripts.
  * This class provides consistent logging methods with proper formatting and categorization.
@@ -10,6 +18,17 @@ import com.osmb.api.script.Script;
  * ScriptLogger.info(this, "Your message");
  * ScriptLogger.error(this, "Error message");
  * 
+ * Hot paths should defer building debug messages so nothing is formatted while debug is off:
+ * ScriptLogger.debug(this, "Trap at %s in state %s", pos, state);
+ * ScriptLogger.debug(this, () -> "Tracking: " + describeTraps());
+ * 
+ * Call sites that can fire every frame should be rate limited (see {@link LogRateLimit}):
+ * ScriptLogger.warning(this, INACTIVE_LOG, "Listener inactive");
+ * 
+ * Subsystems that need their own level use a component logger (see {@link ComponentLogger}):
+ * private static final ComponentLogger LOGGER = ScriptLogger.forClass(ChatBoxListener.class);
+ * ScriptLogger.setComponentLevel("ChatBoxListener", ScriptLogger.Level.DEBUG);
+ * 
  * @author jork
  */
 public class ScriptLogger {
@@ -31,25 +50,334 @@ public class ScriptLogger {
      */
     private static volatile Level minLevel = Level.INFO;
 
+    /**
+     * Background sink for log lines, or null to log on the calling thread.
+     */
+    private static volatile AsyncLogSink asyncSink = null;
+
+    /**
+     * Binary structured log writer, or null if binary logging is off.
+     */
+    private static volatile BinaryLogWriter binaryLog = null;
+
+    /**
+     * Component loggers by fully qualified name, and the levels set for components or packages.
+     */
+    private static final Map<String, ComponentLogger> components = new ConcurrentHashMap<>();
+    private static final Map<String, Level> componentLevels = new ConcurrentHashMap<>();
+
+    /**
+     * Rate limits holding suppressed repeats, and when they are next checked for a quiet call site.
+     */
+    private static final Set<LogRateLimit> pendingLimits = ConcurrentHashMap.newKeySet();
+    private static final long RATE_LIMIT_FLUSH_MS = 1000;
+    private static volatile long nextRateLimitFlush = 0;
+
     /**
      * Set the global minimum level. Messages below this level are suppressed.
      */
-    public static void setMinLevel(Level level) {
+    public static synchronized void setMinLevel(Level level) {
         if (level != null) {
             minLevel = level;
+            resolveComponentLevels();
         }
     }
 
     /**
      * Convenience toggle for debug logging.
      */
-    public static void setDebugEnabled(boolean enabled) {
+    public static synchronized void setDebugEnabled(boolean enabled) {
         minLevel = enabled ? Level.DEBUG : Level.INFO;
+        resolveComponentLevels();
+    }
+
+    /**
+     * Get the logger for a class. Handles are cached, so every call for the same class returns the same one.
+     * @param type The class that logs
+     * @return The component logger
+     */
+    public static ComponentLogger forClass(Class<?> type) {
+        return forName(type.getName());
+    }
+
+    /**
+     * Get the logger for a component name (usually a fully qualified class or package name).
+     * @param name The component name
+     * @return The component logger
+     */
+    public static ComponentLogger forName(String name) {
+        ComponentLogger logger = components.get(name);
+        return logger != null ? logger : createComponentLogger(name);
+    }
+
+    private static synchronized ComponentLogger createComponentLogger(String name) {
+        // Resolved under the same lock as level changes, so a new handle never misses one
+        return components.computeIfAbsent(name, key -> new ComponentLogger(key, resolveLevel(key)));
+    }
+
+    /**
+     * Set the level for a component and everything below it. Takes effect immediately for
+     * existing loggers. The most specific setting wins: the full class name, then the
+     * simple class name, then the closest package.
+     * @param name A fully qualified class or package name (e.g. "com.jork.utils.chat"),
+     *             or a simple class name (e.g. "ChatBoxListener")
+     * @param level The level, or null to inherit again
+     */
+    public static synchronized void setComponentLevel(String name, Level level) {
+        if (name == null || name.isBlank()) {
+            return;
+        }
+        if (level != null) {
+            componentLevels.put(name.trim(), level);
+        } else {
+            componentLevels.remove(name.trim());
+        }
+        resolveComponentLevels();
+    }
+
+    /**
+     * Remove all component levels - every component follows the global level again.
+     */
+    public static synchronized void clearComponentLevels() {
+        componentLevels.clear();
+        resolveComponentLevels();
+    }
+
+    private static void resolveComponentLevels() {
+        for (ComponentLogger logger : components.values()) {
+            logger.setEffectiveLevel(resolveLevel(logger.getName()));
+        }
+    }
+
+    private static Level resolveLevel(String name) {
+        Level level = componentLevels.get(name);
+        if (level != null) {
+            return level;
+        }
+        level = componentLevels.get(name.substring(name.lastIndexOf('.') + 1));
+        if (level != null) {
+            return level;
+        }
+        for (int dot = name.lastIndexOf('.'); dot > 0; dot = name.lastIndexOf('.', dot - 1)) {
+            level = componentLevels.get(name.substring(0, dot));
+            if (level != null) {
+                return level;
+            }
+        }
+        return minLevel;
     }
 
     private static boolean shouldLog(Level level) {
         return level.priority >= minLevel.priority;
     }
+
+    /**
+     * Route all log output through a bounded ring buffer written by a background thread,
+     * so logging never stalls the poll loop, paint or FX threads. When the buffer is full,
+     * lines are dropped and counted instead of blocking.
+     * @param capacity Maximum queued lines (rounded up to a power of two)
+     * @param logDirectory Directory for a size-rotated copy of the log, or null for none
+     * @return The installed sink (for its written/dropped counters)
+     */
+    public static synchronized AsyncLogSink startAsyncSink(int capacity, File logDirectory) {
+        stopAsyncSink();
+        asyncSink = new AsyncLogSink(capacity, logDirectory);
+        return asyncSink;
+    }
+
+    /**
+     * Flush queued lines and return to logging on the calling thread.
+     */
+    public static synchronized void stopAsyncSink() {
+        AsyncLogSink sink = asyncSink;
+        if (sink != null) {
+            flushRateLimits(); // Queued while the sink is still installed, so the shutdown flush writes them
+            asyncSink = null;
+            sink.shutdown(1000);
+        }
+    }
+
+    /**
+     * Get the installed async sink.
+     * @return The sink, or null if logging is synchronous
+     */
+    public static AsyncLogSink getAsyncSink() {
+        return asyncSink;
+    }
+
+    /**
+     * Additionally write every logged call as a compact binary record (template id plus
+     * primitive arguments) to memory-mapped files, rotated by size. Read them with
+     * {@link BinaryLogReader}. While an async sink is running, records are written by its
+     * writer thread (lines the sink drops are missing from the binary log too); otherwise
+     * they are written on the calling thread.
+     * @param logDirectory Directory for the .jlog files, e.g. ~/.osmb/logs
+     * @return true if binary logging started, false if the directory could not be used
+     */
+    public static synchronized boolean startBinaryLog(File logDirectory) {
+        return startBinaryLog(logDirectory, 16L * 1024 * 1024, 8);
+    }
+
+    /**
+     * Start binary logging with explicit rotation settings.
+     * @param logDirectory Directory for the .jlog files
+     * @param fileBytes Size of each file before rotating (1 MB - 2 GB)
+     * @param maxFiles Number of files kept, oldest deleted first
+     * @return true if binary logging started, false if the directory could not be used
+     */
+    public static synchronized boolean startBinaryLog(File logDirectory, long fileBytes, int maxFiles) {
+        stopBinaryLog();
+        try {
+            binaryLog = new BinaryLogWriter(logDirectory, fileBytes, maxFiles);
+            return true;
+        } catch (IOException e) {
+            System.err.println("ScriptLogger: binary log not started - " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Force binary records to disk and stop binary logging.
+     */
+    public static synchronized void stopBinaryLog() {
+        BinaryLogWriter writer = binaryLog;
+        if (writer != null) {
+            binaryLog = null;
+            writer.close();
+        }
+    }
+
+    /**
+     * Get the running binary log writer, or null if binary logging is off.
+     */
+    static BinaryLogWriter getBinaryLogWriter() {
+        return binaryLog;
+    }
+
+    private static void emit(Script script, Level level, String label, String template, Object[] args) {
+        emit(script, null, level, label, template, args);
+    }
+
+    /**
+     * Single output path for every log call.
+     * @param component Component recorded in the binary log, or null for the script
+     * @param template The message, or a format string when args is non-null
+     */
+    static void emit(Script script, String component, Level level, String label, String template, Object[] args) {
+        String tag = script.getClass().getSimpleName();
+        String source = component != null ? component : tag;
+        AsyncLogSink sink = asyncSink;
+        if (sink != null) {
+            // Formatted and written to the binary log by the writer; dropped lines are counted by the sink
+            sink.offer(script, tag, source, level, label, template, args);
+            return;
+        }
+
+        script.log(tag, "[" + label + "] " + safeFormat(template, args));
+        BinaryLogWriter writer = binaryLog;
+        if (writer != null) {
+            writer.write(System.currentTimeMillis(), level, source, template, args);
+        }
+        flushRateLimitsIfDue(); // No writer thread to do it
+    }
+
+    /**
+     * Formats a log message. A bad format string or a throwing toString() falls back to the raw
+     * template and arguments, so a log call never takes down its caller or the log writer.
+     * @param template The message, or a format string when args is non-null
+     * @param args Format arguments, or null for a plain message
+     */
+    static String safeFormat(String template, Object[] args) {
+        if (args == null) {
+            return template;
+        }
+        try {
+            return String.format(template, args);
+        } catch (RuntimeException e) {
+            try {
+                return template + " " + Arrays.toString(args);
+            } catch (RuntimeException again) {
+                return template + " (unformattable arguments: " + e + ")";
+            }
+        }
+    }
+
+    /**
+     * Output path for rate-limited calls. A permitted message after suppressed ones
+     * carries the repeat count, so the summary costs no extra line.
+     */
+    static void emitLimited(Script script, String component, Level level, String label, LogRateLimit limit,
+                            String template, Object[] args) {
+        long repeats = limit.tryAcquire(script, component, level, label, template);
+        if (repeats < 0) {
+            if (repeats == -1) {
+                pendingLimits.add(limit); // First repeat - report it later if the call site goes quiet
+            }
+            return;
+        }
+        if (repeats > 0) {
+            if (args == null) {
+                template = template + " (repeated " + repeats + " more time(s) since last shown)";
+            } else {
+                template = template + " (repeated %d more time(s) since last shown)";
+                args = Arrays.copyOf(args, args.length + 1);
+                args[args.length - 1] = repeats;
+            }
+        }
+        emit(script, component, level, label, template, args);
+    }
+
+    /**
+     * Report the repeats of every rate-limited call site that suppressed messages since it last
+     * logged, as one summary line each. Called when the async sink stops; scripts logging
+     * synchronously can call it from onStop.
+     */
+    public static void flushRateLimits() {
+        flushRateLimits(true);
+    }
+
+    /**
+     * Report repeats of call sites that have gone quiet, at most once per {@link #RATE_LIMIT_FLUSH_MS}.
+     * Called by the async writer thread, or after each synchronous log call.
+     */
+    static void flushRateLimitsIfDue() {
+        if (pendingLimits.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (now < nextRateLimitFlush) {
+            return;
+        }
+        nextRateLimitFlush = now + RATE_LIMIT_FLUSH_MS;
+        flushRateLimits(false);
+    }
+
+    /**
+     * @param force false to only report call sites whose limit would permit a message again
+     *              (otherwise the next permitted message still carries the count)
+     */
+    private static void flushRateLimits(boolean force) {
+        for (LogRateLimit limit : pendingLimits) {
+            pendingLimits.remove(limit);
+            LogRateLimit.Repeats repeats = limit.takeRepeats(force);
+            if (repeats == null) {
+                if (limit.hasPendingRepeats()) {
+                    pendingLimits.add(limit);
+                }
+                continue;
+            }
+            emit(repeats.script(), repeats.component(), repeats.level(), repeats.label(),
+                "Suppressed %d more time(s) since last shown: %s", new Object[] {repeats.count(), repeats.template()});
+        }
+    }
+
+    /**
+     * Fast check for guarding blocks that only exist to produce debug output (e.g. loops).
+     * @return true if debug messages are currently logged
+     */
+    public static boolean isDebugEnabled() {
+        return minLevel == Level.DEBUG;
+    }
     
     /**
      * Private constructor to prevent instantiation of utility class
@@ -65,7 +393,7 @@ public class ScriptLogger {
      */
     public static void info(Script script, String message) {
         if (shouldLog(Level.INFO)) {
-            script.log(script.getClass().getSimpleName(), "[INFO] " + message);
+            emit(script, Level.INFO, "INFO", message, null);
         }
     }
     
@@ -76,7 +404,33 @@ public class ScriptLogger {
      */
     public static void warning(Script script, String message) {
         if (shouldLog(Level.WARNING)) {
-            script.log(script.getClass().getSimpleName(), "[WARNING] " + message);
+            emit(script, Level.WARNING, "WARNING", message, null);
+        }
+    }
+    
+    /**
+     * Log a warning message at most as often as the call site's rate limit allows
+     * @param script The script instance calling this method
+     * @param limit The call site's rate limit
+     * @param message The warning message to log
+     */
+    public static void warning(Script script, LogRateLimit limit, String message) {
+        if (shouldLog(Level.WARNING)) {
+            emitLimited(script, null, Level.WARNING, "WARNING", limit, message, null);
+        }
+    }
+    
+    /**
+     * Log a formatted warning at most as often as the call site's rate limit allows.
+     * Suppressed calls are never formatted.
+     * @param script The script instance calling this method
+     * @param limit The call site's rate limit
+     * @param format The format string
+     * @param args The format arguments
+     */
+    public static void warning(Script script, LogRateLimit limit, String format, Object... args) {
+        if (shouldLog(Level.WARNING)) {
+            emitLimited(script, null, Level.WARNING, "WARNING", limit, format, args);
         }
     }
     
@@ -87,7 +441,7 @@ public class ScriptLogger {
      */
     public static void error(Script script, String message) {
         if (shouldLog(Level.ERROR)) {
-            script.log(script.getClass().getSimpleName(), "[ERROR] " + message);
+            emit(script, Level.ERROR, "ERROR", message, null);
         }
     }
     
@@ -98,7 +452,45 @@ public class ScriptLogger {
      */
     public static void debug(Script script, String message) {
         if (shouldLog(Level.DEBUG)) {
-            script.log(script.getClass().getSimpleName(), "[DEBUG] " + message);
+            emit(script, Level.DEBUG, "DEBUG", message, null);
+        }
+    }
+    
+    /**
+     * Log a debug message built only if debug logging is enabled
+     * @param script The script instance calling this method
+     * @param messageSupplier Supplies the debug message
+     */
+    public static void debug(Script script, Supplier<String> messageSupplier) {
+        if (shouldLog(Level.DEBUG)) {
+            emit(script, Level.DEBUG, "DEBUG", messageSupplier.get(), null);
+        }
+    }
+    
+    /**
+     * Log a debug message formatted with {@link String#format} only if debug logging is enabled.
+     * Arguments are passed as-is, so their toString() is never called while debug is off.
+     * @param script The script instance calling this method
+     * @param format The format string
+     * @param args The format arguments
+     */
+    public static void debug(Script script, String format, Object... args) {
+        if (shouldLog(Level.DEBUG)) {
+            emit(script, Level.DEBUG, "DEBUG", format, args);
+        }
+    }
+    
+    /**
+     * Log a formatted debug message at most as often as the call site's rate limit allows.
+     * Suppressed calls are never formatted.
+     * @param script The script instance calling this method
+     * @param limit The call site's rate limit
+     * @param format The format string
+     * @param args The format arguments
+     */
+    public static void debug(Script script, LogRateLimit limit, String format, Object... args) {
+        if (shouldLog(Level.DEBUG)) {
+            emitLimited(script, null, Level.DEBUG, "DEBUG", limit, format, args);
         }
     }
     
@@ -214,7 +606,7 @@ public class ScriptLogger {
             default -> Level.INFO;
         };
         if (shouldLog(mapped)) {
-            script.log(script.getClass().getSimpleName(), "[" + upper + "] " + message);
+            emit(script, mapped, upper, message, null);
         }
     }
     
@@ -227,7 +619,7 @@ public class ScriptLogger {
     public static void exception(Script script, String action, Exception exception) {
         error(script, "Exception during " + action + ": " + exception.getMessage());
         // Optionally log stack trace for debugging
-        debug(script, "Stack trace: " + getStackTraceString(exception));
+        debug(script, () -> "Stack trace: " + getStackTraceString(exception));
     }
     
     /**
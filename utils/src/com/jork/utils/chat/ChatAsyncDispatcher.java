@@ -0,0 +1,248 @@
+package com.jork.utils.chat;
+
+import com.jork.utils.ScriptLogger;
+import com.osmb.api.script.Script;
+
+import java.util.ArrayDeque;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs chatbox handlers off the script thread while keeping each handler's messages in order.
+ *
+ * <p>Every handler gets its own bounded FIFO lane. A lane has at most one task on the executor
+ * at a time, so one handler never sees two messages concurrently or out of order, while different
+ * handlers run in parallel. Submitting is O(1) and never waits on the script thread; when a lane
+ * is full the {@link OverflowPolicy} decides which message is dropped, and {@link #getDroppedCount()}
+ * shows how often that happened.
+ *
+ * <p>Uses virtual threads when the JVM provides them (Java 21+), otherwise a small daemon pool.
+ *
+ * <p>Enabled through {@link ChatBoxListener#enableAsyncDispatch(int, OverflowPolicy)}.
+ * Handler state touched from async handlers must be thread-safe (e.g. volatile flags).
+ */
+public final class ChatAsyncDispatcher {
+
+    /**
+     * What to do when a handler's lane is full.
+     */
+    public enum OverflowPolicy {
+        /** Drop the incoming message. */
+        DROP_NEWEST,
+        /** Evict the oldest queued message to make room. */
+        DROP_OLDEST
+    }
+
+    private static final int FALLBACK_THREADS = 2;
+
+    private final Script script;
+    private final int laneCapacity;
+    private final OverflowPolicy policy;
+    private final ExecutorService executor;
+    private final boolean virtualThreads;
+    private final Map<HandlerRegistration, Lane> lanes = new IdentityHashMap<>(); // Script thread only
+
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final LongAdder totalLatencyNanos = new LongAdder();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+    ChatAsyncDispatcher(Script script, int laneCapacity, OverflowPolicy policy) {
+        if (laneCapacity <= 0) {
+            throw new IllegalArgumentException("laneCapacity must be > 0");
+        }
+        this.script = script;
+        this.laneCapacity = laneCapacity;
+        this.policy = policy != null ? policy : OverflowPolicy.DROP_OLDEST;
+
+        ExecutorService virtual = createVirtualThreadExecutor();
+        this.virtualThreads = virtual != null;
+        this.executor = virtual != null ? virtual : Executors.newFixedThreadPool(FALLBACK_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "chatbox-dispatch");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Looks up {@code Executors.newVirtualThreadPerTaskExecutor()} reflectively so this still
+     * compiles and runs on Java 17.
+     */
+    private static ExecutorService createVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Queues a message for a handler. Called from the script thread.
+     *
+     * @return true if queued, false if dropped by the overflow policy
+     */
+    boolean submit(HandlerRegistration registration, ChatBoxMessage message) {
+        Lane lane = lanes.computeIfAbsent(registration, Lane::new);
+        return lane.offer(message);
+    }
+
+    /**
+     * Forgets a removed handler's lane. Messages already queued still run.
+     */
+    void release(HandlerRegistration registration) {
+        lanes.remove(registration);
+    }
+
+    void releaseAll() {
+        lanes.clear();
+    }
+
+    /**
+     * Stops accepting work and waits briefly for queued handlers to finish.
+     */
+    void shutdown() {
+        lanes.clear();
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(500, TimeUnit.MILLISECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Metrics
+
+    /** Messages accepted into a lane. */
+    public long getAcceptedCount() {
+        return accepted.get();
+    }
+
+    /** Handler invocations finished (including failed ones). */
+    public long getCompletedCount() {
+        return completed.get();
+    }
+
+    /** Messages dropped or evicted by the overflow policy. */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /** Handler invocations that threw. */
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    /** Messages currently waiting in lanes. */
+    public int getQueuedCount() {
+        return queued.get();
+    }
+
+    /** Mean time from submit to handler completion, in milliseconds. */
+    public double getAverageLatencyMillis() {
+        long count = completed.get();
+        return count == 0 ? 0 : totalLatencyNanos.sum() / (double) count / 1_000_000.0;
+    }
+
+    /** Worst time from submit to handler completion, in milliseconds. */
+    public double getMaxLatencyMillis() {
+        return maxLatencyNanos.get() / 1_000_000.0;
+    }
+
+    public boolean isUsingVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public OverflowPolicy getPolicy() {
+        return policy;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ChatAsyncDispatcher[accepted=%d, completed=%d, dropped=%d, failed=%d, queued=%d, avg=%.2fms, max=%.2fms]",
+            getAcceptedCount(), getCompletedCount(), getDroppedCount(), getFailedCount(), getQueuedCount(),
+            getAverageLatencyMillis(), getMaxLatencyMillis());
+    }
+
+    private record Pending(ChatBoxMessage message, long submittedAt) {}
+
+    /**
+     * One handler's FIFO queue. {@code scheduled} is true while a drain task owns the lane.
+     */
+    private final class Lane implements Runnable {
+        private final HandlerRegistration registration;
+        private final ChatBoxMatch match; // Private matcher for regex handlers - the registration's belongs to the script thread
+        private final ArrayDeque<Pending> messages = new ArrayDeque<>();
+        private boolean scheduled;
+
+        Lane(HandlerRegistration registration) {
+            this.registration = registration;
+            this.match = registration.newMatch();
+        }
+
+        synchronized boolean offer(ChatBoxMessage message) {
+            if (messages.size() >= laneCapacity) {
+                switch (policy) {
+                    case DROP_NEWEST -> {
+                        dropped.incrementAndGet();
+                        return false;
+                    }
+                    case DROP_OLDEST -> {
+                        messages.poll();
+                        queued.decrementAndGet();
+                        dropped.incrementAndGet();
+                    }
+                }
+            }
+
+            messages.add(new Pending(message, System.nanoTime()));
+            queued.incrementAndGet();
+            accepted.incrementAndGet();
+            if (!scheduled) {
+                scheduled = true;
+                executor.execute(this);
+            }
+            return true;
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                Pending pending;
+                synchronized (this) {
+                    pending = messages.poll();
+                    if (pending == null) {
+                        scheduled = false;
+                        return;
+                    }
+                    queued.decrementAndGet();
+                }
+
+                try {
+                    registration.invoke(pending.message(), match);
+                } catch (Exception e) {
+                    failed.incrementAndGet();
+                    String name = registration.getName();
+                    ScriptLogger.exception(script, "async chatbox handler " +
+                        (name != null ? "'" + name + "'" : "for pattern: '" + registration.getPattern() + "'"), e);
+                } finally {
+                    long latency = System.nanoTime() - pending.submittedAt();
+                    totalLatencyNanos.add(latency);
+                    maxLatencyNanos.accumulateAndGet(latency, Math::max);
+                    completed.incrementAndGet();
+                }
+            }
+        }
+    }
+}
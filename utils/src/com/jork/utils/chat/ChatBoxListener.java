@@ -1,19 +1,25 @@
 package com.jork.utils.chat;
 
+import com.jork.utils.ComponentLogger;
+import com.jork.utils.LogRateLimit;
 import com.jork.utils.ScriptLogger;
 import com.osmb.api.script.Script;
 import com.osmb.api.shape.Rectangle;
 import com.osmb.api.ui.chatbox.ChatboxFilterTab;
 import com.osmb.api.utils.CachedObject;
+import com.osmb.api.visual.image.Image;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.ObjIntConsumer;
+import java.util.regex.Pattern;
 
 /**
  * Instance-based chatbox listener that monitors game messages and triggers handlers.
@@ -41,16 +47,23 @@ import java.util.Set;
  * <ul>
  *   <li>Fluent API for registering message handlers</li>
  *   <li>Multiple handlers per pattern (no silent overwrites)</li>
+ *   <li>Single-pass multi-pattern matching (Aho-Corasick) regardless of handler count</li>
+ *   <li>Precompiled regex handlers with allocation-free numeric group extraction</li>
+ *   <li>OCR-tolerant fuzzy handlers (bounded edit distance, bit-parallel matching)</li>
+ *   <li>Optional asynchronous dispatch with per-handler ordering ({@link #enableAsyncDispatch(int, ChatAsyncDispatcher.OverflowPolicy)})</li>
+ *   <li>Time-indexed message history with count/last-seen queries ({@link #getHistory()})</li>
  *   <li>Optional handler naming for tracking and debugging</li>
  *   <li>Auto-removal after N triggers (one-time or counted handlers)</li>
  *   <li>Individual handler removal by reference or name</li>
  *   <li>Automatic delay management (minimenu overlap, tap detection)</li>
+ *   <li>Pixel checksum gate - OCR only runs when the chatbox pixels changed</li>
  *   <li>Configurable chat tab monitoring</li>
  *   <li>Integration with ScriptLogger for debugging</li>
  * </ul>
  *
  * <p><b>Note:</b> This class is not thread-safe. Configuration methods should be
- * called during script initialization (typically in {@code onStart()}).
+ * called during script initialization (typically in {@code onStart()}). Handlers run on the
+ * calling thread unless async dispatch is enabled.
  *
  * <p><b>Basic Handler Registration Examples:</b>
  * <pre>{@code
@@ -67,7 +80,7 @@ import java.util.Set;
  *
  * // One-time handler (auto-removes after 1 trigger)
  * listener.onOnce("you die", msg -> {
- *     ScriptLogger.warning(script, "Player died!");
+ *     LOGGER.warning(script, "Player died!");
  *     stop();
  * }).named("death-handler");
  *
@@ -106,11 +119,11 @@ import java.util.Set;
  * // Get handler information
  * HandlerRegistration reg = listener.getHandler("fish-counter");
  * if (reg != null) {
- *     ScriptLogger.info(script, "Triggered " + reg.getTriggerCount() + " times");
- *     ScriptLogger.info(script, "Pattern: " + reg.getPattern());
+ *     LOGGER.info(script, "Triggered " + reg.getTriggerCount() + " times");
+ *     LOGGER.info(script, "Pattern: " + reg.getPattern());
  *     if (reg.getMaxTriggers() != null) {
  *         int remaining = reg.getMaxTriggers() - reg.getTriggerCount();
- *         ScriptLogger.info(script, "Remaining: " + remaining);
+ *         LOGGER.info(script, "Remaining: " + remaining);
  *     }
  * }
  * }</pre>
@@ -146,7 +159,7 @@ import java.util.Set;
  *         .on("you catch", msg -> fishCaught++).named("fish-counter")
  *         .onOnce("you die", msg -> stop()).named("death-handler")
  *         .onTimes("you fail", 5, msg -> {
- *             ScriptLogger.warning(this, "Too many failures!");
+ *             LOGGER.warning(this, "Too many failures!");
  *             stop();
  *         }).named("failure-limit")
  *         .enableDebugLogging();
@@ -159,27 +172,61 @@ import java.util.Set;
  *     // Conditional handler removal
  *     if (fishCaught >= 1000) {
  *         chatListener.remove("fish-counter");
- *         ScriptLogger.info(this, "Reached 1000 fish!");
+ *         LOGGER.info(this, "Reached 1000 fish!");
  *     }
  * }
  * }</pre>
  */
 public class ChatBoxListener {
+    private static final ComponentLogger LOGGER = ScriptLogger.forClass(ChatBoxListener.class);
+    private static final int PIXEL_GATE_STEP = 2;            // Sample every 2nd column - glyphs are wider than 1px
+    private static final long PIXEL_GATE_MAX_SKIP_MS = 5000; // Force an OCR read at least this often
+    private static final int DEFAULT_HISTORY_CAPACITY = 256;
+    private static final long CADENCE_MIN_INTERVAL_MS = 100;   // First backoff step
+    private static final int CADENCE_IDLE_READS = 3;           // Idle reads at full rate before backing off
+    private static final long DEFAULT_EXPECT_WINDOW_MS = 3000;
+    private static final LogRateLimit WRONG_TAB_LOG = LogRateLimit.perInterval(10_000); // Checked every frame
+
     private final Script script;
     private final ChatBoxDelay readDelay;
-    private final List<HandlerRegistration> registrations;
-    private final List<HandlerRegistration> pendingRemovals;
+    // Handler registry: slot array + free list, O(1) add/remove (see addRegistration/releaseSlot)
+    private HandlerRegistration[] slots;
+    private int[] slotGenerations; // Bumped when a slot is freed - stale removals are ignored
+    private int[] freeSlots;
+    private int freeCount;
+    private int slotsUsed;         // High-water mark
+    private int activeCount;
+    private long nextSequence;     // Registration order, for dispatch ordering across reused slots
+    private int removedSinceBuild;
     private final Map<String, HandlerRegistration> namedHandlers;
-    private final List<String> previousChatboxLines;
+    private ChatLineFingerprints previousFingerprints; // Last read (swapped with spareFingerprints)
+    private ChatLineFingerprints spareFingerprints;
+    private boolean seedPending; // Next read only fingerprints the visible lines (see clearHistory)
     private final Set<ChatboxFilterTab> monitoredTabs;
 
-    private boolean debugLogging;
     private long tapDelayMillis;
     private long lastChatBoxRead;
     private long lastChatBoxChange;
     private ChatboxFilterTab autoSwitchTab;
     private boolean warnOnWrongTab;
     private ChatboxFilterTab previousMonitoredTab;
+    private ChatPatternAutomaton automaton; // Rebuilt lazily when handlers change
+    private boolean automatonDirty;
+    private boolean pixelGateEnabled;
+    private long lastPixelChecksum;
+    private boolean hasPixelChecksum;
+    private long ocrReadCount;
+    private long ocrSkipCount;
+    private ChatAsyncDispatcher asyncDispatcher; // null = handlers run inside update()
+    private ChatHistory history;
+    // Adaptive read cadence (see scheduleNextRead)
+    private boolean adaptiveCadence;
+    private long maxReadIntervalMillis;
+    private int idleReads;
+    private long nextReadAt;
+    private long expectUntil;
+    private long averageChangeInterval; // Smoothed time between chat changes, 0 = unknown
+    private long cadenceSkipCount;
 
     /**
      * Creates a new ChatBoxListener for the given script.
@@ -190,20 +237,29 @@ public class ChatBoxListener {
     public ChatBoxListener(Script script) {
         this.script = script;
         this.readDelay = new ChatBoxDelay(1500);
-        this.registrations = new ArrayList<>();
-        this.pendingRemovals = new ArrayList<>();
+        this.slots = new HandlerRegistration[16];
+        this.slotGenerations = new int[16];
+        this.freeSlots = new int[16];
         this.namedHandlers = new LinkedHashMap<>();
-        this.previousChatboxLines = new ArrayList<>();
+        this.previousFingerprints = new ChatLineFingerprints();
+        this.spareFingerprints = new ChatLineFingerprints();
+        this.seedPending = true;
         this.monitoredTabs = new HashSet<>();
         this.monitoredTabs.add(ChatboxFilterTab.GAME);
-        this.monitoredTabs.add(ChatboxFilterTab.ALL);
-        this.debugLogging = false;
+        this.monitoredTabs.add(ChatboxFilterTab.ALL);
         this.tapDelayMillis = 1500;
         this.lastChatBoxRead = 0;
         this.lastChatBoxChange = 0;
         this.autoSwitchTab = null; // null = no auto-switching
         this.warnOnWrongTab = false;
         this.previousMonitoredTab = null;
+        this.automaton = null;
+        this.automatonDirty = true;
+        this.pixelGateEnabled = true;
+        this.hasPixelChecksum = false;
+        this.history = new ChatHistory(DEFAULT_HISTORY_CAPACITY);
+        this.adaptiveCadence = true;
+        this.maxReadIntervalMillis = 1200;
     }
 
     /**
@@ -234,10 +290,10 @@ public class ChatBoxListener {
         HandlerRegistration registration = new HandlerRegistration(
             this, pattern.toLowerCase(), handler, null
         );
-        registrations.add(registration);
+        addRegistration(registration);
 
-        if (debugLogging) {
-            ScriptLogger.debug(script, "Registered handler for pattern: '" + pattern + "' (unlimited)");
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug(script, "Registered handler for pattern: '" + pattern + "' (unlimited)");
         }
 
         return registration;
@@ -249,7 +305,7 @@ public class ChatBoxListener {
      * <p>Example:
      * <pre>{@code
      * listener.onOnce("you die", msg -> {
-     *     ScriptLogger.warning(script, "Player died!");
+     *     LOGGER.warning(script, "Player died!");
      *     stop();
      * }).named("death-handler");
      * }</pre>
@@ -266,10 +322,10 @@ public class ChatBoxListener {
         HandlerRegistration registration = new HandlerRegistration(
             this, pattern.toLowerCase(), handler, 1
         );
-        registrations.add(registration);
+        addRegistration(registration);
 
-        if (debugLogging) {
-            ScriptLogger.debug(script, "Registered one-time handler for pattern: '" + pattern + "'");
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug(script, "Registered one-time handler for pattern: '" + pattern + "'");
         }
 
         return registration;
@@ -300,16 +356,157 @@ public class ChatBoxListener {
         HandlerRegistration registration = new HandlerRegistration(
             this, pattern.toLowerCase(), handler, maxTriggers
         );
-        registrations.add(registration);
+        addRegistration(registration);
 
-        if (debugLogging) {
-            ScriptLogger.debug(script, "Registered counted handler for pattern: '" +
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug(script, "Registered counted handler for pattern: '" +
                 pattern + "' (max: " + maxTriggers + ")");
         }
 
         return registration;
     }
 
+    /**
+     * Registers a regex handler. The pattern is compiled once by the caller and matched with
+     * a Matcher that is reused for every message. Regex handlers match against the raw
+     * (original case) message text - use {@link Pattern#CASE_INSENSITIVE} if needed.
+     *
+     * <p>Example:
+     * <pre>{@code
+     * // Catch messages
+     * listener.onRegex(Pattern.compile("you catch (?:a|an|some) ([a-z ]+)\\.", Pattern.CASE_INSENSITIVE),
+     *     match -> lastCatch = match.group(1));
+     *
+     * // Level-ups with the new level parsed straight from the text
+     * listener.onRegex(Pattern.compile("your (\\w+) level\\. you are now level (\\d+)", Pattern.CASE_INSENSITIVE),
+     *     match -> onLevelUp(match.group(1), match.getInt(2)));
+     * }</pre>
+     *
+     * @param regex   The compiled pattern to find in the message
+     * @param handler The handler to execute when the pattern is found
+     * @return The registration object (call {@link HandlerRegistration#named(String)} to name it)
+     */
+    public HandlerRegistration onRegex(Pattern regex, ChatBoxMatchHandler handler) {
+        return onRegex(regex, null, handler);
+    }
+
+    /**
+     * Registers a regex handler that auto-removes after N triggers.
+     *
+     * <p>Example:
+     * <pre>{@code
+     * listener.onRegex(Pattern.compile("enough inventory space to hold that item", Pattern.CASE_INSENSITIVE),
+     *     1, match -> inventoryFull = true);
+     * }</pre>
+     *
+     * @param regex       The compiled pattern to find in the message
+     * @param maxTriggers Maximum number of times to trigger (must be > 0)
+     * @param handler     The handler to execute when the pattern is found
+     * @return The registration object (call {@link HandlerRegistration#named(String)} to name it)
+     */
+    public HandlerRegistration onRegex(Pattern regex, int maxTriggers, ChatBoxMatchHandler handler) {
+        if (maxTriggers <= 0) {
+            throw new IllegalArgumentException("maxTriggers must be > 0");
+        }
+        return onRegex(regex, Integer.valueOf(maxTriggers), handler);
+    }
+
+    /**
+     * Registers a regex handler that extracts one numeric group.
+     *
+     * <p>Example:
+     * <pre>{@code
+     * listener.onRegexInt(Pattern.compile("you are now level (\\d+)", Pattern.CASE_INSENSITIVE), 1,
+     *     (msg, level) -> currentLevel = level);
+     * }</pre>
+     *
+     * @param regex   The compiled pattern to find in the message
+     * @param group   The capture group holding the number
+     * @param handler Receives the message and the parsed value
+     * @return The registration object (call {@link HandlerRegistration#named(String)} to name it)
+     */
+    public HandlerRegistration onRegexInt(Pattern regex, int group, ObjIntConsumer<ChatBoxMessage> handler) {
+        if (handler == null) {
+            throw new IllegalArgumentException("Pattern and handler must not be null");
+        }
+        if (regex != null && (group < 0 || group > regex.matcher("").groupCount())) {
+            throw new IllegalArgumentException("Pattern has no group " + group);
+        }
+        return onRegex(regex, null, match -> handler.accept(match.getMessage(), match.getInt(group)));
+    }
+
+    private HandlerRegistration onRegex(Pattern regex, Integer maxTriggers, ChatBoxMatchHandler handler) {
+        if (regex == null || handler == null) {
+            throw new IllegalArgumentException("Pattern and handler must not be null");
+        }
+
+        HandlerRegistration registration = new HandlerRegistration(this, regex, handler, maxTriggers);
+        addRegistration(registration);
+
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug(script, "Registered regex handler: '" + regex.pattern() + "'" +
+                (maxTriggers != null ? " (max: " + maxTriggers + ")" : " (unlimited)"));
+        }
+
+        return registration;
+    }
+
+    /**
+     * Registers a fuzzy handler that matches when the pattern occurs in the message with at most
+     * {@code maxDistance} character insertions, deletions or substitutions (case-insensitive).
+     * One fuzzy pattern replaces a list of hand-written OCR misspellings.
+     *
+     * <p>Example:
+     * <pre>{@code
+     * // Matches "can't take items", "cant take item", "can't take ltems", ...
+     * listener.onFuzzy("can't take items", 2, msg -> hopTriggered = true);
+     * }</pre>
+     *
+     * @param pattern     The pattern to match (1-64 characters)
+     * @param maxDistance Maximum edit distance (0 = exact, must be shorter than the pattern)
+     * @param handler     The handler to execute when a matching message is found
+     * @return The registration object (call {@link HandlerRegistration#named(String)} to name it)
+     */
+    public HandlerRegistration onFuzzy(String pattern, int maxDistance, ChatBoxMessageHandler handler) {
+        return onFuzzy(pattern, maxDistance, null, handler);
+    }
+
+    /**
+     * Registers a fuzzy handler that auto-removes after N triggers.
+     *
+     * @param pattern     The pattern to match (1-64 characters)
+     * @param maxDistance Maximum edit distance (0 = exact, must be shorter than the pattern)
+     * @param maxTriggers Maximum number of times to trigger (must be > 0)
+     * @param handler     The handler to execute when a matching message is found
+     * @return The registration object (call {@link HandlerRegistration#named(String)} to name it)
+     */
+    public HandlerRegistration onFuzzyTimes(String pattern, int maxDistance, int maxTriggers,
+                                            ChatBoxMessageHandler handler) {
+        if (maxTriggers <= 0) {
+            throw new IllegalArgumentException("maxTriggers must be > 0");
+        }
+        return onFuzzy(pattern, maxDistance, Integer.valueOf(maxTriggers), handler);
+    }
+
+    private HandlerRegistration onFuzzy(String pattern, int maxDistance, Integer maxTriggers,
+                                        ChatBoxMessageHandler handler) {
+        if (pattern == null || handler == null) {
+            throw new IllegalArgumentException("Pattern and handler must not be null");
+        }
+
+        HandlerRegistration registration = new HandlerRegistration(
+            this, new ChatFuzzyMatcher(pattern.toLowerCase(), maxDistance), handler, maxTriggers
+        );
+        addRegistration(registration);
+
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug(script, "Registered fuzzy handler for pattern: '" + pattern +
+                "' (max distance: " + maxDistance + (maxTriggers != null ? ", max: " + maxTriggers : "") + ")");
+        }
+
+        return registration;
+    }
+
     /**
      * Package-private helper called by {@link HandlerRegistration#named(String)}.
      * Registers a handler in the named handlers map for fast lookup.
@@ -336,8 +533,8 @@ public class ChatBoxListener {
 
         HandlerRegistration existing = namedHandlers.get(desiredName);
         if (existing != null && existing != registration) {
-            if (debugLogging) {
-                ScriptLogger.debug(script, "Replacing existing handler '" + desiredName +
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug(script, "Replacing existing handler '" + desiredName +
                     "' with new handler");
             }
             remove(existing);
@@ -346,8 +543,8 @@ public class ChatBoxListener {
         namedHandlers.put(desiredName, registration);
         registration.setMappedName(desiredName);
 
-        if (debugLogging && (existing == null || existing != registration)) {
-            ScriptLogger.debug(script, "Named handler '" + desiredName + "' for pattern: '" +
+        if (LOGGER.isDebugEnabled() && (existing == null || existing != registration)) {
+            LOGGER.debug(script, "Named handler '" + desiredName + "' for pattern: '" +
                 registration.getPattern() + "'");
         }
     }
@@ -357,7 +554,8 @@ public class ChatBoxListener {
      * After removal, the handler will no longer execute for new messages.
      *
      * <p><b>CRITICAL:</b> The handler is marked as removed immediately, preventing
-     * it from executing even once more before the cleanup phase.
+     * it from executing even once more - including later lines of the batch being dispatched.
+     * Removal is O(1); removing an already removed handler is a no-op.
      *
      * <p>Example:
      * <pre>{@code
@@ -373,21 +571,24 @@ public class ChatBoxListener {
             return;
         }
 
-        registration.markRemoved();
-
-        // Remove name mapping immediately so new handlers can reuse the name
-        removeNameMapping(registration);
-
-        if (!pendingRemovals.contains(registration)) {
-            pendingRemovals.add(registration);
-        }
+        registration.markRemoved();
+
+        // Remove name mapping immediately so new handlers can reuse the name
+        removeNameMapping(registration);
+
+        if (!releaseSlot(registration)) {
+            return; // Already removed (or cleared)
+        }
+        if (asyncDispatcher != null) {
+            asyncDispatcher.release(registration);
+        }
 
-        if (debugLogging) {
+        if (LOGGER.isDebugEnabled()) {
             String name = registration.getName();
             if (name != null) {
-                ScriptLogger.debug(script, "Removing handler '" + name + "'");
+                LOGGER.debug(script, "Removing handler '" + name + "'");
             } else {
-                ScriptLogger.debug(script, "Removing unnamed handler for pattern: '" +
+                LOGGER.debug(script, "Removing unnamed handler for pattern: '" +
                     registration.getPattern() + "'");
             }
         }
@@ -438,7 +639,7 @@ public class ChatBoxListener {
      * <p>Example:
      * <pre>{@code
      * if (listener.hasHandler("fish-counter")) {
-     *     ScriptLogger.info(script, "Fish counter is active");
+     *     LOGGER.info(script, "Fish counter is active");
      * }
      * }</pre>
      *
@@ -462,7 +663,7 @@ public class ChatBoxListener {
      * HandlerRegistration reg = listener.getHandler("fish-counter");
      * if (reg != null) {
      *     int count = reg.getTriggerCount();
-     *     ScriptLogger.info(script, "Triggered " + count + " times");
+     *     LOGGER.info(script, "Triggered " + count + " times");
      * }
      * }</pre>
      *
@@ -480,22 +681,25 @@ public class ChatBoxListener {
     /**
      * Enables debug logging for chatbox events.
      * When enabled, all new messages and handler executions will be logged.
+     * Shorthand for {@code ScriptLogger.setComponentLevel(ChatBoxListener, DEBUG)}, so it applies to
+     * every listener; global debug logging or the component level enable the same output.
      *
      * @return This listener instance for method chaining
      */
     public ChatBoxListener enableDebugLogging() {
-        this.debugLogging = true;
-        ScriptLogger.debug(script, "ChatBox debug logging enabled");
+        ScriptLogger.setComponentLevel(ChatBoxListener.class.getName(), ScriptLogger.Level.DEBUG);
+        LOGGER.debug(script, "ChatBox debug logging enabled");
         return this;
     }
 
     /**
-     * Disables debug logging.
+     * Disables debug logging set by {@link #enableDebugLogging()}; the listener follows the
+     * global level again.
      *
      * @return This listener instance for method chaining
      */
     public ChatBoxListener disableDebugLogging() {
-        this.debugLogging = false;
+        ScriptLogger.setComponentLevel(ChatBoxListener.class.getName(), null);
         return this;
     }
 
@@ -512,7 +716,187 @@ public class ChatBoxListener {
     }
 
     /**
-     * Sets which chat tab to monitor for messages.
+     * Enables or disables the pixel checksum gate.
+     * When enabled (default), the chatbox is only OCR'd if a sampled checksum of its pixels
+     * changed since the last read.
+     *
+     * @param enabled true to skip OCR on unchanged chatbox pixels
+     * @return This listener instance for method chaining
+     */
+    public ChatBoxListener setPixelGateEnabled(boolean enabled) {
+        this.pixelGateEnabled = enabled;
+        this.hasPixelChecksum = false;
+        return this;
+    }
+
+    /**
+     * Enables or disables the adaptive read cadence.
+     * When enabled (default), the chatbox is read every frame while chat is active and right after
+     * {@link #expectMessage()}, and progressively less often while it stays idle - never less often
+     * than {@link #setMaxReadInterval(long)}, nor slower than about twice the observed chat change rate.
+     *
+     * @param enabled true to back off reads on an idle chatbox, false to read every update
+     * @return This listener instance for method chaining
+     */
+    public ChatBoxListener setAdaptiveCadence(boolean enabled) {
+        this.adaptiveCadence = enabled;
+        this.idleReads = 0;
+        this.nextReadAt = 0;
+        return this;
+    }
+
+    /**
+     * Sets the longest gap between reads while the chat is idle. Default is 1200ms.
+     * This is the worst-case trigger latency for messages that arrive without an
+     * {@link #expectMessage()} hint.
+     *
+     * @param millis The maximum interval in milliseconds
+     * @return This listener instance for method chaining
+     */
+    public ChatBoxListener setMaxReadInterval(long millis) {
+        if (millis < 0) {
+            throw new IllegalArgumentException("millis must be >= 0");
+        }
+        this.maxReadIntervalMillis = millis;
+        return this;
+    }
+
+    /**
+     * Hints that an action just performed is likely to produce a chat message.
+     * Reads every frame for the next 3 seconds regardless of how idle the chat has been.
+     *
+     * <p>Example:
+     * <pre>{@code
+     * if (script.getFinger().tap(trapTile, "Check")) {
+     *     chatListener.expectMessage();
+     * }
+     * }</pre>
+     */
+    public void expectMessage() {
+        expectMessage(DEFAULT_EXPECT_WINDOW_MS);
+    }
+
+    /**
+     * Hints that a chat message is likely within the given window.
+     * Reads every frame until the window ends, then backs off again from scratch.
+     *
+     * @param windowMillis How long to read every frame, in milliseconds
+     */
+    public void expectMessage(long windowMillis) {
+        expectUntil = Math.max(expectUntil, System.currentTimeMillis() + windowMillis);
+        idleReads = 0;
+        nextReadAt = 0;
+    }
+
+    /**
+     * Runs handlers on background threads instead of inside {@link #update()}.
+     * Each handler keeps FIFO order for its own messages; different handlers may run in parallel.
+     * Handlers must only touch thread-safe state (e.g. volatile flags) once this is enabled.
+     *
+     * <p>Example:
+     * <pre>{@code
+     * listener.enableAsyncDispatch(32, ChatAsyncDispatcher.OverflowPolicy.DROP_OLDEST);
+     * // Later, for the paint overlay
+     * ChatAsyncDispatcher dispatcher = listener.getAsyncDispatcher();
+     * long failures = dispatcher.getFailedCount();
+     * }</pre>
+     *
+     * @param laneCapacity Maximum queued messages per handler
+     * @param policy       What to do when a handler's queue is full
+     * @return This listener instance for method chaining
+     */
+    public ChatBoxListener enableAsyncDispatch(int laneCapacity, ChatAsyncDispatcher.OverflowPolicy policy) {
+        if (asyncDispatcher != null) {
+            asyncDispatcher.shutdown();
+        }
+        asyncDispatcher = new ChatAsyncDispatcher(script, laneCapacity, policy);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug(script, "Async dispatch enabled (capacity " + laneCapacity + ", policy " +
+                asyncDispatcher.getPolicy() + ", virtual threads: " + asyncDispatcher.isUsingVirtualThreads() + ")");
+        }
+        return this;
+    }
+
+    /**
+     * Returns to synchronous dispatch. Waits briefly for queued handlers to finish.
+     *
+     * @return This listener instance for method chaining
+     */
+    public ChatBoxListener disableAsyncDispatch() {
+        if (asyncDispatcher != null) {
+            asyncDispatcher.shutdown();
+            asyncDispatcher = null;
+        }
+        return this;
+    }
+
+    /**
+     * Gets the async dispatcher for metrics (accepted, dropped, failed, latency).
+     *
+     * @return The dispatcher, or null if async dispatch is disabled
+     */
+    public ChatAsyncDispatcher getAsyncDispatcher() {
+        return asyncDispatcher;
+    }
+
+    /**
+     * Gets the time-indexed history of new messages seen by this listener.
+     * History survives {@link #clearHistory()}, which only resets new-line detection. Lines that were
+     * already visible on the first read (or after a tab switch) are not recorded, so they never
+     * show up as recent in window counts.
+     *
+     * <p>Example:
+     * <pre>{@code
+     * int catchesPerMinute = listener.getHistory().count("you catch", 60_000);
+     * }</pre>
+     *
+     * @return The message history
+     */
+    public ChatHistory getHistory() {
+        return history;
+    }
+
+    /**
+     * Sets how many messages the history keeps. Existing history is discarded.
+     * Default is 256.
+     *
+     * @param capacity Maximum number of messages kept
+     * @return This listener instance for method chaining
+     */
+    public ChatBoxListener setHistoryCapacity(int capacity) {
+        this.history = new ChatHistory(capacity);
+        return this;
+    }
+
+    /**
+     * Gets the number of chatbox OCR reads performed.
+     *
+     * @return OCR read count
+     */
+    public long getOcrReadCount() {
+        return ocrReadCount;
+    }
+
+    /**
+     * Gets the number of chatbox reads skipped because the pixel checksum was unchanged.
+     *
+     * @return Skipped read count
+     */
+    public long getOcrSkipCount() {
+        return ocrSkipCount;
+    }
+
+    /**
+     * Gets the number of updates skipped by the adaptive read cadence.
+     *
+     * @return Skipped update count
+     */
+    public long getCadenceSkipCount() {
+        return cadenceSkipCount;
+    }
+
+    /**
+     * Sets which chat tab to monitor for messages.
      * Default: ChatboxFilterTab.GAME and ChatboxFilterTab.ALL
      *
      * @param tab The tab to monitor
@@ -524,8 +908,8 @@ public class ChatBoxListener {
         }
         this.monitoredTabs.clear();
         this.monitoredTabs.add(tab);
-        if (debugLogging) {
-            ScriptLogger.debug(script, "Now monitoring tab: " + tab);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug(script, "Now monitoring tab: " + tab);
         }
         return this;
     }
@@ -553,8 +937,8 @@ public class ChatBoxListener {
         }
         this.monitoredTabs.clear();
         Collections.addAll(this.monitoredTabs, tabs);
-        if (debugLogging) {
-            ScriptLogger.debug(script, "Now monitoring tabs: " + Arrays.toString(tabs));
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug(script, "Now monitoring tabs: " + Arrays.toString(tabs));
         }
         return this;
     }
@@ -570,8 +954,8 @@ public class ChatBoxListener {
      */
     public ChatBoxListener setAutoSwitchToTab(ChatboxFilterTab tab) {
         this.autoSwitchTab = tab;
-        if (debugLogging) {
-            ScriptLogger.debug(script, "Auto-switch tab set to: " + tab);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug(script, "Auto-switch tab set to: " + tab);
         }
         return this;
     }
@@ -584,8 +968,8 @@ public class ChatBoxListener {
      */
     public ChatBoxListener enableWrongTabWarnings() {
         this.warnOnWrongTab = true;
-        if (debugLogging) {
-            ScriptLogger.debug(script, "Wrong tab warnings enabled");
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug(script, "Wrong tab warnings enabled");
         }
         return this;
     }
@@ -661,22 +1045,35 @@ public class ChatBoxListener {
      * Removes both named and unnamed handlers.
      */
     public void clearHandlers() {
-        registrations.clear();
+        for (int slot = 0; slot < slotsUsed; slot++) {
+            slots[slot] = null;
+            slotGenerations[slot]++;
+        }
+        freeCount = 0;
+        slotsUsed = 0;
+        activeCount = 0;
         namedHandlers.clear();
-        pendingRemovals.clear();
-        if (debugLogging) {
-            ScriptLogger.debug(script, "Cleared all chatbox handlers");
+        automatonDirty = true;
+        if (asyncDispatcher != null) {
+            asyncDispatcher.releaseAll();
+        }
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug(script, "Cleared all chatbox handlers");
         }
     }
 
     /**
      * Clears the chatbox line history.
      * Useful when you want to reset state or avoid re-processing old messages.
+     * The next read only remembers the lines already visible; handlers see lines added after it.
      */
     public void clearHistory() {
-        previousChatboxLines.clear();
-        if (debugLogging) {
-            ScriptLogger.debug(script, "Cleared chatbox history");
+        previousFingerprints.clear();
+        seedPending = true;
+        hasPixelChecksum = false; // Next update must OCR to rebuild the history
+        nextReadAt = 0;
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug(script, "Cleared chatbox history");
         }
     }
 
@@ -684,10 +1081,10 @@ public class ChatBoxListener {
      * Gets the current number of active registered handlers.
      * This includes both named and unnamed handlers.
      *
-     * @return Number of active handlers (excludes pending removals)
+     * @return Number of active handlers
      */
     public int getHandlerCount() {
-        return registrations.size() - pendingRemovals.size();
+        return activeCount;
     }
 
     /**
@@ -699,13 +1096,20 @@ public class ChatBoxListener {
         return readDelay.isActive();
     }
 
+    /**
+     * Package-private accessor for helpers built on this listener (e.g. {@link ChatEventBus}).
+     */
+    Script getScript() {
+        return script;
+    }
+
     private void updateChatBoxLines() {
         // Auto-switch to configured tab if enabled
         if (autoSwitchTab != null) {
             ChatboxFilterTab currentTab = script.getWidgetManager().getChatbox().getActiveFilterTab();
             if (currentTab != autoSwitchTab) {
-                if (debugLogging) {
-                    ScriptLogger.debug(script, "Auto-switching to tab: " + autoSwitchTab);
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug(script, "Auto-switching to tab: " + autoSwitchTab);
                 }
                 script.getWidgetManager().getChatbox().openFilterTab(autoSwitchTab);
                 return; // Wait for next frame after switch
@@ -718,8 +1122,8 @@ public class ChatBoxListener {
 
         // Clear history when switching to a monitored tab (prevents message burst)
         if (isOnMonitoredTab && activeTab != previousMonitoredTab) {
-            if (debugLogging) {
-                ScriptLogger.debug(script, "Switched to monitored tab '" + activeTab +
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug(script, "Switched to monitored tab '" + activeTab +
                     "' - clearing history to prevent message burst");
             }
             clearHistory();
@@ -730,9 +1134,8 @@ public class ChatBoxListener {
 
         if (!isOnMonitoredTab) {
             if (warnOnWrongTab) {
-                ScriptLogger.warning(script,
-                    "Chatbox listener inactive - active tab: " + activeTab +
-                    ", monitored tabs: " + monitoredTabs);
+                LOGGER.warning(script, WRONG_TAB_LOG,
+                    "Chatbox listener inactive - active tab: %s, monitored tabs: %s", activeTab, monitoredTabs);
             }
             return;
         }
@@ -748,8 +1151,8 @@ public class ChatBoxListener {
         if (minimenuBounds != null && minimenuBounds.getScreenUUID() != null
                 && minimenuBounds.getScreenUUID().equals(script.getScreen().getUUID())) {
             if (minimenuBounds.getObject().intersects(chatboxBounds)) {
-                if (debugLogging) {
-                    ScriptLogger.debug(script, "Minimenu intersects chatbox - activating delay");
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug(script, "Minimenu intersects chatbox - activating delay");
                 }
                 readDelay.activate();
                 return;
@@ -761,8 +1164,8 @@ public class ChatBoxListener {
         long lastTapMillis = script.getFinger().getLastTapMillis();
         if (chatboxBounds2.contains(script.getFinger().getLastTapX(), script.getFinger().getLastTapY())
                 && System.currentTimeMillis() - lastTapMillis < tapDelayMillis) {
-            if (debugLogging) {
-                ScriptLogger.debug(script, "Recent tap over chatbox - activating delay");
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug(script, "Recent tap over chatbox - activating delay");
             }
             readDelay.activate();
             return;
@@ -773,26 +1176,57 @@ public class ChatBoxListener {
             return;
         }
 
+        // Back off while the chat is idle (unless a message is expected)
+        long now = System.currentTimeMillis();
+        if (adaptiveCadence && now < nextReadAt && now >= expectUntil) {
+            cadenceSkipCount++;
+            return;
+        }
+
+        // Skip OCR if the chatbox looks exactly like it did on the last read
+        if (pixelGateEnabled && !hasChatboxPixelsChanged(chatboxBounds)) {
+            ocrSkipCount++;
+            scheduleNextRead(false, now);
+            return;
+        }
+
         // Read current chatbox lines
+        ocrReadCount++;
         var currentChatboxLines = script.getWidgetManager().getChatbox().getText();
         if (currentChatboxLines.isNotVisible()) {
-            if (debugLogging) {
-                ScriptLogger.debug(script, "Chatbox not visible");
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug(script, "Chatbox not visible");
             }
             return;
         }
 
         List<String> currentLines = currentChatboxLines.asList();
         if (currentLines.isEmpty()) {
+            seedPending = false; // An empty chatbox is a valid starting point
             return;
         }
 
-        // Get new lines
-        List<String> newLines = getNewLines(currentLines, previousChatboxLines);
+        // Fingerprint into the spare buffer, then compare with the last read
+        ChatLineFingerprints currentFingerprints = spareFingerprints;
+        currentFingerprints.load(currentLines);
+        List<String> newLines;
+        if (seedPending) {
+            // First read after start or a tab switch: every visible line is old (e.g. a trap
+            // that collapsed minutes ago), so remember the lines without dispatching or recording them
+            seedPending = false;
+            lastChatBoxRead = System.currentTimeMillis();
+            newLines = Collections.emptyList();
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug(script, "Seeded chatbox history with " + currentLines.size() + " visible line(s)");
+            }
+        } else {
+            newLines = getNewLines(currentLines, currentFingerprints, previousFingerprints);
+        }
 
-        // Update previous lines
-        previousChatboxLines.clear();
-        previousChatboxLines.addAll(currentLines);
+        // Swap buffers - this read becomes the previous one
+        spareFingerprints = previousFingerprints;
+        previousFingerprints = currentFingerprints;
+        scheduleNextRead(!newLines.isEmpty(), now);
 
         // Process new messages
         if (!newLines.isEmpty()) {
@@ -801,65 +1235,203 @@ public class ChatBoxListener {
     }
 
     private void onNewChatBoxMessages(List<String> newLines) {
+        // Record oldest first so the history stays in chronological order
+        long now = System.currentTimeMillis();
+        for (int i = newLines.size() - 1; i >= 0; i--) {
+            history.record(newLines.get(i), now);
+        }
+
+        ChatPatternAutomaton matcher = getAutomaton();
+
         for (String line : newLines) {
             ChatBoxMessage message = new ChatBoxMessage(line);
 
-            if (debugLogging) {
-                ScriptLogger.debug(script, "New chatbox message: " + line);
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug(script, "New chatbox message: " + line);
             }
 
-            // Trigger matching handlers
-            for (HandlerRegistration registration : registrations) {
-                // Skip inactive or exhausted handlers
-                if (!registration.isActive() || !registration.shouldTrigger()) {
+            // Trigger matching handlers (one automaton pass finds all of them, in registration order)
+            int matchCount = matcher.match(message.getLowercase());
+            for (int m = 0; m < matchCount; m++) {
+                HandlerRegistration registration = matcher.getMatch(m);
+
+                // Skip inactive or exhausted handlers, and regex/fuzzy handlers whose pattern isn't found
+                if (!registration.isActive() || !registration.shouldTrigger() || !registration.matches(message)) {
                     continue;
                 }
 
                 String pattern = registration.getPattern();
-                if (message.contains(pattern)) {
-                    if (debugLogging) {
+                if (LOGGER.isDebugEnabled()) {
+                    String name = registration.getName();
+                    if (name != null) {
+                        LOGGER.debug(script, "Triggering handler '" + name +
+                            "' for pattern: '" + pattern + "'");
+                    } else {
+                        LOGGER.debug(script, "Triggering unnamed handler for pattern: '" +
+                            pattern + "'");
+                    }
+                }
+
+                try {
+                    if (asyncDispatcher == null) {
+                        registration.invoke(message);
+                    } else if (!asyncDispatcher.submit(registration, message)) {
+                        continue; // Dropped by the overflow policy - doesn't count as a trigger
+                    }
+                    registration.recordTrigger();
+
+                    // Log auto-removal if handler was exhausted
+                    if (LOGGER.isDebugEnabled() && registration.isExhausted()) {
                         String name = registration.getName();
                         if (name != null) {
-                            ScriptLogger.debug(script, "Triggering handler '" + name +
-                                "' for pattern: '" + pattern + "'");
+                            LOGGER.debug(script, "Handler '" + name +
+                                "' auto-removed after " + registration.getTriggerCount() + " trigger(s)");
                         } else {
-                            ScriptLogger.debug(script, "Triggering unnamed handler for pattern: '" +
-                                pattern + "'");
+                            LOGGER.debug(script, "Unnamed handler auto-removed after " +
+                                registration.getTriggerCount() + " trigger(s)");
                         }
                     }
-
-                    try {
-                        registration.getHandler().onMessage(message);
-                        registration.recordTrigger();
-
-                        // Log auto-removal if handler was exhausted
-                        if (debugLogging && registration.isExhausted()) {
-                            String name = registration.getName();
-                            if (name != null) {
-                                ScriptLogger.debug(script, "Handler '" + name +
-                                    "' auto-removed after " + registration.getTriggerCount() + " trigger(s)");
-                            } else {
-                                ScriptLogger.debug(script, "Unnamed handler auto-removed after " +
-                                    registration.getTriggerCount() + " trigger(s)");
-                            }
-                        }
-                    } catch (Exception e) {
-                        String name = registration.getName();
-                        String handlerDesc = name != null ? "'" + name + "'" : "unnamed handler";
-                        ScriptLogger.exception(script, "Error in chatbox handler " + handlerDesc +
-                            " for pattern: '" + pattern + "'", e);
-                    }
+                } catch (Exception e) {
+                    String name = registration.getName();
+                    String handlerDesc = name != null ? "'" + name + "'" : "unnamed handler";
+                    ScriptLogger.exception(script, "Error in chatbox handler " + handlerDesc +
+                        " for pattern: '" + pattern + "'", e);
                 }
             }
         }
+    }
 
-        // Clean up removed handlers (deferred to avoid concurrent modification)
-        if (!pendingRemovals.isEmpty()) {
-            for (HandlerRegistration registration : pendingRemovals) {
-                registrations.remove(registration);
-            }
-            pendingRemovals.clear();
-        }
+    /**
+     * Puts a registration into a free slot (or a new one) and stamps it with the slot's generation.
+     */
+    private void addRegistration(HandlerRegistration registration) {
+        int slot;
+        if (freeCount > 0) {
+            slot = freeSlots[--freeCount];
+        } else {
+            if (slotsUsed == slots.length) {
+                int capacity = slots.length * 2;
+                slots = Arrays.copyOf(slots, capacity);
+                slotGenerations = Arrays.copyOf(slotGenerations, capacity);
+                freeSlots = Arrays.copyOf(freeSlots, capacity);
+            }
+            slot = slotsUsed++;
+        }
+        slots[slot] = registration;
+        registration.bindSlot(slot, slotGenerations[slot], nextSequence++);
+        activeCount++;
+        automatonDirty = true;
+    }
+
+    /**
+     * Frees a registration's slot if the registration still owns it.
+     * Removed registrations stay in the current automaton and are skipped at dispatch
+     * until enough of them accumulate to justify a rebuild.
+     *
+     * @return true if the slot was freed, false if the registration was already gone
+     */
+    private boolean releaseSlot(HandlerRegistration registration) {
+        int slot = registration.getSlot();
+        if (slot < 0 || slot >= slotsUsed || slotGenerations[slot] != registration.getGeneration()) {
+            return false;
+        }
+        slots[slot] = null;
+        slotGenerations[slot]++;
+        freeSlots[freeCount++] = slot;
+        activeCount--;
+        removedSinceBuild++;
+        return true;
+    }
+
+    /**
+     * Computes a sampled checksum over the chatbox area of the current frame and compares it
+     * with the last read. Forces a change at least every {@link #PIXEL_GATE_MAX_SKIP_MS} ms
+     * so a missed change can't hide messages for long.
+     *
+     * @param chatboxBounds The chatbox bounds
+     * @return true if the pixels changed (or no checksum could be taken), false if identical
+     */
+    private boolean hasChatboxPixelsChanged(Rectangle chatboxBounds) {
+        Image frame = script.getScreen().getImage();
+        if (frame == null) {
+            return true;
+        }
+
+        int width = frame.getWidth();
+        int[] pixels = frame.getPixels();
+        int x0 = Math.max(0, chatboxBounds.x);
+        int y0 = Math.max(0, chatboxBounds.y);
+        int x1 = Math.min(width, chatboxBounds.x + chatboxBounds.width);
+        int y1 = Math.min(frame.getHeight(), chatboxBounds.y + chatboxBounds.height);
+
+        long checksum = 0x9E3779B97F4A7C15L;
+        for (int y = y0; y < y1; y++) {
+            int row = y * width;
+            for (int x = x0; x < x1; x += PIXEL_GATE_STEP) {
+                checksum = (checksum ^ pixels[row + x]) * 0x100000001B3L;
+            }
+        }
+
+        boolean changed = !hasPixelChecksum || checksum != lastPixelChecksum
+            || System.currentTimeMillis() - lastChatBoxRead > PIXEL_GATE_MAX_SKIP_MS;
+        lastPixelChecksum = checksum;
+        hasPixelChecksum = true;
+        return changed;
+    }
+
+    /**
+     * Plans the next read after a check of the chatbox. Any change resets to per-frame reads.
+     * After {@link #CADENCE_IDLE_READS} idle checks the interval doubles from
+     * {@link #CADENCE_MIN_INTERVAL_MS} per idle check, capped by the max read interval and by
+     * half the smoothed time between chat changes.
+     *
+     * @param changed true if new messages were found
+     * @param now     Current time in milliseconds
+     */
+    private void scheduleNextRead(boolean changed, long now) {
+        if (changed) {
+            idleReads = 0;
+            nextReadAt = 0;
+            return;
+        }
+
+        idleReads++;
+        if (!adaptiveCadence || idleReads <= CADENCE_IDLE_READS) {
+            nextReadAt = 0;
+            return;
+        }
+
+        int doublings = Math.min(idleReads - CADENCE_IDLE_READS - 1, 10);
+        long interval = Math.min(maxReadIntervalMillis, CADENCE_MIN_INTERVAL_MS << doublings);
+        if (averageChangeInterval > 0) {
+            interval = Math.min(interval, averageChangeInterval / 2);
+        }
+        nextReadAt = now + interval;
+    }
+
+    /**
+     * Gets the pattern automaton, rebuilding it if handlers were added since the last build
+     * or if removed handlers make up more than half of it.
+     */
+    private ChatPatternAutomaton getAutomaton() {
+        if (automaton == null || automatonDirty || removedSinceBuild * 2 > automaton.getRegistrationCount()) {
+            List<HandlerRegistration> active = new ArrayList<>(activeCount);
+            for (int slot = 0; slot < slotsUsed; slot++) {
+                if (slots[slot] != null) {
+                    active.add(slots[slot]);
+                }
+            }
+            active.sort(Comparator.comparingLong(HandlerRegistration::getSequence)); // Registration order
+            automaton = ChatPatternAutomaton.build(active);
+            automatonDirty = false;
+            removedSinceBuild = 0;
+
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug(script, "Rebuilt pattern automaton: " + automaton.getRegistrationCount() +
+                    " handler(s), " + automaton.getStateCount() + " state(s)");
+            }
+        }
+        return automaton;
     }
 
     /**
@@ -868,6 +1440,7 @@ public class ChatBoxListener {
      * <p>Messages appear with index 0 as the newest message, pushing older messages
      * to higher indices. This method uses suffix-matching to identify new messages
      * by finding where the current list's tail matches the previous list's head.
+     * The match runs over line fingerprints (KMP), so it is linear in the number of lines.
      *
      * <p>Example:
      * <pre>
@@ -879,10 +1452,12 @@ public class ChatBoxListener {
      * </pre>
      *
      * @param currentLines  The current chatbox messages (index 0 = newest)
-     * @param previousLines The previous chatbox messages from last frame
-     * @return List of new messages that weren't in previousLines
+     * @param current       Fingerprints of currentLines
+     * @param previous      Fingerprints of the previous chatbox messages from last frame
+     * @return List of new messages that weren't in the previous read
      */
-    private List<String> getNewLines(List<String> currentLines, List<String> previousLines) {
+    private List<String> getNewLines(List<String> currentLines, ChatLineFingerprints current,
+                                     ChatLineFingerprints previous) {
         lastChatBoxRead = System.currentTimeMillis();
 
         if (currentLines.isEmpty()) {
@@ -892,51 +1467,36 @@ public class ChatBoxListener {
         // Index where new messages end and old messages begin
         int firstDifference = 0;
 
-        if (!previousLines.isEmpty()) {
+        if (!previous.isEmpty()) {
             // Quick check: if lists are identical, no new messages
-            if (currentLines.equals(previousLines)) {
+            if (current.sameAs(previous)) {
                 return Collections.emptyList();
             }
 
-            int currSize = currentLines.size();
-            int prevSize = previousLines.size();
-
             // SUFFIX-MATCHING ALGORITHM
             // -------------------------
-            // Find where currentLines[i..end] matches previousLines[0..suffixLen]
+            // Find the longest currentLines[i..end] that matches previousLines[0..suffixLen]
             // This tells us where the old messages start in the current list
-            for (int i = 0; i < currSize; i++) {
-                int suffixLen = currSize - i;
-
-                // Skip if suffix would be longer than previous list
-                if (suffixLen > prevSize) {
-                    continue;
-                }
-
-                // Check if currentLines[i..end] matches previousLines[0..suffixLen]
-                boolean match = true;
-                for (int j = 0; j < suffixLen; j++) {
-                    if (!currentLines.get(i + j).equals(previousLines.get(j))) {
-                        match = false;
-                        break;
-                    }
-                }
-
-                // If we found a match, we know messages [0..i) are new
-                if (match) {
-                    firstDifference = i;
-                    break;
-                }
+            int suffixLen = previous.overlapWith(current);
+            if (suffixLen > 0) {
+                // Messages [0..i) are new
+                firstDifference = current.size() - suffixLen;
             }
         }
 
         // Extract new messages (everything before firstDifference)
         List<String> newLines = firstDifference == 0
-                ? List.copyOf(currentLines)  // All lines are new (first run or all scrolled off)
+                ? List.copyOf(currentLines)  // All lines are new (everything scrolled off since the last read)
                 : currentLines.subList(0, firstDifference);
 
         if (!newLines.isEmpty()) {
-            lastChatBoxChange = System.currentTimeMillis();
+            long now = System.currentTimeMillis();
+            if (lastChatBoxChange > 0) {
+                // Exponential moving average (weight 1/4) of the time between changes
+                long gap = now - lastChatBoxChange;
+                averageChangeInterval = averageChangeInterval == 0 ? gap : (averageChangeInterval * 3 + gap) / 4;
+            }
+            lastChatBoxChange = now;
         }
 
         return newLines;
@@ -0,0 +1,131 @@
+package com.jork.utils.chat;
+
+import java.util.regex.Matcher;
+
+/**
+ * Result of a regex handler match, with allocation-free numeric group extraction.
+ *
+ * <p><b>Only valid during the handler call.</b> Each regex registration reuses one instance
+ * (and one {@link Matcher}) for every message, so copy out any values you need to keep.
+ *
+ * <p>Example:
+ * <pre>{@code
+ * listener.onRegex(Pattern.compile("you are now level (\\d+)", Pattern.CASE_INSENSITIVE),
+ *     match -> agilityLevel = match.getInt(1));
+ * }</pre>
+ */
+public final class ChatBoxMatch {
+    private final Matcher matcher;
+    private ChatBoxMessage message;
+
+    ChatBoxMatch(Matcher matcher) {
+        this.matcher = matcher;
+    }
+
+    /**
+     * Resets the matcher to a message and finds the first match.
+     * Package-private - only called by {@link HandlerRegistration}.
+     *
+     * @return true if the message matches
+     */
+    boolean find(ChatBoxMessage message) {
+        this.message = message;
+        matcher.reset(message.getRaw());
+        return matcher.find();
+    }
+
+    /**
+     * Gets the message that matched.
+     *
+     * @return The chatbox message
+     */
+    public ChatBoxMessage getMessage() {
+        return message;
+    }
+
+    /**
+     * Gets a capture group as a string.
+     *
+     * @param group The group index (0 = whole match)
+     * @return The captured text, or null if the group did not participate
+     */
+    public String group(int group) {
+        return matcher.group(group);
+    }
+
+    /**
+     * Gets a named capture group as a string.
+     *
+     * @param name The group name
+     * @return The captured text, or null if the group did not participate
+     */
+    public String group(String name) {
+        return matcher.group(name);
+    }
+
+    /**
+     * Parses a capture group as an int without creating a substring.
+     * Thousands separators ({@code 1,234}) are skipped.
+     *
+     * @param group The group index
+     * @return The parsed value
+     * @throws NumberFormatException if the group did not participate or holds no digits
+     */
+    public int getInt(int group) {
+        return Math.toIntExact(parseLong(matcher.start(group), matcher.end(group), group));
+    }
+
+    /**
+     * Parses a named capture group as an int without creating a substring.
+     *
+     * @param name The group name
+     * @return The parsed value
+     * @throws NumberFormatException if the group did not participate or holds no digits
+     */
+    public int getInt(String name) {
+        return Math.toIntExact(parseLong(matcher.start(name), matcher.end(name), name));
+    }
+
+    /**
+     * Parses a capture group as a long without creating a substring.
+     *
+     * @param group The group index
+     * @return The parsed value
+     * @throws NumberFormatException if the group did not participate or holds no digits
+     */
+    public long getLong(int group) {
+        return parseLong(matcher.start(group), matcher.end(group), group);
+    }
+
+    /**
+     * Gets the number of capture groups in the pattern.
+     *
+     * @return Group count
+     */
+    public int groupCount() {
+        return matcher.groupCount();
+    }
+
+    private long parseLong(int start, int end, Object group) {
+        if (start < 0) {
+            throw new NumberFormatException("Group " + group + " did not participate in the match");
+        }
+        String raw = message.getRaw();
+        boolean negative = start < end && raw.charAt(start) == '-';
+        long value = 0;
+        int digits = 0;
+        for (int i = negative ? start + 1 : start; i < end; i++) {
+            char c = raw.charAt(i);
+            if (c >= '0' && c <= '9') {
+                value = value * 10 + (c - '0');
+                digits++;
+            } else if (c != ',') {
+                throw new NumberFormatException("Group " + group + " is not a number: " + raw.substring(start, end));
+            }
+        }
+        if (digits == 0) {
+            throw new NumberFormatException("Group " + group + " is not a number: " + raw.substring(start, end));
+        }
+        return negative ? -value : value;
+    }
+}
@@ -0,0 +1,20 @@
+package com.jork.utils.chat;
+
+/**
+ * Functional interface for handling chatbox messages matched by a regex handler.
+ *
+ * <p>Example usage:
+ * <pre>{@code
+ * listener.onRegex(Pattern.compile("you catch (?:a|an|some) ([a-z ]+)\\.", Pattern.CASE_INSENSITIVE),
+ *     match -> lastCatch = match.group(1));
+ * }</pre>
+ */
+@FunctionalInterface
+public interface ChatBoxMatchHandler {
+    /**
+     * Handles a chatbox message that matches the registered regex.
+     *
+     * @param match The match (only valid during this call)
+     */
+    void onMatch(ChatBoxMatch match);
+}
@@ -1,5 +1,7 @@
 package com.jork.utils.chat;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 
 /**
@@ -14,6 +16,9 @@ import java.util.regex.Pattern;
  * }</pre>
  */
 public final class ChatBoxMessage {
+    private static final int MAX_CACHED_PATTERNS = 64;
+    private static final Map<String, Pattern> PATTERN_CACHE = new ConcurrentHashMap<>();
+
     private final String rawContent;
     private final String lowerContent;
     private final long timestamp;
@@ -147,6 +152,8 @@ public final class ChatBoxMessage {
 
     /**
      * Checks if the message matches the given regex pattern string.
+     * Compiled patterns are cached, but handlers that run on every message should prefer
+     * {@link ChatBoxListener#onRegex(Pattern, ChatBoxMatchHandler)}.
      *
      * @param regex The regex pattern string
      * @return true if the message matches the pattern
@@ -155,7 +162,15 @@ public final class ChatBoxMessage {
         if (regex == null) {
             return false;
         }
-        return matches(Pattern.compile(regex));
+        Pattern pattern = PATTERN_CACHE.get(regex);
+        if (pattern == null) {
+            if (PATTERN_CACHE.size() >= MAX_CACHED_PATTERNS) {
+                PATTERN_CACHE.clear(); // Callers building regexes dynamically shouldn't grow this forever
+            }
+            pattern = Pattern.compile(regex);
+            PATTERN_CACHE.put(regex, pattern);
+        }
+        return matches(pattern);
     }
 
     /**
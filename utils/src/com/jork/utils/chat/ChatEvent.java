@@ -0,0 +1,80 @@
+package com.jork.utils.chat;
+
+/**
+ * Immutable typed event published by {@link ChatEventBus} when a known chatbox message is seen.
+ *
+ * <p>Example:
+ * <pre>{@code
+ * events.subscribe(ChatEventType.LEVEL_UP, event -> {
+ *     if ("hunter".equalsIgnoreCase(event.getDetail()) && event.hasValue()) {
+ *         hunterLevel = event.getValue();
+ *     }
+ * });
+ * }</pre>
+ */
+public final class ChatEvent {
+    /** Value of events whose message holds no number. */
+    public static final int NO_VALUE = -1;
+
+    private final ChatEventType type;
+    private final int value;
+    private final String detail;
+    private final ChatBoxMessage message;
+
+    ChatEvent(ChatEventType type, int value, String detail, ChatBoxMessage message) {
+        this.type = type;
+        this.value = value;
+        this.detail = detail;
+        this.message = message;
+    }
+
+    public ChatEventType getType() {
+        return type;
+    }
+
+    /**
+     * Gets the number parsed from the message (e.g. the new level for {@link ChatEventType#LEVEL_UP}).
+     *
+     * @return The value, or {@link #NO_VALUE}
+     */
+    public int getValue() {
+        return value;
+    }
+
+    public boolean hasValue() {
+        return value != NO_VALUE;
+    }
+
+    /**
+     * Gets the detail text captured from the message (e.g. the skill name or the creature caught).
+     *
+     * @return The trimmed detail text, or null if none
+     */
+    public String getDetail() {
+        return detail;
+    }
+
+    /**
+     * Gets the chatbox message this event was parsed from.
+     *
+     * @return The message
+     */
+    public ChatBoxMessage getMessage() {
+        return message;
+    }
+
+    /**
+     * Gets the time the message was read from the chatbox.
+     *
+     * @return Timestamp in milliseconds since epoch
+     */
+    public long getTimestamp() {
+        return message.getTimestamp();
+    }
+
+    @Override
+    public String toString() {
+        return "ChatEvent[" + type + (hasValue() ? ", value=" + value : "") +
+            (detail != null ? ", detail='" + detail + "'" : "") + ", message='" + message.getRaw() + "']";
+    }
+}
@@ -0,0 +1,209 @@
+package com.jork.utils.chat;
+
+import com.jork.utils.ScriptLogger;
+import com.osmb.api.script.Script;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Typed event layer on top of a {@link ChatBoxListener}.
+ *
+ * <p>Known messages are matched by regex handlers on the listener, parsed into {@link ChatEvent}s
+ * (type, number, detail text) and pushed onto a lock-free queue. {@link #dispatch()} drains the
+ * queue on the calling thread and hands each event to the subscribers of its type, so the
+ * listener can keep running in {@code onNewFrame()} while script state is only touched from
+ * {@code poll()}.
+ *
+ * <p>Example:
+ * <pre>{@code
+ * chatListener = new ChatBoxListener(this);
+ * chatEvents = new ChatEventBus(chatListener)
+ *     .register(ChatEventType.TRAP_COLLAPSED, ChatEventType.LEVEL_UP)
+ *     .subscribe(ChatEventType.TRAP_COLLAPSED, event -> trapManager.onCollapseMessage())
+ *     .subscribe(ChatEventType.LEVEL_UP, event -> updateLevel(event.getValue()));
+ *
+ * @Override
+ * public void onNewFrame() {
+ *     chatListener.update();
+ * }
+ *
+ * @Override
+ * public int poll() {
+ *     chatEvents.dispatch();
+ *     ...
+ * }
+ * }</pre>
+ */
+public final class ChatEventBus {
+    private final ChatBoxListener listener;
+    private final Script script;
+    private final Queue<ChatEvent> pending = new ConcurrentLinkedQueue<>();
+    private final Map<ChatEventType, List<Consumer<ChatEvent>>> subscribers = new EnumMap<>(ChatEventType.class);
+    private final List<Consumer<ChatEvent>> allSubscribers = new CopyOnWriteArrayList<>();
+    private final List<HandlerRegistration> registrations = new ArrayList<>();
+    private final AtomicLongArray publishedCounts = new AtomicLongArray(ChatEventType.values().length);
+
+    /**
+     * Creates an event bus on a listener. No messages are matched until types are registered.
+     *
+     * @param listener The chatbox listener to read messages from
+     */
+    public ChatEventBus(ChatBoxListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener must not be null");
+        }
+        this.listener = listener;
+        this.script = listener.getScript();
+        for (ChatEventType type : ChatEventType.values()) {
+            subscribers.put(type, new CopyOnWriteArrayList<>());
+        }
+    }
+
+    /**
+     * Starts publishing events for the given types using their default patterns.
+     *
+     * @param types The event types to recognise
+     * @return This bus for method chaining
+     */
+    public ChatEventBus register(ChatEventType... types) {
+        for (ChatEventType type : types) {
+            register(type, type.getPattern(), type.getValueGroup(), type.getDetailGroup());
+        }
+        return this;
+    }
+
+    /**
+     * Publishes events of a type for messages matching a custom pattern,
+     * e.g. a script-specific wording of a known message.
+     *
+     * @param type        The event type to publish
+     * @param regex       The pattern, found anywhere in the raw message text
+     * @param valueGroup  Capture group holding the event's number (0 = none)
+     * @param detailGroup Capture group holding the event's detail text (0 = none)
+     * @return This bus for method chaining
+     */
+    public ChatEventBus register(ChatEventType type, Pattern regex, int valueGroup, int detailGroup) {
+        if (type == null || regex == null) {
+            throw new IllegalArgumentException("Type and pattern must not be null");
+        }
+        registrations.add(listener.onRegex(regex, match -> publish(type, match, valueGroup, detailGroup)));
+        return this;
+    }
+
+    /**
+     * Subscribes to events of one type. Subscribers run on the thread calling {@link #dispatch()}.
+     *
+     * @param type       The event type
+     * @param subscriber The subscriber
+     * @return This bus for method chaining
+     */
+    public ChatEventBus subscribe(ChatEventType type, Consumer<ChatEvent> subscriber) {
+        if (type == null || subscriber == null) {
+            throw new IllegalArgumentException("Type and subscriber must not be null");
+        }
+        subscribers.get(type).add(subscriber);
+        return this;
+    }
+
+    /**
+     * Subscribes to events of every type.
+     *
+     * @param subscriber The subscriber
+     * @return This bus for method chaining
+     */
+    public ChatEventBus subscribeAll(Consumer<ChatEvent> subscriber) {
+        if (subscriber == null) {
+            throw new IllegalArgumentException("Subscriber must not be null");
+        }
+        allSubscribers.add(subscriber);
+        return this;
+    }
+
+    /**
+     * Delivers all queued events to their subscribers in the order they were published.
+     * A failing subscriber is logged and does not stop delivery to the others.
+     *
+     * @return Number of events delivered
+     */
+    public int dispatch() {
+        int delivered = 0;
+        ChatEvent event;
+        while ((event = pending.poll()) != null) {
+            deliver(event, subscribers.get(event.getType()));
+            deliver(event, allSubscribers);
+            delivered++;
+        }
+        return delivered;
+    }
+
+    /**
+     * Takes the oldest queued event without notifying subscribers.
+     * For scripts that prefer polling over subscriptions.
+     *
+     * @return The event, or null if none is queued
+     */
+    public ChatEvent poll() {
+        return pending.poll();
+    }
+
+    /**
+     * Drops all queued events, e.g. after a world hop.
+     */
+    public void clear() {
+        pending.clear();
+    }
+
+    /**
+     * Removes this bus's handlers from the listener and drops queued events.
+     */
+    public void close() {
+        for (HandlerRegistration registration : registrations) {
+            listener.remove(registration);
+        }
+        registrations.clear();
+        pending.clear();
+    }
+
+    /**
+     * Gets how many events of a type have been published.
+     *
+     * @param type The event type
+     * @return Published event count
+     */
+    public long getPublishedCount(ChatEventType type) {
+        return publishedCounts.get(type.ordinal());
+    }
+
+    private void publish(ChatEventType type, ChatBoxMatch match, int valueGroup, int detailGroup) {
+        int value = ChatEvent.NO_VALUE;
+        if (valueGroup > 0 && match.group(valueGroup) != null) {
+            try {
+                value = match.getInt(valueGroup);
+            } catch (NumberFormatException | ArithmeticException e) {
+                // Garbled number - publish the event without a value
+            }
+        }
+        String detail = detailGroup > 0 ? match.group(detailGroup) : null;
+        pending.add(new ChatEvent(type, value, detail != null ? detail.trim() : null, match.getMessage()));
+        publishedCounts.incrementAndGet(type.ordinal()); // Async handlers may publish concurrently
+    }
+
+    private void deliver(ChatEvent event, List<Consumer<ChatEvent>> targets) {
+        for (Consumer<ChatEvent> subscriber : targets) {
+            try {
+                subscriber.accept(event);
+            } catch (Exception e) {
+                ScriptLogger.exception(script, "chat event subscriber for " + event.getType(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.jork.utils.chat;
+
+import java.util.regex.Pattern;
+
+/**
+ * Known chatbox messages that {@link ChatEventBus} turns into typed {@link ChatEvent}s.
+ *
+ * <p>Each type carries a case-insensitive default pattern plus the capture groups holding its
+ * numeric value and detail text (0 = none). Patterns are kept loose around punctuation so small
+ * OCR errors in apostrophes and full stops don't lose events.
+ */
+public enum ChatEventType {
+    /** "You've caught a crimson swift." / "You catch a shrimp." - detail = what was caught. */
+    CATCH("(?:you.?ve caught|you have caught|you catch) (?:a |an |some )?([a-z -]+)", 0, 1),
+
+    /** "The box trap that you laid has collapsed." - detail = trap name when readable. */
+    TRAP_COLLAPSED("(?:the |your )?([a-z ]*(?:trap|snare))(?: that you laid)? has (?:collapsed|fallen over)", 0, 1),
+
+    /** "You don't have enough inventory space." / "...space to hold that item." */
+    INVENTORY_FULL("inventory is too full|(?:don.?t|do not) have enough (?:inventory )?space|space to hold that item", 0, 0),
+
+    /** "Congratulations, you've just advanced your Hunter level. You are now level 45." - value = new level, detail = skill. */
+    LEVEL_UP("advanced (?:your |a )?([a-z]+) level(?:.*?level (\\d+))?", 2, 1),
+
+    /** "I can't reach that!" / "You're too far away." */
+    TOO_FAR("can.?t reach that|cannot reach that|too far away", 0, 0);
+
+    private final Pattern pattern;
+    private final int valueGroup;
+    private final int detailGroup;
+
+    ChatEventType(String regex, int valueGroup, int detailGroup) {
+        this.pattern = Pattern.compile(regex, Pattern.CASE_INSENSITIVE);
+        this.valueGroup = valueGroup;
+        this.detailGroup = detailGroup;
+    }
+
+    /**
+     * Gets the default pattern used by {@link ChatEventBus#register(ChatEventType...)}.
+     *
+     * @return The compiled, case-insensitive pattern
+     */
+    public Pattern getPattern() {
+        return pattern;
+    }
+
+    int getValueGroup() {
+        return valueGroup;
+    }
+
+    int getDetailGroup() {
+        return detailGroup;
+    }
+}
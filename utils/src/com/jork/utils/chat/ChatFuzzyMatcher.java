@@ -0,0 +1,137 @@
+package com.jork.utils.chat;
+
+import java.util.Arrays;
+
+/**
+ * Approximate substring matcher using Myers' bit-parallel edit distance algorithm.
+ * Finds whether a pattern occurs anywhere in a text with at most {@code maxDistance}
+ * insertions, deletions or substitutions, in one pass with a few word operations per character.
+ *
+ * <p>Used by fuzzy handlers to tolerate OCR errors without registering hand-written
+ * misspelled variants. Patterns are limited to {@value #MAX_PATTERN_LENGTH} characters
+ * (one bit per pattern character in a {@code long}).
+ */
+final class ChatFuzzyMatcher {
+    static final int MAX_PATTERN_LENGTH = 64;
+
+    private final String pattern;
+    private final int maxDistance;
+    private final long[] asciiMasks = new long[128];
+    private final char[] otherChars;  // Non-ASCII pattern characters
+    private final long[] otherMasks;
+    private final long highBit;
+
+    /**
+     * @param pattern     The pattern (lowercase), 1 to {@value #MAX_PATTERN_LENGTH} characters
+     * @param maxDistance Maximum edit distance for a match (0 = exact)
+     */
+    ChatFuzzyMatcher(String pattern, int maxDistance) {
+        if (pattern.isEmpty() || pattern.length() > MAX_PATTERN_LENGTH) {
+            throw new IllegalArgumentException("Fuzzy pattern must be 1-" + MAX_PATTERN_LENGTH + " characters");
+        }
+        if (maxDistance < 0 || maxDistance >= pattern.length()) {
+            throw new IllegalArgumentException("maxDistance must be >= 0 and shorter than the pattern");
+        }
+        this.pattern = pattern;
+        this.maxDistance = maxDistance;
+        this.highBit = 1L << (pattern.length() - 1);
+
+        // Peq: bit i set where pattern[i] == c
+        char[] others = new char[pattern.length()];
+        long[] otherMaskBuffer = new long[pattern.length()];
+        int otherCount = 0;
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c < 128) {
+                asciiMasks[c] |= 1L << i;
+                continue;
+            }
+            int slot = 0;
+            while (slot < otherCount && others[slot] != c) {
+                slot++;
+            }
+            if (slot == otherCount) {
+                others[otherCount++] = c;
+            }
+            otherMaskBuffer[slot] |= 1L << i;
+        }
+        this.otherChars = Arrays.copyOf(others, otherCount);
+        this.otherMasks = Arrays.copyOf(otherMaskBuffer, otherCount);
+    }
+
+    /**
+     * Checks if the pattern occurs in the text within the maximum edit distance.
+     *
+     * @param lowerText The text to search (lowercase)
+     * @return true if some substring of the text is within maxDistance edits of the pattern
+     */
+    boolean matches(String lowerText) {
+        return bestDistance(lowerText, true) <= maxDistance;
+    }
+
+    /**
+     * Gets the smallest edit distance between the pattern and any substring of the text.
+     *
+     * @param lowerText The text to search (lowercase)
+     * @return The best distance (pattern length if nothing in common)
+     */
+    int distance(String lowerText) {
+        return bestDistance(lowerText, false);
+    }
+
+    private int bestDistance(String text, boolean stopAtThreshold) {
+        int m = pattern.length();
+        long pv = -1L;  // Vertical positive deltas (all +1 in column 0)
+        long mv = 0L;   // Vertical negative deltas
+        int score = m;  // Distance of the full pattern ending at the current text position
+        int best = m;
+
+        for (int j = 0; j < text.length(); j++) {
+            long eq = mask(text.charAt(j));
+            long xv = eq | mv;
+            long xh = (((eq & pv) + pv) ^ pv) | eq;
+            long ph = mv | ~(xh | pv);
+            long mh = pv & xh;
+
+            if ((ph & highBit) != 0) {
+                score++;
+            } else if ((mh & highBit) != 0) {
+                score--;
+            }
+
+            // Row 0 stays 0 (a match may start anywhere in the text), so no carry-in bit
+            ph <<= 1;
+            mh <<= 1;
+            pv = mh | ~(xv | ph);
+            mv = ph & xv;
+
+            if (score < best) {
+                best = score;
+                if (stopAtThreshold && best <= maxDistance) {
+                    return best;
+                }
+            }
+        }
+        return best;
+    }
+
+    private long mask(char c) {
+        if (c < 128) {
+            return asciiMasks[c];
+        }
+        for (int i = 0; i < otherChars.length; i++) {
+            if (otherChars[i] == c) {
+                return otherMasks[i];
+            }
+        }
+        return 0L;
+    }
+
+    String getPattern() {
+        return pattern;
+    }
+
+    int getMaxDistance() {
+        return maxDistance;
+    }
+}
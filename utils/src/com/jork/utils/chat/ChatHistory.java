@@ -0,0 +1,316 @@
+package com.jork.utils.chat;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Bounded, time-indexed history of chatbox messages seen by a {@link ChatBoxListener}.
+ *
+ * <p>Messages are kept in a ring buffer of primitive arrays (timestamp + interned line id).
+ * Identical lines share one interned string, and a {@link Query} remembers its verdict per
+ * interned line, so repeated queries never re-scan message text - a count over a time window
+ * is a binary search plus one array lookup per message in the window.
+ *
+ * <p>Example:
+ * <pre>{@code
+ * ChatHistory.Query catches = listener.getHistory().query("you catch");
+ *
+ * // In the poll loop
+ * int catchesLastMinute = catches.countWithin(60_000);
+ * long lastCatch = catches.lastSeen(); // -1 if not in history
+ * }</pre>
+ *
+ * <p><b>Note:</b> Not thread-safe. Query from the thread that calls {@link ChatBoxListener#update()}.
+ */
+public final class ChatHistory {
+    private final int capacity;
+
+    // Ring buffer (oldest entry at head - size)
+    private final long[] timestamps;
+    private final int[] entryIds;
+    private int head;
+    private int size;
+    private long totalRecorded;
+
+    // Intern table - at most one id per ring entry, ids are recycled when their last entry is overwritten
+    private final Map<String, Integer> idsByLine = new HashMap<>();
+    private final String[] lines;
+    private final int[] refCounts;
+    private final int[] idGenerations;
+    private final int[] freeIds;
+    private int freeIdCount;
+    private int idsUsed;
+
+    private final Map<String, Query> substringQueries = new HashMap<>();
+    private final Map<PatternKey, Query> patternQueries = new HashMap<>();
+
+    private record PatternKey(String regex, int flags) {}
+
+    /**
+     * @param capacity Maximum number of messages kept
+     */
+    public ChatHistory(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be > 0");
+        }
+        this.capacity = capacity;
+        this.timestamps = new long[capacity];
+        this.entryIds = new int[capacity];
+        this.lines = new String[capacity];
+        this.refCounts = new int[capacity];
+        this.idGenerations = new int[capacity];
+        this.freeIds = new int[capacity];
+    }
+
+    /**
+     * Appends a message. Called by {@link ChatBoxListener} in chronological order.
+     *
+     * @param line      The raw message text
+     * @param timestamp Capture time in milliseconds
+     */
+    void record(String line, long timestamp) {
+        if (size > 0) {
+            timestamp = Math.max(timestamp, timestamps[physical(size - 1)]); // Keep the index sorted
+        }
+        if (size == capacity) {
+            release(entryIds[head]); // Overwriting the oldest entry
+        } else {
+            size++;
+        }
+        timestamps[head] = timestamp;
+        entryIds[head] = intern(line);
+        head = (head + 1) % capacity;
+        totalRecorded++;
+    }
+
+    /**
+     * Removes all messages. Existing queries stay valid.
+     */
+    public void clear() {
+        while (size > 0) {
+            release(entryIds[physical(0)]);
+            size--;
+        }
+        head = 0;
+    }
+
+    /**
+     * Gets a query for messages containing a substring (case-insensitive).
+     * Queries are cached per substring, so calling this every poll is cheap.
+     *
+     * @param substring The substring to look for
+     * @return The query
+     */
+    public Query query(String substring) {
+        if (substring == null) {
+            throw new IllegalArgumentException("Substring must not be null");
+        }
+        String lower = substring.toLowerCase();
+        return substringQueries.computeIfAbsent(lower, key -> new Query(line -> line.toLowerCase().contains(key)));
+    }
+
+    /**
+     * Gets a query for messages matching a regex (found anywhere in the raw text).
+     * Queries are cached per regex and flags, so calling this every poll is cheap.
+     *
+     * @param regex The compiled pattern
+     * @return The query
+     */
+    public Query query(Pattern regex) {
+        if (regex == null) {
+            throw new IllegalArgumentException("Pattern must not be null");
+        }
+        return patternQueries.computeIfAbsent(new PatternKey(regex.pattern(), regex.flags()),
+            key -> new Query(line -> regex.matcher(line).find()));
+    }
+
+    /**
+     * Counts messages containing a substring within the last {@code windowMillis}.
+     *
+     * @param substring    The substring to look for (case-insensitive)
+     * @param windowMillis Window length in milliseconds
+     * @return Number of matching messages
+     */
+    public int count(String substring, long windowMillis) {
+        return query(substring).countWithin(windowMillis);
+    }
+
+    /**
+     * Gets the last time a message containing a substring was seen.
+     *
+     * @param substring The substring to look for (case-insensitive)
+     * @return Timestamp in milliseconds, or -1 if not in history
+     */
+    public long lastSeen(String substring) {
+        return query(substring).lastSeen();
+    }
+
+    /**
+     * Gets the number of messages currently kept.
+     */
+    public int size() {
+        return size;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Gets the number of messages recorded since creation, including overwritten ones.
+     */
+    public long getTotalRecorded() {
+        return totalRecorded;
+    }
+
+    /**
+     * Gets a message by age.
+     *
+     * @param index 0 = oldest kept message, size() - 1 = newest
+     * @return The raw message text
+     */
+    public String getLine(int index) {
+        checkIndex(index);
+        return lines[entryIds[physical(index)]];
+    }
+
+    /**
+     * Gets a message timestamp by age.
+     *
+     * @param index 0 = oldest kept message, size() - 1 = newest
+     * @return Timestamp in milliseconds
+     */
+    public long getTimestamp(int index) {
+        checkIndex(index);
+        return timestamps[physical(index)];
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + ", size " + size);
+        }
+    }
+
+    private int physical(int logicalIndex) {
+        return Math.floorMod(head - size + logicalIndex, capacity);
+    }
+
+    /**
+     * Finds the first logical index with timestamp >= since.
+     */
+    private int lowerBound(long since) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timestamps[physical(mid)] < since) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int intern(String line) {
+        Integer existing = idsByLine.get(line);
+        if (existing != null) {
+            refCounts[existing]++;
+            return existing;
+        }
+        int id = freeIdCount > 0 ? freeIds[--freeIdCount] : idsUsed++;
+        lines[id] = line;
+        refCounts[id] = 1;
+        idGenerations[id]++; // Invalidates cached query verdicts for a recycled id
+        idsByLine.put(line, id);
+        return id;
+    }
+
+    private void release(int id) {
+        if (--refCounts[id] == 0) {
+            idsByLine.remove(lines[id]);
+            lines[id] = null;
+            freeIds[freeIdCount++] = id;
+        }
+    }
+
+    /**
+     * A reusable history query. Each distinct line is tested at most once per query.
+     */
+    public final class Query {
+        private final Predicate<String> predicate;
+        private final int[] checkedGenerations = new int[capacity]; // 0 = never checked
+        private final boolean[] verdicts = new boolean[capacity];
+
+        private Query(Predicate<String> predicate) {
+            this.predicate = predicate;
+        }
+
+        /**
+         * Counts matching messages within the last {@code windowMillis}.
+         *
+         * @param windowMillis Window length in milliseconds
+         * @return Number of matching messages
+         */
+        public int countWithin(long windowMillis) {
+            return countSince(System.currentTimeMillis() - windowMillis);
+        }
+
+        /**
+         * Counts matching messages recorded at or after a time.
+         *
+         * @param sinceMillis Start of the window (epoch milliseconds)
+         * @return Number of matching messages
+         */
+        public int countSince(long sinceMillis) {
+            int count = 0;
+            for (int i = lowerBound(sinceMillis); i < size; i++) {
+                if (test(entryIds[physical(i)])) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        /**
+         * Gets the timestamp of the newest matching message.
+         *
+         * @return Timestamp in milliseconds, or -1 if no kept message matches
+         */
+        public long lastSeen() {
+            for (int i = size - 1; i >= 0; i--) {
+                int p = physical(i);
+                if (test(entryIds[p])) {
+                    return timestamps[p];
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Gets the time since the newest matching message.
+         *
+         * @return Milliseconds since it was seen, or {@link Long#MAX_VALUE} if never
+         */
+        public long timeSinceLastSeen() {
+            long last = lastSeen();
+            return last < 0 ? Long.MAX_VALUE : System.currentTimeMillis() - last;
+        }
+
+        private boolean test(int id) {
+            if (checkedGenerations[id] != idGenerations[id]) {
+                verdicts[id] = predicate.test(lines[id]);
+                checkedGenerations[id] = idGenerations[id];
+            }
+            return verdicts[id];
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ChatHistory[size=" + size + "/" + capacity + ", distinct=" + idsByLine.size() +
+            ", recorded=" + totalRecorded + "]";
+    }
+}
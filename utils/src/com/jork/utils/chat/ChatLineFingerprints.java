@@ -0,0 +1,128 @@
+package com.jork.utils.chat;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reusable buffer of 64-bit line fingerprints for one chatbox read.
+ *
+ * <p>{@link ChatBoxListener} keeps two of these and swaps them after every read, so comparing
+ * a frame against the previous one allocates nothing once the arrays have grown to the chatbox size.
+ * Each line is hashed once on load; all later comparisons work on the hash arrays.
+ *
+ * <p><b>Note:</b> Not thread-safe.
+ */
+final class ChatLineFingerprints {
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private long[] hashes = new long[16];
+    private int[] prefixFunction = new int[16]; // KMP failure function over hashes[0..size)
+    private boolean prefixFunctionValid;
+    private int size;
+
+    /**
+     * Replaces the buffer contents with the fingerprints of the given lines.
+     *
+     * @param lines Chatbox lines (index 0 = newest)
+     */
+    void load(List<String> lines) {
+        size = lines.size();
+        if (hashes.length < size) {
+            int capacity = Math.max(size, hashes.length * 2);
+            hashes = new long[capacity];
+            prefixFunction = new int[capacity];
+        }
+        for (int i = 0; i < size; i++) {
+            hashes[i] = fingerprint(lines.get(i));
+        }
+        prefixFunctionValid = false;
+    }
+
+    void clear() {
+        size = 0;
+        prefixFunctionValid = false;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Checks if both buffers hold the same lines in the same order.
+     */
+    boolean sameAs(ChatLineFingerprints other) {
+        return size == other.size && Arrays.equals(hashes, 0, size, other.hashes, 0, other.size);
+    }
+
+    /**
+     * Finds the longest run of lines at the end of {@code current} that equals the start of this buffer.
+     * This is how many of the current lines were already seen, since older lines sit at higher indices.
+     * Runs KMP over the hash arrays in O(current + this).
+     *
+     * @param current The newer read
+     * @return Overlap length (0 = no overlap)
+     */
+    int overlapWith(ChatLineFingerprints current) {
+        if (size == 0 || current.size == 0) {
+            return 0;
+        }
+        computePrefixFunction();
+
+        int matched = 0;
+        for (int i = 0; i < current.size; i++) {
+            long hash = current.hashes[i];
+            if (matched == size) {
+                matched = prefixFunction[matched - 1]; // Full match not at the end - keep looking for a suffix
+            }
+            while (matched > 0 && hashes[matched] != hash) {
+                matched = prefixFunction[matched - 1];
+            }
+            if (hashes[matched] == hash) {
+                matched++;
+            }
+        }
+        return matched;
+    }
+
+    /**
+     * Builds the failure function lazily - a buffer is usually only used as the pattern
+     * on the frame after it was loaded.
+     */
+    private void computePrefixFunction() {
+        if (prefixFunctionValid) {
+            return;
+        }
+        prefixFunction[0] = 0;
+        int k = 0;
+        for (int i = 1; i < size; i++) {
+            while (k > 0 && hashes[k] != hashes[i]) {
+                k = prefixFunction[k - 1];
+            }
+            if (hashes[k] == hashes[i]) {
+                k++;
+            }
+            prefixFunction[i] = k;
+        }
+        prefixFunctionValid = true;
+    }
+
+    /**
+     * 64-bit FNV-1a over the UTF-16 code units of a line.
+     */
+    static long fingerprint(String line) {
+        long hash = FNV_OFFSET;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            hash ^= c & 0xff;
+            hash *= FNV_PRIME;
+            hash ^= c >>> 8;
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+}
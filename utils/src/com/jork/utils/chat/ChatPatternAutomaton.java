@@ -0,0 +1,223 @@
+package com.jork.utils.chat;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Aho-Corasick automaton over the lowercase patterns of a set of handler registrations.
+ * One pass over a message finds every registration whose pattern occurs in it.
+ *
+ * <p>Built by {@link ChatBoxListener} whenever its handler set changes. Matches are reported
+ * in registration order, so handlers still execute in the order they were registered.
+ * Regex and fuzzy registrations are not part of the trie - they are reported for every message
+ * as candidates and checked with {@link HandlerRegistration#matches(ChatBoxMessage)}.
+ *
+ * <p><b>Note:</b> Not thread-safe - {@link #match(String)} reuses internal buffers.
+ */
+final class ChatPatternAutomaton {
+    private static final int ROOT = 0;
+    private static final char[] NO_CHARS = new char[0];
+    private static final int[] NO_INTS = new int[0];
+
+    private final HandlerRegistration[] registrations;
+    private final int[] candidates; // Registration indices of regex and fuzzy handlers
+
+    // Trie nodes as parallel arrays (index = state)
+    private final char[][] edgeChars;
+    private final int[][] edgeTargets;
+    private final int[][] outputs;    // Registration indices whose pattern ends at this state
+    private final int[] fail;         // Longest proper suffix that is also a trie path
+    private final int[] dictionary;   // Nearest suffix state with outputs (-1 if none)
+    private int stateCount;
+
+    // Match buffers (reused across calls)
+    private final int[] matches;
+    private final int[] seen;
+    private int matchCount;
+    private int stamp;
+
+    private ChatPatternAutomaton(HandlerRegistration[] registrations) {
+        this.registrations = registrations;
+        this.matches = new int[registrations.length];
+        this.seen = new int[registrations.length];
+        int capacity = 1;
+        int candidateCount = 0;
+        for (HandlerRegistration registration : registrations) {
+            if (registration.isExactSubstring()) {
+                capacity += registration.getPattern().length();
+            } else {
+                candidateCount++;
+            }
+        }
+        this.candidates = new int[candidateCount];
+        this.edgeChars = new char[capacity][];
+        this.edgeTargets = new int[capacity][];
+        this.outputs = new int[capacity][];
+        this.fail = new int[capacity];
+        this.dictionary = new int[capacity];
+        this.stateCount = 0;
+        newState();
+    }
+
+    /**
+     * Builds an automaton over the given registrations.
+     *
+     * @param registrations Registrations in dispatch order
+     * @return The automaton
+     */
+    static ChatPatternAutomaton build(List<HandlerRegistration> registrations) {
+        ChatPatternAutomaton automaton = new ChatPatternAutomaton(
+            registrations.toArray(new HandlerRegistration[0]));
+        int candidateCount = 0;
+        for (int i = 0; i < automaton.registrations.length; i++) {
+            if (automaton.registrations[i].isExactSubstring()) {
+                automaton.insert(automaton.registrations[i].getPattern(), i);
+            } else {
+                automaton.candidates[candidateCount++] = i;
+            }
+        }
+        automaton.linkFailures();
+        return automaton;
+    }
+
+    /**
+     * Finds all registrations whose pattern occurs in the text, plus all regex and fuzzy registrations.
+     * Results are read with {@link #getMatch(int)}.
+     *
+     * @param lowerText The message text (already lowercase)
+     * @return Number of matching registrations
+     */
+    int match(String lowerText) {
+        matchCount = 0;
+        if (registrations.length == 0) {
+            return 0;
+        }
+        if (++stamp == 0) {
+            Arrays.fill(seen, 0);
+            stamp = 1;
+        }
+
+        for (int registrationIndex : candidates) {
+            seen[registrationIndex] = stamp;
+            matches[matchCount++] = registrationIndex;
+        }
+        collect(ROOT); // Empty patterns match every message
+        int state = ROOT;
+        for (int i = 0; i < lowerText.length(); i++) {
+            char c = lowerText.charAt(i);
+            int next = step(state, c);
+            while (next < 0 && state != ROOT) {
+                state = fail[state];
+                next = step(state, c);
+            }
+            state = next < 0 ? ROOT : next;
+
+            for (int s = outputs[state].length > 0 ? state : dictionary[state]; s > ROOT; s = dictionary[s]) {
+                collect(s);
+            }
+        }
+
+        if (matchCount > 1) {
+            Arrays.sort(matches, 0, matchCount);
+        }
+        return matchCount;
+    }
+
+    /**
+     * Gets a registration from the last {@link #match(String)} call.
+     *
+     * @param index Match index, in registration order
+     */
+    HandlerRegistration getMatch(int index) {
+        return registrations[matches[index]];
+    }
+
+    int getRegistrationCount() {
+        return registrations.length;
+    }
+
+    int getStateCount() {
+        return stateCount;
+    }
+
+    private int newState() {
+        int state = stateCount++;
+        edgeChars[state] = NO_CHARS;
+        edgeTargets[state] = NO_INTS;
+        outputs[state] = NO_INTS;
+        dictionary[state] = -1;
+        return state;
+    }
+
+    private void insert(String pattern, int registrationIndex) {
+        int state = ROOT;
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            int next = step(state, c);
+            if (next < 0) {
+                next = newState();
+                int edges = edgeChars[state].length;
+                edgeChars[state] = Arrays.copyOf(edgeChars[state], edges + 1);
+                edgeTargets[state] = Arrays.copyOf(edgeTargets[state], edges + 1);
+                edgeChars[state][edges] = c;
+                edgeTargets[state][edges] = next;
+            }
+            state = next;
+        }
+        int count = outputs[state].length;
+        outputs[state] = Arrays.copyOf(outputs[state], count + 1);
+        outputs[state][count] = registrationIndex;
+    }
+
+    /**
+     * Breadth-first pass computing failure and dictionary-suffix links.
+     */
+    private void linkFailures() {
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int child : edgeTargets[ROOT]) {
+            fail[child] = ROOT;
+            queue.add(child);
+        }
+
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            for (int e = 0; e < edgeChars[state].length; e++) {
+                char c = edgeChars[state][e];
+                int child = edgeTargets[state][e];
+
+                int f = fail[state];
+                int next = step(f, c);
+                while (next < 0 && f != ROOT) {
+                    f = fail[f];
+                    next = step(f, c);
+                }
+                fail[child] = next < 0 ? ROOT : next;
+
+                // Root outputs (empty patterns) are collected once per message, not per character
+                int suffix = fail[child];
+                dictionary[child] = suffix != ROOT && outputs[suffix].length > 0 ? suffix : dictionary[suffix];
+                queue.add(child);
+            }
+        }
+    }
+
+    private int step(int state, char c) {
+        char[] chars = edgeChars[state];
+        for (int i = 0; i < chars.length; i++) {
+            if (chars[i] == c) {
+                return edgeTargets[state][i];
+            }
+        }
+        return -1;
+    }
+
+    private void collect(int state) {
+        for (int registrationIndex : outputs[state]) {
+            if (seen[registrationIndex] != stamp) {
+                seen[registrationIndex] = stamp;
+                matches[matchCount++] = registrationIndex;
+            }
+        }
+    }
+}
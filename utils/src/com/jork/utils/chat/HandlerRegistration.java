@@ -1,5 +1,7 @@
 package com.jork.utils.chat;
 
+import java.util.regex.Pattern;
+
 /**
  * Represents a registered chatbox message handler with lifecycle management.
  *
@@ -35,11 +37,18 @@ public final class HandlerRegistration {
     private final String pattern;
     private final ChatBoxMessageHandler handler;
     private final Integer maxTriggers; // null = unlimited
+    private final Pattern regex; // null = substring handler
+    private final ChatBoxMatch match; // Reused for every message (regex handlers only)
+    private final ChatBoxMatchHandler matchHandler;
+    private final ChatFuzzyMatcher fuzzy; // null = exact substring handler
 
     private String name; // null = unnamed
     private String mappedName; // Last name stored in ChatBoxListener's map
     private int triggerCount;
     private boolean removed;
+    private int slot = -1; // Index in ChatBoxListener's slot array
+    private int generation; // Slot generation at registration - stale if the slot was freed
+    private long sequence; // Registration order
 
     /**
      * Package-private constructor. Only {@link ChatBoxListener} creates instances.
@@ -55,6 +64,57 @@ public final class HandlerRegistration {
         this.pattern = pattern;
         this.handler = handler;
         this.maxTriggers = maxTriggers;
+        this.regex = null;
+        this.match = null;
+        this.matchHandler = null;
+        this.fuzzy = null;
+        this.name = null;
+        this.triggerCount = 0;
+        this.removed = false;
+    }
+
+    /**
+     * Package-private constructor for fuzzy handlers.
+     *
+     * @param listener    The listener that owns this registration
+     * @param fuzzy       The approximate matcher (holds the lowercase pattern and max distance)
+     * @param handler     The handler to execute
+     * @param maxTriggers Maximum triggers before auto-removal (null = unlimited)
+     */
+    HandlerRegistration(ChatBoxListener listener, ChatFuzzyMatcher fuzzy,
+                        ChatBoxMessageHandler handler, Integer maxTriggers) {
+        this.listener = listener;
+        this.pattern = fuzzy.getPattern();
+        this.handler = handler;
+        this.maxTriggers = maxTriggers;
+        this.regex = null;
+        this.match = null;
+        this.matchHandler = null;
+        this.fuzzy = fuzzy;
+        this.name = null;
+        this.triggerCount = 0;
+        this.removed = false;
+    }
+
+    /**
+     * Package-private constructor for regex handlers. The pattern is compiled by the caller
+     * and one Matcher is kept for the lifetime of the registration.
+     *
+     * @param listener     The listener that owns this registration
+     * @param regex        The compiled pattern to find in the raw message
+     * @param matchHandler The handler to execute
+     * @param maxTriggers  Maximum triggers before auto-removal (null = unlimited)
+     */
+    HandlerRegistration(ChatBoxListener listener, Pattern regex,
+                        ChatBoxMatchHandler matchHandler, Integer maxTriggers) {
+        this.listener = listener;
+        this.pattern = regex.pattern();
+        this.handler = null;
+        this.maxTriggers = maxTriggers;
+        this.regex = regex;
+        this.match = new ChatBoxMatch(regex.matcher(""));
+        this.matchHandler = matchHandler;
+        this.fuzzy = null;
         this.name = null;
         this.triggerCount = 0;
         this.removed = false;
@@ -171,13 +231,92 @@ public final class HandlerRegistration {
     }
 
     /**
-     * Gets the handler callback.
+     * Checks a message against this handler's regex or fuzzy pattern.
+     * Package-private - only used by {@link ChatBoxListener}. Exact substring handlers are
+     * matched by the listener's automaton and always return true here.
+     *
+     * @param message The message to check
+     * @return true if the handler should receive the message
+     */
+    boolean matches(ChatBoxMessage message) {
+        if (regex != null) {
+            return match.find(message);
+        }
+        return fuzzy == null || fuzzy.matches(message.getLowercase());
+    }
+
+    /**
+     * Checks if this handler is fully matched by the listener's substring automaton.
+     * Package-private - regex and fuzzy handlers need {@link #matches(ChatBoxMessage)}.
+     */
+    boolean isExactSubstring() {
+        return regex == null && fuzzy == null;
+    }
+
+    /**
+     * Runs the handler callback for a message that passed {@link #matches(ChatBoxMessage)}.
      * Package-private - only used by {@link ChatBoxListener}.
      *
-     * @return The handler callback
+     * @param message The matching message
+     */
+    void invoke(ChatBoxMessage message) {
+        if (matchHandler != null) {
+            matchHandler.onMatch(match);
+        } else {
+            handler.onMessage(message);
+        }
+    }
+
+    /**
+     * Runs the handler callback on another thread, using a caller-owned match for regex handlers.
+     * Package-private - only used by {@link ChatAsyncDispatcher}.
+     *
+     * @param message The matching message
+     * @param ownMatch Match from {@link #newMatch()} (ignored for non-regex handlers)
+     */
+    void invoke(ChatBoxMessage message, ChatBoxMatch ownMatch) {
+        if (matchHandler != null) {
+            ownMatch.find(message);
+            matchHandler.onMatch(ownMatch);
+        } else {
+            handler.onMessage(message);
+        }
+    }
+
+    /**
+     * Creates a separate match object for this handler's regex.
+     *
+     * @return A new match, or null for non-regex handlers
+     */
+    ChatBoxMatch newMatch() {
+        return regex != null ? new ChatBoxMatch(regex.matcher("")) : null;
+    }
+
+    /**
+     * Checks if this is a regex handler.
+     *
+     * @return true if registered through {@code onRegex}
+     */
+    public boolean isRegex() {
+        return regex != null;
+    }
+
+    /**
+     * Checks if this is a fuzzy (edit-distance tolerant) handler.
+     *
+     * @return true if registered through {@code onFuzzy}
+     */
+    public boolean isFuzzy() {
+        return fuzzy != null;
+    }
+
+    /**
+     * Gets the maximum edit distance of a fuzzy handler.
+     *
+     * @return Maximum edit distance, or 0 for exact and regex handlers
      */
-    ChatBoxMessageHandler getHandler() {
-        return handler;
+    public int getMaxDistance() {
+        return fuzzy != null ? fuzzy.getMaxDistance() : 0;
     }
 
     /**
@@ -189,6 +328,27 @@ public final class HandlerRegistration {
         return name;
     }
 
+    /**
+     * Package-private - called by ChatBoxListener when the registration is given a slot.
+     */
+    void bindSlot(int slot, int generation, long sequence) {
+        this.slot = slot;
+        this.generation = generation;
+        this.sequence = sequence;
+    }
+
+    int getSlot() {
+        return slot;
+    }
+
+    int getGeneration() {
+        return generation;
+    }
+
+    long getSequence() {
+        return sequence;
+    }
+
     /**
      * Package-private accessor used by ChatBoxListener for map bookkeeping.
      */
@@ -213,7 +373,7 @@ public final class HandlerRegistration {
     /**
      * Gets the pattern this handler matches.
      *
-     * @return The pattern (lowercase)
+     * @return The pattern (lowercase), or the regex source for regex handlers
      */
     public String getPattern() {
         return pattern;
@@ -261,7 +421,10 @@ public final class HandlerRegistration {
         if (name != null) {
             sb.append("name='").append(name).append("', ");
         }
-        sb.append("pattern='").append(pattern).append("'");
+        sb.append(regex != null ? "regex='" : "pattern='").append(pattern).append("'");
+        if (fuzzy != null) {
+            sb.append(", maxDistance=").append(fuzzy.getMaxDistance());
+        }
         if (maxTriggers != null) {
             sb.append(", triggers=").append(triggerCount).append("/").append(maxTriggers);
         } else {
@@ -211,8 +211,8 @@ public class XPMetricProvider {
                 double gained = currentXP - lastKnownXP;
                 tracker.incrementXp(gained);
                 int totalGained = currentXP - startingXP;
-                ScriptLogger.debug(script, skillType + " XP gained this tick: " + gained + 
-                                 " | Total gained: " + totalGained + " | Current XP: " + currentXP);
+                ScriptLogger.debug(script, "%s XP gained this tick: %s | Total gained: %d | Current XP: %d",
+                                 skillType, gained, totalGained, currentXP);
             }
             lastKnownXP = currentXP;
         }